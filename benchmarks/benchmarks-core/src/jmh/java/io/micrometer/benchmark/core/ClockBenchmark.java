@@ -0,0 +1,87 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.CoarseClock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading {@link Clock#SYSTEM} with reading a {@link CoarseClock} that ticks every millisecond, and timing a
+ * trivial operation with a sample started and stopped on each.
+ */
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ClockBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ClockBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Param({"system", "coarse"})
+    private String clockType;
+
+    private Clock clock;
+    private Timer timer;
+
+    @Setup
+    public void setup() {
+        clock = "coarse".equals(clockType) ? new CoarseClock(Duration.ofMillis(1)) : Clock.SYSTEM;
+        MeterRegistry registry = new SimpleMeterRegistry();
+        timer = registry.timer("timer");
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (clock instanceof CoarseClock) {
+            ((CoarseClock) clock).close();
+        }
+    }
+
+    @Benchmark
+    public long monotonicTime() {
+        return clock.monotonicTime();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long monotonicTimeContended() {
+        return clock.monotonicTime();
+    }
+
+    @Benchmark
+    public long sample() {
+        Timer.Sample sample = Timer.start(clock);
+        return sample.stop(timer);
+    }
+}
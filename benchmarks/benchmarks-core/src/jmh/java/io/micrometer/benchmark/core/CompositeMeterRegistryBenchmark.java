@@ -0,0 +1,98 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares recording to meters of a {@link CompositeMeterRegistry} with recording to the same meters of its
+ * child registries directly. Run with the GC profiler to compare allocation rates.
+ */
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CompositeMeterRegistryBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CompositeMeterRegistryBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Param({"1", "2"})
+    private int childRegistries;
+
+    private Counter compositeCounter;
+    private Timer compositeTimer;
+
+    private Counter[] counters;
+    private Timer[] timers;
+
+    @Setup
+    public void setup() {
+        CompositeMeterRegistry composite = new CompositeMeterRegistry();
+        counters = new Counter[childRegistries];
+        timers = new Timer[childRegistries];
+        for (int i = 0; i < childRegistries; i++) {
+            MeterRegistry child = new SimpleMeterRegistry();
+            composite.add(child);
+            counters[i] = child.counter("counter");
+            timers[i] = child.timer("timer");
+        }
+        compositeCounter = composite.counter("counter");
+        compositeTimer = composite.timer("timer");
+    }
+
+    @Benchmark
+    public void compositeCounter() {
+        compositeCounter.increment();
+    }
+
+    @Benchmark
+    public void directCounter() {
+        for (Counter counter : counters) {
+            counter.increment();
+        }
+    }
+
+    @Benchmark
+    public void compositeTimer() {
+        compositeTimer.record(10, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    public void directTimer() {
+        for (Timer timer : timers) {
+            timer.record(10, TimeUnit.MILLISECONDS);
+        }
+    }
+}
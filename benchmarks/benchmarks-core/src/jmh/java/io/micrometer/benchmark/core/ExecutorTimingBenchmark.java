@@ -0,0 +1,103 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.binder.jvm.TimedThreadPoolExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures running a batch of trivial tasks on a thread pool that isn't timed, one wrapped by
+ * {@link ExecutorServiceMetrics#monitor(MeterRegistry, ExecutorService, String, Iterable)}, and a
+ * {@link TimedThreadPoolExecutor}. Run with {@code -prof gc} to compare allocations per operation.
+ */
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ExecutorTimingBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ExecutorTimingBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final int TASKS = 1000;
+
+    @Param({"untimed", "wrapped", "hooked"})
+    private String mode;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        switch (mode) {
+            case "wrapped":
+                executor = ExecutorServiceMetrics.monitor(registry, newThreadPool(), "pool", Tags.empty());
+                break;
+            case "hooked":
+                executor = new TimedThreadPoolExecutor(registry, "pool", Tags.empty(), 2, 2, 0, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>());
+                break;
+            default:
+                executor = newThreadPool();
+        }
+    }
+
+    private static ThreadPoolExecutor newThreadPool() {
+        return new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void execute() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(TASKS);
+        Runnable task = done::countDown;
+        for (int i = 0; i < TASKS; i++) {
+            executor.execute(task);
+        }
+        done.await();
+    }
+
+    @Benchmark
+    public void submit() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(TASKS);
+        Runnable task = done::countDown;
+        for (int i = 0; i < TASKS; i++) {
+            executor.submit(task);
+        }
+        done.await();
+    }
+}
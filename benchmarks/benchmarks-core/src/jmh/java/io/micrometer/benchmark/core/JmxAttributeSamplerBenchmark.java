@@ -0,0 +1,211 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.JmxAttributeSampler;
+import io.micrometer.core.instrument.binder.commonspool2.CommonsObjectPool2Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one scrape of the Commons Pool 2 meters of many pools, where each meter used to check the pool is registered
+ * and then read its attribute with its own {@link MBeanServer#getAttribute(ObjectName, String)} call, versus the
+ * binder's meters fetching their attribute with one call, versus samplers that share one sample per pool.
+ */
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class JmxAttributeSamplerBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(JmxAttributeSamplerBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    private static final String[] ATTRIBUTES = {"NumIdle", "NumActive", "NumWaiters", "CreatedCount", "BorrowedCount",
+            "ReturnedCount", "DestroyedCount", "DestroyedByEvictorCount", "DestroyedByBorrowValidationCount",
+            "MaxBorrowWaitTimeMillis", "MeanActiveTimeMillis", "MeanIdleTimeMillis", "MeanBorrowWaitTimeMillis"};
+
+    @Param({"100", "500"})
+    private int poolCount;
+
+    private MBeanServer mBeanServer;
+    private final List<ObjectName> pools = new ArrayList<>();
+    private final List<JmxAttributeSampler> sharedSamplers = new ArrayList<>();
+    private CommonsObjectPool2Metrics metrics;
+    private MeterRegistry registry;
+
+    @Setup
+    public void setup() throws JMException {
+        mBeanServer = MBeanServerFactory.newMBeanServer();
+        for (int i = 0; i < poolCount; i++) {
+            ObjectName name = new ObjectName("org.apache.commons.pool2:type=GenericObjectPool,name=pool" + i);
+            mBeanServer.registerMBean(new Pool(), name);
+            pools.add(name);
+            sharedSamplers.add(new JmxAttributeSampler(mBeanServer, name, Clock.SYSTEM, Duration.ofSeconds(1)));
+        }
+
+        registry = new SimpleMeterRegistry();
+        metrics = new CommonsObjectPool2Metrics(mBeanServer, Tags.empty());
+        metrics.bindTo(registry);
+    }
+
+    @TearDown
+    public void tearDown() {
+        metrics.close();
+    }
+
+    @Benchmark
+    public void getAttributePerMeter(Blackhole blackhole) throws JMException {
+        for (ObjectName pool : pools) {
+            for (String attribute : ATTRIBUTES) {
+                if (mBeanServer.isRegistered(pool)) {
+                    blackhole.consume(Double.parseDouble(mBeanServer.getAttribute(pool, attribute).toString()));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void sampledScrape(Blackhole blackhole) {
+        for (Meter meter : registry.getMeters()) {
+            for (io.micrometer.core.instrument.Measurement measurement : meter.measure()) {
+                blackhole.consume(measurement.getValue());
+            }
+        }
+    }
+
+    @Benchmark
+    public void sharedSample(Blackhole blackhole) {
+        for (JmxAttributeSampler sampler : sharedSamplers) {
+            for (String attribute : ATTRIBUTES) {
+                blackhole.consume(sampler.get(attribute));
+            }
+        }
+    }
+
+    public interface PoolMBean {
+        String getFactoryType();
+        int getNumIdle();
+        int getNumActive();
+        int getNumWaiters();
+        long getCreatedCount();
+        long getBorrowedCount();
+        long getReturnedCount();
+        long getDestroyedCount();
+        long getDestroyedByEvictorCount();
+        long getDestroyedByBorrowValidationCount();
+        long getMaxBorrowWaitTimeMillis();
+        long getMeanActiveTimeMillis();
+        long getMeanIdleTimeMillis();
+        long getMeanBorrowWaitTimeMillis();
+    }
+
+    public static class Pool implements PoolMBean {
+        @Override
+        public String getFactoryType() {
+            return "com.example.ConnectionFactory";
+        }
+
+        @Override
+        public int getNumIdle() {
+            return 4;
+        }
+
+        @Override
+        public int getNumActive() {
+            return 4;
+        }
+
+        @Override
+        public int getNumWaiters() {
+            return 0;
+        }
+
+        @Override
+        public long getCreatedCount() {
+            return 8;
+        }
+
+        @Override
+        public long getBorrowedCount() {
+            return 1000;
+        }
+
+        @Override
+        public long getReturnedCount() {
+            return 996;
+        }
+
+        @Override
+        public long getDestroyedCount() {
+            return 0;
+        }
+
+        @Override
+        public long getDestroyedByEvictorCount() {
+            return 0;
+        }
+
+        @Override
+        public long getDestroyedByBorrowValidationCount() {
+            return 0;
+        }
+
+        @Override
+        public long getMaxBorrowWaitTimeMillis() {
+            return 12;
+        }
+
+        @Override
+        public long getMeanActiveTimeMillis() {
+            return 3;
+        }
+
+        @Override
+        public long getMeanIdleTimeMillis() {
+            return 250;
+        }
+
+        @Override
+        public long getMeanBorrowWaitTimeMillis() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2017 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures looking up an already registered meter through the registry, with a varying number of
+ * {@link MeterFilter}s configured. {@link #applyFilterChain()} measures the cost of mapping the id through the
+ * same filters, which every lookup used to pay before existing meters were cached by their pre-filter id.
+ * Run with {@code -prof gc} to compare allocations per operation.
+ */
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class MeterLookupBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(MeterLookupBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Param({"0", "1", "10"})
+    private int filterCount;
+
+    private MeterRegistry registry;
+    private final List<MeterFilter> filters = new ArrayList<>();
+    private Meter.Id id;
+
+    @Setup
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+        for (int i = 0; i < filterCount; i++) {
+            MeterFilter filter = i % 2 == 0 ?
+                    MeterFilter.commonTags(Tags.of("common" + i, "value")) :
+                    MeterFilter.renameTag("my", "k" + i, "renamed" + i);
+            filters.add(filter);
+            registry.config().meterFilter(filter);
+        }
+        for (int i = 0; i < 1000; i++) {
+            registry.counter("my.counter", "k1", "v" + i, "k2", "v2");
+        }
+        id = new Meter.Id("my.counter", Tags.of("k1", "v1", "k2", "v2"), null, null, Meter.Type.COUNTER);
+    }
+
+    @Benchmark
+    public Counter lookupExistingCounter() {
+        return registry.counter("my.counter", "k1", "v1", "k2", "v2");
+    }
+
+    @Benchmark
+    public Meter.Id applyFilterChain() {
+        Meter.Id mappedId = id;
+        for (MeterFilter filter : filters) {
+            mappedId = filter.map(mappedId);
+        }
+        return mappedId;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.core.instrument.util.MeterPartition;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures handing every meter of a large registry to a publisher in batches, as push registries do once per step,
+ * by copying the meters into a list and partitioning it versus cutting batches straight from the registry.
+ * Run with {@code -prof gc} to compare allocations per operation.
+ */
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MeterPartitionBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(MeterPartitionBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Param({"10000", "200000"})
+    private int meterCount;
+
+    private MeterRegistry registry;
+
+    @Setup
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+        for (int i = 0; i < meterCount; i++) {
+            registry.counter("counter", "index", Integer.toString(i));
+        }
+    }
+
+    @Benchmark
+    public void partition(Blackhole blackhole) {
+        for (List<Meter> batch : MeterPartition.partition(registry, 10000)) {
+            publish(batch, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void forEachPartition(Blackhole blackhole) {
+        MeterPartition.forEachPartition(registry, 10000, batch -> publish(batch, blackhole));
+    }
+
+    private static void publish(List<Meter> batch, Blackhole blackhole) {
+        for (Meter meter : batch) {
+            blackhole.consume(meter);
+        }
+    }
+}
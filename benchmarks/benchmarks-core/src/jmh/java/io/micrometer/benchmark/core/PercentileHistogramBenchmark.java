@@ -0,0 +1,161 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.Histogram;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.TimeWindowLogLinearHistogram;
+import io.micrometer.core.instrument.distribution.TimeWindowPercentileHistogram;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the HdrHistogram based {@link TimeWindowPercentileHistogram} with {@link TimeWindowLogLinearHistogram}.
+ * <p>
+ * Run with the GC profiler, {@code footprint} allocates a histogram and fills it with a typical latency
+ * distribution, so its normalized allocation rate ({@code gc.alloc.rate.norm}) approximates the memory
+ * retained by each timer publishing percentiles. {@code accuracy} reports the maximum relative error of the
+ * percentiles of both as the {@code maxRelativeError} secondary result.
+ */
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PercentileHistogramBenchmark {
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PercentileHistogramBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Param({"hdr", "logLinear"})
+    private String type;
+
+    @Param({"1", "2"})
+    private int precision;
+
+    private Histogram histogram;
+
+    @Setup
+    public void setup() {
+        histogram = histogram(type, precision);
+        for (int i = 0; i < 10_000; i++) {
+            histogram.recordLong(latencyNanos(ThreadLocalRandom.current().nextGaussian()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        histogram.close();
+    }
+
+    @Benchmark
+    public void record() {
+        histogram.recordLong(latencyNanos(ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    @Benchmark
+    public HistogramSnapshot snapshot() {
+        // record so that every snapshot has to accumulate the ring buffer again
+        histogram.recordLong(latencyNanos(ThreadLocalRandom.current().nextGaussian()));
+        return histogram.takeSnapshot(0, 0, 0);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public Histogram footprint() {
+        Histogram fresh = histogram(type, precision);
+        for (int i = 0; i < 1_000; i++) {
+            fresh.recordLong(latencyNanos(ThreadLocalRandom.current().nextGaussian()));
+        }
+        fresh.takeSnapshot(0, 0, 0);
+        return fresh;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void accuracy(Accuracy accuracy) {
+        accuracy.maxRelativeError = maxRelativeError(type, precision);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Accuracy {
+        public double maxRelativeError;
+    }
+
+    private static Histogram histogram(String type, int precision) {
+        // the defaults registries apply to timers
+        DistributionStatisticConfig config = DistributionStatisticConfig.builder()
+                .percentiles(PERCENTILES)
+                .percentilePrecision(precision)
+                .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                .maximumExpectedValue((double) Duration.ofSeconds(30).toNanos())
+                .build()
+                .merge(DistributionStatisticConfig.DEFAULT);
+
+        return "hdr".equals(type) ?
+                new TimeWindowPercentileHistogram(Clock.SYSTEM, config, false) :
+                new TimeWindowLogLinearHistogram(Clock.SYSTEM, config, false);
+    }
+
+    /**
+     * @return A log-normal latency around 20ms.
+     */
+    private static long latencyNanos(double gaussian) {
+        return (long) (Math.exp(gaussian) * Duration.ofMillis(20).toNanos());
+    }
+
+    private static double maxRelativeError(String type, int precision) {
+        Random random = new Random(42);
+        long[] samples = new long[100_000];
+        try (Histogram histogram = histogram(type, precision)) {
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = latencyNanos(random.nextGaussian());
+                histogram.recordLong(samples[i]);
+            }
+            Arrays.sort(samples);
+
+            double maxRelativeError = 0;
+            for (ValueAtPercentile percentile : histogram.takeSnapshot(0, 0, 0).percentileValues()) {
+                long expected = samples[(int) Math.ceil(percentile.percentile() * samples.length) - 1];
+                maxRelativeError = Math.max(maxRelativeError, Math.abs(percentile.value() - expected) / expected);
+            }
+            return maxRelativeError;
+        }
+    }
+}
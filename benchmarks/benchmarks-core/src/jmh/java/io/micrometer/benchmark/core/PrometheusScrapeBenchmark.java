@@ -0,0 +1,157 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scrapes a {@link PrometheusMeterRegistry} holding a realistic mix of counters, gauges and timers, a tenth of
+ * them with percentile histograms. Compares streaming the scrape with collecting {@code MetricFamilySamples} and
+ * formatting them with {@link TextFormat}, as scrapes used to, and the text format with the protobuf format. Run with
+ * the GC profiler to compare allocations. The size of the scrape body in each format is reported as the
+ * {@code bytes} secondary result.
+ */
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PrometheusScrapeBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PrometheusScrapeBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    /**
+     * Number of meters, each meter being one to more than a hundred series.
+     */
+    @Param({"1000", "10000"})
+    private int meters;
+
+    private PrometheusMeterRegistry registry;
+
+    private final CountingOutputStream outputStream = new CountingOutputStream();
+
+    @Setup
+    public void setup() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        for (int i = 0; i < meters; i++) {
+            String uri = "/api/resource/" + (i / 10);
+            String status = String.valueOf(200 + (i % 10));
+            switch (i % 3) {
+                case 0:
+                    Counter.builder("http.client.requests.count")
+                            .tags("uri", uri, "status", status, "method", "GET")
+                            .register(registry)
+                            .increment(i);
+                    break;
+                case 1:
+                    Gauge.builder("pool.active", () -> ThreadLocalRandom.current().nextInt(100))
+                            .tags("uri", uri, "status", status, "pool", "pool-" + i)
+                            .register(registry);
+                    break;
+                default:
+                    Timer timer = Timer.builder("http.server.requests")
+                            .tags("uri", uri, "status", status, "method", "POST")
+                            .publishPercentileHistogram(i % 10 == 2)
+                            .register(registry);
+                    for (int j = 0; j < 10; j++) {
+                        timer.record(ThreadLocalRandom.current().nextInt(1, 5000), TimeUnit.MILLISECONDS);
+                    }
+                    break;
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        registry.close();
+    }
+
+    @Benchmark
+    public String scrapeToString() {
+        return registry.scrape();
+    }
+
+    @Benchmark
+    public void scrapeToOutputStream(ScrapeSize size) throws IOException {
+        outputStream.count = 0;
+        registry.scrape(outputStream, TextFormat.CONTENT_TYPE_004);
+        size.bytes = outputStream.count;
+    }
+
+    @Benchmark
+    public void scrapeProtobufToOutputStream(ScrapeSize size) throws IOException {
+        outputStream.count = 0;
+        registry.scrape(outputStream, PrometheusMeterRegistry.CONTENT_TYPE_PROTOBUF);
+        size.bytes = outputStream.count;
+    }
+
+    @Benchmark
+    public void collectAndFormat(ScrapeSize size) throws IOException {
+        outputStream.count = 0;
+        Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        TextFormat.write004(writer, registry.getPrometheusRegistry().metricFamilySamples());
+        writer.flush();
+        size.bytes = outputStream.count;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ScrapeSize {
+        public long bytes;
+    }
+
+    /**
+     * Discards the scrape body, only counting its bytes.
+     */
+    private static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
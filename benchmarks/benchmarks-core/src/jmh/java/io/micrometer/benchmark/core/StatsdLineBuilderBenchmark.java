@@ -0,0 +1,100 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Statistic;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.core.instrument.util.HierarchicalNameMapper;
+import io.micrometer.statsd.StatsdFlavor;
+import io.micrometer.statsd.StatsdLineBuilder;
+import io.micrometer.statsd.internal.DatadogStatsdLineBuilder;
+import io.micrometer.statsd.internal.EtsyStatsdLineBuilder;
+import io.micrometer.statsd.internal.SysdigStatsdLineBuilder;
+import io.micrometer.statsd.internal.TelegrafStatsdLineBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing a single StatsD line for each flavor. Run with the GC profiler to compare allocation per line.
+ */
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class StatsdLineBuilderBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(StatsdLineBuilderBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Param({"DATADOG", "ETSY", "TELEGRAF", "SYSDIG"})
+    private StatsdFlavor flavor;
+
+    private StatsdLineBuilder lineBuilder;
+
+    private long count;
+
+    @Setup
+    public void setup() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Meter.Id id = registry.counter("http.server.requests",
+                Tags.of("method", "GET", "status", "200", "uri", "/api/customers/{id}")).getId();
+
+        switch (flavor) {
+            case DATADOG:
+                lineBuilder = new DatadogStatsdLineBuilder(id, registry.config());
+                break;
+            case TELEGRAF:
+                lineBuilder = new TelegrafStatsdLineBuilder(id, registry.config());
+                break;
+            case SYSDIG:
+                lineBuilder = new SysdigStatsdLineBuilder(id, registry.config());
+                break;
+            case ETSY:
+            default:
+                lineBuilder = new EtsyStatsdLineBuilder(id, registry.config(), HierarchicalNameMapper.DEFAULT);
+        }
+    }
+
+    @Benchmark
+    public String count() {
+        return lineBuilder.count(++count);
+    }
+
+    @Benchmark
+    public String gauge() {
+        return lineBuilder.gauge(42.5, Statistic.VALUE);
+    }
+
+    @Benchmark
+    public String timing() {
+        return lineBuilder.timing(12.345);
+    }
+}
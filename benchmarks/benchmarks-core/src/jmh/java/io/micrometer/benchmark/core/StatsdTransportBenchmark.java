@@ -0,0 +1,184 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.statsd.StatsdConfig;
+import io.micrometer.statsd.StatsdMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compares recording throughput of counters shipped to a local UDP socket through the Reactor Netty pipeline and
+ * through the ring buffer transport. Lines received and dropped during each iteration are reported as the
+ * {@code linesReceived} and {@code linesDropped} secondary results, since throughput alone doesn't tell whether
+ * lines made it to the agent.
+ */
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class StatsdTransportBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(StatsdTransportBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Param({"0", "65536"})
+    private int ringBufferSize;
+
+    private DatagramChannel agent;
+    private Thread receiver;
+    private final AtomicLong linesReceived = new AtomicLong();
+    private final AtomicReference<IOException> receiveFailure = new AtomicReference<>();
+
+    private final AtomicBoolean iterationDeliveryCollected = new AtomicBoolean();
+    private long linesReceivedBeforeIteration;
+    private double linesDroppedBeforeIteration;
+
+    private StatsdMeterRegistry registry;
+    private Counter counter;
+
+    @Setup
+    public void setup() throws IOException {
+        agent = DatagramChannel.open().bind(new InetSocketAddress("127.0.0.1", 0));
+        int port = ((InetSocketAddress) agent.getLocalAddress()).getPort();
+
+        receiver = new Thread(() -> {
+            ByteBuffer buffer = ByteBuffer.allocate(65536);
+            try {
+                while (true) {
+                    buffer.clear();
+                    agent.receive(buffer);
+                    buffer.flip();
+                    long lines = 0;
+                    while (buffer.hasRemaining()) {
+                        if (buffer.get() == '\n') {
+                            lines++;
+                        }
+                    }
+                    linesReceived.addAndGet(lines);
+                }
+            } catch (ClosedChannelException ignored) {
+            } catch (IOException e) {
+                // rethrown when tearing down the trial
+                receiveFailure.set(e);
+            }
+        }, "statsd-agent");
+        receiver.setDaemon(true);
+        receiver.start();
+
+        registry = new StatsdMeterRegistry(new StatsdConfig() {
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public String host() {
+                return "127.0.0.1";
+            }
+
+            @Override
+            public int port() {
+                return port;
+            }
+
+            @Override
+            public int ringBufferSize() {
+                return ringBufferSize;
+            }
+        }, Clock.SYSTEM);
+        counter = registry.counter("counter", "tag", "value");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        registry.close();
+        // let the agent drain its socket buffer
+        Thread.sleep(500);
+        agent.close();
+        receiver.join();
+
+        IOException failure = receiveFailure.get();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        iterationDeliveryCollected.set(false);
+        linesReceivedBeforeIteration = linesReceived.get();
+        linesDroppedBeforeIteration = linesDropped();
+    }
+
+    private double linesDropped() {
+        double dropped = 0;
+        for (FunctionCounter fc : registry.find("statsd.lines.dropped").functionCounters()) {
+            dropped += fc.count();
+        }
+        return dropped;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Delivery {
+        public long linesReceived;
+        public long linesDropped;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            linesReceived = 0;
+            linesDropped = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void collect(StatsdTransportBenchmark benchmark) {
+            // the counters of all threads are added up, so only the first one to get here reports the iteration
+            if (benchmark.iterationDeliveryCollected.compareAndSet(false, true)) {
+                linesReceived = benchmark.linesReceived.get() - benchmark.linesReceivedBeforeIteration;
+                linesDropped = (long) (benchmark.linesDropped() - benchmark.linesDroppedBeforeIteration);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void increment(Delivery delivery) {
+        counter.increment();
+    }
+}
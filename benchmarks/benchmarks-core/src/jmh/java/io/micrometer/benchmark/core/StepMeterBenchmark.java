@@ -0,0 +1,107 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.step.StepMeterRegistry;
+import io.micrometer.core.instrument.step.StepRegistryConfig;
+import io.micrometer.core.instrument.util.NamedThreadFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures recording to and polling step meters. Both read the clock and compare it with the end of the step shared
+ * by the registry's meters, working out the step from the clock only once it has ended. Once the registry is started,
+ * its publisher also advances that step just after each boundary.
+ */
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class StepMeterBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(StepMeterBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Param({"false", "true"})
+    private boolean started;
+
+    private StepMeterRegistry registry;
+    private Counter counter;
+    private Timer timer;
+
+    @Setup
+    public void setup() {
+        registry = new StepMeterRegistry(new StepRegistryConfig() {
+            @Override
+            public String prefix() {
+                return "bench";
+            }
+
+            @Override
+            public String get(String key) {
+                return null;
+            }
+        }, Clock.SYSTEM) {
+            @Override
+            protected void publish() {
+            }
+
+            @Override
+            protected TimeUnit getBaseTimeUnit() {
+                return TimeUnit.SECONDS;
+            }
+        };
+        counter = registry.counter("counter");
+        timer = registry.timer("timer");
+        if (started) {
+            registry.start(new NamedThreadFactory("step-meter-benchmark"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        registry.close();
+    }
+
+    @Benchmark
+    public void increment() {
+        counter.increment();
+    }
+
+    @Benchmark
+    public void record() {
+        timer.record(1, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    public double poll() {
+        return counter.count() + timer.count() + timer.totalTime(TimeUnit.SECONDS);
+    }
+}
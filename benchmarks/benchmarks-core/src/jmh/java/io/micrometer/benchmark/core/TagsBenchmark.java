@@ -15,7 +15,9 @@
  */
 package io.micrometer.benchmark.core;
 
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TagsInterner;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -29,7 +31,14 @@ import java.util.concurrent.TimeUnit;
 @Warmup(iterations = 2)
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
 public class TagsBenchmark {
+    private final Tags base = Tags.of("key", "value", "key3", "value3", "key5", "value5");
+    private final Tags other = Tags.of("key2", "value2", "key4", "value4");
+    private final TagsInterner interner = new TagsInterner(1024);
+    private final Meter.Id id = new Meter.Id("my.counter", base.and(other), null, null, Meter.Type.COUNTER);
+    private final Meter.Id internedId = new Meter.Id("my.counter", interner.intern(base.and(other)), null, null, Meter.Type.COUNTER);
+
     @Threads(16)
     @Benchmark
     public void of() {
@@ -42,9 +51,40 @@ public class TagsBenchmark {
         Tags.of("key", "value").and("key2", "value2", "key3", "value3", "key4", "value4", "key5", "value5");
     }
 
+    @Threads(16)
+    @Benchmark
+    public Tags andTags() {
+        return base.and(other);
+    }
+
+    @Threads(16)
+    @Benchmark
+    public Tags andSingleTag() {
+        return base.and("key2", "value2");
+    }
+
+    @Threads(16)
+    @Benchmark
+    public int hashCodeOfNewTags() {
+        return base.and(other).hashCode();
+    }
+
+    @Threads(16)
+    @Benchmark
+    public boolean idEquals() {
+        return id.equals(new Meter.Id("my.counter", base.and(other), null, null, Meter.Type.COUNTER));
+    }
+
+    @Threads(16)
+    @Benchmark
+    public boolean idEqualsInterned() {
+        return internedId.equals(new Meter.Id("my.counter", interner.intern(base.and(other)), null, null, Meter.Type.COUNTER));
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(TagsBenchmark.class.getSimpleName())
+                .addProfiler("gc")
                 .build();
         new Runner(opt).run();
     }
@@ -0,0 +1,232 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.Histogram;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.PercentileHistogramBuckets;
+import io.micrometer.core.instrument.distribution.TimeWindowFixedBoundaryHistogram;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.NavigableSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compares recording to a percentile histogram from many threads at once, with and without striping,
+ * while the ring buffer rotates and snapshots are taken. The baseline is the histogram as it was before
+ * rotation stopped blocking recorders, which records to every bucket and rotates under the histogram's monitor.
+ */
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TimeWindowFixedBoundaryHistogramBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TimeWindowFixedBoundaryHistogramBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Param({"baseline", "unstriped", "striped"})
+    private String implementation;
+
+    private Histogram histogram;
+
+    @Setup
+    public void setup() {
+        // rotate often, so that recording regularly races with rotation
+        DistributionStatisticConfig config = DistributionStatisticConfig.builder()
+                .percentilesHistogram(true)
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1_000_000.0)
+                .expiry(Duration.ofMillis(300))
+                .bufferLength(3)
+                .stripedHistogram("striped".equals(implementation))
+                .build()
+                .merge(DistributionStatisticConfig.DEFAULT);
+
+        histogram = "baseline".equals(implementation) ?
+                new SynchronizedRotationHistogram(Clock.SYSTEM, config) :
+                new TimeWindowFixedBoundaryHistogram(Clock.SYSTEM, config, true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        histogram.close();
+    }
+
+    @Threads(Threads.MAX)
+    @Benchmark
+    public void recordContended() {
+        histogram.recordLong(ThreadLocalRandom.current().nextInt(1_000_000));
+    }
+
+    @Benchmark
+    @Group("recordAndSnapshot")
+    @GroupThreads(7)
+    public void record() {
+        histogram.recordLong(ThreadLocalRandom.current().nextInt(1_000_000));
+    }
+
+    @Benchmark
+    @Group("recordAndSnapshot")
+    @GroupThreads(1)
+    public HistogramSnapshot snapshot() {
+        return histogram.takeSnapshot(0, 0, 0);
+    }
+
+    /**
+     * {@link TimeWindowFixedBoundaryHistogram} and the parts of its base class on the record and snapshot paths, as
+     * they were before rotation stopped blocking recorders: every sample is counted in every bucket of the ring buffer,
+     * and rotation and snapshots hold the histogram's monitor.
+     */
+    private static class SynchronizedRotationHistogram implements Histogram {
+        private static final AtomicIntegerFieldUpdater<SynchronizedRotationHistogram> rotatingUpdater =
+                AtomicIntegerFieldUpdater.newUpdater(SynchronizedRotationHistogram.class, "rotating");
+
+        private final Clock clock;
+        private final double[] buckets;
+        private final AtomicLongArray[] ringBuffer;
+        private short currentBucket;
+        private final long durationBetweenRotatesMillis;
+
+        private volatile long lastRotateTimestampMillis;
+
+        @SuppressWarnings({"unused", "FieldCanBeLocal"})
+        private volatile int rotating; // 0 - not rotating, 1 - rotating
+
+        SynchronizedRotationHistogram(Clock clock, DistributionStatisticConfig config) {
+            this.clock = clock;
+
+            NavigableSet<Double> histogramBuckets = config.getHistogramBuckets(true);
+            histogramBuckets.addAll(PercentileHistogramBuckets.buckets(config));
+            this.buckets = histogramBuckets.stream().mapToDouble(Double::doubleValue).toArray();
+
+            this.ringBuffer = new AtomicLongArray[config.getBufferLength()];
+            for (int i = 0; i < ringBuffer.length; i++) {
+                ringBuffer[i] = new AtomicLongArray(buckets.length);
+            }
+
+            this.durationBetweenRotatesMillis = config.getExpiry().toMillis() / ringBuffer.length;
+            this.lastRotateTimestampMillis = clock.wallTime();
+        }
+
+        @Override
+        public HistogramSnapshot takeSnapshot(long count, double total, double max) {
+            rotate();
+
+            CountAtBucket[] counts = new CountAtBucket[buckets.length];
+            synchronized (this) {
+                for (int i = 0; i < buckets.length; i++) {
+                    counts[i] = new CountAtBucket(buckets[i], countAtValue(ringBuffer[currentBucket], buckets[i]));
+                }
+            }
+
+            return new HistogramSnapshot(count, total, max, null, counts, null);
+        }
+
+        @Override
+        public void recordLong(long value) {
+            rotate();
+            int index = leastLessThanOrEqualTo(value);
+            if (index > -1) {
+                for (AtomicLongArray bucket : ringBuffer) {
+                    bucket.incrementAndGet(index);
+                }
+            }
+        }
+
+        @Override
+        public void recordDouble(double value) {
+            recordLong((long) Math.ceil(value));
+        }
+
+        private long countAtValue(AtomicLongArray values, double value) {
+            int index = Arrays.binarySearch(buckets, value);
+            if (index < 0)
+                return 0;
+            long count = 0;
+            for (int i = 0; i <= index; i++)
+                count += values.get(i);
+            return count;
+        }
+
+        private int leastLessThanOrEqualTo(long key) {
+            int low = 0;
+            int high = buckets.length - 1;
+
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (buckets[mid] < key)
+                    low = mid + 1;
+                else if (buckets[mid] > key)
+                    high = mid - 1;
+                else
+                    return mid; // exact match
+            }
+
+            return low < buckets.length ? low : -1;
+        }
+
+        private void rotate() {
+            long timeSinceLastRotateMillis = clock.wallTime() - lastRotateTimestampMillis;
+            if (timeSinceLastRotateMillis < durationBetweenRotatesMillis) {
+                // Need to wait more for next rotation.
+                return;
+            }
+
+            if (!rotatingUpdater.compareAndSet(this, 0, 1)) {
+                // Being rotated by other thread already.
+                return;
+            }
+
+            try {
+                int iterations = 0;
+                synchronized (this) {
+                    do {
+                        AtomicLongArray bucket = ringBuffer[currentBucket];
+                        for (int i = 0; i < bucket.length(); i++) {
+                            bucket.set(i, 0);
+                        }
+                        if (++currentBucket >= ringBuffer.length) {
+                            currentBucket = 0;
+                        }
+                        timeSinceLastRotateMillis -= durationBetweenRotatesMillis;
+                        lastRotateTimestampMillis += durationBetweenRotatesMillis;
+                    } while (timeSinceLastRotateMillis >= durationBetweenRotatesMillis && ++iterations < ringBuffer.length);
+                }
+            } finally {
+                rotating = 0;
+            }
+        }
+    }
+}
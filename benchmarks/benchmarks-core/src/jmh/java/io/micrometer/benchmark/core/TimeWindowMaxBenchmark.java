@@ -0,0 +1,195 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.distribution.TimeWindowMax;
+import io.micrometer.core.instrument.util.TimeUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares recording to a {@link TimeWindowMax} from many threads at once, with and without striping. The baseline is
+ * the max as it was before it recorded only to the newest bucket, which updates every bucket of the ring buffer.
+ */
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TimeWindowMaxBenchmark {
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TimeWindowMaxBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Param({"baseline", "unstriped", "striped"})
+    private String implementation;
+
+    private Max max;
+
+    @Setup
+    public void setup() {
+        // rotate often, so that the max is regularly reset and recording keeps updating it
+        if ("baseline".equals(implementation)) {
+            max = new AllBucketsTimeWindowMax(Clock.SYSTEM, 100, 3);
+        } else {
+            TimeWindowMax timeWindowMax = new TimeWindowMax(Clock.SYSTEM, 100, 3, "striped".equals(implementation));
+            max = new Max() {
+                @Override
+                public void record(double sample, TimeUnit timeUnit) {
+                    timeWindowMax.record(sample, timeUnit);
+                }
+
+                @Override
+                public double poll(TimeUnit timeUnit) {
+                    return timeWindowMax.poll(timeUnit);
+                }
+            };
+        }
+    }
+
+    @Threads(Threads.MAX)
+    @Benchmark
+    public void recordContended() {
+        max.record(ThreadLocalRandom.current().nextInt(1_000_000), TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    @Group("recordAndPoll")
+    @GroupThreads(7)
+    public void record() {
+        max.record(ThreadLocalRandom.current().nextInt(1_000_000), TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    @Group("recordAndPoll")
+    @GroupThreads(1)
+    public double poll() {
+        return max.poll(TimeUnit.NANOSECONDS);
+    }
+
+    private interface Max {
+        void record(double sample, TimeUnit timeUnit);
+
+        double poll(TimeUnit timeUnit);
+    }
+
+    /**
+     * The record and poll paths of {@link TimeWindowMax} for timers, as they were before it recorded only to the newest
+     * bucket: every sample is compared and set against every bucket of the ring buffer.
+     */
+    private static class AllBucketsTimeWindowMax implements Max {
+        private static final AtomicIntegerFieldUpdater<AllBucketsTimeWindowMax> rotatingUpdater =
+                AtomicIntegerFieldUpdater.newUpdater(AllBucketsTimeWindowMax.class, "rotating");
+
+        private final Clock clock;
+        private final long durationBetweenRotatesMillis;
+        private final AtomicLong[] ringBuffer;
+        private int currentBucket;
+        private volatile long lastRotateTimestampMillis;
+
+        @SuppressWarnings({"unused", "FieldCanBeLocal"})
+        private volatile int rotating; // 0 - not rotating, 1 - rotating
+
+        AllBucketsTimeWindowMax(Clock clock, long rotateFrequencyMillis, int bufferLength) {
+            this.clock = clock;
+            this.durationBetweenRotatesMillis = rotateFrequencyMillis;
+            this.lastRotateTimestampMillis = clock.wallTime();
+
+            this.ringBuffer = new AtomicLong[bufferLength];
+            for (int i = 0; i < bufferLength; i++) {
+                this.ringBuffer[i] = new AtomicLong();
+            }
+        }
+
+        @Override
+        public void record(double sample, TimeUnit timeUnit) {
+            rotate();
+            long sampleNanos = (long) TimeUtils.convert(sample, timeUnit, TimeUnit.NANOSECONDS);
+            for (AtomicLong max : ringBuffer) {
+                updateMax(max, sampleNanos);
+            }
+        }
+
+        @Override
+        public double poll(TimeUnit timeUnit) {
+            rotate();
+            synchronized (this) {
+                return TimeUtils.nanosToUnit(ringBuffer[currentBucket].get(), timeUnit);
+            }
+        }
+
+        private void updateMax(AtomicLong max, long sample) {
+            long curMax;
+            do {
+                curMax = max.get();
+            } while (curMax < sample && !max.compareAndSet(curMax, sample));
+        }
+
+        private void rotate() {
+            long wallTime = clock.wallTime();
+            long timeSinceLastRotateMillis = wallTime - lastRotateTimestampMillis;
+            if (timeSinceLastRotateMillis < durationBetweenRotatesMillis) {
+                // Need to wait more for next rotation.
+                return;
+            }
+
+            if (!rotatingUpdater.compareAndSet(this, 0, 1)) {
+                // Being rotated by other thread already.
+                return;
+            }
+
+            try {
+                synchronized (this) {
+                    if (timeSinceLastRotateMillis >= durationBetweenRotatesMillis * ringBuffer.length) {
+                        // time since last rotation is enough to clear whole ring buffer
+                        for (AtomicLong bufferItem : ringBuffer) {
+                            bufferItem.set(0);
+                        }
+                        currentBucket = 0;
+                        lastRotateTimestampMillis = wallTime - timeSinceLastRotateMillis % durationBetweenRotatesMillis;
+                        return;
+                    }
+
+                    int iterations = 0;
+                    do {
+                        ringBuffer[currentBucket].set(0);
+                        if (++currentBucket >= ringBuffer.length) {
+                            currentBucket = 0;
+                        }
+                        timeSinceLastRotateMillis -= durationBetweenRotatesMillis;
+                        lastRotateTimestampMillis += durationBetweenRotatesMillis;
+                    } while (timeSinceLastRotateMillis >= durationBetweenRotatesMillis && ++iterations < ringBuffer.length);
+                }
+            } finally {
+                rotating = 0;
+            }
+        }
+    }
+}
@@ -30,10 +30,13 @@ import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
 import java.util.StringJoiner;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static io.micrometer.core.instrument.util.DoubleFormat.decimal;
 import static io.micrometer.core.instrument.util.StringEscapeUtils.escapeJson;
@@ -94,28 +97,18 @@ public class AppOpticsMeterRegistry extends StepMeterRegistry {
         try {
             String bodyMeasurementsPrefix = getBodyMeasurementsPrefix();
             for (List<Meter> batch : MeterPartition.partition(this, config.batchSize())) {
-                final List<String> meters = batch.stream()
-                        .map(meter -> meter.match(
-                                this::writeGauge,
-                                this::writeCounter,
-                                this::writeTimer,
-                                this::writeSummary,
-                                this::writeLongTaskTimer,
-                                this::writeTimeGauge,
-                                this::writeFunctionCounter,
-                                this::writeFunctionTimer,
-                                this::writeMeter)
-                        )
-                        .filter(Optional::isPresent)
-                        .map(Optional::get)
-                        .collect(Collectors.toList());
-                if (meters.isEmpty()) {
+                // skips batches without measurements, writing them only up to the first one present
+                Spliterator<String> measurements = writeMeasurements(batch).spliterator();
+                AtomicReference<String> first = new AtomicReference<>();
+                if (!measurements.tryAdvance(first::set)) {
                     continue;
                 }
                 httpClient.post(config.uri())
                         .withBasicAuthentication(config.apiToken(), "")
-                        .withJsonContent(
-                                meters.stream().collect(joining(",", bodyMeasurementsPrefix, BODY_MEASUREMENTS_SUFFIX)))
+                        // written a measurement at a time, carrying on from the first one present
+                        .withJsonContent(HttpSender.Request.EntityWriter.joining(
+                                Stream.concat(Stream.of(first.get()), StreamSupport.stream(measurements, false)), ",",
+                                bodyMeasurementsPrefix, BODY_MEASUREMENTS_SUFFIX))
                         .send()
                         .onSuccess(response -> {
                             if (!response.body().contains("\"failed\":0")) {
@@ -131,6 +124,23 @@ public class AppOpticsMeterRegistry extends StepMeterRegistry {
         }
     }
 
+    private Stream<String> writeMeasurements(List<Meter> batch) {
+        return batch.stream()
+                .map(meter -> meter.match(
+                        this::writeGauge,
+                        this::writeCounter,
+                        this::writeTimer,
+                        this::writeSummary,
+                        this::writeLongTaskTimer,
+                        this::writeTimeGauge,
+                        this::writeFunctionCounter,
+                        this::writeFunctionTimer,
+                        this::writeMeter)
+                )
+                .filter(Optional::isPresent)
+                .map(Optional::get);
+    }
+
     /**
      * Build body prefix with time based on the clock and flooring configuration.
      */
@@ -17,7 +17,6 @@ package io.micrometer.datadog;
 
 import io.micrometer.core.instrument.*;
 import io.micrometer.core.instrument.step.StepMeterRegistry;
-import io.micrometer.core.instrument.util.MeterPartition;
 import io.micrometer.core.instrument.util.NamedThreadFactory;
 import io.micrometer.core.ipc.http.HttpSender;
 import io.micrometer.core.ipc.http.HttpUrlConnectionSender;
@@ -26,8 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URLEncoder;
-import java.util.HashMap;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -98,12 +96,13 @@ public class DatadogMeterRegistry extends StepMeterRegistry {
 
     @Override
     protected void publish() {
-        Map<String, DatadogMetricMetadata> metadataToSend = new HashMap<>();
+        // batches may be published concurrently
+        Map<String, DatadogMetricMetadata> metadataToSend = new ConcurrentHashMap<>();
 
         String datadogEndpoint = config.uri() + "/api/v1/series?api_key=" + config.apiKey();
 
-        try {
-            for (List<Meter> batch : MeterPartition.partition(this, config.batchSize())) {
+        publishBatches(batch -> {
+            try {
                 /*
                 Example post body from Datadog API docs. Host and tags are optional.
                 "{ \"series\" :
@@ -116,43 +115,48 @@ public class DatadogMeterRegistry extends StepMeterRegistry {
                         ]
                 }"
                 */
-                String body = batch.stream().flatMap(meter -> meter.match(
-                        m -> writeMeter(m, metadataToSend), // visitGauge
-                        m -> writeMeter(m, metadataToSend), // visitCounter
-                        timer -> writeTimer(timer, metadataToSend), // visitTimer
-                        summary -> writeSummary(summary, metadataToSend), // visitSummary
-                        m -> writeMeter(m, metadataToSend), // visitLongTaskTimer
-                        m -> writeMeter(m, metadataToSend), // visitTimeGauge
-                        m -> writeMeter(m, metadataToSend), // visitFunctionCounter
-                        timer -> writeTimer(timer, metadataToSend), // visitFunctionTimer
-                        m -> writeMeter(m, metadataToSend)) // visitMeter
-                ).collect(joining(",", "{\"series\":[", "]}"));
-
-                logger.trace("sending metrics batch to datadog:{}{}", System.lineSeparator(), body);
+                // written to a byte buffer a meter at a time, the first time the request body is written
+                HttpSender.Request.EntityWriter body = HttpSender.Request.EntityWriter.joining(
+                        batch.stream().flatMap(meter -> meter.match(
+                                this::writeMeter, // visitGauge
+                                this::writeMeter, // visitCounter
+                                this::writeTimer, // visitTimer
+                                this::writeSummary, // visitSummary
+                                this::writeMeter, // visitLongTaskTimer
+                                this::writeMeter, // visitTimeGauge
+                                this::writeMeter, // visitFunctionCounter
+                                this::writeTimer, // visitFunctionTimer
+                                this::writeMeter) // visitMeter
+                        ), ",", "{\"series\":[", "]}");
+
+                if (logger.isTraceEnabled()) {
+                    logger.trace("sending metrics batch to datadog:{}{}", System.lineSeparator(),
+                            new String(body.toByteArray(), StandardCharsets.UTF_8));
+                }
 
                 httpClient.post(datadogEndpoint)
-                        .withJsonContent(
-                                body)
+                        .withJsonContent(body)
                         .send()
                         .onSuccess(response -> logger.debug("successfully sent {} metrics to datadog", batch.size()))
                         .onError(response -> logger.error("failed to send metrics to datadog: {}", response.body()));
+            } catch (Throwable e) {
+                logger.warn("failed to send metrics to datadog", e);
             }
-        } catch (Throwable e) {
-            logger.warn("failed to send metrics to datadog", e);
-        }
+
+            if (config.applicationKey() != null) {
+                // we can't set metadata correctly without the application key
+                batch.forEach(meter -> addToMetadataList(metadataToSend, meter));
+            }
+        });
 
         metadataToSend.forEach(this::postMetricMetadata);
     }
 
-    private Stream<String> writeTimer(FunctionTimer timer, Map<String, DatadogMetricMetadata> metadata) {
+    private Stream<String> writeTimer(FunctionTimer timer) {
         long wallTime = clock.wallTime();
 
         Meter.Id id = timer.getId();
 
-        addToMetadataList(metadata, id, "count", Statistic.COUNT, "occurrence");
-        addToMetadataList(metadata, id, "avg", Statistic.VALUE, null);
-        addToMetadataList(metadata, id, "sum", Statistic.TOTAL_TIME, null);
-
         // we can't know anything about max and percentiles originating from a function timer
         return Stream.of(
                 writeMetric(id, "count", wallTime, timer.count(), Statistic.COUNT, "occurrence"),
@@ -160,7 +164,7 @@ public class DatadogMeterRegistry extends StepMeterRegistry {
                 writeMetric(id, "sum", wallTime, timer.totalTime(getBaseTimeUnit()), Statistic.TOTAL_TIME, null));
     }
 
-    private Stream<String> writeTimer(Timer timer, Map<String, DatadogMetricMetadata> metadata) {
+    private Stream<String> writeTimer(Timer timer) {
         final long wallTime = clock.wallTime();
         final Stream.Builder<String> metrics = Stream.builder();
 
@@ -170,15 +174,10 @@ public class DatadogMeterRegistry extends StepMeterRegistry {
         metrics.add(writeMetric(id, "avg", wallTime, timer.mean(getBaseTimeUnit()), Statistic.VALUE, null));
         metrics.add(writeMetric(id, "max", wallTime, timer.max(getBaseTimeUnit()), Statistic.MAX, null));
 
-        addToMetadataList(metadata, id, "sum", Statistic.TOTAL_TIME, null);
-        addToMetadataList(metadata, id, "count", Statistic.COUNT, "occurrence");
-        addToMetadataList(metadata, id, "avg", Statistic.VALUE, null);
-        addToMetadataList(metadata, id, "max", Statistic.MAX, null);
-
         return metrics.build();
     }
 
-    private Stream<String> writeSummary(DistributionSummary summary, Map<String, DatadogMetricMetadata> metadata) {
+    private Stream<String> writeSummary(DistributionSummary summary) {
         final long wallTime = clock.wallTime();
         final Stream.Builder<String> metrics = Stream.builder();
 
@@ -188,29 +187,55 @@ public class DatadogMeterRegistry extends StepMeterRegistry {
         metrics.add(writeMetric(id, "avg", wallTime, summary.mean(), Statistic.VALUE, null));
         metrics.add(writeMetric(id, "max", wallTime, summary.max(), Statistic.MAX, null));
 
-        addToMetadataList(metadata, id, "sum", Statistic.TOTAL, null);
-        addToMetadataList(metadata, id, "count", Statistic.COUNT, "occurrence");
-        addToMetadataList(metadata, id, "avg", Statistic.VALUE, null);
-        addToMetadataList(metadata, id, "max", Statistic.MAX, null);
-
         return metrics.build();
     }
 
-    private Stream<String> writeMeter(Meter m, Map<String, DatadogMetricMetadata> metadata) {
+    private Stream<String> writeMeter(Meter m) {
         long wallTime = clock.wallTime();
         return stream(m.measure().spliterator(), false)
-                .map(ms -> {
-                    Meter.Id id = m.getId().withTag(ms.getStatistic());
-                    addToMetadataList(metadata, id, null, ms.getStatistic(), null);
-                    return writeMetric(id, null, wallTime, ms.getValue(), ms.getStatistic(), null);
-                });
+                .map(ms -> writeMetric(m.getId().withTag(ms.getStatistic()), null, wallTime, ms.getValue(),
+                        ms.getStatistic(), null));
+    }
+
+    /**
+     * Collect the metadata of the time series written for a meter, apart from writing them.
+     */
+    private void addToMetadataList(Map<String, DatadogMetricMetadata> metadata, Meter meter) {
+        Meter.Id id = meter.getId();
+        meter.use(
+                m -> addMeterToMetadataList(metadata, m), // visitGauge
+                m -> addMeterToMetadataList(metadata, m), // visitCounter
+                timer -> {
+                    addToMetadataList(metadata, id, "sum", Statistic.TOTAL_TIME, null);
+                    addToMetadataList(metadata, id, "count", Statistic.COUNT, "occurrence");
+                    addToMetadataList(metadata, id, "avg", Statistic.VALUE, null);
+                    addToMetadataList(metadata, id, "max", Statistic.MAX, null);
+                }, // visitTimer
+                summary -> {
+                    addToMetadataList(metadata, id, "sum", Statistic.TOTAL, null);
+                    addToMetadataList(metadata, id, "count", Statistic.COUNT, "occurrence");
+                    addToMetadataList(metadata, id, "avg", Statistic.VALUE, null);
+                    addToMetadataList(metadata, id, "max", Statistic.MAX, null);
+                }, // visitSummary
+                m -> addMeterToMetadataList(metadata, m), // visitLongTaskTimer
+                m -> addMeterToMetadataList(metadata, m), // visitTimeGauge
+                m -> addMeterToMetadataList(metadata, m), // visitFunctionCounter
+                timer -> {
+                    addToMetadataList(metadata, id, "count", Statistic.COUNT, "occurrence");
+                    addToMetadataList(metadata, id, "avg", Statistic.VALUE, null);
+                    addToMetadataList(metadata, id, "sum", Statistic.TOTAL_TIME, null);
+                }, // visitFunctionTimer
+                m -> addMeterToMetadataList(metadata, m)); // visitMeter
+    }
+
+    private void addMeterToMetadataList(Map<String, DatadogMetricMetadata> metadata, Meter m) {
+        for (Measurement ms : m.measure()) {
+            addToMetadataList(metadata, m.getId().withTag(ms.getStatistic()), null, ms.getStatistic(), null);
+        }
     }
 
     private void addToMetadataList(Map<String, DatadogMetricMetadata> metadata, Meter.Id id, @Nullable String suffix,
                                    Statistic stat, @Nullable String overrideBaseUnit) {
-        if (config.applicationKey() == null)
-            return; // we can't set metadata correctly without the application key
-
         Meter.Id fullId = id;
         if (suffix != null)
             fullId = idWithSuffix(id, suffix);
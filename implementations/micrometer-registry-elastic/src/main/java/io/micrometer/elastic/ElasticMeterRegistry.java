@@ -18,7 +18,6 @@ package io.micrometer.elastic;
 import io.micrometer.core.instrument.*;
 import io.micrometer.core.instrument.distribution.HistogramSnapshot;
 import io.micrometer.core.instrument.step.StepMeterRegistry;
-import io.micrometer.core.instrument.util.MeterPartition;
 import io.micrometer.core.instrument.util.NamedThreadFactory;
 import io.micrometer.core.instrument.util.StringUtils;
 import io.micrometer.core.ipc.http.HttpSender;
@@ -27,6 +26,7 @@ import io.micrometer.core.lang.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
@@ -43,7 +43,6 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static io.micrometer.core.instrument.util.StringEscapeUtils.escapeJson;
-import static java.util.stream.Collectors.joining;
 
 /**
  * {@link MeterRegistry} for Elasticsearch.
@@ -202,22 +201,23 @@ public class ElasticMeterRegistry extends StepMeterRegistry {
         createIndexTemplateIfNeeded();
 
         String uri = config.host() + "/" + indexName() + "/_bulk";
-        for (List<Meter> batch : MeterPartition.partition(this, config.batchSize())) {
+        publishBatches(batch -> {
             try {
-                String requestBody = batch.stream()
-                        .map(m -> m.match(
-                                this::writeGauge,
-                                this::writeCounter,
-                                this::writeTimer,
-                                this::writeSummary,
-                                this::writeLongTaskTimer,
-                                this::writeTimeGauge,
-                                this::writeFunctionCounter,
-                                this::writeFunctionTimer,
-                                this::writeMeter))
-                        .filter(Optional::isPresent)
-                        .map(Optional::get)
-                        .collect(joining("\n", "", "\n"));
+                // written to a byte buffer a document at a time, the first time the request body is written
+                HttpSender.Request.EntityWriter requestBody = HttpSender.Request.EntityWriter.joining(
+                        batch.stream()
+                                .map(m -> m.match(
+                                        this::writeGauge,
+                                        this::writeCounter,
+                                        this::writeTimer,
+                                        this::writeSummary,
+                                        this::writeLongTaskTimer,
+                                        this::writeTimeGauge,
+                                        this::writeFunctionCounter,
+                                        this::writeFunctionTimer,
+                                        this::writeMeter))
+                                .filter(Optional::isPresent)
+                                .map(Optional::get), "\n", "", "\n");
                 httpClient
                         .post(uri)
                         .withBasicAuthentication(config.userName(), config.password())
@@ -228,7 +228,7 @@ public class ElasticMeterRegistry extends StepMeterRegistry {
                             String responseBody = response.body();
                             if (responseBody.contains(ERROR_RESPONSE_BODY_SIGNATURE)) {
                                 int numberOfCreatedItems = countCreatedItems(responseBody);
-                                logger.debug("failed metrics payload: {}", requestBody);
+                                logFailedPayload(requestBody);
                                 logger.error("failed to send metrics to elastic (sent {} metrics but created {} metrics): {}",
                                         numberOfSentItems, numberOfCreatedItems, responseBody);
                             } else {
@@ -236,12 +236,18 @@ public class ElasticMeterRegistry extends StepMeterRegistry {
                             }
                         })
                         .onError(response -> {
-                            logger.debug("failed metrics payload: {}", requestBody);
+                            logFailedPayload(requestBody);
                             logger.error("failed to send metrics to elastic: {}", response.body());
                         });
             } catch (Throwable e) {
                 logger.error("failed to send metrics to elastic", e);
             }
+        });
+    }
+
+    private void logFailedPayload(HttpSender.Request.EntityWriter requestBody) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("failed metrics payload: {}", new String(requestBody.toByteArray(), StandardCharsets.UTF_8));
         }
     }
 
@@ -19,7 +19,6 @@ import io.micrometer.core.instrument.*;
 import io.micrometer.core.instrument.distribution.HistogramSnapshot;
 import io.micrometer.core.instrument.step.StepMeterRegistry;
 import io.micrometer.core.instrument.util.DoubleFormat;
-import io.micrometer.core.instrument.util.MeterPartition;
 import io.micrometer.core.instrument.util.NamedThreadFactory;
 import io.micrometer.core.ipc.http.HttpSender;
 import io.micrometer.core.ipc.http.HttpUrlConnectionSender;
@@ -80,7 +79,7 @@ public class HumioMeterRegistry extends StepMeterRegistry {
 
     @Override
     protected void publish() {
-        for (List<Meter> meters : MeterPartition.partition(this, config.batchSize())) {
+        publishBatches(meters -> {
             try {
                 HttpSender.Request.Builder post = httpClient.post(config.uri() + "/api/v1/ingest/humio-structured");
                 String token = config.apiToken();
@@ -97,7 +96,8 @@ public class HumioMeterRegistry extends StepMeterRegistry {
                             .collect(joining(",", "\"tags\":{", "},"));
                 }
 
-                post.withJsonContent(meters.stream()
+                // written to a byte buffer an event at a time, the first time the request body is written
+                post.withJsonContent(HttpSender.Request.EntityWriter.joining(meters.stream()
                         .map(m -> m.match(
                                 batch::writeGauge,
                                 batch::writeCounter,
@@ -108,15 +108,14 @@ public class HumioMeterRegistry extends StepMeterRegistry {
                                 batch::writeFunctionCounter,
                                 batch::writeFunctionTimer,
                                 batch::writeMeter)
-                        )
-                        .collect(joining(",", "[{" + tags + "\"events\": [", "]}]")))
+                        ), ",", "[{" + tags + "\"events\": [", "]}]"))
                         .send()
                         .onSuccess(response -> logger.debug("successfully sent {} metrics to humio.", meters.size()))
                         .onError(response -> logger.error("failed to send metrics to humio: {}", response.body()));
             } catch (Throwable e) {
                 logger.warn("failed to send metrics to humio", e);
             }
-        }
+        });
     }
 
     @Override
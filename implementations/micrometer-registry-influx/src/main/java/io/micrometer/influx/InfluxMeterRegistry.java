@@ -124,7 +124,8 @@ public class InfluxMeterRegistry extends StepMeterRegistry {
                         .withBasicAuthentication(config.userName(), config.password());
                 config.apiVersion().addHeaderToken(config, requestBuilder);
                 requestBuilder
-                        .withPlainText(batch.stream()
+                        // written to a byte buffer a line at a time, and compressed as the request is sent
+                        .withPlainText(HttpSender.Request.EntityWriter.joining(batch.stream()
                                 .flatMap(m -> m.match(
                                         gauge -> writeGauge(gauge.getId(), gauge.value()),
                                         counter -> writeCounter(counter.getId(), counter.count()),
@@ -134,8 +135,7 @@ public class InfluxMeterRegistry extends StepMeterRegistry {
                                         gauge -> writeGauge(gauge.getId(), gauge.value(getBaseTimeUnit())),
                                         counter -> writeCounter(counter.getId(), counter.count()),
                                         this::writeFunctionTimer,
-                                        this::writeMeter))
-                                .collect(joining("\n")))
+                                        this::writeMeter)), "\n", "", ""))
                         .compressWhen(config::compressed)
                         .send()
                         .onSuccess(response -> {
@@ -18,11 +18,13 @@ package io.micrometer.prometheus;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.config.NamingConvention;
+import io.micrometer.core.lang.Nullable;
 import io.prometheus.client.Collector;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Stream;
+import java.util.function.BooleanSupplier;
 
 import static java.util.stream.Collectors.toList;
 
@@ -34,20 +36,31 @@ import static java.util.stream.Collectors.toList;
  */
 class MicrometerCollector extends Collector implements Collector.Describable {
     private final Meter.Id id;
-    private final Map<List<String>, Child> children = new ConcurrentHashMap<>();
+    private final Map<List<String>, Registration> children = new ConcurrentHashMap<>();
     private final String conventionName;
     private final List<String> tagKeys;
     private final String help;
 
+    /**
+     * Whether this collector has already been written by a scrape in progress on the current thread, so
+     * that it must not contribute any samples when that scrape goes on to collect other collectors.
+     */
+    private final BooleanSupplier written;
+
     public MicrometerCollector(Meter.Id id, NamingConvention convention, PrometheusConfig config) {
+        this(id, convention, config, () -> false);
+    }
+
+    MicrometerCollector(Meter.Id id, NamingConvention convention, PrometheusConfig config, BooleanSupplier written) {
         this.id = id;
         this.conventionName = id.getConventionName(convention);
         this.tagKeys = id.getConventionTags(convention).stream().map(Tag::getKey).collect(toList());
         this.help = config.descriptions() ? Optional.ofNullable(id.getDescription()).orElse(" ") : " ";
+        this.written = written;
     }
 
-    public void add(List<String> tagValues, Child child) {
-        children.put(tagValues, child);
+    public void add(List<String> tagValues, StreamingChild child) {
+        children.put(tagValues, new Registration(tagValues, child));
     }
 
     public void remove(List<String> tagValues) {
@@ -62,15 +75,34 @@ class MicrometerCollector extends Collector implements Collector.Describable {
         return tagKeys;
     }
 
+    String getConventionName() {
+        return conventionName;
+    }
+
+    String getHelp() {
+        return help;
+    }
+
     @Override
     public List<MetricFamilySamples> collect() {
+        if (written.getAsBoolean()) {
+            return Collections.emptyList();
+        }
+        return metricFamilySamples();
+    }
+
+    private List<MetricFamilySamples> metricFamilySamples() {
         Map<String, Family> families = new HashMap<>();
+        FamilyCollector familyCollector = new FamilyCollector(families);
 
-        for (Child child : children.values()) {
-            child.samples(conventionName, tagKeys).forEach(family -> {
-                families.compute(family.getConventionName(), (name, matchingFamily) -> matchingFamily != null ?
-                        matchingFamily.addSamples(family.samples) : family);
-            });
+        for (Registration registration : children.values()) {
+            familyCollector.tagValues = registration.tagValues;
+            try {
+                registration.child.samples(familyCollector);
+            } catch (IOException e) {
+                // This actually never happens since FamilyCollector doesn't throw any IOException
+                throw new RuntimeException(e);
+            }
         }
 
         return families.values().stream()
@@ -78,6 +110,36 @@ class MicrometerCollector extends Collector implements Collector.Describable {
                 .collect(toList());
     }
 
+    /**
+     * Write the samples of all children straight to the exposition format.
+     *
+     * @param writer The writer of the scrape in progress.
+     * @throws IOException if writing fails
+     */
+    void write(TextFormatWriter writer) throws IOException {
+        writer.startCollector(this);
+        for (Registration registration : children.values()) {
+            writer.startChild(registration.labels(tagKeys));
+            registration.child.samples(writer);
+        }
+        writer.endCollector();
+    }
+
+    /**
+     * Write the samples of all children straight to the protobuf exposition format.
+     *
+     * @param writer The writer of the scrape in progress.
+     * @throws IOException if writing fails
+     */
+    void write(ProtobufWriter writer) throws IOException {
+        writer.startCollector(this);
+        for (Registration registration : children.values()) {
+            writer.startChild(registration.protobufLabels(tagKeys));
+            registration.child.samples(writer);
+        }
+        writer.endCollector();
+    }
+
     @Override
     public List<MetricFamilySamples> describe() {
         switch (id.getType()) {
@@ -102,34 +164,142 @@ class MicrometerCollector extends Collector implements Collector.Describable {
         }
     }
 
-    interface Child {
-        Stream<Family> samples(String conventionName, List<String> tagKeys);
+    /**
+     * A child that emits its samples one by one, so that they can be written straight to the exposition format
+     * without building {@link Family families} of {@link MetricFamilySamples.Sample samples} first.
+     */
+    interface StreamingChild {
+        void samples(Samples samples) throws IOException;
     }
 
-    static class Family {
-        final Type type;
-        final String conventionName;
-        final List<MetricFamilySamples.Sample> samples = new ArrayList<>();
+    /**
+     * Receives the samples of a child. Names are given as suffixes of the convention name of the collector
+     * and labels in addition to the tags of the child, so that neither needs to be concatenated when streaming.
+     */
+    interface Samples {
+        /**
+         * Start or continue the family that the following samples belong to.
+         *
+         * @param type The type of the family. Only the type given by the first child is retained.
+         * @param suffix The suffix of the family name, appended to the convention name.
+         * @throws IOException if writing fails
+         */
+        void family(Type type, String suffix) throws IOException;
 
-        Family(Type type, String conventionName, MetricFamilySamples.Sample... samples) {
-            this.type = type;
-            this.conventionName = conventionName;
-            Collections.addAll(this.samples, samples);
+        void sample(String suffix, double value) throws IOException;
+
+        void sample(String suffix, String labelName, String labelValue, double value) throws IOException;
+
+        /**
+         * A quantile of a summary, with the value of its {@code quantile} label already formatted.
+         *
+         * @param quantileLabel The quantile, formatted as label value.
+         * @param quantile The quantile.
+         * @param value The value at this quantile.
+         * @throws IOException if writing fails
+         */
+        default void quantile(String quantileLabel, double quantile, double value) throws IOException {
+            sample("", "quantile", quantileLabel, value);
         }
 
-        Family(Type type, String conventionName, Stream<MetricFamilySamples.Sample> samples) {
-            this.type = type;
-            this.conventionName = conventionName;
-            samples.forEach(this.samples::add);
+        /**
+         * A cumulative bucket of a histogram, with the value of its {@code le} label already formatted.
+         *
+         * @param upperBoundLabel The upper bound, formatted as label value.
+         * @param upperBound The upper bound.
+         * @param count The count of all samples up to this upper bound.
+         * @throws IOException if writing fails
+         */
+        default void bucket(String upperBoundLabel, double upperBound, double count) throws IOException {
+            sample("_bucket", "le", upperBoundLabel, count);
         }
+    }
+
+    private static class Registration {
+        final List<String> tagValues;
+
+        final StreamingChild child;
 
-        String getConventionName() {
-            return conventionName;
+        /**
+         * Tags of this child, escaped and formatted as label pairs once for every scrape to reuse.
+         */
+        @Nullable
+        private volatile String labels;
+
+        /**
+         * Tags of this child, encoded as protobuf label pairs once for every scrape to reuse.
+         */
+        @Nullable
+        private volatile byte[] protobufLabels;
+
+        Registration(List<String> tagValues, StreamingChild child) {
+            this.tagValues = tagValues;
+            this.child = child;
+        }
+
+        String labels(List<String> tagKeys) {
+            String labels = this.labels;
+            if (labels == null) {
+                labels = TextFormatWriter.labelPairs(tagKeys, tagValues);
+                this.labels = labels;
+            }
+            return labels;
+        }
+
+        byte[] protobufLabels(List<String> tagKeys) {
+            byte[] protobufLabels = this.protobufLabels;
+            if (protobufLabels == null) {
+                protobufLabels = ProtobufWriter.labelPairs(tagKeys, tagValues);
+                this.protobufLabels = protobufLabels;
+            }
+            return protobufLabels;
+        }
+    }
+
+    private class FamilyCollector implements Samples {
+        private final Map<String, Family> families;
+
+        @Nullable
+        private Family family;
+
+        List<String> tagValues = Collections.emptyList();
+
+        FamilyCollector(Map<String, Family> families) {
+            this.families = families;
+        }
+
+        @Override
+        public void family(Type type, String suffix) {
+            family = families.computeIfAbsent(conventionName + suffix, name -> new Family(type, name));
         }
 
-        Family addSamples(Collection<MetricFamilySamples.Sample> samples) {
-            this.samples.addAll(samples);
-            return this;
+        @Override
+        public void sample(String suffix, double value) {
+            family.samples.add(new MetricFamilySamples.Sample(conventionName + suffix, tagKeys, tagValues, value));
+        }
+
+        @Override
+        public void sample(String suffix, String labelName, String labelValue, double value) {
+            List<String> labelNames = new ArrayList<>(tagKeys.size() + 1);
+            labelNames.addAll(tagKeys);
+            labelNames.add(labelName);
+
+            List<String> labelValues = new ArrayList<>(tagValues.size() + 1);
+            labelValues.addAll(tagValues);
+            labelValues.add(labelValue);
+
+            family.samples.add(new MetricFamilySamples.Sample(conventionName + suffix, labelNames, labelValues, value));
+        }
+    }
+
+    private static class Family {
+        final Type type;
+        final String conventionName;
+        final List<MetricFamilySamples.Sample> samples = new ArrayList<>();
+
+        Family(Type type, String conventionName) {
+            this.type = type;
+            this.conventionName = conventionName;
         }
     }
 }
@@ -16,6 +16,7 @@
 package io.micrometer.prometheus;
 
 import io.micrometer.core.instrument.config.MeterRegistryConfig;
+import io.micrometer.core.instrument.config.validate.InvalidReason;
 import io.micrometer.core.instrument.config.validate.Validated;
 
 import java.time.Duration;
@@ -66,11 +67,25 @@ public interface PrometheusConfig extends MeterRegistryConfig {
         return getEnum(this, HistogramFlavor.class, "histogramFlavor").orElse(HistogramFlavor.Prometheus);
     }
 
+    /**
+     * Scrapes asking for the same content within this window of one another share the body of the first one,
+     * which is computed once and served as is to all of them. This spares meter walks and histogram snapshots
+     * when several Prometheus servers scrape the same instance. The default of zero computes every scrape.
+     *
+     * @return The window during which the body of a scrape is served to other scrapes.
+     * @since 1.8.0
+     */
+    default Duration scrapeCacheWindow() {
+        return getDuration(this, "scrapeCacheWindow").orElse(Duration.ZERO);
+    }
+
     @Override
     default Validated<?> validate() {
         return checkAll(this,
                 checkRequired("step", PrometheusConfig::step),
-                checkRequired("histogramFlavor", PrometheusConfig::histogramFlavor)
+                checkRequired("histogramFlavor", PrometheusConfig::histogramFlavor),
+                checkRequired("scrapeCacheWindow", PrometheusConfig::scrapeCacheWindow)
+                        .andThen(v -> v.invalidateWhen(Duration::isNegative, "must not be negative", InvalidReason.MALFORMED))
         );
     }
 }
@@ -28,11 +28,16 @@ import io.prometheus.client.Collector;
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.exporter.common.TextFormat;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Enumeration;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -42,7 +47,6 @@ import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.ToDoubleFunction;
 import java.util.function.ToLongFunction;
-import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
@@ -55,10 +59,33 @@ import static java.util.stream.StreamSupport.stream;
  * @author Johnny Lim
  */
 public class PrometheusMeterRegistry extends MeterRegistry {
+    /**
+     * Content type of the Prometheus protobuf exposition format, length delimited {@code MetricFamily} messages.
+     * It can only be scraped to an {@link OutputStream}.
+     *
+     * @since 1.8.0
+     */
+    public static final String CONTENT_TYPE_PROTOBUF =
+            "application/vnd.google.protobuf; proto=io.prometheus.client.MetricFamily; encoding=delimited";
+
     private final PrometheusConfig prometheusConfig;
     private final CollectorRegistry registry;
     private final ConcurrentMap<String, MicrometerCollector> collectorMap = new ConcurrentHashMap<>();
 
+    /**
+     * Set while a scrape on the current thread collects the samples of collectors that weren't registered by
+     * this registry, after having written all of its own collectors.
+     */
+    private final ThreadLocal<Boolean> collectingForeignCollectors = new ThreadLocal<>();
+
+    /**
+     * Size of the last scrape to a {@link String}, to size the buffer of the next one.
+     */
+    private volatile int lastScrapeSize = 1024;
+
+    @Nullable
+    private final ScrapeCache scrapeCache;
+
     public PrometheusMeterRegistry(PrometheusConfig config) {
         this(config, new CollectorRegistry(), Clock.SYSTEM);
     }
@@ -70,6 +97,7 @@ public class PrometheusMeterRegistry extends MeterRegistry {
 
         this.prometheusConfig = config;
         this.registry = registry;
+        this.scrapeCache = config.scrapeCacheWindow().isZero() ? null : new ScrapeCache(this, clock, config.scrapeCacheWindow());
 
         config().namingConvention(new PrometheusNamingConvention());
         config().onMeterRemoved(this::onMeterRemoved);
@@ -96,14 +124,7 @@ public class PrometheusMeterRegistry extends MeterRegistry {
      * @since 1.7.0
      */
     public String scrape(String contentType) {
-        Writer writer = new StringWriter();
-        try {
-            scrape(writer, contentType);
-        } catch (IOException e) {
-            // This actually never happens since StringWriter::write() doesn't throw any IOException
-            throw new RuntimeException(e);
-        }
-        return writer.toString();
+        return scrape(contentType, null);
     }
 
     /**
@@ -127,11 +148,7 @@ public class PrometheusMeterRegistry extends MeterRegistry {
      * @since 1.7.0
      */
     public void scrape(Writer writer, String contentType) throws IOException {
-        scrape(writer, contentType, registry.metricFamilySamples());
-    }
-
-    private void scrape(Writer writer, String contentType, Enumeration<Collector.MetricFamilySamples> samples) throws IOException {
-        TextFormat.writeFormat(contentType, writer, samples);
+        scrape(writer, contentType, null);
     }
 
     /**
@@ -144,14 +161,26 @@ public class PrometheusMeterRegistry extends MeterRegistry {
      * @since 1.7.0
      */
     public String scrape(String contentType, @Nullable Set<String> includedNames) {
-        Writer writer = new StringWriter();
+        requireTextFormat(contentType);
+        if (scrapeCache != null) {
+            try {
+                return new String(scrapeCache.scrape(contentType, includedNames, this::writeScrape), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                // This actually never happens since computed scrapes are written to a ByteArrayOutputStream
+                throw new RuntimeException(e);
+            }
+        }
+
+        StringWriter writer = new StringWriter(lastScrapeSize);
         try {
             scrape(writer, contentType, includedNames);
         } catch (IOException e) {
             // This actually never happens since StringWriter::write() doesn't throw any IOException
             throw new RuntimeException(e);
         }
-        return writer.toString();
+        String scrape = writer.toString();
+        lastScrapeSize = scrape.length();
+        return scrape;
     }
 
     /**
@@ -164,102 +193,226 @@ public class PrometheusMeterRegistry extends MeterRegistry {
      * @since 1.7.0
      */
     public void scrape(Writer writer, String contentType, @Nullable Set<String> includedNames) throws IOException {
-        Enumeration<Collector.MetricFamilySamples> samples = includedNames != null
-                ? registry.filteredMetricFamilySamples(includedNames)
-                : registry.metricFamilySamples();
-        scrape(writer, contentType, samples);
+        requireTextFormat(contentType);
+        if (scrapeCache != null) {
+            writer.write(new String(scrapeCache.scrape(contentType, includedNames, this::writeScrape), StandardCharsets.UTF_8));
+            return;
+        }
+        writeScrape(writer, contentType, includedNames);
+    }
+
+    private static void requireTextFormat(String contentType) {
+        if (CONTENT_TYPE_PROTOBUF.equals(contentType)) {
+            throw new IllegalArgumentException("The protobuf exposition format is binary, it can only be scraped to an OutputStream");
+        }
+    }
+
+    private void writeScrape(Writer writer, String contentType, @Nullable Set<String> includedNames) throws IOException {
+        boolean openMetrics = TextFormat.CONTENT_TYPE_OPENMETRICS_100.equals(contentType);
+        if (openMetrics || TextFormat.CONTENT_TYPE_004.equals(contentType)) {
+            // write meters straight to the writer rather than collecting them as MetricFamilySamples first
+            TextFormatWriter textFormatWriter = new TextFormatWriter(writer, openMetrics, includedNames);
+            for (MicrometerCollector collector : collectorMap.values()) {
+                collector.write(textFormatWriter);
+            }
+        }
+
+        // collectors registered to the CollectorRegistry by others, if any, and the end of the exposition
+        collectingForeignCollectors.set(Boolean.TRUE);
+        try {
+            Enumeration<Collector.MetricFamilySamples> samples = includedNames != null
+                    ? registry.filteredMetricFamilySamples(includedNames)
+                    : registry.metricFamilySamples();
+            TextFormat.writeFormat(contentType, writer, samples);
+        } finally {
+            collectingForeignCollectors.remove();
+        }
+    }
+
+    /**
+     * Scrape to the specified output stream, text formats being encoded in UTF-8. Meters are written as they are
+     * visited, without building the whole scrape body in memory first.
+     *
+     * @param outputStream Target that serves the content to be scraped by Prometheus. It is flushed but not closed.
+     * @param contentType the Content-Type of the scrape, one of the {@link TextFormat} content types or
+     * {@link #CONTENT_TYPE_PROTOBUF}.
+     * @throws IOException if writing fails
+     * @see #chooseContentType(String)
+     * @since 1.8.0
+     */
+    public void scrape(OutputStream outputStream, String contentType) throws IOException {
+        scrape(outputStream, contentType, null);
+    }
+
+    /**
+     * Scrape to the specified output stream, text formats being encoded in UTF-8. Meters are written as they are
+     * visited, without building the whole scrape body in memory first. When scrapes are
+     * {@link PrometheusConfig#scrapeCacheWindow() cached}, the shared body is written as is instead.
+     *
+     * @param outputStream Target that serves the content to be scraped by Prometheus. It is flushed but not closed.
+     * @param contentType the Content-Type of the scrape, one of the {@link TextFormat} content types or
+     * {@link #CONTENT_TYPE_PROTOBUF}.
+     * @param includedNames Sample names to be included. All samples will be included if {@code null}.
+     * @throws IOException if writing fails
+     * @see #chooseContentType(String)
+     * @see PrometheusConfig#scrapeCacheWindow()
+     * @since 1.8.0
+     */
+    public void scrape(OutputStream outputStream, String contentType, @Nullable Set<String> includedNames) throws IOException {
+        if (scrapeCache != null) {
+            outputStream.write(scrapeCache.scrape(contentType, includedNames, this::writeScrape));
+            outputStream.flush();
+            return;
+        }
+        writeScrape(outputStream, contentType, includedNames);
+    }
+
+    private void writeScrape(OutputStream outputStream, String contentType, @Nullable Set<String> includedNames) throws IOException {
+        if (CONTENT_TYPE_PROTOBUF.equals(contentType)) {
+            OutputStream bufferedOutputStream = new BufferedOutputStream(outputStream);
+            ProtobufWriter protobufWriter = new ProtobufWriter(bufferedOutputStream, includedNames);
+            for (MicrometerCollector collector : collectorMap.values()) {
+                collector.write(protobufWriter);
+            }
+
+            collectingForeignCollectors.set(Boolean.TRUE);
+            try {
+                Enumeration<Collector.MetricFamilySamples> samples = includedNames != null
+                        ? registry.filteredMetricFamilySamples(includedNames)
+                        : registry.metricFamilySamples();
+                protobufWriter.write(Collections.list(samples));
+            } finally {
+                collectingForeignCollectors.remove();
+            }
+            bufferedOutputStream.flush();
+            return;
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writeScrape(writer, contentType, includedNames);
+        writer.flush();
+    }
+
+    /**
+     * Choose the content type of a scrape from the {@code Accept} header of its request, by the quality that the
+     * scraper gives to each format.
+     *
+     * @param acceptHeader The {@code Accept} header of the scrape request, if any.
+     * @return The content type to scrape with and to answer with, {@link TextFormat#CONTENT_TYPE_004} if the
+     * scraper accepts no other format.
+     * @since 1.8.0
+     */
+    public static String chooseContentType(@Nullable String acceptHeader) {
+        String chosen = TextFormat.CONTENT_TYPE_004;
+        if (acceptHeader == null) {
+            return chosen;
+        }
+
+        double chosenQuality = 0;
+        for (String mediaRange : acceptHeader.split(",")) {
+            String[] parameters = mediaRange.split(";");
+            String mediaType = parameters[0].trim();
+            double quality = 1;
+            String proto = null;
+            String encoding = null;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                int equals = parameter.indexOf('=');
+                if (equals < 0) {
+                    continue;
+                }
+                String name = parameter.substring(0, equals).trim();
+                String value = parameter.substring(equals + 1).trim();
+                if (name.equalsIgnoreCase("q")) {
+                    try {
+                        quality = Double.parseDouble(value);
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                } else if (name.equalsIgnoreCase("proto")) {
+                    proto = value;
+                } else if (name.equalsIgnoreCase("encoding")) {
+                    encoding = value;
+                }
+            }
+
+            String contentType = null;
+            if (mediaType.equalsIgnoreCase("application/vnd.google.protobuf")) {
+                if ("io.prometheus.client.MetricFamily".equals(proto) && "delimited".equals(encoding)) {
+                    contentType = CONTENT_TYPE_PROTOBUF;
+                }
+            } else if (mediaType.equalsIgnoreCase("application/openmetrics-text")) {
+                contentType = TextFormat.CONTENT_TYPE_OPENMETRICS_100;
+            } else if (mediaType.equalsIgnoreCase("text/plain")) {
+                contentType = TextFormat.CONTENT_TYPE_004;
+            }
+
+            if (contentType != null && quality > chosenQuality) {
+                chosen = contentType;
+                chosenQuality = quality;
+            }
+        }
+        return chosen;
     }
 
     @Override
     public Counter newCounter(Meter.Id id) {
         PrometheusCounter counter = new PrometheusCounter(id);
-        applyToCollector(id, (collector) -> {
-            List<String> tagValues = tagValues(id);
-            collector.add(tagValues, (conventionName, tagKeys) -> Stream.of(new MicrometerCollector.Family(Collector.Type.COUNTER, conventionName,
-                    new Collector.MetricFamilySamples.Sample(conventionName, tagKeys, tagValues, counter.count()))));
-        });
+        applyToCollector(id, (collector) ->
+                collector.add(tagValues(id), samples -> {
+                    samples.family(Collector.Type.COUNTER, "");
+                    samples.sample("", counter.count());
+                }));
         return counter;
     }
 
     @Override
     public DistributionSummary newDistributionSummary(Meter.Id id, DistributionStatisticConfig distributionStatisticConfig, double scale) {
         PrometheusDistributionSummary summary = new PrometheusDistributionSummary(id, clock, distributionStatisticConfig, scale, prometheusConfig.histogramFlavor());
-        applyToCollector(id, (collector) -> {
-            List<String> tagValues = tagValues(id);
-            collector.add(tagValues, (conventionName, tagKeys) -> {
-                Stream.Builder<Collector.MetricFamilySamples.Sample> samples = Stream.builder();
-
-                final ValueAtPercentile[] percentileValues = summary.takeSnapshot().percentileValues();
-                final CountAtBucket[] histogramCounts = summary.histogramCounts();
-                double count = summary.count();
+        DistributionLabels labels = new DistributionLabels();
+        applyToCollector(id, (collector) ->
+                collector.add(tagValues(id), samples -> {
+                    final ValueAtPercentile[] percentileValues = summary.takeSnapshot().percentileValues();
+                    final CountAtBucket[] histogramCounts = summary.histogramCounts();
+                    double count = summary.count();
 
-                if (percentileValues.length > 0) {
-                    List<String> quantileKeys = new LinkedList<>(tagKeys);
-                    quantileKeys.add("quantile");
+                    // Prometheus doesn't balk at a metric being BOTH a histogram and a summary
+                    samples.family(histogramCounts.length > 0 ? Collector.Type.HISTOGRAM : Collector.Type.SUMMARY, "");
 
                     // satisfies https://prometheus.io/docs/concepts/metric_types/#summary
-                    for (ValueAtPercentile v : percentileValues) {
-                        List<String> quantileValues = new LinkedList<>(tagValues);
-                        quantileValues.add(Collector.doubleToGoString(v.percentile()));
-                        samples.add(new Collector.MetricFamilySamples.Sample(
-                                conventionName, quantileKeys, quantileValues, v.value()));
+                    for (int i = 0; i < percentileValues.length; i++) {
+                        samples.quantile(labels.quantile(percentileValues, i), percentileValues[i].percentile(), percentileValues[i].value());
                     }
-                }
 
-                Collector.Type type = Collector.Type.SUMMARY;
-                if (histogramCounts.length > 0) {
-                    // Prometheus doesn't balk at a metric being BOTH a histogram and a summary
-                    type = Collector.Type.HISTOGRAM;
-
-                    List<String> histogramKeys = new LinkedList<>(tagKeys);
-                    String sampleName = conventionName + "_bucket";
-                    switch (summary.histogramFlavor()) {
-                        case Prometheus:
-                            histogramKeys.add("le");
-
-                            // satisfies https://prometheus.io/docs/concepts/metric_types/#histogram
-                            for (CountAtBucket c : histogramCounts) {
-                                final List<String> histogramValues = new LinkedList<>(tagValues);
-                                histogramValues.add(Collector.doubleToGoString(c.bucket()));
-                                samples.add(new Collector.MetricFamilySamples.Sample(
-                                        sampleName, histogramKeys, histogramValues, c.count()));
-                            }
-
-                            if (Double.isFinite(histogramCounts[histogramCounts.length - 1].bucket())) {
-                                // the +Inf bucket should always equal `count`
-                                final List<String> histogramValues = new LinkedList<>(tagValues);
-                                histogramValues.add("+Inf");
-                                samples.add(new Collector.MetricFamilySamples.Sample(
-                                        sampleName, histogramKeys, histogramValues, count));
-                            }
-                            break;
-                        case VictoriaMetrics:
-                            histogramKeys.add("vmrange");
-
-                            for (CountAtBucket c : histogramCounts) {
-                                final List<String> histogramValuesVM = new LinkedList<>(tagValues);
-                                histogramValuesVM.add(FixedBoundaryVictoriaMetricsHistogram.getRangeTagValue(c.bucket()));
-                                samples.add(new Collector.MetricFamilySamples.Sample(
-                                        sampleName, histogramKeys, histogramValuesVM, c.count()));
-                            }
-                            break;
-                        default:
-                            break;
+                    if (histogramCounts.length > 0) {
+                        switch (summary.histogramFlavor()) {
+                            case Prometheus:
+                                // satisfies https://prometheus.io/docs/concepts/metric_types/#histogram
+                                for (int i = 0; i < histogramCounts.length; i++) {
+                                    samples.bucket(labels.bucket(histogramCounts, i, null), histogramCounts[i].bucket(), histogramCounts[i].count());
+                                }
+
+                                if (Double.isFinite(histogramCounts[histogramCounts.length - 1].bucket())) {
+                                    // the +Inf bucket should always equal `count`
+                                    samples.bucket("+Inf", Double.POSITIVE_INFINITY, count);
+                                }
+                                break;
+                            case VictoriaMetrics:
+                                for (CountAtBucket c : histogramCounts) {
+                                    samples.sample("_bucket", "vmrange", FixedBoundaryVictoriaMetricsHistogram.getRangeTagValue(c.bucket()), c.count());
+                                }
+                                break;
+                            default:
+                                break;
+                        }
                     }
 
-                }
-
-                samples.add(new Collector.MetricFamilySamples.Sample(
-                        conventionName + "_count", tagKeys, tagValues, count));
+                    samples.sample("_count", count);
+                    samples.sample("_sum", summary.totalAmount());
 
-                samples.add(new Collector.MetricFamilySamples.Sample(
-                        conventionName + "_sum", tagKeys, tagValues, summary.totalAmount()));
-
-                return Stream.of(new MicrometerCollector.Family(type, conventionName, samples.build()),
-                        new MicrometerCollector.Family(Collector.Type.GAUGE, conventionName + "_max",
-                                new Collector.MetricFamilySamples.Sample(conventionName + "_max", tagKeys, tagValues, summary.max())));
-            });
-        });
+                    samples.family(Collector.Type.GAUGE, "_max");
+                    samples.sample("_max", summary.max());
+                }));
         return summary;
     }
 
@@ -274,11 +427,11 @@ public class PrometheusMeterRegistry extends MeterRegistry {
     @Override
     protected <T> io.micrometer.core.instrument.Gauge newGauge(Meter.Id id, @Nullable T obj, ToDoubleFunction<T> valueFunction) {
         Gauge gauge = new DefaultGauge<>(id, obj, valueFunction);
-        applyToCollector(id, (collector) -> {
-            List<String> tagValues = tagValues(id);
-            collector.add(tagValues, (conventionName, tagKeys) -> Stream.of(new MicrometerCollector.Family(Collector.Type.GAUGE, conventionName,
-                    new Collector.MetricFamilySamples.Sample(conventionName, tagKeys, tagValues, gauge.value()))));
-        });
+        applyToCollector(id, (collector) ->
+                collector.add(tagValues(id), samples -> {
+                    samples.family(Collector.Type.GAUGE, "");
+                    samples.sample("", gauge.value());
+                }));
         return gauge;
     }
 
@@ -293,25 +446,23 @@ public class PrometheusMeterRegistry extends MeterRegistry {
     @Override
     protected <T> FunctionTimer newFunctionTimer(Meter.Id id, T obj, ToLongFunction<T> countFunction, ToDoubleFunction<T> totalTimeFunction, TimeUnit totalTimeFunctionUnit) {
         FunctionTimer ft = new CumulativeFunctionTimer<>(id, obj, countFunction, totalTimeFunction, totalTimeFunctionUnit, getBaseTimeUnit());
-        applyToCollector(id, (collector) -> {
-            List<String> tagValues = tagValues(id);
-            collector.add(tagValues, (conventionName, tagKeys) -> Stream.of(new MicrometerCollector.Family(Collector.Type.SUMMARY, conventionName,
-                    new Collector.MetricFamilySamples.Sample(conventionName + "_count", tagKeys, tagValues, ft.count()),
-                    new Collector.MetricFamilySamples.Sample(conventionName + "_sum", tagKeys, tagValues, ft.totalTime(TimeUnit.SECONDS))
-            )));
-        });
+        applyToCollector(id, (collector) ->
+                collector.add(tagValues(id), samples -> {
+                    samples.family(Collector.Type.SUMMARY, "");
+                    samples.sample("_count", ft.count());
+                    samples.sample("_sum", ft.totalTime(TimeUnit.SECONDS));
+                }));
         return ft;
     }
 
     @Override
     protected <T> FunctionCounter newFunctionCounter(Meter.Id id, T obj, ToDoubleFunction<T> countFunction) {
         FunctionCounter fc = new CumulativeFunctionCounter<>(id, obj, countFunction);
-        applyToCollector(id, (collector) -> {
-            List<String> tagValues = tagValues(id);
-            collector.add(tagValues, (conventionName, tagKeys) -> Stream.of(new MicrometerCollector.Family(Collector.Type.COUNTER, conventionName,
-                    new Collector.MetricFamilySamples.Sample(conventionName, tagKeys, tagValues, fc.count())
-            )));
-        });
+        applyToCollector(id, (collector) ->
+                collector.add(tagValues(id), samples -> {
+                    samples.family(Collector.Type.COUNTER, "");
+                    samples.sample("", fc.count());
+                }));
         return fc;
     }
 
@@ -333,39 +484,30 @@ public class PrometheusMeterRegistry extends MeterRegistry {
 
         final Collector.Type finalPromType = promType;
 
-        applyToCollector(id, (collector) -> {
-            List<String> tagValues = tagValues(id);
-            collector.add(tagValues, (conventionName, tagKeys) -> {
-                List<String> statKeys = new LinkedList<>(tagKeys);
-                statKeys.add("statistic");
-
-                return Stream.of(new MicrometerCollector.Family(finalPromType, conventionName,
-                        stream(measurements.spliterator(), false)
-                                .map(m -> {
-                                    List<String> statValues = new LinkedList<>(tagValues);
-                                    statValues.add(m.getStatistic().toString());
-
-                                    String name = conventionName;
-                                    switch (m.getStatistic()) {
-                                        case TOTAL:
-                                        case TOTAL_TIME:
-                                            name += "_sum";
-                                            break;
-                                        case MAX:
-                                            name += "_max";
-                                            break;
-                                        case ACTIVE_TASKS:
-                                            name += "_active_count";
-                                            break;
-                                        case DURATION:
-                                            name += "_duration_sum";
-                                            break;
-                                    }
-
-                                    return new Collector.MetricFamilySamples.Sample(name, statKeys, statValues, m.getValue());
-                                })));
-            });
-        });
+        applyToCollector(id, (collector) ->
+                collector.add(tagValues(id), samples -> {
+                    samples.family(finalPromType, "");
+                    for (Measurement m : measurements) {
+                        String suffix = "";
+                        switch (m.getStatistic()) {
+                            case TOTAL:
+                            case TOTAL_TIME:
+                                suffix = "_sum";
+                                break;
+                            case MAX:
+                                suffix = "_max";
+                                break;
+                            case ACTIVE_TASKS:
+                                suffix = "_active_count";
+                                break;
+                            case DURATION:
+                                suffix = "_duration_sum";
+                                break;
+                        }
+
+                        samples.sample(suffix, "statistic", m.getStatistic().toString(), m.getValue());
+                    }
+                }));
 
         return new DefaultMeter(id, type, measurements);
     }
@@ -384,79 +526,48 @@ public class PrometheusMeterRegistry extends MeterRegistry {
 
     private void addDistributionStatisticSamples(DistributionStatisticConfig distributionStatisticConfig, MicrometerCollector collector,
                                                  HistogramSupport histogramSupport, List<String> tagValues, boolean forLongTaskTimer) {
-        collector.add(tagValues, (conventionName, tagKeys) -> {
-            Stream.Builder<Collector.MetricFamilySamples.Sample> samples = Stream.builder();
-
+        DistributionLabels labels = new DistributionLabels();
+        collector.add(tagValues, samples -> {
             HistogramSnapshot histogramSnapshot = histogramSupport.takeSnapshot();
             ValueAtPercentile[] percentileValues = histogramSnapshot.percentileValues();
             CountAtBucket[] histogramCounts = histogramSnapshot.histogramCounts();
             double count = histogramSnapshot.count();
 
-            if (percentileValues.length > 0) {
-                List<String> quantileKeys = new LinkedList<>(tagKeys);
-                quantileKeys.add("quantile");
+            // Prometheus doesn't balk at a metric being BOTH a histogram and a summary
+            samples.family(distributionStatisticConfig.isPublishingHistogram() || histogramCounts.length > 0 ?
+                    Collector.Type.HISTOGRAM : Collector.Type.SUMMARY, "");
 
-                // satisfies https://prometheus.io/docs/concepts/metric_types/#summary
-                for (ValueAtPercentile v : percentileValues) {
-                    List<String> quantileValues = new LinkedList<>(tagValues);
-                    quantileValues.add(Collector.doubleToGoString(v.percentile()));
-                    samples.add(new Collector.MetricFamilySamples.Sample(
-                            conventionName, quantileKeys, quantileValues, v.value(TimeUnit.SECONDS)));
-                }
+            // satisfies https://prometheus.io/docs/concepts/metric_types/#summary
+            for (int i = 0; i < percentileValues.length; i++) {
+                samples.quantile(labels.quantile(percentileValues, i), percentileValues[i].percentile(), percentileValues[i].value(TimeUnit.SECONDS));
             }
 
-            Collector.Type type = distributionStatisticConfig.isPublishingHistogram() ? Collector.Type.HISTOGRAM : Collector.Type.SUMMARY;
             if (histogramCounts.length > 0) {
-                // Prometheus doesn't balk at a metric being BOTH a histogram and a summary
-                type = Collector.Type.HISTOGRAM;
-
-                List<String> histogramKeys = new LinkedList<>(tagKeys);
-
-                String sampleName = conventionName + "_bucket";
                 switch (prometheusConfig.histogramFlavor()) {
                     case Prometheus:
-                        histogramKeys.add("le");
-
                         // satisfies https://prometheus.io/docs/concepts/metric_types/#histogram
-                        for (CountAtBucket c : histogramCounts) {
-                            final List<String> histogramValues = new LinkedList<>(tagValues);
-                            histogramValues.add(Collector.doubleToGoString(c.bucket(TimeUnit.SECONDS)));
-                            samples.add(new Collector.MetricFamilySamples.Sample(
-                                    sampleName, histogramKeys, histogramValues, c.count()));
+                        for (int i = 0; i < histogramCounts.length; i++) {
+                            samples.bucket(labels.bucket(histogramCounts, i, TimeUnit.SECONDS), histogramCounts[i].bucket(TimeUnit.SECONDS), histogramCounts[i].count());
                         }
 
                         // the +Inf bucket should always equal `count`
-                        final List<String> histogramValues = new LinkedList<>(tagValues);
-                        histogramValues.add("+Inf");
-                        samples.add(new Collector.MetricFamilySamples.Sample(
-                                sampleName, histogramKeys, histogramValues, count));
+                        samples.bucket("+Inf", Double.POSITIVE_INFINITY, count);
                         break;
                     case VictoriaMetrics:
-                        histogramKeys.add("vmrange");
-
                         for (CountAtBucket c : histogramCounts) {
-                            final List<String> histogramValuesVM = new LinkedList<>(tagValues);
-                            histogramValuesVM.add(FixedBoundaryVictoriaMetricsHistogram.getRangeTagValue(c.bucket()));
-                            samples.add(new Collector.MetricFamilySamples.Sample(
-                                    sampleName, histogramKeys, histogramValuesVM, c.count()));
+                            samples.sample("_bucket", "vmrange", FixedBoundaryVictoriaMetricsHistogram.getRangeTagValue(c.bucket()), c.count());
                         }
                         break;
                     default:
                         break;
                 }
-
             }
 
-            samples.add(new Collector.MetricFamilySamples.Sample(
-                    conventionName + (forLongTaskTimer ? "_active_count" : "_count"), tagKeys, tagValues, count));
+            samples.sample(forLongTaskTimer ? "_active_count" : "_count", count);
+            samples.sample(forLongTaskTimer ? "_duration_sum" : "_sum", histogramSnapshot.total(TimeUnit.SECONDS));
 
-            samples.add(new Collector.MetricFamilySamples.Sample(
-                    conventionName + (forLongTaskTimer ? "_duration_sum" : "_sum"), tagKeys, tagValues, histogramSnapshot.total(TimeUnit.SECONDS)));
-
-            return Stream.of(new MicrometerCollector.Family(type, conventionName, samples.build()),
-                    new MicrometerCollector.Family(Collector.Type.GAUGE, conventionName + "_max", Stream.of(
-                            new Collector.MetricFamilySamples.Sample(conventionName + "_max", tagKeys, tagValues,
-                                    histogramSnapshot.max(getBaseTimeUnit())))));
+            samples.family(Collector.Type.GAUGE, "_max");
+            samples.sample("_max", histogramSnapshot.max(getBaseTimeUnit()));
         });
     }
 
@@ -474,7 +585,8 @@ public class PrometheusMeterRegistry extends MeterRegistry {
     private void applyToCollector(Meter.Id id, Consumer<MicrometerCollector> consumer) {
         collectorMap.compute(getConventionName(id), (name, existingCollector) -> {
             if (existingCollector == null) {
-                MicrometerCollector micrometerCollector = new MicrometerCollector(id, config().namingConvention(), prometheusConfig);
+                MicrometerCollector micrometerCollector = new MicrometerCollector(id, config().namingConvention(), prometheusConfig,
+                        () -> collectingForeignCollectors.get() != null);
                 consumer.accept(micrometerCollector);
                 return micrometerCollector.register(registry);
             }
@@ -516,4 +628,37 @@ public class PrometheusMeterRegistry extends MeterRegistry {
 
         return this;
     }
+
+    /**
+     * Caches the label values of the percentiles and histogram buckets of a meter, which only depend on its
+     * configuration, so that they aren't formatted again on every scrape.
+     */
+    private static class DistributionLabels {
+        private volatile String[] quantiles = new String[0];
+        private volatile String[] buckets = new String[0];
+
+        String quantile(ValueAtPercentile[] percentileValues, int index) {
+            String[] quantiles = this.quantiles;
+            if (quantiles.length != percentileValues.length) {
+                quantiles = new String[percentileValues.length];
+                for (int i = 0; i < quantiles.length; i++) {
+                    quantiles[i] = Collector.doubleToGoString(percentileValues[i].percentile());
+                }
+                this.quantiles = quantiles;
+            }
+            return quantiles[index];
+        }
+
+        String bucket(CountAtBucket[] histogramCounts, int index, @Nullable TimeUnit unit) {
+            String[] buckets = this.buckets;
+            if (buckets.length != histogramCounts.length) {
+                buckets = new String[histogramCounts.length];
+                for (int i = 0; i < buckets.length; i++) {
+                    buckets[i] = Collector.doubleToGoString(unit == null ? histogramCounts[i].bucket() : histogramCounts[i].bucket(unit));
+                }
+                this.buckets = buckets;
+            }
+            return buckets[index];
+        }
+    }
 }
@@ -0,0 +1,630 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.prometheus;
+
+import io.micrometer.core.lang.Nullable;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.Type;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes samples in the Prometheus protobuf exposition format, as length delimited {@code io.prometheus.client.MetricFamily}
+ * messages of the Prometheus client model. Messages are encoded here as they are emitted by
+ * {@link MicrometerCollector.StreamingChild children}, without protobuf classes or {@link MetricFamilySamples}.
+ * <p>
+ * Every sample of counter, gauge and untyped families is a metric of its own, while the buckets or quantiles, count and
+ * sum of one child make up a single metric of histogram and summary families. Samples that don't fit a summary or
+ * histogram metric are written as untyped metrics under the same names and labels as in the text format: the
+ * statistics of custom meters, and the buckets or quantiles of long task timers, which have an active count and a
+ * duration sum instead of a count and a sum. Samples that this format has no place for are left out, like the
+ * quantiles of histograms.
+ * <p>
+ * Families are buffered until all children of their collector have been written, since each message is preceded by
+ * its length. One writer is used for a whole scrape, so these buffers are reused from one collector to the next.
+ */
+class ProtobufWriter implements MicrometerCollector.Samples {
+    private static final String TOTAL_SUFFIX = "_total";
+
+    // field numbers and values of metrics.proto
+    private static final int METRIC_FAMILY_NAME = 1;
+    private static final int METRIC_FAMILY_HELP = 2;
+    private static final int METRIC_FAMILY_TYPE = 3;
+    private static final int METRIC_FAMILY_METRIC = 4;
+
+    private static final int METRIC_LABEL = 1;
+    private static final int METRIC_GAUGE = 2;
+    private static final int METRIC_COUNTER = 3;
+    private static final int METRIC_SUMMARY = 4;
+    private static final int METRIC_UNTYPED = 5;
+    private static final int METRIC_HISTOGRAM = 7;
+
+    private static final int LABEL_PAIR_NAME = 1;
+    private static final int LABEL_PAIR_VALUE = 2;
+
+    // gauge, counter and untyped values alike
+    private static final int VALUE = 1;
+
+    // summaries and histograms alike
+    private static final int SAMPLE_COUNT = 1;
+    private static final int SAMPLE_SUM = 2;
+    private static final int QUANTILE_OR_BUCKET = 3;
+
+    private static final int QUANTILE_QUANTILE = 1;
+    private static final int QUANTILE_VALUE = 2;
+
+    private static final int BUCKET_CUMULATIVE_COUNT = 1;
+    private static final int BUCKET_UPPER_BOUND = 2;
+
+    private static final int TYPE_COUNTER = 0;
+    private static final int TYPE_GAUGE = 1;
+    private static final int TYPE_SUMMARY = 2;
+    private static final int TYPE_UNTYPED = 3;
+    private static final int TYPE_HISTOGRAM = 4;
+
+    private static final byte[] NO_LABELS = new byte[0];
+
+    private final OutputStream outputStream;
+
+    @Nullable
+    private final Set<String> includedNames;
+
+    private final List<FamilyBuffer> families = new ArrayList<>();
+    private int familyCount;
+
+    @Nullable
+    private MicrometerCollector collector;
+
+    private byte[] labels = NO_LABELS;
+
+    @Nullable
+    private FamilyBuffer family;
+
+    // scratch buffers for the messages nested in a metric family
+    private final Buffer header = new Buffer();
+    private final Buffer metric = new Buffer();
+    private final Buffer value = new Buffer();
+
+    ProtobufWriter(OutputStream outputStream, @Nullable Set<String> includedNames) {
+        this.outputStream = outputStream;
+        this.includedNames = includedNames;
+    }
+
+    void startCollector(MicrometerCollector collector) {
+        this.collector = collector;
+        this.familyCount = 0;
+        this.family = null;
+        this.labels = NO_LABELS;
+    }
+
+    /**
+     * @param labels The tags of the child, encoded by {@link #labelPairs(List, List)}.
+     */
+    void startChild(byte[] labels) {
+        endChild();
+        this.labels = labels;
+    }
+
+    void endCollector() throws IOException {
+        endChild();
+        for (int i = 0; i < familyCount; i++) {
+            FamilyBuffer buffered = families.get(i);
+            if (buffered.metrics.size > 0) {
+                writeFamily(buffered.name(), collector.getHelp(), buffered.untyped ? Type.UNKNOWN : buffered.type,
+                        buffered.metrics);
+            }
+        }
+        collector = null;
+    }
+
+    @Override
+    public void family(Type type, String suffix) {
+        family = familyBuffer(type, suffix);
+    }
+
+    private FamilyBuffer familyBuffer(Type type, String suffix) {
+        for (int i = 0; i < familyCount; i++) {
+            FamilyBuffer existing = families.get(i);
+            if (existing.suffix.equals(suffix)) {
+                return existing;
+            }
+        }
+
+        if (familyCount == families.size()) {
+            families.add(new FamilyBuffer());
+        }
+        FamilyBuffer started = families.get(familyCount);
+        started.start(type, suffix);
+        familyCount++;
+        return started;
+    }
+
+    @Override
+    public void sample(String suffix, double value) {
+        addSample(suffix, null, null, value);
+    }
+
+    @Override
+    public void sample(String suffix, String labelName, String labelValue, double value) {
+        addSample(suffix, labelName, labelValue, value);
+    }
+
+    private void addSample(String suffix, @Nullable String labelName, @Nullable String labelValue, double sampleValue) {
+        if (family.isDistribution() && labelName == null && isDistributionSample(suffix)) {
+            family.distributionSample(suffix, sampleValue);
+            return;
+        }
+
+        // samples named otherwise than their family, like the statistics of custom meters, make untyped families
+        FamilyBuffer target = suffix.equals(family.suffix) ? family : familyBuffer(Type.UNKNOWN, suffix);
+        target.untypedSample(suffix, labelName, labelValue, sampleValue);
+    }
+
+    @Override
+    public void quantile(String quantileLabel, double quantile, double value) {
+        if (family.type == Type.SUMMARY && family.includes("")) {
+            family.quantile(quantile, value);
+            family.point("", "quantile", quantileLabel, value);
+        }
+    }
+
+    @Override
+    public void bucket(String upperBoundLabel, double upperBound, double count) {
+        if (family.type == Type.HISTOGRAM && family.includes("_bucket")) {
+            family.bucket(upperBound, count);
+            family.point("_bucket", "le", upperBoundLabel, count);
+        }
+    }
+
+    private void endChild() {
+        for (int i = 0; i < familyCount; i++) {
+            families.get(i).endDistribution();
+        }
+    }
+
+    /**
+     * Write families of samples that were already collected, grouping the samples of each summary or histogram by
+     * their labels.
+     *
+     * @param metricFamilySamples The families to write.
+     * @throws IOException if writing fails
+     */
+    void write(List<MetricFamilySamples> metricFamilySamples) throws IOException {
+        Buffer metrics = new Buffer();
+        for (MetricFamilySamples familySamples : metricFamilySamples) {
+            Type type = protobufType(familySamples.type) == TYPE_UNTYPED ? Type.UNKNOWN : familySamples.type;
+            String name = type == Type.COUNTER ? familySamples.name + TOTAL_SUFFIX : familySamples.name;
+            metrics.reset();
+
+            Map<List<String>, Distribution> distributions = new LinkedHashMap<>();
+            for (MetricFamilySamples.Sample sample : familySamples.samples) {
+                if (includedNames != null && !includedNames.contains(sample.name)) {
+                    continue;
+                }
+                String suffix = sample.name.startsWith(familySamples.name) ?
+                        sample.name.substring(familySamples.name.length()) : sample.name;
+
+                if (type == Type.SUMMARY || type == Type.HISTOGRAM) {
+                    distributionSample(distributions, type, suffix, sample);
+                } else if (type != Type.COUNTER || suffix.equals(TOTAL_SUFFIX) || suffix.isEmpty()) {
+                    addMetric(metrics, type, labelPairs(sample.labelNames, sample.labelValues), null, null, sample.value);
+                }
+            }
+
+            for (Distribution distribution : distributions.values()) {
+                distribution.writeTo(metrics, type);
+            }
+            if (metrics.size > 0) {
+                writeFamily(name, familySamples.help, type, metrics);
+            }
+        }
+    }
+
+    private void distributionSample(Map<List<String>, Distribution> distributions, Type type, String suffix,
+                                    MetricFamilySamples.Sample sample) {
+        String pointLabel = type == Type.SUMMARY ? "quantile" : "le";
+        int pointLabelIndex = sample.labelNames.indexOf(pointLabel);
+
+        List<String> labelNames = sample.labelNames;
+        List<String> labelValues = sample.labelValues;
+        if (pointLabelIndex >= 0) {
+            labelNames = new ArrayList<>(labelNames);
+            labelNames.remove(pointLabelIndex);
+            labelValues = new ArrayList<>(labelValues);
+            labelValues.remove(pointLabelIndex);
+        }
+
+        List<String> key = new ArrayList<>(labelNames);
+        key.addAll(labelValues);
+        Distribution distribution = distributions.computeIfAbsent(key, k -> new Distribution());
+        if (distribution.labels == null) {
+            distribution.labels = labelPairs(labelNames, labelValues);
+        }
+
+        if (pointLabelIndex >= 0) {
+            double point = parseGoDouble(sample.labelValues.get(pointLabelIndex));
+            if (type == Type.SUMMARY && suffix.isEmpty()) {
+                distribution.quantile(point, sample.value);
+            } else if (type == Type.HISTOGRAM && suffix.equals("_bucket")) {
+                distribution.bucket(point, sample.value);
+            }
+        } else {
+            distribution.sample(suffix, sample.value);
+        }
+    }
+
+    private void writeFamily(String name, String help, Type type, Buffer metrics) throws IOException {
+        header.reset();
+        header.string(METRIC_FAMILY_NAME, name);
+        header.string(METRIC_FAMILY_HELP, help);
+        header.varint(METRIC_FAMILY_TYPE, protobufType(type));
+
+        value.reset();
+        value.rawVarint(header.size + metrics.size);
+        value.writeTo(outputStream);
+        header.writeTo(outputStream);
+        metrics.writeTo(outputStream);
+    }
+
+    private void addMetric(Buffer metrics, Type type, byte[] labels, @Nullable String labelName,
+                           @Nullable String labelValue, double sampleValue) {
+        metric.reset();
+        metric.raw(labels);
+        if (labelName != null && labelValue != null) {
+            value.reset();
+            value.string(LABEL_PAIR_NAME, labelName);
+            value.string(LABEL_PAIR_VALUE, labelValue);
+            metric.message(METRIC_LABEL, value);
+        }
+
+        value.reset();
+        value.fixed64(VALUE, sampleValue);
+        switch (type) {
+            case COUNTER:
+                metric.message(METRIC_COUNTER, value);
+                break;
+            case GAUGE:
+                metric.message(METRIC_GAUGE, value);
+                break;
+            default:
+                metric.message(METRIC_UNTYPED, value);
+                break;
+        }
+        metrics.message(METRIC_FAMILY_METRIC, metric);
+    }
+
+    private static int protobufType(Type type) {
+        switch (type) {
+            case COUNTER:
+                return TYPE_COUNTER;
+            case GAUGE:
+                return TYPE_GAUGE;
+            case SUMMARY:
+                return TYPE_SUMMARY;
+            case HISTOGRAM:
+                return TYPE_HISTOGRAM;
+            default:
+                return TYPE_UNTYPED;
+        }
+    }
+
+    /**
+     * @return Whether the sample is the count or sum of a summary or histogram.
+     */
+    private static boolean isDistributionSample(String suffix) {
+        return suffix.equals("_count") || suffix.equals("_sum");
+    }
+
+    private static double parseGoDouble(String value) {
+        switch (value) {
+            case "+Inf":
+                return Double.POSITIVE_INFINITY;
+            case "-Inf":
+                return Double.NEGATIVE_INFINITY;
+            case "NaN":
+                return Double.NaN;
+            default:
+                return Double.parseDouble(value);
+        }
+    }
+
+    /**
+     * @param tagKeys   The label names.
+     * @param tagValues The label values.
+     * @return Labels encoded as the repeated label pairs of a metric, to be copied as is into every metric of a child.
+     */
+    static byte[] labelPairs(List<String> tagKeys, List<String> tagValues) {
+        Buffer pairs = new Buffer();
+        Buffer pair = new Buffer();
+        for (int i = 0; i < tagKeys.size(); i++) {
+            pair.reset();
+            pair.string(LABEL_PAIR_NAME, tagKeys.get(i));
+            pair.string(LABEL_PAIR_VALUE, tagValues.get(i));
+            pairs.message(METRIC_LABEL, pair);
+        }
+        return Arrays.copyOf(pairs.bytes, pairs.size);
+    }
+
+    /**
+     * The count, sum and quantiles or buckets of a summary or histogram metric being written.
+     */
+    private class Distribution {
+        @Nullable
+        byte[] labels;
+
+        boolean pending;
+        boolean hasCount;
+        boolean hasSum;
+        long count;
+        double sum;
+        final Buffer points = new Buffer();
+
+        void sample(String suffix, double sampleValue) {
+            switch (suffix) {
+                case "_count":
+                    count = (long) sampleValue;
+                    hasCount = true;
+                    pending = true;
+                    break;
+                case "_sum":
+                    sum = sampleValue;
+                    hasSum = true;
+                    pending = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        void quantile(double quantile, double quantileValue) {
+            value.reset();
+            value.fixed64(QUANTILE_QUANTILE, quantile);
+            value.fixed64(QUANTILE_VALUE, quantileValue);
+            points.message(QUANTILE_OR_BUCKET, value);
+            pending = true;
+        }
+
+        void bucket(double upperBound, double cumulativeCount) {
+            value.reset();
+            value.varint(BUCKET_CUMULATIVE_COUNT, (long) cumulativeCount);
+            value.fixed64(BUCKET_UPPER_BOUND, upperBound);
+            points.message(QUANTILE_OR_BUCKET, value);
+            pending = true;
+        }
+
+        void writeTo(Buffer metrics, Type type) {
+            if (!pending) {
+                return;
+            }
+
+            value.reset();
+            value.varint(SAMPLE_COUNT, count);
+            value.fixed64(SAMPLE_SUM, sum);
+            value.raw(points.bytes, points.size);
+
+            metric.reset();
+            metric.raw(labels == null ? ProtobufWriter.this.labels : labels);
+            metric.message(type == Type.SUMMARY ? METRIC_SUMMARY : METRIC_HISTOGRAM, value);
+            metrics.message(METRIC_FAMILY_METRIC, metric);
+
+            reset();
+        }
+
+        void reset() {
+            pending = false;
+            hasCount = false;
+            hasSum = false;
+            count = 0;
+            sum = 0;
+            points.reset();
+        }
+    }
+
+    /**
+     * The state of one family of the collector being written.
+     */
+    private class FamilyBuffer extends Distribution {
+        final Buffer metrics = new Buffer();
+
+        String suffix = "";
+        Type type = Type.UNKNOWN;
+
+        /**
+         * Counters named without {@code _total} have it appended to their name, as to the name of their samples in
+         * the text format.
+         */
+        boolean appendTotal;
+
+        /**
+         * Whether samples that don't fit a summary or histogram metric were written to this family as untyped metrics,
+         * so that the family is untyped too.
+         */
+        boolean untyped;
+
+        /**
+         * The quantiles or buckets of the current child, as in the text format, in case the child has no count and sum
+         * to make a summary or histogram metric of.
+         */
+        int pointCount;
+        String[] pointSuffixes = new String[0];
+        String[] pointLabelNames = new String[0];
+        String[] pointLabelValues = new String[0];
+        double[] pointValues = new double[0];
+
+        void start(Type type, String suffix) {
+            this.type = type;
+            this.suffix = suffix;
+            this.appendTotal = type == Type.COUNTER && !(collector.getConventionName() + suffix).endsWith(TOTAL_SUFFIX);
+            this.untyped = false;
+            this.pointCount = 0;
+            metrics.reset();
+            reset();
+        }
+
+        void untypedSample(String sampleSuffix, @Nullable String labelName, @Nullable String labelValue,
+                           double sampleValue) {
+            if (includes(sampleSuffix)) {
+                untyped |= isDistribution();
+                addMetric(metrics, untyped ? Type.UNKNOWN : type, ProtobufWriter.this.labels, labelName, labelValue,
+                        sampleValue);
+            }
+        }
+
+        void point(String sampleSuffix, String labelName, String labelValue, double sampleValue) {
+            if (pointCount == pointValues.length) {
+                int length = Math.max(8, pointCount * 2);
+                pointSuffixes = Arrays.copyOf(pointSuffixes, length);
+                pointLabelNames = Arrays.copyOf(pointLabelNames, length);
+                pointLabelValues = Arrays.copyOf(pointLabelValues, length);
+                pointValues = Arrays.copyOf(pointValues, length);
+            }
+            pointSuffixes[pointCount] = sampleSuffix;
+            pointLabelNames[pointCount] = labelName;
+            pointLabelValues[pointCount] = labelValue;
+            pointValues[pointCount] = sampleValue;
+            pointCount++;
+        }
+
+        String name() {
+            String name = collector.getConventionName() + suffix;
+            return appendTotal ? name + TOTAL_SUFFIX : name;
+        }
+
+        boolean isDistribution() {
+            return type == Type.SUMMARY || type == Type.HISTOGRAM;
+        }
+
+        void distributionSample(String sampleSuffix, double sampleValue) {
+            if (includes(sampleSuffix)) {
+                sample(sampleSuffix, sampleValue);
+            }
+        }
+
+        void endDistribution() {
+            if (pending && !(hasCount && hasSum)) {
+                // like the quantiles or buckets of a long task timer, which has an active count and duration sum
+                for (int i = 0; i < pointCount; i++) {
+                    FamilyBuffer target = pointSuffixes[i].equals(suffix) ? this :
+                            familyBuffer(Type.UNKNOWN, pointSuffixes[i]);
+                    target.untypedSample(pointSuffixes[i], pointLabelNames[i], pointLabelValues[i], pointValues[i]);
+                }
+                if (hasCount) {
+                    familyBuffer(Type.UNKNOWN, "_count").untypedSample("_count", null, null, count);
+                }
+                if (hasSum) {
+                    familyBuffer(Type.UNKNOWN, "_sum").untypedSample("_sum", null, null, sum);
+                }
+                reset();
+            } else {
+                writeTo(metrics, type);
+            }
+            pointCount = 0;
+        }
+
+        boolean includes(String sampleSuffix) {
+            if (includedNames == null) {
+                return true;
+            }
+            String conventionName = collector.getConventionName();
+            boolean total = appendTotal && sampleSuffix.equals(suffix);
+            return includedNames.contains(conventionName + sampleSuffix + (total ? TOTAL_SUFFIX : ""));
+        }
+    }
+
+    /**
+     * A growable buffer of protobuf encoded fields.
+     */
+    private static class Buffer {
+        private static final int WIRE_TYPE_VARINT = 0;
+        private static final int WIRE_TYPE_FIXED64 = 1;
+        private static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+
+        byte[] bytes = new byte[64];
+        int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        void varint(int field, long fieldValue) {
+            tag(field, WIRE_TYPE_VARINT);
+            rawVarint(fieldValue);
+        }
+
+        void fixed64(int field, double fieldValue) {
+            tag(field, WIRE_TYPE_FIXED64);
+            ensureCapacity(8);
+            long bits = Double.doubleToRawLongBits(fieldValue);
+            for (int i = 0; i < 8; i++) {
+                bytes[size++] = (byte) (bits >>> (8 * i));
+            }
+        }
+
+        void string(int field, String fieldValue) {
+            byte[] utf8 = fieldValue.getBytes(StandardCharsets.UTF_8);
+            tag(field, WIRE_TYPE_LENGTH_DELIMITED);
+            rawVarint(utf8.length);
+            raw(utf8, utf8.length);
+        }
+
+        void message(int field, Buffer message) {
+            tag(field, WIRE_TYPE_LENGTH_DELIMITED);
+            rawVarint(message.size);
+            raw(message.bytes, message.size);
+        }
+
+        void raw(byte[] source) {
+            raw(source, source.length);
+        }
+
+        void raw(byte[] source, int length) {
+            ensureCapacity(length);
+            System.arraycopy(source, 0, bytes, size, length);
+            size += length;
+        }
+
+        void rawVarint(long unsigned) {
+            ensureCapacity(10);
+            while ((unsigned & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((unsigned & 0x7F) | 0x80);
+                unsigned >>>= 7;
+            }
+            bytes[size++] = (byte) unsigned;
+        }
+
+        void writeTo(OutputStream outputStream) throws IOException {
+            outputStream.write(bytes, 0, size);
+        }
+
+        private void tag(int field, int wireType) {
+            rawVarint((field << 3) | wireType);
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.prometheus;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.lang.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares the body of a scrape with the scrapes asking for the same content while it is computed and for a window
+ * after it started, so that concurrent or near-simultaneous scrapes only walk the meters once.
+ * <p>
+ * How long bodies take to compute, their size and how many scrapes were served a body computed for another one are
+ * recorded to the registry being scraped.
+ */
+class ScrapeCache {
+    private final MeterRegistry registry;
+    private final Clock clock;
+    private final long windowNanos;
+    private final ConcurrentMap<List<Object>, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Size of the last body, to size the buffer of the next one.
+     */
+    private volatile int lastSize = 1024;
+
+    ScrapeCache(MeterRegistry registry, Clock clock, Duration window) {
+        this.registry = registry;
+        this.clock = clock;
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * @param contentType   The content type of the scrape.
+     * @param includedNames Sample names to be included, {@code null} for all.
+     * @param scrape        Computes the body of the scrape, if no body of the same content can be shared.
+     * @return The body of the scrape, to be served as is and not to be modified.
+     * @throws IOException if computing the body failed
+     */
+    byte[] scrape(String contentType, @Nullable Set<String> includedNames, ScrapeFunction scrape) throws IOException {
+        List<Object> key = Arrays.asList(contentType, includedNames == null ? null : new HashSet<>(includedNames));
+        long now = clock.monotonicTime();
+
+        Snapshot[] computing = new Snapshot[1];
+        Snapshot snapshot = snapshots.compute(key, (k, existing) -> {
+            if (existing != null && existing.isShareableAt(now)) {
+                return existing;
+            }
+            return computing[0] = new Snapshot(now);
+        });
+
+        if (snapshot != computing[0]) {
+            Counter.builder("prometheus.scrape.coalesced")
+                    .description("Scrapes served the body computed for another scrape")
+                    .register(registry)
+                    .increment();
+            return snapshot.await();
+        }
+
+        snapshots.values().removeIf(stale -> !stale.isShareableAt(now));
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(lastSize);
+            scrape.write(body, contentType, includedNames);
+            byte[] bytes = body.toByteArray();
+            lastSize = bytes.length;
+            snapshot.body.complete(bytes);
+
+            Timer.builder("prometheus.scrape.duration")
+                    .description("Time taken to compute the body of a scrape")
+                    .register(registry)
+                    .record(clock.monotonicTime() - now, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("prometheus.scrape.size")
+                    .description("Size of the body of a scrape")
+                    .baseUnit(BaseUnits.BYTES)
+                    .register(registry)
+                    .record(bytes.length);
+            return bytes;
+        } catch (IOException | RuntimeException | Error e) {
+            snapshot.body.completeExceptionally(e);
+            snapshots.remove(key, snapshot);
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    interface ScrapeFunction {
+        void write(OutputStream outputStream, String contentType, @Nullable Set<String> includedNames) throws IOException;
+    }
+
+    private class Snapshot {
+        final long startTime;
+        final CompletableFuture<byte[]> body = new CompletableFuture<>();
+
+        Snapshot(long startTime) {
+            this.startTime = startTime;
+        }
+
+        boolean isShareableAt(long time) {
+            return !body.isDone() || (!body.isCompletedExceptionally() && time - startTime < windowNanos);
+        }
+
+        byte[] await() throws IOException {
+            try {
+                return body.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw new IOException("The scrape this scrape was coalesced with failed", cause);
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.prometheus;
+
+import io.micrometer.core.lang.Nullable;
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.Type;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes samples straight to the Prometheus text format, version 0.0.4, or the OpenMetrics text format,
+ * version 1.0.0, as they are emitted by {@link MicrometerCollector.StreamingChild children}. The output is
+ * the same as {@link io.prometheus.client.exporter.common.TextFormat} would write for the
+ * {@link MetricFamilySamples} of the same collectors, without creating them.
+ * <p>
+ * The first family of a collector is written directly. The samples of any other family, like the max of timers,
+ * are buffered until all children of the collector have been written. One writer is used for a whole scrape,
+ * so these buffers are reused from one collector to the next.
+ */
+class TextFormatWriter implements MicrometerCollector.Samples {
+    private static final String TOTAL_SUFFIX = "_total";
+
+    private final Writer writer;
+    private final boolean openMetrics;
+
+    @Nullable
+    private final Set<String> includedNames;
+
+    private final List<FamilyWriter> families = new ArrayList<>();
+    private int familyCount;
+
+    @Nullable
+    private MicrometerCollector collector;
+
+    private String labels = "";
+
+    @Nullable
+    private FamilyWriter family;
+
+    TextFormatWriter(Writer writer, boolean openMetrics, @Nullable Set<String> includedNames) {
+        this.writer = writer;
+        this.openMetrics = openMetrics;
+        this.includedNames = includedNames;
+    }
+
+    void startCollector(MicrometerCollector collector) {
+        this.collector = collector;
+        this.familyCount = 0;
+        this.family = null;
+    }
+
+    /**
+     * @param labels The tags of the child, formatted by {@link #labelPairs(List, List)}.
+     */
+    void startChild(String labels) {
+        this.labels = labels;
+    }
+
+    void endCollector() throws IOException {
+        for (int i = 1; i < familyCount; i++) {
+            FamilyWriter buffered = families.get(i);
+            if (buffered.buffer.length() > 0) {
+                writer.append(buffered.buffer);
+            }
+        }
+        collector = null;
+    }
+
+    @Override
+    public void family(Type type, String suffix) {
+        for (int i = 0; i < familyCount; i++) {
+            FamilyWriter existing = families.get(i);
+            if (existing.suffix.equals(suffix)) {
+                family = existing;
+                return;
+            }
+        }
+
+        if (familyCount == families.size()) {
+            families.add(new FamilyWriter());
+        }
+        family = families.get(familyCount);
+        family.start(type, suffix, familyCount == 0);
+        familyCount++;
+    }
+
+    @Override
+    public void sample(String suffix, double value) throws IOException {
+        Appendable out = family.sampleName(suffix);
+        if (out == null) {
+            return;
+        }
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels);
+            out.append(openMetrics ? "}" : ",}");
+        }
+        out.append(' ').append(Collector.doubleToGoString(value)).append('\n');
+    }
+
+    @Override
+    public void sample(String suffix, String labelName, String labelValue, double value) throws IOException {
+        Appendable out = family.sampleName(suffix);
+        if (out == null) {
+            return;
+        }
+        out.append('{');
+        if (!labels.isEmpty()) {
+            out.append(labels).append(',');
+        }
+        out.append(labelName).append("=\"");
+        appendEscapedLabelValue(out, labelValue);
+        out.append(openMetrics ? "\"}" : "\",}");
+        out.append(' ').append(Collector.doubleToGoString(value)).append('\n');
+    }
+
+    /**
+     * Write families of samples that were already collected, as {@link io.prometheus.client.exporter.common.TextFormat}
+     * does.
+     *
+     * @param metricFamilySamples The families to write.
+     * @throws IOException if writing fails
+     */
+    void write(List<MetricFamilySamples> metricFamilySamples) throws IOException {
+        for (MetricFamilySamples familySamples : metricFamilySamples) {
+            boolean headerWritten = false;
+            for (MetricFamilySamples.Sample sample : familySamples.samples) {
+                if (includedNames != null && !includedNames.contains(sample.name)) {
+                    continue;
+                }
+                if (!headerWritten) {
+                    appendHeader(writer, familySamples.name, familySamples.type, familySamples.help);
+                    headerWritten = true;
+                }
+
+                writer.write(sample.name);
+                if (!sample.labelNames.isEmpty()) {
+                    writer.write('{');
+                    for (int i = 0; i < sample.labelNames.size(); i++) {
+                        if (i > 0) {
+                            writer.write(',');
+                        }
+                        writer.write(sample.labelNames.get(i));
+                        writer.write("=\"");
+                        appendEscapedLabelValue(writer, sample.labelValues.get(i));
+                        writer.write('"');
+                    }
+                    writer.write(openMetrics ? "}" : ",}");
+                }
+                writer.write(' ');
+                writer.write(Collector.doubleToGoString(sample.value));
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * @param name The family name, without the {@code _total} suffix of counters, as {@link MetricFamilySamples}
+     *             holds it.
+     */
+    private void appendHeader(Appendable out, String name, Type type, String help) throws IOException {
+        if (openMetrics) {
+            out.append("# TYPE ").append(name).append(' ').append(openMetricsType(type)).append('\n');
+            out.append("# HELP ").append(name).append(' ');
+            appendEscapedLabelValue(out, help);
+            out.append('\n');
+        } else {
+            String suffix = type == Type.COUNTER ? TOTAL_SUFFIX : "";
+            out.append("# HELP ").append(name).append(suffix).append(' ');
+            appendEscapedHelp(out, help);
+            out.append('\n');
+            out.append("# TYPE ").append(name).append(suffix).append(' ').append(textType(type)).append('\n');
+        }
+    }
+
+    private static String textType(Type type) {
+        switch (type) {
+            case COUNTER:
+                return "counter";
+            case GAUGE:
+                return "gauge";
+            case SUMMARY:
+                return "summary";
+            case HISTOGRAM:
+                return "histogram";
+            default:
+                return "untyped";
+        }
+    }
+
+    private static String openMetricsType(Type type) {
+        switch (type) {
+            case COUNTER:
+                return "counter";
+            case GAUGE:
+                return "gauge";
+            case SUMMARY:
+                return "summary";
+            case HISTOGRAM:
+                return "histogram";
+            default:
+                return "unknown";
+        }
+    }
+
+    /**
+     * @param tagKeys   The label names.
+     * @param tagValues The label values, escaped here.
+     * @return Labels formatted as {@code k1="v1",k2="v2"}, the separator between each and the closing brace left out
+     * so that they can be followed by another label in both formats.
+     */
+    static String labelPairs(List<String> tagKeys, List<String> tagValues) {
+        StringBuilder pairs = new StringBuilder();
+        try {
+            for (int i = 0; i < tagKeys.size(); i++) {
+                if (i > 0) {
+                    pairs.append(',');
+                }
+                pairs.append(tagKeys.get(i)).append("=\"");
+                appendEscapedLabelValue(pairs, tagValues.get(i));
+                pairs.append('"');
+            }
+        } catch (IOException e) {
+            // This actually never happens since StringBuilder::append() doesn't throw any IOException
+            throw new RuntimeException(e);
+        }
+        return pairs.toString();
+    }
+
+    private static void appendEscapedHelp(Appendable out, String help) throws IOException {
+        for (int i = 0; i < help.length(); i++) {
+            char c = help.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+    }
+
+    private static void appendEscapedLabelValue(Appendable out, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+    }
+
+    /**
+     * The state of one family of the collector being written.
+     */
+    private class FamilyWriter {
+        final StringBuilder buffer = new StringBuilder();
+
+        String suffix = "";
+        Type type = Type.UNKNOWN;
+        boolean direct;
+        boolean headerWritten;
+
+        /**
+         * Counters named without {@code _total} have it appended to the name of their samples, as
+         * {@link MetricFamilySamples} does.
+         */
+        boolean appendTotal;
+
+        void start(Type type, String suffix, boolean direct) {
+            this.type = type;
+            this.suffix = suffix;
+            this.direct = direct;
+            this.headerWritten = false;
+            this.appendTotal = type == Type.COUNTER && !(collector.getConventionName() + suffix).endsWith(TOTAL_SUFFIX);
+            buffer.setLength(0);
+        }
+
+        /**
+         * Write the header of the family if it is the first sample, followed by the sample name.
+         *
+         * @return Where to write the rest of the sample, or {@code null} if the sample is filtered out.
+         */
+        @Nullable
+        Appendable sampleName(String sampleSuffix) throws IOException {
+            String conventionName = collector.getConventionName();
+            boolean total = appendTotal && sampleSuffix.equals(suffix);
+            if (includedNames != null &&
+                    !includedNames.contains(conventionName + sampleSuffix + (total ? TOTAL_SUFFIX : ""))) {
+                return null;
+            }
+
+            Appendable out = direct ? writer : buffer;
+            if (!headerWritten) {
+                String name = conventionName + suffix;
+                if (type == Type.COUNTER && !appendTotal) {
+                    name = name.substring(0, name.length() - TOTAL_SUFFIX.length());
+                }
+                appendHeader(out, name, type, collector.getHelp());
+                headerWritten = true;
+            }
+
+            out.append(conventionName).append(sampleSuffix);
+            if (total) {
+                out.append(TOTAL_SUFFIX);
+            }
+            return out;
+        }
+    }
+}
@@ -23,10 +23,8 @@ import io.prometheus.client.Collector;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
-import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
-import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 
 class MicrometerCollectorTest {
@@ -37,11 +35,11 @@ class MicrometerCollectorTest {
         MicrometerCollector collector = new MicrometerCollector(id, NamingConvention.dot, PrometheusConfig.DEFAULT);
 
         for (Integer i = 0; i < 20_000; i++) {
-            Collector.MetricFamilySamples.Sample sample = new Collector.MetricFamilySamples.Sample("my_counter",
-                    singletonList("k"), singletonList(i.toString()), 1.0);
-
-            collector.add(Collections.emptyList(), (conventionName, tagKeys) -> Stream.of(new MicrometerCollector.Family(Collector.Type.COUNTER,
-                    "my_counter", sample)));
+            String value = i.toString();
+            collector.add(Collections.emptyList(), samples -> {
+                samples.family(Collector.Type.COUNTER, "");
+                samples.sample("", "k", value, 1.0);
+            });
         }
 
         // Threw StackOverflowException because of too many nested streams originally
@@ -50,18 +48,15 @@ class MicrometerCollectorTest {
 
     @Test
     void sameValuesDifferentOrder() {
-        Meter.Id id = Metrics.counter("my.counter").getId();
+        Meter.Id id = Metrics.counter("my.counter", "k", "v1", "k2", "v2").getId();
         MicrometerCollector collector = new MicrometerCollector(id, NamingConvention.dot, PrometheusConfig.DEFAULT);
 
-        Collector.MetricFamilySamples.Sample sample = new Collector.MetricFamilySamples.Sample("my_counter",
-                asList("k", "k2"), asList("v1", "v2"), 1.0);
-        Collector.MetricFamilySamples.Sample sample2 = new Collector.MetricFamilySamples.Sample("my_counter",
-                asList("k", "k2"), asList("v2", "v1"), 1.0);
-
-        collector.add(asList("v1", "v2"), (conventionName, tagKeys) -> Stream.of(new MicrometerCollector.Family(Collector.Type.COUNTER,
-                "my_counter", sample)));
-        collector.add(asList("v2", "v1"), (conventionName, tagKeys) -> Stream.of(new MicrometerCollector.Family(Collector.Type.COUNTER,
-                "my_counter", sample2)));
+        MicrometerCollector.StreamingChild child = samples -> {
+            samples.family(Collector.Type.COUNTER, "");
+            samples.sample("", 1.0);
+        };
+        collector.add(asList("v1", "v2"), child);
+        collector.add(asList("v2", "v1"), child);
 
         assertThat(collector.collect().get(0).samples).hasSize(2);
     }
@@ -18,6 +18,7 @@ package io.micrometer.prometheus;
 import io.micrometer.core.instrument.config.validate.Validated;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -39,6 +40,24 @@ class PrometheusConfigTest {
                 );
     }
 
+    @Test
+    void negativeScrapeCacheWindowIsInvalid() {
+        PrometheusConfig config = new PrometheusConfig() {
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public Duration scrapeCacheWindow() {
+                return Duration.ofSeconds(-1);
+            }
+        };
+
+        assertThat(config.validate().failures().stream().map(Validated.Invalid::getMessage))
+                .containsExactly("must not be negative");
+    }
+
     @Test
     void valid() {
         assertThat(config.validate().isValid()).isTrue();
@@ -28,6 +28,10 @@ import org.assertj.core.api.Condition;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
@@ -635,4 +639,140 @@ class PrometheusMeterRegistryTest {
                 .endsWith("# EOF\n");
     }
 
+    @Test
+    void scrapeToOutputStream() throws IOException {
+        Counter.builder("my.counter").tag("k", "v").register(registry).increment();
+        Timer.builder("my.timer").publishPercentiles(0.5).publishPercentileHistogram().register(registry)
+                .record(1, TimeUnit.SECONDS);
+
+        for (String contentType : Arrays.asList(TextFormat.CONTENT_TYPE_004, TextFormat.CONTENT_TYPE_OPENMETRICS_100)) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            registry.scrape(outputStream, contentType);
+            assertThat(new String(outputStream.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(registry.scrape(contentType));
+        }
+    }
+
+    @Test
+    void scrapeWritesSameSamplesAsCollectorRegistry() throws IOException {
+        Counter.builder("my.counter").description("my \\ counter\nhelp").tag("k", "v\"\\\n").register(registry).increment();
+        Gauge.builder("my.gauge", () -> 1d).tags("k1", "v1", "k2", "v2").register(registry);
+        Timer.builder("my.timer").publishPercentiles(0.5, 0.95).serviceLevelObjectives(Duration.ofMillis(10)).register(registry)
+                .record(1, TimeUnit.SECONDS);
+        DistributionSummary.builder("my.summary").publishPercentileHistogram().register(registry).record(5);
+        LongTaskTimer.builder("my.long.task.timer").register(registry).start();
+        Meter.builder("my.custom.meter", Meter.Type.OTHER, Arrays.asList(
+                new Measurement(() -> 1d, Statistic.TOTAL),
+                new Measurement(() -> 1d, Statistic.MAX))).register(registry);
+
+        for (String contentType : Arrays.asList(TextFormat.CONTENT_TYPE_004, TextFormat.CONTENT_TYPE_OPENMETRICS_100)) {
+            StringWriter collected = new StringWriter();
+            TextFormat.writeFormat(contentType, collected, prometheusRegistry.metricFamilySamples());
+
+            assertThat(registry.scrape(contentType).split("\n"))
+                    .containsExactlyInAnyOrder(collected.toString().split("\n"));
+        }
+    }
+
+    @Test
+    void scrapeIncludesCollectorsRegisteredByOthers() {
+        Counter.builder("my.counter").register(registry);
+        new Collector() {
+            @Override
+            public List<MetricFamilySamples> collect() {
+                return Collections.singletonList(new MetricFamilySamples("other_gauge", Type.GAUGE, "other gauge",
+                        Collections.singletonList(new MetricFamilySamples.Sample("other_gauge", emptyList(), emptyList(), 1.0))));
+            }
+        }.register(prometheusRegistry);
+
+        assertThat(registry.scrape())
+                .containsOnlyOnce("my_counter_total 0.0\n")
+                .containsOnlyOnce("other_gauge 1.0\n");
+        assertThat(registry.scrape(TextFormat.CONTENT_TYPE_OPENMETRICS_100))
+                .containsOnlyOnce("my_counter_total 0.0\n")
+                .containsOnlyOnce("other_gauge 1.0\n")
+                .containsOnlyOnce("# EOF\n")
+                .endsWith("# EOF\n");
+    }
+
+    @Test
+    void chooseContentTypeByQuality() {
+        assertThat(PrometheusMeterRegistry.chooseContentType(null)).isEqualTo(TextFormat.CONTENT_TYPE_004);
+        assertThat(PrometheusMeterRegistry.chooseContentType("*/*")).isEqualTo(TextFormat.CONTENT_TYPE_004);
+        assertThat(PrometheusMeterRegistry.chooseContentType("application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;" +
+                "encoding=delimited;q=0.7,text/plain;version=0.0.4;q=0.3,*/*;q=0.1"))
+                .isEqualTo(PrometheusMeterRegistry.CONTENT_TYPE_PROTOBUF);
+        assertThat(PrometheusMeterRegistry.chooseContentType("application/openmetrics-text;version=1.0.0," +
+                "application/openmetrics-text;version=0.0.1;q=0.75,text/plain;version=0.0.4;q=0.5,*/*;q=0.1"))
+                .isEqualTo(TextFormat.CONTENT_TYPE_OPENMETRICS_100);
+        assertThat(PrometheusMeterRegistry.chooseContentType("text/plain;version=0.0.4;q=0.9," +
+                "application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;encoding=delimited;q=0.5"))
+                .isEqualTo(TextFormat.CONTENT_TYPE_004);
+        assertThat(PrometheusMeterRegistry.chooseContentType("application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;encoding=text"))
+                .isEqualTo(TextFormat.CONTENT_TYPE_004);
+    }
+
+    @Test
+    void protobufCannotBeScrapedToWriter() {
+        assertThrows(IllegalArgumentException.class, () -> registry.scrape(new StringWriter(), PrometheusMeterRegistry.CONTENT_TYPE_PROTOBUF));
+    }
+
+    @Test
+    void scrapesWithinCacheWindowShareBody() {
+        PrometheusConfig config = key -> key.equals("prometheus.scrapeCacheWindow") ? "10s" : null;
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(config, new CollectorRegistry(true), clock);
+        Counter counter = registry.counter("my.counter");
+
+        String first = registry.scrape();
+        counter.increment();
+        clock.add(Duration.ofSeconds(5));
+        assertThat(registry.scrape()).isEqualTo(first).contains("my_counter_total 0.0\n");
+        assertThat(registry.get("prometheus.scrape.coalesced").counter().count()).isEqualTo(1);
+
+        // other content is computed on its own
+        assertThat(registry.scrape(TextFormat.CONTENT_TYPE_OPENMETRICS_100)).contains("my_counter_total 1.0\n");
+
+        clock.add(Duration.ofSeconds(5));
+        assertThat(registry.scrape()).contains("my_counter_total 1.0\n");
+        assertThat(registry.get("prometheus.scrape.coalesced").counter().count()).isEqualTo(1);
+        assertThat(registry.get("prometheus.scrape.duration").timer().count()).isEqualTo(3);
+        assertThat(registry.get("prometheus.scrape.size").summary().count()).isEqualTo(3);
+        assertThat(registry.get("prometheus.scrape.size").summary().totalAmount())
+                .isGreaterThan(first.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void concurrentScrapesAreCoalesced() throws Exception {
+        PrometheusConfig config = key -> key.equals("prometheus.scrapeCacheWindow") ? "10s" : null;
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(config, new CollectorRegistry(true), clock);
+
+        AtomicInteger collections = new AtomicInteger();
+        CountDownLatch collecting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Gauge.builder("slow.gauge", () -> {
+            collections.incrementAndGet();
+            collecting.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 1;
+        }).register(registry);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> registry.scrape());
+            collecting.await();
+            Future<String> second = executor.submit(() -> registry.scrape());
+            while (registry.find("prometheus.scrape.coalesced").counter() == null) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertThat(second.get()).isEqualTo(first.get()).contains("slow_gauge 1.0\n");
+            assertThat(collections.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
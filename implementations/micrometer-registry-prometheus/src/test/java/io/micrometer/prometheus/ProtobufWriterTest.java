@@ -0,0 +1,335 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.prometheus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Statistic;
+import io.micrometer.core.instrument.Timer;
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ProtobufWriter}, decoding scrapes in the protobuf exposition format by hand.
+ */
+class ProtobufWriterTest {
+    private final CollectorRegistry prometheusRegistry = new CollectorRegistry(true);
+    private final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT, prometheusRegistry, new MockClock());
+
+    @Test
+    void counter() throws IOException {
+        Counter.builder("my.counter").tags("k1", "v1", "k2", "v\"2\n").register(registry).increment(3);
+
+        List<Message> families = scrape();
+        assertThat(families).hasSize(1);
+
+        Message family = families.get(0);
+        assertThat(family.string(1)).isEqualTo("my_counter_total");
+        assertThat(family.varint(3)).isEqualTo(0); // COUNTER
+
+        Message metric = family.messages(4).get(0);
+        assertThat(labels(metric)).containsExactly("k1=v1", "k2=v\"2\n");
+        assertThat(metric.message(3).fixed64(1)).isEqualTo(3.0);
+    }
+
+    @Test
+    void gaugesOfSeveralChildrenMakeOneFamily() throws IOException {
+        Gauge.builder("my.gauge", () -> 1.5).tag("k", "a").register(registry);
+        Gauge.builder("my.gauge", () -> 2.5).tag("k", "b").register(registry);
+
+        List<Message> families = scrape();
+        assertThat(families).hasSize(1);
+        assertThat(families.get(0).string(1)).isEqualTo("my_gauge");
+        assertThat(families.get(0).varint(3)).isEqualTo(1); // GAUGE
+        assertThat(families.get(0).messages(4).stream().map(metric -> labels(metric).get(0) + " " + metric.message(2).fixed64(1)))
+                .containsExactlyInAnyOrder("k=a 1.5", "k=b 2.5");
+    }
+
+    @Test
+    void histogramWithMax() throws IOException {
+        Timer timer = Timer.builder("my.timer")
+                .serviceLevelObjectives(Duration.ofMillis(10), Duration.ofMillis(100))
+                .register(registry);
+        timer.record(5, TimeUnit.MILLISECONDS);
+        timer.record(50, TimeUnit.MILLISECONDS);
+        timer.record(500, TimeUnit.MILLISECONDS);
+
+        Map<String, Message> families = byName(scrape());
+        assertThat(families).containsOnlyKeys("my_timer_seconds", "my_timer_seconds_max");
+
+        Message histogramFamily = families.get("my_timer_seconds");
+        assertThat(histogramFamily.varint(3)).isEqualTo(4); // HISTOGRAM
+        Message histogram = histogramFamily.messages(4).get(0).message(7);
+        assertThat(histogram.varint(1)).isEqualTo(3);
+        assertThat(histogram.fixed64(2)).isEqualTo(0.555);
+        assertThat(histogram.messages(3).stream().map(bucket -> bucket.fixed64(2) + " " + bucket.varint(1)))
+                .containsExactly("0.01 1", "0.1 2", "Infinity 3");
+
+        Message maxFamily = families.get("my_timer_seconds_max");
+        assertThat(maxFamily.varint(3)).isEqualTo(1); // GAUGE
+        assertThat(maxFamily.messages(4).get(0).message(2).fixed64(1)).isEqualTo(0.5);
+    }
+
+    @Test
+    void summary() throws IOException {
+        Timer.builder("my.timer").publishPercentiles(0.5).register(registry).record(1, TimeUnit.SECONDS);
+
+        Message family = byName(scrape()).get("my_timer_seconds");
+        assertThat(family.varint(3)).isEqualTo(2); // SUMMARY
+        Message summary = family.messages(4).get(0).message(4);
+        assertThat(summary.varint(1)).isEqualTo(1);
+        assertThat(summary.fixed64(2)).isEqualTo(1.0);
+        assertThat(summary.messages(3)).hasSize(1);
+        assertThat(summary.messages(3).get(0).fixed64(1)).isEqualTo(0.5);
+    }
+
+    @Test
+    void statisticsOfCustomMetersAreUntypedFamilies() throws IOException {
+        Meter.builder("my.custom", Meter.Type.OTHER, Arrays.asList(
+                new Measurement(() -> 1d, Statistic.VALUE),
+                new Measurement(() -> 2d, Statistic.TOTAL))).register(registry);
+
+        Map<String, Message> families = byName(scrape());
+        assertThat(families).containsOnlyKeys("my_custom", "my_custom_sum");
+        assertThat(families.get("my_custom_sum").varint(3)).isEqualTo(3); // UNTYPED
+
+        Message metric = families.get("my_custom_sum").messages(4).get(0);
+        assertThat(labels(metric)).containsExactly("statistic=TOTAL");
+        assertThat(metric.message(5).fixed64(1)).isEqualTo(2.0);
+    }
+
+    @Test
+    void longTaskTimerSamplesAreUntypedFamilies() throws IOException {
+        LongTaskTimer.builder("my.ltt").serviceLevelObjectives(Duration.ofSeconds(1)).register(registry).start();
+
+        Map<String, Message> families = byName(scrape());
+        assertThat(families).containsOnlyKeys("my_ltt_seconds_bucket", "my_ltt_seconds_active_count",
+                "my_ltt_seconds_duration_sum", "my_ltt_seconds_max");
+        assertThat(families.get("my_ltt_seconds_active_count").varint(3)).isEqualTo(3); // UNTYPED
+        assertThat(families.get("my_ltt_seconds_active_count").messages(4).get(0).message(5).fixed64(1)).isEqualTo(1.0);
+        assertThat(families.get("my_ltt_seconds_bucket").messages(4).stream().map(metric -> labels(metric).get(0)))
+                .containsExactly("le=1.0", "le=+Inf");
+    }
+
+    @Test
+    void sameSeriesAsTextFormat() throws IOException {
+        Timer.builder("my.timer").serviceLevelObjectives(Duration.ofMillis(10)).register(registry).record(1, TimeUnit.MILLISECONDS);
+        LongTaskTimer.builder("my.ltt").serviceLevelObjectives(Duration.ofSeconds(1)).register(registry).start();
+        LongTaskTimer.builder("my.ltt.percentiles").publishPercentiles(0.5).register(registry).start();
+        Meter.builder("my.custom.timer", Meter.Type.TIMER, Arrays.asList(
+                new Measurement(() -> 1d, Statistic.COUNT),
+                new Measurement(() -> 2d, Statistic.TOTAL_TIME),
+                new Measurement(() -> 3d, Statistic.MAX))).register(registry);
+        Meter.builder("my.custom", Meter.Type.OTHER, Arrays.asList(
+                new Measurement(() -> 1d, Statistic.VALUE),
+                new Measurement(() -> 2d, Statistic.ACTIVE_TASKS),
+                new Measurement(() -> 3d, Statistic.DURATION))).register(registry);
+
+        List<String> textSeries = new ArrayList<>();
+        for (String line : registry.scrape().split("\n")) {
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                String series = line.substring(0, line.lastIndexOf(' '));
+                int labelsStart = series.indexOf('{');
+                List<String> labels = new ArrayList<>();
+                if (labelsStart >= 0) {
+                    Matcher label = Pattern.compile("(\\w+)=\"([^\"]*)\"").matcher(series.substring(labelsStart));
+                    while (label.find()) {
+                        labels.add(label.group(1) + "=" + label.group(2));
+                    }
+                    series = series.substring(0, labelsStart);
+                }
+                textSeries.add(series(series, labels));
+            }
+        }
+
+        List<String> protobufSeries = new ArrayList<>();
+        for (Message family : scrape()) {
+            String name = family.string(1);
+            for (Message metric : family.messages(4)) {
+                List<String> labels = labels(metric);
+                if (!metric.messages(4).isEmpty() || !metric.messages(7).isEmpty()) {
+                    boolean summary = !metric.messages(4).isEmpty();
+                    Message distribution = summary ? metric.message(4) : metric.message(7);
+                    for (Message point : distribution.messages(3)) {
+                        List<String> pointLabels = new ArrayList<>(labels);
+                        double bound = summary ? point.fixed64(1) : point.fixed64(2);
+                        pointLabels.add((summary ? "quantile=" : "le=") + (bound == Double.POSITIVE_INFINITY ? "+Inf" : bound));
+                        protobufSeries.add(series(summary ? name : name + "_bucket", pointLabels));
+                    }
+                    protobufSeries.add(series(name + "_count", labels));
+                    protobufSeries.add(series(name + "_sum", labels));
+                } else {
+                    protobufSeries.add(series(name, labels));
+                }
+            }
+        }
+
+        assertThat(protobufSeries).containsExactlyInAnyOrder(textSeries.toArray());
+    }
+
+    private static String series(String name, List<String> labels) {
+        return name + labels.stream().sorted().collect(toList());
+    }
+
+    @Test
+    void includedNames() throws IOException {
+        Counter.builder("my.counter").register(registry);
+        Gauge.builder("my.gauge", () -> 1).register(registry);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        registry.scrape(outputStream, PrometheusMeterRegistry.CONTENT_TYPE_PROTOBUF, new HashSet<>(Collections.singletonList("my_counter_total")));
+
+        assertThat(byName(decode(outputStream.toByteArray()))).containsOnlyKeys("my_counter_total");
+    }
+
+    @Test
+    void collectorsRegisteredByOthers() throws IOException {
+        Counter.builder("my.counter").register(registry);
+        new Collector() {
+            @Override
+            public List<MetricFamilySamples> collect() {
+                return Collections.singletonList(new MetricFamilySamples("other_summary", Type.SUMMARY, "other summary", Arrays.asList(
+                        new MetricFamilySamples.Sample("other_summary", Collections.singletonList("quantile"), Collections.singletonList("0.5"), 1.0),
+                        new MetricFamilySamples.Sample("other_summary_count", emptyList(), emptyList(), 2.0),
+                        new MetricFamilySamples.Sample("other_summary_sum", emptyList(), emptyList(), 3.0))));
+            }
+        }.register(prometheusRegistry);
+
+        Map<String, Message> families = byName(scrape());
+        assertThat(families).containsOnlyKeys("my_counter_total", "other_summary");
+
+        Message summary = families.get("other_summary").messages(4).get(0).message(4);
+        assertThat(summary.varint(1)).isEqualTo(2);
+        assertThat(summary.fixed64(2)).isEqualTo(3.0);
+        assertThat(summary.messages(3).get(0).fixed64(1)).isEqualTo(0.5);
+        assertThat(summary.messages(3).get(0).fixed64(2)).isEqualTo(1.0);
+    }
+
+    private List<Message> scrape() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        registry.scrape(outputStream, PrometheusMeterRegistry.CONTENT_TYPE_PROTOBUF);
+        return decode(outputStream.toByteArray());
+    }
+
+    private static List<Message> decode(byte[] bytes) {
+        List<Message> families = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            byte[] family = new byte[(int) Message.readVarint(buffer)];
+            buffer.get(family);
+            families.add(new Message(family));
+        }
+        return families;
+    }
+
+    private static Map<String, Message> byName(List<Message> families) {
+        Map<String, Message> byName = new LinkedHashMap<>();
+        families.forEach(family -> byName.put(family.string(1), family));
+        return byName;
+    }
+
+    private static List<String> labels(Message metric) {
+        return metric.messages(1).stream().map(pair -> pair.string(1) + "=" + pair.string(2)).collect(toList());
+    }
+
+    /**
+     * The fields of a protobuf message, by field number.
+     */
+    private static class Message {
+        private final Map<Integer, List<Object>> fields = new LinkedHashMap<>();
+
+        Message(byte[] bytes) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                long tag = readVarint(buffer);
+                Object value;
+                switch ((int) (tag & 0x7)) {
+                    case 0:
+                        value = readVarint(buffer);
+                        break;
+                    case 1:
+                        value = buffer.getDouble();
+                        break;
+                    case 2:
+                        byte[] bytesValue = new byte[(int) readVarint(buffer)];
+                        buffer.get(bytesValue);
+                        value = bytesValue;
+                        break;
+                    default:
+                        throw new IllegalStateException("unexpected wire type in tag " + tag);
+                }
+                fields.computeIfAbsent((int) (tag >>> 3), field -> new ArrayList<>()).add(value);
+            }
+        }
+
+        static long readVarint(ByteBuffer buffer) {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        long varint(int field) {
+            return (Long) fields.get(field).get(0);
+        }
+
+        double fixed64(int field) {
+            return (Double) fields.get(field).get(0);
+        }
+
+        String string(int field) {
+            return new String((byte[]) fields.get(field).get(0), StandardCharsets.UTF_8);
+        }
+
+        Message message(int field) {
+            return messages(field).get(0);
+        }
+
+        List<Message> messages(int field) {
+            return fields.getOrDefault(field, emptyList()).stream().map(bytes -> new Message((byte[]) bytes)).collect(toList());
+        }
+    }
+}
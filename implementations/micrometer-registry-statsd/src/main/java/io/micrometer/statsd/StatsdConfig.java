@@ -16,6 +16,7 @@
 package io.micrometer.statsd;
 
 import io.micrometer.core.instrument.config.MeterRegistryConfig;
+import io.micrometer.core.instrument.config.validate.InvalidReason;
 import io.micrometer.core.instrument.config.validate.Validated;
 
 import java.time.Duration;
@@ -139,6 +140,43 @@ public interface StatsdConfig extends MeterRegistryConfig {
         return getBoolean(this, "buffered").orElse(true);
     }
 
+    /**
+     * When aggregation is enabled, counter increments are accumulated locally and shipped as a single line per counter
+     * every {@link #pollingFrequency()} instead of one line per increment. Gauges and other polled meters are already
+     * shipped once per polling interval.
+     *
+     * @return {@code true} if counters should be aggregated before sending to the StatsD server. Default is {@code false}.
+     * @since 1.8.0
+     */
+    default boolean aggregated() {
+        return getBoolean(this, "aggregated").orElse(false);
+    }
+
+    /**
+     * The fraction of timer and distribution summary recordings that are sent to the StatsD server. Lines are sent with
+     * a {@code |@rate} suffix so that the agent scales its counts accordingly. The count and total recorded locally
+     * are not sampled.
+     *
+     * @return The sample rate, greater than 0 and at most 1. Default is {@code 1}, sending every recording.
+     * @since 1.8.0
+     */
+    default double sampleRate() {
+        return getDouble(this, "sampleRate").orElse(1.0);
+    }
+
+    /**
+     * When greater than zero, lines sent over {@link StatsdProtocol#UDP} skip Reactor Netty. They are offered to a ring
+     * buffer holding this many lines, and a single thread packs them into datagrams of up to {@link #maxPacketLength()}
+     * bytes. Lines offered while the ring buffer is full are dropped and counted in {@code statsd.lines.dropped}. Other
+     * protocols always use Reactor Netty.
+     *
+     * @return The ring buffer size, rounded up to a power of two. Default is {@code 0}, which disables the ring buffer.
+     * @since 1.8.0
+     */
+    default int ringBufferSize() {
+        return getInteger(this, "ringBufferSize").orElse(0);
+    }
+
     @Override
     default Validated<?> validate() {
         return checkAll(this,
@@ -147,7 +185,12 @@ public interface StatsdConfig extends MeterRegistryConfig {
                 check("port", StatsdConfig::port),
                 checkRequired("protocol", StatsdConfig::protocol),
                 checkRequired("pollingFrequency", StatsdConfig::pollingFrequency),
-                checkRequired("step", StatsdConfig::step)
+                checkRequired("step", StatsdConfig::step),
+                check("sampleRate", StatsdConfig::sampleRate)
+                        .andThen(v -> v.invalidateWhen(rate -> !(rate > 0 && rate <= 1), "must be greater than 0 and at most 1",
+                                InvalidReason.MALFORMED)),
+                check("ringBufferSize", StatsdConfig::ringBufferSize)
+                        .andThen(v -> v.invalidateWhen(size -> size < 0, "cannot be negative", InvalidReason.MALFORMED))
         );
     }
 }
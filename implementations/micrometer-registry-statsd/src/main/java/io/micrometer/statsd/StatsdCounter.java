@@ -25,23 +25,54 @@ import java.util.concurrent.atomic.DoubleAdder;
 /**
  * @author Jon Schneider
  */
-public class StatsdCounter extends AbstractMeter implements Counter {
+public class StatsdCounter extends AbstractMeter implements Counter, StatsdPollable {
     private final StatsdLineBuilder lineBuilder;
     private final Sinks.Many<String> sink;
+    private final boolean aggregated;
     private DoubleAdder count = new DoubleAdder();
+
+    /**
+     * Increments not yet shipped when aggregated. The fractional part of an increment is carried over to the next
+     * poll rather than truncated.
+     */
+    private final DoubleAdder unpublished = new DoubleAdder();
     private volatile boolean shutdown;
 
     StatsdCounter(Id id, StatsdLineBuilder lineBuilder, Sinks.Many<String> sink) {
+        this(id, lineBuilder, sink, false);
+    }
+
+    StatsdCounter(Id id, StatsdLineBuilder lineBuilder, Sinks.Many<String> sink, boolean aggregated) {
         super(id);
         this.lineBuilder = lineBuilder;
         this.sink = sink;
+        this.aggregated = aggregated;
     }
 
     @Override
     public void increment(double amount) {
         if (!shutdown && amount > 0) {
             count.add(amount);
-            sink.tryEmitNext(lineBuilder.count((long) amount));
+            if (aggregated) {
+                unpublished.add(amount);
+            } else {
+                sink.tryEmitNext(lineBuilder.count((long) amount));
+            }
+        }
+    }
+
+    @Override
+    public void poll() {
+        if (!aggregated) {
+            return;
+        }
+        double amount = unpublished.sumThenReset();
+        long published = (long) amount;
+        if (amount != published) {
+            unpublished.add(amount - published);
+        }
+        if (published > 0) {
+            sink.tryEmitNext(lineBuilder.count(published));
         }
     }
 
@@ -23,6 +23,7 @@ import io.micrometer.core.instrument.util.MeterEquivalence;
 import io.micrometer.core.lang.Nullable;
 import reactor.core.publisher.Sinks;
 
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.DoubleAdder;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -32,14 +33,16 @@ public class StatsdDistributionSummary extends AbstractDistributionSummary {
     private final TimeWindowMax max;
     private final StatsdLineBuilder lineBuilder;
     private final Sinks.Many<String> sink;
+    private final double sampleRate;
     private volatile boolean shutdown;
 
     StatsdDistributionSummary(Id id, StatsdLineBuilder lineBuilder, Sinks.Many<String> sink, Clock clock,
-                              DistributionStatisticConfig distributionStatisticConfig, double scale) {
+                              DistributionStatisticConfig distributionStatisticConfig, double scale, double sampleRate) {
         super(id, clock, distributionStatisticConfig, scale, false);
         this.max = new TimeWindowMax(clock, distributionStatisticConfig);
         this.lineBuilder = lineBuilder;
         this.sink = sink;
+        this.sampleRate = sampleRate;
     }
 
     @Override
@@ -48,7 +51,9 @@ public class StatsdDistributionSummary extends AbstractDistributionSummary {
             count.increment();
             this.amount.add(amount);
             max.record(amount);
-            sink.tryEmitNext(lineBuilder.histogram(amount));
+            if (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                sink.tryEmitNext(lineBuilder.histogram(amount, sampleRate));
+            }
         }
     }
 
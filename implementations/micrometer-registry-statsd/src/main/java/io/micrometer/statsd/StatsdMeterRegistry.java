@@ -84,6 +84,9 @@ public class StatsdMeterRegistry extends MeterRegistry {
     Disposable.Swap statsdConnection = Disposables.swap();
     private Disposable.Swap meterPoller = Disposables.swap();
 
+    @Nullable
+    private DatagramRingBufferSink ringBufferSink;
+
     @Nullable
     private Function<Meter.Id, StatsdLineBuilder> lineBuilderFunction;
 
@@ -128,7 +131,12 @@ public class StatsdMeterRegistry extends MeterRegistry {
         config().onMeterRemoved(meter ->
                 meter.use(
                         this::removePollableMeter,
-                        c -> ((StatsdCounter) c).shutdown(),
+                        c -> {
+                            removePollableMeter(c);
+                            ((StatsdCounter) c).shutdown();
+                            // ship whatever an aggregated counter accumulated since the last poll
+                            ((StatsdCounter) c).poll();
+                        },
                         t -> ((StatsdTimer) t).shutdown(),
                         d -> ((StatsdDistributionSummary) d).shutdown(),
                         this::removePollableMeter,
@@ -143,7 +151,13 @@ public class StatsdMeterRegistry extends MeterRegistry {
         );
 
         if (config.enabled()) {
-            this.sink = Sinks.many().multicast().directBestEffort();
+            if (lineSink == null && config.ringBufferSize() > 0 && config.protocol() == StatsdProtocol.UDP) {
+                this.ringBufferSink = new DatagramRingBufferSink(config.host(), config.port(), config.ringBufferSize(),
+                        config.maxPacketLength(), config.buffered(), config.pollingFrequency());
+                this.sink = ringBufferSink;
+            } else {
+                this.sink = Sinks.many().multicast().directBestEffort();
+            }
 
             try {
                 Class.forName("ch.qos.logback.classic.turbo.TurboFilter", false, getClass().getClassLoader());
@@ -209,6 +223,19 @@ public class StatsdMeterRegistry extends MeterRegistry {
                     }
                 });
 
+                startPolling();
+            } else if (ringBufferSink != null) {
+                DatagramRingBufferSink ringBufferSink = this.ringBufferSink;
+                FunctionCounter.builder("statsd.lines.dropped", ringBufferSink, DatagramRingBufferSink::overflowed)
+                        .tag("cause", "overflow")
+                        .description("StatsD lines dropped because the ring buffer was full")
+                        .register(this);
+                FunctionCounter.builder("statsd.lines.dropped", ringBufferSink, DatagramRingBufferSink::failed)
+                        .tag("cause", "send")
+                        .description("StatsD lines dropped because the datagram carrying them could not be sent")
+                        .register(this);
+
+                ringBufferSink.start();
                 startPolling();
             } else {
                 final Publisher<String> publisher;
@@ -303,6 +330,9 @@ public class StatsdMeterRegistry extends MeterRegistry {
 
     public void stop() {
         if (started.compareAndSet(true, false)) {
+            if (ringBufferSink != null) {
+                ringBufferSink.stop();
+            }
             if (statsdConnection.get() != null) {
                 statsdConnection.get().dispose();
             }
@@ -360,7 +390,11 @@ public class StatsdMeterRegistry extends MeterRegistry {
 
     @Override
     protected Counter newCounter(Meter.Id id) {
-        return new StatsdCounter(id, lineBuilder(id), this.sink);
+        StatsdCounter counter = new StatsdCounter(id, lineBuilder(id), this.sink, statsdConfig.aggregated());
+        if (statsdConfig.aggregated()) {
+            pollableMeters.put(id, counter);
+        }
+        return counter;
     }
 
     @Override
@@ -382,7 +416,7 @@ public class StatsdMeterRegistry extends MeterRegistry {
         }
 
         Timer timer = new StatsdTimer(id, lineBuilder(id, distributionStatisticConfig), this.sink, clock, distributionStatisticConfig, pauseDetector, getBaseTimeUnit(),
-                statsdConfig.step().toMillis());
+                statsdConfig.step().toMillis(), statsdConfig.sampleRate());
         HistogramGauges.registerWithCommonFormat(timer, this);
         return timer;
     }
@@ -396,7 +430,8 @@ public class StatsdMeterRegistry extends MeterRegistry {
             distributionStatisticConfig = addInfBucket(distributionStatisticConfig);
         }
 
-        DistributionSummary summary = new StatsdDistributionSummary(id, lineBuilder(id, distributionStatisticConfig), this.sink, clock, distributionStatisticConfig, scale);
+        DistributionSummary summary = new StatsdDistributionSummary(id, lineBuilder(id, distributionStatisticConfig), this.sink, clock, distributionStatisticConfig, scale,
+                statsdConfig.sampleRate());
         HistogramGauges.registerWithCommonFormat(summary, this);
         return summary;
     }
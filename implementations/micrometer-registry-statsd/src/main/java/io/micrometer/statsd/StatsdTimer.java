@@ -23,6 +23,7 @@ import io.micrometer.core.instrument.step.StepDouble;
 import io.micrometer.core.instrument.util.TimeUtils;
 import reactor.core.publisher.Sinks;
 
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.DoubleAdder;
 import java.util.concurrent.atomic.LongAdder;
@@ -32,15 +33,18 @@ public class StatsdTimer extends AbstractTimer {
     private final DoubleAdder totalTime = new DoubleAdder();
     private final StatsdLineBuilder lineBuilder;
     private final Sinks.Many<String> sink;
+    private final double sampleRate;
     private StepDouble max;
     private volatile boolean shutdown;
 
     StatsdTimer(Id id, StatsdLineBuilder lineBuilder, Sinks.Many<String> sink, Clock clock,
-                DistributionStatisticConfig distributionStatisticConfig, PauseDetector pauseDetector, TimeUnit baseTimeUnit, long stepMillis) {
+                DistributionStatisticConfig distributionStatisticConfig, PauseDetector pauseDetector, TimeUnit baseTimeUnit, long stepMillis,
+                double sampleRate) {
         super(id, clock, distributionStatisticConfig, pauseDetector, baseTimeUnit, false);
         this.max = new StepDouble(clock, stepMillis);
         this.lineBuilder = lineBuilder;
         this.sink = sink;
+        this.sampleRate = sampleRate;
     }
 
     @Override
@@ -54,7 +58,9 @@ public class StatsdTimer extends AbstractTimer {
             // not necessary to ship max, as most StatsD agents calculate this themselves
             max.getCurrent().add(Math.max(msAmount - max.getCurrent().doubleValue(), 0));
 
-            sink.tryEmitNext(lineBuilder.timing(msAmount));
+            if (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                sink.tryEmitNext(lineBuilder.timing(msAmount, sampleRate));
+            }
         }
     }
 
@@ -21,7 +21,6 @@ import io.micrometer.core.instrument.Statistic;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.config.NamingConvention;
 import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
-import io.micrometer.core.instrument.util.DoubleFormat;
 import io.micrometer.core.lang.Nullable;
 
 import java.util.concurrent.ConcurrentHashMap;
@@ -42,8 +41,8 @@ public class DatadogStatsdLineBuilder extends FlavorStatsdLineBuilder {
     @Nullable
     private volatile String conventionTags;
     @SuppressWarnings("NullableProblems")
-    private volatile String tagsNoStat;
-    private final ConcurrentMap<Statistic, String> tags = new ConcurrentHashMap<>();
+    private volatile LineParts partsNoStat;
+    private final ConcurrentMap<Statistic, LineParts> parts = new ConcurrentHashMap<>();
     private final boolean percentileHistogram;
     // VisibleForTesting
     @Nullable
@@ -61,18 +60,14 @@ public class DatadogStatsdLineBuilder extends FlavorStatsdLineBuilder {
     }
 
     @Override
-    public String histogram(double amount) {
-        if (percentileHistogram) {
-            return line(DoubleFormat.decimalOrNan(amount), null, TYPE_DISTRIBUTION);
-        } else {
-            return super.histogram(amount);
-        }
+    String histogramType() {
+        return percentileHistogram ? TYPE_DISTRIBUTION : super.histogramType();
     }
 
     @Override
-    String line(String amount, @Nullable Statistic stat, String type) {
+    LineParts lineParts(@Nullable Statistic stat) {
         updateIfNamingConventionChanged();
-        return name + amount + "|" + type + tagsByStatistic(stat);
+        return partsByStatistic(stat);
     }
 
     private void updateIfNamingConventionChanged() {
@@ -82,17 +77,17 @@ public class DatadogStatsdLineBuilder extends FlavorStatsdLineBuilder {
                 if (this.namingConvention == next) {
                     return;
                 }
-                this.tags.clear();
+                this.parts.clear();
                 String conventionTags = id.getTagsAsIterable().iterator().hasNext() ?
                         id.getConventionTags(next).stream()
                                 .map(this::formatTag)
                                 .collect(Collectors.joining(","))
                         : null;
                 this.conventionTags = appendEntityIdTag(conventionTags);
+                this.name = next.name(sanitizeName(id.getName()), id.getType(), id.getBaseUnit()) + ":";
+                this.partsNoStat = new LineParts(name, tags(null, this.conventionTags, ":", "|#"));
+                this.namingConvention = next;
             }
-            this.name = next.name(sanitizeName(id.getName()), id.getType(), id.getBaseUnit()) + ":";
-            this.tagsNoStat = tags(null, conventionTags, ":", "|#");
-            this.namingConvention = next;
         }
     }
 
@@ -124,16 +119,16 @@ public class DatadogStatsdLineBuilder extends FlavorStatsdLineBuilder {
         return (value.charAt(value.length() - 1) == ':') ? value.substring(0, value.length() - 1) + '_' : value;
     }
 
-    private String tagsByStatistic(@Nullable Statistic stat) {
+    private LineParts partsByStatistic(@Nullable Statistic stat) {
         if (stat == null) {
-            return tagsNoStat;
+            return partsNoStat;
         }
-        String tags = this.tags.get(stat);
-        if (tags != null) {
-            return tags;
+        LineParts parts = this.parts.get(stat);
+        if (parts != null) {
+            return parts;
         }
         synchronized (conventionTagsLock) {
-            return this.tags.computeIfAbsent(stat, (key) -> tags(key, conventionTags, ":", "|#"));
+            return this.parts.computeIfAbsent(stat, (key) -> new LineParts(name, tags(key, conventionTags, ":", "|#")));
         }
     }
 }
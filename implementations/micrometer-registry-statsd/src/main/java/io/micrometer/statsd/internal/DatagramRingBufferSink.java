@@ -0,0 +1,380 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.statsd.internal;
+
+import io.micrometer.core.instrument.util.NamedThreadFactory;
+import io.micrometer.core.lang.Nullable;
+import io.micrometer.core.util.internal.logging.WarnThenDebugLogger;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This is an internal class only for use within Micrometer.
+ * <p>
+ * A UDP transport for StatsD lines that bypasses Reactor. Lines are offered to a bounded multi-producer,
+ * single-consumer ring and a single flusher thread packs them, newline terminated, into a direct buffer of at most
+ * {@code maxPacketLength} bytes which is written to a connected {@link DatagramChannel}. Lines are encoded by the
+ * flusher straight into the datagram buffer, so recording threads do no more than a compare-and-set per line.
+ * <p>
+ * While the ring is empty the flusher parks until a partially filled datagram is due to be sent, or indefinitely if
+ * there is none. Only the producer that finds it parked unparks it, so an idle sink doesn't wake up and a busy one
+ * costs recording threads no more than a read of a flag.
+ * <p>
+ * Lines offered while the flusher is stopped wait in the ring until it is started again. Lines offered while the ring
+ * is full, and lines in a datagram that could not be sent, are dropped and counted.
+ */
+public class DatagramRingBufferSink implements Sinks.Many<String> {
+    private static final WarnThenDebugLogger warnThenDebugLogger = new WarnThenDebugLogger(DatagramRingBufferSink.class);
+
+    private final String host;
+    private final int port;
+    private final int maxPacketLength;
+    private final boolean buffered;
+    private final long flushIntervalNanos;
+
+    private final AtomicReferenceArray<String> ring;
+    private final int mask;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    /**
+     * Set by the flusher before it parks, and cleared by whichever of the flusher or a producer first finds it set.
+     */
+    private final AtomicBoolean sleeping = new AtomicBoolean();
+
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private final NamedThreadFactory threadFactory = new NamedThreadFactory("micrometer-statsd-flusher");
+
+    private volatile boolean running;
+
+    @Nullable
+    private volatile Thread flusher;
+
+    @Nullable
+    private DatagramChannel channel;
+
+    /**
+     * @param host            The host of the StatsD agent.
+     * @param port            The port of the StatsD agent.
+     * @param capacity        The number of lines the ring can hold, rounded up to a power of two.
+     * @param maxPacketLength The maximum size of a datagram.
+     * @param buffered        Whether to pack several lines per datagram, or send each line on its own.
+     * @param flushInterval   How long a line may wait in a partially filled datagram before it is sent.
+     */
+    public DatagramRingBufferSink(String host, int port, int capacity, int maxPacketLength, boolean buffered, Duration flushInterval) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.host = host;
+        this.port = port;
+        this.maxPacketLength = maxPacketLength;
+        this.buffered = buffered;
+        this.flushIntervalNanos = flushInterval.toNanos();
+
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public synchronized void start() {
+        if (flusher == null) {
+            running = true;
+            Thread thread = threadFactory.newThread(this::flushLoop);
+            flusher = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops the flusher once it has sent the lines already offered, waiting for it to finish so that it is never
+     * running alongside the flusher of a later {@link #start()}. Lines offered while it stops are sent up to one
+     * ring's worth, the rest wait in the ring.
+     */
+    public synchronized void stop() {
+        Thread thread = flusher;
+        if (thread != null) {
+            running = false;
+            LockSupport.unpark(thread);
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            flusher = null;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return The number of lines dropped because the ring was full.
+     */
+    public long overflowed() {
+        return overflowed.sum();
+    }
+
+    /**
+     * @return The number of lines dropped because the datagram carrying them could not be sent.
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    @Override
+    public Sinks.EmitResult tryEmitNext(String line) {
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex.get() >= ring.length()) {
+                overflowed.increment();
+                return Sinks.EmitResult.FAIL_OVERFLOW;
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+
+        ring.lazySet((int) index & mask, line);
+
+        if (sleeping.get() && sleeping.compareAndSet(true, false)) {
+            Thread thread = flusher;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+        return Sinks.EmitResult.OK;
+    }
+
+    /**
+     * Only called from the flusher.
+     *
+     * @return The oldest line in the ring, or {@code null} if the ring is empty or the oldest line has been claimed
+     * but not yet published by its producer.
+     */
+    @Nullable
+    private String poll() {
+        long index = consumerIndex.get();
+        int offset = (int) index & mask;
+        String line = ring.get(offset);
+        if (line != null) {
+            ring.lazySet(offset, null);
+            consumerIndex.lazySet(index + 1);
+        }
+        return line;
+    }
+
+    private void flushLoop() {
+        ByteBuffer datagram = ByteBuffer.allocateDirect(maxPacketLength);
+        int linesInDatagram = 0;
+        long firstLineTime = 0;
+
+        try {
+            while (true) {
+                // read before draining, so that everything offered before stop() is still sent
+                boolean stopping = !running;
+
+                String line;
+                int drained = 0;
+                // bounded while stopping, so that producers can't keep the flusher from finishing
+                while ((!stopping || drained < ring.length()) && (line = poll()) != null) {
+                    drained++;
+                    if (!append(datagram, line)) {
+                        if (linesInDatagram > 0) {
+                            send(datagram, linesInDatagram);
+                            linesInDatagram = 0;
+                        }
+                        if (!append(datagram, line)) {
+                            // longer than a whole datagram, so it goes out on its own
+                            sendOversized(line);
+                            continue;
+                        }
+                    }
+                    if (linesInDatagram++ == 0) {
+                        firstLineTime = System.nanoTime();
+                    }
+                    if (!buffered) {
+                        send(datagram, linesInDatagram);
+                        linesInDatagram = 0;
+                    }
+                }
+
+                if (linesInDatagram > 0 && (stopping || System.nanoTime() - firstLineTime >= flushIntervalNanos)) {
+                    send(datagram, linesInDatagram);
+                    linesInDatagram = 0;
+                }
+
+                if (stopping) {
+                    return;
+                }
+                if (drained == 0) {
+                    if (linesInDatagram == 0) {
+                        awaitLines(0);
+                    } else {
+                        long untilFlush = firstLineTime + flushIntervalNanos - System.nanoTime();
+                        if (untilFlush > 0) {
+                            awaitLines(untilFlush);
+                        }
+                    }
+                }
+            }
+        } finally {
+            closeChannel();
+        }
+    }
+
+    /**
+     * Parks the flusher until a producer offers a line or the sink is stopped.
+     *
+     * @param timeoutNanos How long to wait at most, or {@code 0} to wait indefinitely.
+     */
+    private void awaitLines(long timeoutNanos) {
+        sleeping.set(true);
+        // A producer claims its slot before it reads the flag, so either it sees the flag and unparks the flusher, or
+        // its slot is seen here. A slot that is claimed but not yet published is polled again instead of waited for.
+        if (producerIndex.get() == consumerIndex.get() && running) {
+            if (timeoutNanos > 0) {
+                LockSupport.parkNanos(this, timeoutNanos);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        sleeping.set(false);
+    }
+
+    /**
+     * Encodes the line and a trailing newline into the datagram.
+     *
+     * @return {@code false}, leaving the datagram untouched, if the line doesn't fit.
+     */
+    private static boolean append(ByteBuffer datagram, String line) {
+        int length = line.length();
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(i) >= 0x80) {
+                ascii = false;
+                break;
+            }
+        }
+
+        if (ascii) {
+            if (datagram.remaining() < length + 1) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                datagram.put((byte) line.charAt(i));
+            }
+        } else {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            if (datagram.remaining() < bytes.length + 1) {
+                return false;
+            }
+            datagram.put(bytes);
+        }
+        datagram.put((byte) '\n');
+        return true;
+    }
+
+    private void sendOversized(String line) {
+        byte[] bytes = (line + '\n').getBytes(StandardCharsets.UTF_8);
+        ByteBuffer datagram = ByteBuffer.allocate(bytes.length);
+        datagram.put(bytes);
+        send(datagram, 1);
+    }
+
+    private void send(ByteBuffer datagram, int lines) {
+        datagram.flip();
+        try {
+            DatagramChannel channel = this.channel;
+            if (channel == null) {
+                channel = DatagramChannel.open();
+                this.channel = channel;
+                channel.connect(new InetSocketAddress(host, port));
+            }
+            channel.write(datagram);
+        } catch (IOException | RuntimeException e) {
+            failed.add(lines);
+            warnThenDebugLogger.log("Failed to send StatsD lines to " + host + ":" + port + ".", e);
+            // reconnect, resolving the host again, on the next send
+            closeChannel();
+        } finally {
+            datagram.clear();
+        }
+    }
+
+    private void closeChannel() {
+        DatagramChannel channel = this.channel;
+        if (channel != null) {
+            this.channel = null;
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    @Override
+    public Sinks.EmitResult tryEmitComplete() {
+        return Sinks.EmitResult.OK;
+    }
+
+    @Override
+    public Sinks.EmitResult tryEmitError(Throwable error) {
+        return Sinks.EmitResult.OK;
+    }
+
+    @Override
+    public void emitNext(String line, Sinks.EmitFailureHandler failureHandler) {
+        tryEmitNext(line);
+    }
+
+    @Override
+    public void emitComplete(Sinks.EmitFailureHandler failureHandler) {
+    }
+
+    @Override
+    public void emitError(Throwable error, Sinks.EmitFailureHandler failureHandler) {
+    }
+
+    @Override
+    public int currentSubscriberCount() {
+        return running ? 1 : 0;
+    }
+
+    @Override
+    public Flux<String> asFlux() {
+        return Flux.empty();
+    }
+
+    @Override
+    public Object scanUnsafe(Attr key) {
+        return null;
+    }
+}
@@ -30,8 +30,8 @@ public class EtsyStatsdLineBuilder extends FlavorStatsdLineBuilder {
     @SuppressWarnings({"NullableProblems", "unused"})
     private volatile NamingConvention namingConvention;
     @Nullable
-    private volatile String nameNoStat;
-    private final ConcurrentMap<Statistic, String> names = new ConcurrentHashMap<>();
+    private volatile LineParts partsNoStat;
+    private final ConcurrentMap<Statistic, LineParts> parts = new ConcurrentHashMap<>();
 
     public EtsyStatsdLineBuilder(Meter.Id id, MeterRegistry.Config config, HierarchicalNameMapper nameMapper) {
         super(id, config);
@@ -39,29 +39,34 @@ public class EtsyStatsdLineBuilder extends FlavorStatsdLineBuilder {
     }
 
     @Override
-    String line(String amount, @Nullable Statistic stat, String type) {
+    LineParts lineParts(@Nullable Statistic stat) {
         updateIfNamingConventionChanged();
-        return nameByStatistic(stat) + ":" + amount + "|" + type;
+        return partsByStatistic(stat);
     }
 
     private void updateIfNamingConventionChanged() {
         NamingConvention next = config.namingConvention();
         if (this.namingConvention != next) {
             this.namingConvention = next;
-            this.nameNoStat = null;
-            this.names.clear();
+            this.partsNoStat = null;
+            this.parts.clear();
         }
     }
 
-    private String nameByStatistic(@Nullable Statistic stat) {
+    private LineParts partsByStatistic(@Nullable Statistic stat) {
         if (stat == null) {
-            if (this.nameNoStat == null) {
-                this.nameNoStat = etsyName(null);
+            if (this.partsNoStat == null) {
+                this.partsNoStat = etsyParts(null);
             }
             //noinspection ConstantConditions
-            return nameNoStat;
+            return partsNoStat;
         }
-        return names.computeIfAbsent(stat, this::etsyName);
+        LineParts parts = this.parts.get(stat);
+        return parts != null ? parts : this.parts.computeIfAbsent(stat, this::etsyParts);
+    }
+
+    private LineParts etsyParts(@Nullable Statistic stat) {
+        return new LineParts(etsyName(stat) + ":", "");
     }
 
     private String etsyName(@Nullable Statistic stat) {
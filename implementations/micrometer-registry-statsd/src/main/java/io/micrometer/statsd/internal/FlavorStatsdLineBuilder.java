@@ -22,20 +22,21 @@ import io.micrometer.core.instrument.util.DoubleFormat;
 import io.micrometer.core.lang.Nullable;
 import io.micrometer.statsd.StatsdLineBuilder;
 
-import java.util.Objects;
-import java.util.stream.Collectors;
-
-import static java.util.stream.Stream.of;
-
 public abstract class FlavorStatsdLineBuilder implements StatsdLineBuilder {
     private static final String TYPE_COUNT = "c";
     private static final String TYPE_GAUGE = "g";
     private static final String TYPE_HISTOGRAM = "h";
     private static final String TYPE_TIMING = "ms";
 
+    // the longest decimal representation of a long, Long.MIN_VALUE
+    private static final int MAX_LONG_LENGTH = 20;
+
     protected final Meter.Id id;
     protected final MeterRegistry.Config config;
 
+    @Nullable
+    private volatile SampleRate lastSampleRate;
+
     protected FlavorStatsdLineBuilder(Meter.Id id, MeterRegistry.Config config) {
         this.id = id;
         this.config = config;
@@ -43,7 +44,8 @@ public abstract class FlavorStatsdLineBuilder implements StatsdLineBuilder {
 
     @Override
     public String count(long amount, Statistic stat) {
-        return line(Long.toString(amount), stat, TYPE_COUNT);
+        LineParts parts = lineParts(stat);
+        return parts.builder(MAX_LONG_LENGTH, TYPE_COUNT).append(amount).append('|').append(TYPE_COUNT).append(parts.suffix).toString();
     }
 
     @Override
@@ -53,7 +55,12 @@ public abstract class FlavorStatsdLineBuilder implements StatsdLineBuilder {
 
     @Override
     public String histogram(double amount) {
-        return line(DoubleFormat.decimalOrNan(amount), null, TYPE_HISTOGRAM);
+        return line(DoubleFormat.decimalOrNan(amount), null, histogramType());
+    }
+
+    @Override
+    public String histogram(double amount, double sampleRate) {
+        return line(DoubleFormat.decimalOrNan(amount), null, histogramType(), sampleRate);
     }
 
     @Override
@@ -61,15 +68,94 @@ public abstract class FlavorStatsdLineBuilder implements StatsdLineBuilder {
         return line(DoubleFormat.decimalOrNan(timeMs), null, TYPE_TIMING);
     }
 
-    abstract String line(String amount, @Nullable Statistic stat, String type);
+    @Override
+    public String timing(double timeMs, double sampleRate) {
+        return line(DoubleFormat.decimalOrNan(timeMs), null, TYPE_TIMING, sampleRate);
+    }
+
+    String histogramType() {
+        return TYPE_HISTOGRAM;
+    }
+
+    String line(String amount, @Nullable Statistic stat, String type) {
+        LineParts parts = lineParts(stat);
+        return parts.builder(amount.length(), type).append(amount).append('|').append(type).append(parts.suffix).toString();
+    }
+
+    /**
+     * The sample rate goes right after the type, ahead of any tags, e.g. {@code name:1|ms|@0.1|#tag:value}.
+     */
+    String line(String amount, @Nullable Statistic stat, String type, double sampleRate) {
+        if (sampleRate >= 1) {
+            return line(amount, stat, type);
+        }
+        String rate = sampleRate(sampleRate);
+        LineParts parts = lineParts(stat);
+        return parts.builder(amount.length() + 2 + rate.length(), type).append(amount).append('|').append(type)
+                .append("|@").append(rate).append(parts.suffix).toString();
+    }
+
+    private String sampleRate(double sampleRate) {
+        // the rate is fixed per registry, so formatting it once per builder is enough
+        SampleRate last = lastSampleRate;
+        if (last == null || last.rate != sampleRate) {
+            last = new SampleRate(sampleRate);
+            lastSampleRate = last;
+        }
+        return last.formatted;
+    }
+
+    /**
+     * @param stat The statistic being written, or {@code null} for lines without a statistic tag.
+     * @return The parts of the line surrounding the amount and type, cached for the current naming convention.
+     */
+    abstract LineParts lineParts(@Nullable Statistic stat);
 
     protected String tags(@Nullable Statistic stat, @Nullable String otherTags, String keyValueSeparator, String preamble) {
-        String tags = of(stat == null ? null : "statistic" + keyValueSeparator + stat.getTagValueRepresentation(), otherTags)
-                .filter(Objects::nonNull)
-                .collect(Collectors.joining(","));
+        if (stat == null && (otherTags == null || otherTags.isEmpty())) {
+            return "";
+        }
+
+        StringBuilder tags = new StringBuilder(preamble);
+        if (stat != null) {
+            tags.append("statistic").append(keyValueSeparator).append(stat.getTagValueRepresentation());
+            if (otherTags != null) {
+                tags.append(',');
+            }
+        }
+        if (otherTags != null) {
+            tags.append(otherTags);
+        }
+        return tags.toString();
+    }
+
+    private static final class SampleRate {
+        final double rate;
+        final String formatted;
+
+        SampleRate(double rate) {
+            this.rate = rate;
+            this.formatted = DoubleFormat.decimalOrNan(rate);
+        }
+    }
+
+    /**
+     * A line is written as {@code prefix + amount + "|" + type + suffix}, with an optional sample rate ahead of the
+     * suffix. The prefix and suffix only depend on the
+     * meter, the statistic and the naming convention, so they are computed once and every line is written into a
+     * single exactly sized buffer rather than through a chain of intermediate strings.
+     */
+    static final class LineParts {
+        final String prefix;
+        final String suffix;
+
+        LineParts(String prefix, String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
 
-        if (!tags.isEmpty())
-            tags = preamble + tags;
-        return tags;
+        StringBuilder builder(int amountLength, String type) {
+            return new StringBuilder(prefix.length() + amountLength + 1 + type.length() + suffix.length()).append(prefix);
+        }
     }
 }
@@ -35,8 +35,8 @@ public class SysdigStatsdLineBuilder extends FlavorStatsdLineBuilder {
     @Nullable
     private volatile String conventionTags;
     @SuppressWarnings("NullableProblems")
-    private volatile String tagsNoStat;
-    private final ConcurrentMap<Statistic, String> tags = new ConcurrentHashMap<>();
+    private volatile LineParts partsNoStat;
+    private final ConcurrentMap<Statistic, LineParts> parts = new ConcurrentHashMap<>();
 
     private static final Pattern NAME_WHITELIST = Pattern.compile("[^\\w._]");
 
@@ -45,24 +45,24 @@ public class SysdigStatsdLineBuilder extends FlavorStatsdLineBuilder {
     }
 
     @Override
-    String line(String amount, @Nullable Statistic stat, String type) {
+    LineParts lineParts(@Nullable Statistic stat) {
         updateIfNamingConventionChanged();
-        return name + tagsByStatistic(stat) + ":" + amount + "|" + type;
+        return partsByStatistic(stat);
     }
 
     private void updateIfNamingConventionChanged() {
         NamingConvention next = config.namingConvention();
         if (this.namingConvention != next) {
-            this.name = sanitize(next.name(id.getName(), id.getType(), id.getBaseUnit()));
             synchronized (conventionTagsLock) {
-                this.tags.clear();
+                this.name = sanitize(next.name(id.getName(), id.getType(), id.getBaseUnit()));
+                this.parts.clear();
                 this.conventionTags = id.getTagsAsIterable().iterator().hasNext() ?
                         id.getConventionTags(next).stream()
                                 .map(t -> sanitize(t.getKey()) + "=" + sanitize(t.getValue()))
                                 .collect(Collectors.joining(","))
                         : null;
+                this.partsNoStat = new LineParts(name + tags(null, conventionTags, "=", "#") + ":", "");
             }
-            this.tagsNoStat = tags(null, conventionTags, "=", "#");
             this.namingConvention = next;
         }
     }
@@ -71,16 +71,16 @@ public class SysdigStatsdLineBuilder extends FlavorStatsdLineBuilder {
         return NAME_WHITELIST.matcher(name).replaceAll("_");
     }
 
-    private String tagsByStatistic(@Nullable Statistic stat) {
+    private LineParts partsByStatistic(@Nullable Statistic stat) {
         if (stat == null) {
-            return tagsNoStat;
+            return partsNoStat;
         }
-        String tags = this.tags.get(stat);
-        if (tags != null) {
-            return tags;
+        LineParts parts = this.parts.get(stat);
+        if (parts != null) {
+            return parts;
         }
         synchronized (conventionTagsLock) {
-            return this.tags.computeIfAbsent(stat, (key) -> tags(stat, conventionTags, "=", "#"));
+            return this.parts.computeIfAbsent(stat, (key) -> new LineParts(name + tags(stat, conventionTags, "=", "#") + ":", ""));
         }
     }
 }
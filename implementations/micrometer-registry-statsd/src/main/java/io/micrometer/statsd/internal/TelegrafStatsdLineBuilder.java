@@ -34,17 +34,17 @@ public class TelegrafStatsdLineBuilder extends FlavorStatsdLineBuilder {
     @Nullable
     private volatile String conventionTags;
     @SuppressWarnings("NullableProblems")
-    private volatile String tagsNoStat;
-    private final ConcurrentMap<Statistic, String> tags = new ConcurrentHashMap<>();
+    private volatile LineParts partsNoStat;
+    private final ConcurrentMap<Statistic, LineParts> parts = new ConcurrentHashMap<>();
 
     public TelegrafStatsdLineBuilder(Meter.Id id, MeterRegistry.Config config) {
         super(id, config);
     }
 
     @Override
-    String line(String amount, @Nullable Statistic stat, String type) {
+    LineParts lineParts(@Nullable Statistic stat) {
         updateIfNamingConventionChanged();
-        return name + tagsByStatistic(stat) + ":" + amount + "|" + type;
+        return partsByStatistic(stat);
     }
 
     private void updateIfNamingConventionChanged() {
@@ -54,29 +54,29 @@ public class TelegrafStatsdLineBuilder extends FlavorStatsdLineBuilder {
                 if (this.namingConvention == next) {
                     return;
                 }
-                this.tags.clear();
+                this.parts.clear();
                 this.conventionTags = id.getTagsAsIterable().iterator().hasNext() ?
                         id.getConventionTags(next).stream()
                                 .map(t -> telegrafEscape(t.getKey()) + "=" + telegrafEscape(t.getValue()))
                                 .collect(Collectors.joining(","))
                         : null;
+                this.name = telegrafEscape(next.name(id.getName(), id.getType(), id.getBaseUnit()));
+                this.partsNoStat = new LineParts(name + tags(null, conventionTags, "=", ",") + ":", "");
+                this.namingConvention = next;
             }
-            this.name = telegrafEscape(next.name(id.getName(), id.getType(), id.getBaseUnit()));
-            this.tagsNoStat = tags(null, conventionTags, "=", ",");
-            this.namingConvention = next;
         }
     }
 
-    private String tagsByStatistic(@Nullable Statistic stat) {
+    private LineParts partsByStatistic(@Nullable Statistic stat) {
         if (stat == null) {
-            return tagsNoStat;
+            return partsNoStat;
         }
-        String tags = this.tags.get(stat);
-        if (tags != null) {
-            return tags;
+        LineParts parts = this.parts.get(stat);
+        if (parts != null) {
+            return parts;
         }
         synchronized (conventionTagsLock) {
-            return this.tags.computeIfAbsent(stat, (key) -> tags(stat, conventionTags, "=", ","));
+            return this.parts.computeIfAbsent(stat, (key) -> new LineParts(name + tags(stat, conventionTags, "=", ",") + ":", ""));
         }
     }
 
@@ -43,6 +43,21 @@ class StatsdConfigTest {
                 .hasSize(4);
     }
 
+    @Test
+    void invalidSampleRate() {
+        props.put("statsd.sampleRate", "0");
+        assertThat(config.validate().failures().stream().map(Validated.Invalid::getMessage))
+                .containsExactly("must be greater than 0 and at most 1");
+
+        props.put("statsd.sampleRate", "NaN");
+        assertThat(config.validate().failures().stream().map(Validated.Invalid::getMessage))
+                .containsExactly("must be greater than 0 and at most 1");
+
+        props.put("statsd.sampleRate", "all");
+        assertThat(config.validate().failures().stream().map(Validated.Invalid::getMessage))
+                .containsExactly("must be a number");
+    }
+
     @Test
     void valid() {
         assertThat(config.validate().isValid()).isTrue();
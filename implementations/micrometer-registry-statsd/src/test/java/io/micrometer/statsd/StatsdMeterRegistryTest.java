@@ -34,7 +34,9 @@ import reactor.test.StepVerifier;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -555,6 +557,48 @@ class StatsdMeterRegistryTest {
         assertThat(lines.get("functioncounter")).isEqualTo(1);
     }
 
+    @Test
+    void aggregatedCountersShipOneLinePerPoll() {
+        List<String> lines = new CopyOnWriteArrayList<>();
+        registry = StatsdMeterRegistry.builder(new StatsdConfig() {
+            @Override
+            @Nullable
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public StatsdFlavor flavor() {
+                return StatsdFlavor.ETSY;
+            }
+
+            @Override
+            public boolean aggregated() {
+                return true;
+            }
+        }).clock(clock).lineSink(lines::add).build();
+
+        Counter counter = registry.counter("my.counter");
+        range(0, 5).forEach(i -> counter.increment(0.5));
+        assertThat(lines).isEmpty();
+        assertThat(counter.count()).isEqualTo(2.5);
+
+        registry.poll();
+        assertThat(lines).containsExactly("myCounter.statistic.count:2|c");
+
+        // the remaining half is carried over rather than dropped
+        registry.poll();
+        counter.increment(0.5);
+        registry.poll();
+        assertThat(lines).containsExactly("myCounter.statistic.count:2|c", "myCounter.statistic.count:1|c");
+
+        counter.increment(3);
+        registry.remove(counter);
+        registry.poll();
+        assertThat(lines).containsExactly("myCounter.statistic.count:2|c", "myCounter.statistic.count:1|c",
+                "myCounter.statistic.count:3|c");
+    }
+
     @Test
     void pollFailureNotFatal() {
         registry = StatsdMeterRegistry.builder(StatsdConfig.DEFAULT).build();
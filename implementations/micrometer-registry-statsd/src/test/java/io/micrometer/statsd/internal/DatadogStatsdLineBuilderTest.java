@@ -42,6 +42,34 @@ class DatadogStatsdLineBuilderTest {
         assertThat(lb.line("1", Statistic.COUNT, "c")).isEqualTo("myCounter:1|c|#statistic:count,myTag:value");
     }
 
+    @Test
+    void writeEachLineType() {
+        registry.config().namingConvention(NamingConvention.dot);
+        Counter c = registry.counter("my.counter", "my.tag", "value");
+        DatadogStatsdLineBuilder lb = new DatadogStatsdLineBuilder(c.getId(), registry.config());
+
+        assertThat(lb.count(Long.MIN_VALUE)).isEqualTo("my.counter:-9223372036854775808|c|#statistic:count,my.tag:value");
+        assertThat(lb.gauge(1.5, Statistic.MAX)).isEqualTo("my.counter:1.5|g|#statistic:max,my.tag:value");
+        assertThat(lb.histogram(2)).isEqualTo("my.counter:2|h|#my.tag:value");
+        assertThat(lb.timing(3.25)).isEqualTo("my.counter:3.25|ms|#my.tag:value");
+
+        Counter untagged = registry.counter("untagged");
+        lb = new DatadogStatsdLineBuilder(untagged.getId(), registry.config());
+        assertThat(lb.timing(1)).isEqualTo("untagged:1|ms");
+        assertThat(lb.count(1)).isEqualTo("untagged:1|c|#statistic:count");
+    }
+
+    @Test
+    void sampleRateGoesBeforeTags() {
+        registry.config().namingConvention(NamingConvention.dot);
+        Counter c = registry.counter("my.timer", "my.tag", "value");
+        DatadogStatsdLineBuilder lb = new DatadogStatsdLineBuilder(c.getId(), registry.config());
+
+        assertThat(lb.timing(1, 0.25)).isEqualTo("my.timer:1|ms|@0.25|#my.tag:value");
+        assertThat(lb.histogram(2, 0.5)).isEqualTo("my.timer:2|h|@0.5|#my.tag:value");
+        assertThat(lb.timing(1, 1)).isEqualTo("my.timer:1|ms|#my.tag:value");
+    }
+
     @Test
     void useDistributions() {
         DistributionSummary s = registry.summary("my.summary", "tag", "value");
@@ -0,0 +1,220 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.statsd.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link DatagramRingBufferSink}.
+ */
+class DatagramRingBufferSinkTest {
+    private DatagramChannel agent;
+
+    @BeforeEach
+    void bindAgent() throws IOException {
+        agent = DatagramChannel.open().bind(new InetSocketAddress("127.0.0.1", 0));
+    }
+
+    @AfterEach
+    void closeAgent() throws IOException {
+        agent.close();
+    }
+
+    @Test
+    void packLinesIntoDatagrams() throws IOException {
+        DatagramRingBufferSink sink = sink(16, 20, true);
+        sink.start();
+        for (int i = 0; i < 5; i++) {
+            sink.tryEmitNext("a:" + i + "|c");
+        }
+        // the last, partially filled, datagram is sent on stop rather than after the flush interval
+        sink.stop();
+
+        assertThat(receive(2)).containsExactly("a:0|c\na:1|c\na:2|c\n", "a:3|c\na:4|c\n");
+    }
+
+    @Test
+    void sendEachLineWhenNotBuffered() throws IOException {
+        DatagramRingBufferSink sink = sink(16, 1400, false);
+        sink.start();
+        sink.tryEmitNext("a:1|c");
+        sink.tryEmitNext("b:2|c");
+        sink.stop();
+
+        assertThat(receive(2)).containsExactly("a:1|c\n", "b:2|c\n");
+    }
+
+    @Test
+    void sendLinesLongerThanMaxPacketLengthOnTheirOwn() throws IOException {
+        DatagramRingBufferSink sink = sink(16, 10, true);
+        sink.tryEmitNext("a:1|c");
+        sink.tryEmitNext("a.very.long.name:1|c");
+        sink.tryEmitNext("b:1|c");
+        sink.start();
+        sink.stop();
+
+        assertThat(receive(3)).containsExactly("a:1|c\n", "a.very.long.name:1|c\n", "b:1|c\n");
+    }
+
+    @Test
+    void dropLinesWhenFull() throws IOException {
+        DatagramRingBufferSink sink = sink(3, 1400, true);
+        for (int i = 0; i < 6; i++) {
+            Sinks.EmitResult result = sink.tryEmitNext("a:" + i + "|c");
+            assertThat(result).isEqualTo(i < 4 ? Sinks.EmitResult.OK : Sinks.EmitResult.FAIL_OVERFLOW);
+        }
+        assertThat(sink.overflowed()).isEqualTo(2);
+
+        sink.start();
+        sink.stop();
+        assertThat(receive(1)).containsExactly("a:0|c\na:1|c\na:2|c\na:3|c\n");
+        assertThat(sink.failed()).isEqualTo(0);
+    }
+
+    @Test
+    void encodeNonAsciiLines() throws IOException {
+        DatagramRingBufferSink sink = sink(16, 1400, true);
+        sink.tryEmitNext("café:1|c");
+        sink.start();
+        sink.stop();
+
+        assertThat(receive(1)).containsExactly("café:1|c\n");
+    }
+
+    @Test
+    void parkIdleFlusherUntilLinesAreOffered() throws Exception {
+        DatagramRingBufferSink sink = sink(16, 1400, false);
+        sink.start();
+        try {
+            sink.tryEmitNext("a:1|c");
+            assertThat(receive(1)).containsExactly("a:1|c\n");
+
+            Thread flusher = flusherThread();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (flusher.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            // parked without a timeout, rather than waking up periodically to poll an empty ring
+            assertThat(flusher.getState()).isEqualTo(Thread.State.WAITING);
+
+            sink.tryEmitNext("b:2|c");
+            assertThat(receive(1)).containsExactly("b:2|c\n");
+        } finally {
+            sink.stop();
+        }
+    }
+
+    @Test
+    void sendPartiallyFilledDatagramAfterFlushInterval() throws IOException {
+        DatagramRingBufferSink sink = sink(16, 1400, true, Duration.ofMillis(50));
+        sink.start();
+        try {
+            sink.tryEmitNext("a:1|c");
+            sink.tryEmitNext("b:2|c");
+            assertThat(receive(1)).containsExactly("a:1|c\nb:2|c\n");
+        } finally {
+            sink.stop();
+        }
+    }
+
+    @Test
+    void restartOnlyOnceTheStoppedFlusherHasFinished() throws IOException {
+        DatagramRingBufferSink sink = sink(16, 1400, false);
+        sink.start();
+        sink.tryEmitNext("a:1|c");
+        sink.stop();
+        assertThat(flusherThreads()).isEmpty();
+
+        sink.start();
+        try {
+            sink.tryEmitNext("b:2|c");
+            assertThat(receive(2)).containsExactly("a:1|c\n", "b:2|c\n");
+            assertThat(flusherThreads()).hasSize(1);
+        } finally {
+            sink.stop();
+        }
+    }
+
+    @Test
+    void stopWhileLinesKeepBeingOffered() throws Exception {
+        DatagramRingBufferSink sink = sink(16, 1400, true);
+        AtomicBoolean offering = new AtomicBoolean(true);
+        Thread producer = new Thread(() -> {
+            while (offering.get()) {
+                sink.tryEmitNext("a:1|c");
+            }
+        });
+        sink.start();
+        producer.start();
+        try {
+            sink.stop();
+            assertThat(flusherThreads()).isEmpty();
+        } finally {
+            offering.set(false);
+            producer.join();
+        }
+    }
+
+    private DatagramRingBufferSink sink(int capacity, int maxPacketLength, boolean buffered) throws IOException {
+        return sink(capacity, maxPacketLength, buffered, Duration.ofMinutes(1));
+    }
+
+    private DatagramRingBufferSink sink(int capacity, int maxPacketLength, boolean buffered, Duration flushInterval) throws IOException {
+        InetSocketAddress address = (InetSocketAddress) agent.getLocalAddress();
+        return new DatagramRingBufferSink(address.getHostString(), address.getPort(), capacity, maxPacketLength, buffered,
+                flushInterval);
+    }
+
+    private static Thread flusherThread() {
+        return flusherThreads().stream()
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no flusher thread"));
+    }
+
+    private static List<Thread> flusherThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("micrometer-statsd-flusher") && thread.isAlive())
+                .collect(Collectors.toList());
+    }
+
+    private List<String> receive(int datagrams) throws IOException {
+        List<String> received = new ArrayList<>();
+        agent.socket().setSoTimeout(5000);
+        for (int i = 0; i < datagrams; i++) {
+            DatagramPacket packet = new DatagramPacket(new byte[2048], 2048);
+            agent.socket().receive(packet);
+            received.add(new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8));
+        }
+        return received;
+    }
+}
@@ -48,6 +48,15 @@ class TelegrafStatsdLineBuilderTest {
         assertThat(lb.line("1", Statistic.COUNT, "c")).isEqualTo("myCounter,statistic=count,myTag=value:1|c");
     }
 
+    @Test
+    void sampleRate() {
+        Counter c = registry.counter("my.timer", "my.tag", "value");
+        TelegrafStatsdLineBuilder lb = new TelegrafStatsdLineBuilder(c.getId(), registry.config());
+
+        registry.config().namingConvention(NamingConvention.dot);
+        assertThat(lb.timing(1, 0.1)).isEqualTo("my.timer,my.tag=value:1|ms|@0.1");
+    }
+
     @Issue("#739")
     @Test
     void sanitizeColons() {
@@ -28,7 +28,11 @@ public abstract class AbstractDistributionSummary extends AbstractMeter implemen
         super(id);
         this.scale = scale;
 
-        if (distributionStatisticConfig.isPublishingPercentiles()) {
+        if (distributionStatisticConfig.isPublishingPercentiles() && Boolean.TRUE.equals(distributionStatisticConfig.isLogLinearPercentiles())
+                && TimeWindowLogLinearHistogram.coversExpectedValueRange(distributionStatisticConfig)) {
+            // fixed-memory log-linear histogram
+            this.histogram = new TimeWindowLogLinearHistogram(clock, distributionStatisticConfig, supportsAggregablePercentiles);
+        } else if (distributionStatisticConfig.isPublishingPercentiles()) {
             // hdr-based histogram
             this.histogram = new TimeWindowPercentileHistogram(clock, distributionStatisticConfig, supportsAggregablePercentiles);
         } else if (distributionStatisticConfig.isPublishingHistogram()) {
@@ -80,7 +80,11 @@ public abstract class AbstractTimer extends AbstractMeter implements Timer {
 
         initPauseDetector(pauseDetector);
 
-        if (distributionStatisticConfig.isPublishingPercentiles()) {
+        if (distributionStatisticConfig.isPublishingPercentiles() && Boolean.TRUE.equals(distributionStatisticConfig.isLogLinearPercentiles())
+                && TimeWindowLogLinearHistogram.coversExpectedValueRange(distributionStatisticConfig)) {
+            // fixed-memory log-linear histogram
+            this.histogram = new TimeWindowLogLinearHistogram(clock, distributionStatisticConfig, supportsAggregablePercentiles);
+        } else if (distributionStatisticConfig.isPublishingPercentiles()) {
             // hdr-based histogram
             this.histogram = new TimeWindowPercentileHistogram(clock, distributionStatisticConfig, supportsAggregablePercentiles);
         } else if (distributionStatisticConfig.isPublishingHistogram()) {
@@ -214,6 +214,47 @@ public abstract class AbstractTimerBuilder<B extends AbstractTimerBuilder<B>> {
         return (B) this;
     }
 
+    /**
+     * Stripe the decaying max of this timer across cache line padded cells, one of which is selected by each
+     * recording thread. Reserve this for timers that many threads record to at once, as it costs more memory.
+     *
+     * @param enabled Whether the max is striped.
+     * @return This builder.
+     * @since 1.8.0
+     */
+    public B stripedMax(@Nullable Boolean enabled) {
+        this.distributionConfigBuilder.stripedMax(enabled);
+        return (B) this;
+    }
+
+    /**
+     * Stripe the histogram counts of this timer across cache line padded rows, one of which is selected by each
+     * recording thread. Reserve this for timers that many threads record to at once, as it costs more memory.
+     * Has no effect when client-side percentiles are published.
+     *
+     * @param enabled Whether histogram counts are striped.
+     * @return This builder.
+     * @since 1.8.0
+     */
+    public B stripedHistogram(@Nullable Boolean enabled) {
+        this.distributionConfigBuilder.stripedHistogram(enabled);
+        return (B) this;
+    }
+
+    /**
+     * Compute the client-side percentiles of this timer from a compact log-linear histogram instead of
+     * an HdrHistogram. Its footprint is fixed by {@link #percentilePrecision(Integer)} and the range between
+     * {@link #minimumExpectedValue(Duration)} and {@link #maximumExpectedValue(Duration)}.
+     *
+     * @param enabled Whether percentiles are computed from a log-linear histogram.
+     * @return This builder.
+     * @since 1.8.0
+     */
+    public B logLinearPercentiles(@Nullable Boolean enabled) {
+        this.distributionConfigBuilder.logLinearPercentiles(enabled);
+        return (B) this;
+    }
+
     /**
      * Sets the pause detector implementation to use for this timer. Can also be configured on a registry-level with
      * {@link MeterRegistry.Config#pauseDetector(PauseDetector)}.
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * {@link MeterProvider} keeping a bounded cache of the meters it returned, keyed by the additional tags.
+ * The cache is discarded whenever the registry's meters may have changed in a way that makes a cached meter
+ * stale, i.e. a meter was removed or a meter filter was added.
+ *
+ * @param <T> the type of meter provided
+ */
+final class CachingMeterProvider<T extends Meter> implements MeterProvider<T> {
+    static final int MAX_CACHED_METERS = 1024;
+
+    private final MeterRegistry registry;
+    private final Function<Tags, T> register;
+
+    private volatile Cache<T> cache;
+
+    CachingMeterProvider(MeterRegistry registry, Function<Tags, T> register) {
+        this.registry = registry;
+        this.register = register;
+        this.cache = new Cache<>(registry.getMeterMapVersion());
+    }
+
+    @Override
+    public T withTags(Iterable<? extends Tag> tags) {
+        Tags extraTags = Tags.of(tags);
+        long version = registry.getMeterMapVersion();
+
+        Cache<T> current = cache;
+        if (current.version != version) {
+            current = new Cache<>(version);
+            cache = current;
+        }
+
+        T meter = current.meters.get(extraTags);
+        if (meter == null) {
+            meter = register.apply(extraTags);
+            if (current.meters.size() < MAX_CACHED_METERS) {
+                current.meters.put(extraTags, meter);
+            }
+        }
+        return meter;
+    }
+
+    private static class Cache<T> {
+        private final long version;
+        private final Map<Tags, T> meters = new ConcurrentHashMap<>();
+
+        Cache(long version) {
+            this.version = version;
+        }
+    }
+}
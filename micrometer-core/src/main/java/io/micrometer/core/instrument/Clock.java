@@ -21,6 +21,7 @@ import io.micrometer.core.instrument.step.StepLong;
  * Used to measure absolute and relative time.
  *
  * @see MockClock for a clock that can be manually advanced for use in tests.
+ * @see CoarseClock for a clock that is cheaper to read, at a precision of one tick.
  * @author Jon Schneider
  */
 public interface Clock {
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument;
+
+import io.micrometer.core.instrument.util.NamedThreadFactory;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link Clock} that trades precision for cheaper reads. A background ticker thread reads a source clock once per
+ * tick and publishes the result, so reading the time is a volatile read rather than a call to
+ * {@link System#nanoTime()} or {@link System#currentTimeMillis()}.
+ * <p>
+ * Times returned lag behind the source clock by up to one tick, plus however late the ticker thread is scheduled, so
+ * a duration measured with this clock is accurate to about one tick: operations shorter than a tick are recorded as
+ * either zero or one tick. Use it for timers of operations that take many ticks, either for a whole registry by
+ * passing it to the registry's constructor, or for individual timings with {@link Timer#start(Clock)}.
+ * <p>
+ * Once {@link #close() closed}, the ticker thread stops and reads go straight to the source clock.
+ *
+ * @since 1.8.0
+ */
+public class CoarseClock implements Clock, AutoCloseable {
+    private final Clock source;
+    private final long tickNanos;
+    private final Thread ticker;
+
+    private volatile long monotonicTime;
+    private volatile long wallTime;
+    private volatile boolean closed;
+
+    /**
+     * Create a clock ticking over {@link Clock#SYSTEM}.
+     *
+     * @param tick How often the time is read from the system clock. For example, 1 millisecond.
+     */
+    public CoarseClock(Duration tick) {
+        this(Clock.SYSTEM, tick);
+    }
+
+    /**
+     * @param source The clock read once per tick.
+     * @param tick   How often the time is read from the source clock.
+     */
+    public CoarseClock(Clock source, Duration tick) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("tick must be positive");
+        }
+        this.source = source;
+        this.tickNanos = tick.toNanos();
+        tick();
+
+        this.ticker = new NamedThreadFactory("micrometer-coarse-clock").newThread(this::run);
+        this.ticker.start();
+    }
+
+    private void run() {
+        while (!closed) {
+            LockSupport.parkNanos(this, tickNanos);
+            tick();
+        }
+    }
+
+    void tick() {
+        monotonicTime = source.monotonicTime();
+        wallTime = source.wallTime();
+    }
+
+    @Override
+    public long wallTime() {
+        return closed ? source.wallTime() : wallTime;
+    }
+
+    @Override
+    public long monotonicTime() {
+        return closed ? source.monotonicTime() : monotonicTime;
+    }
+
+    /**
+     * Stops the ticker thread. Reads go to the source clock from then on.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(ticker);
+    }
+}
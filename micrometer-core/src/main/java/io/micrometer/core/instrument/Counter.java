@@ -15,6 +15,7 @@
  */
 package io.micrometer.core.instrument;
 
+import io.micrometer.core.annotation.Incubating;
 import io.micrometer.core.lang.Nullable;
 
 import java.util.Collections;
@@ -127,5 +128,24 @@ public interface Counter extends Meter {
         public Counter register(MeterRegistry registry) {
             return registry.counter(new Meter.Id(name, tags, baseUnit, description, Type.COUNTER));
         }
+
+        /**
+         * Bind the current state of this builder to a registry, returning a handle that provides counters
+         * with additional tags whose values are only known at recording time. Counters returned by the handle
+         * are cached, so it should be created once and reused.
+         *
+         * @param registry A registry to add the counters to, if they don't already exist.
+         * @return A handle providing new or existing counters for additional tags.
+         * @since 1.8.0
+         */
+        @Incubating(since = "1.8.0")
+        public MeterProvider<Counter> withRegistry(MeterRegistry registry) {
+            String name = this.name;
+            Tags baseTags = this.tags;
+            String baseUnit = this.baseUnit;
+            String description = this.description;
+            return new CachingMeterProvider<>(registry, extraTags ->
+                    registry.counter(new Meter.Id(name, baseTags.and(extraTags), baseUnit, description, Type.COUNTER)));
+        }
     }
 }
@@ -15,6 +15,7 @@
  */
 package io.micrometer.core.instrument;
 
+import io.micrometer.core.annotation.Incubating;
 import io.micrometer.core.instrument.distribution.CountAtBucket;
 import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 import io.micrometer.core.instrument.distribution.HistogramSupport;
@@ -356,6 +357,48 @@ public interface DistributionSummary extends Meter, HistogramSupport {
             return this;
         }
 
+        /**
+         * Stripe the decaying max of this distribution summary across cache line padded cells, one of which is
+         * selected by each recording thread. Reserve this for summaries that many threads record to at once, as
+         * it costs more memory.
+         *
+         * @param enabled Whether the max is striped.
+         * @return This builder.
+         * @since 1.8.0
+         */
+        public Builder stripedMax(@Nullable Boolean enabled) {
+            this.distributionConfigBuilder.stripedMax(enabled);
+            return this;
+        }
+
+        /**
+         * Stripe the histogram counts of this distribution summary across cache line padded rows, one of which
+         * is selected by each recording thread. Reserve this for summaries that many threads record to at once,
+         * as it costs more memory. Has no effect when client-side percentiles are published.
+         *
+         * @param enabled Whether histogram counts are striped.
+         * @return This builder.
+         * @since 1.8.0
+         */
+        public Builder stripedHistogram(@Nullable Boolean enabled) {
+            this.distributionConfigBuilder.stripedHistogram(enabled);
+            return this;
+        }
+
+        /**
+         * Compute the client-side percentiles of this distribution summary from a compact log-linear histogram
+         * instead of an HdrHistogram. Its footprint is fixed by {@link #percentilePrecision(Integer)} and the
+         * range between {@link #minimumExpectedValue(Double)} and {@link #maximumExpectedValue(Double)}.
+         *
+         * @param enabled Whether percentiles are computed from a log-linear histogram.
+         * @return This builder.
+         * @since 1.8.0
+         */
+        public Builder logLinearPercentiles(@Nullable Boolean enabled) {
+            this.distributionConfigBuilder.logLinearPercentiles(enabled);
+            return this;
+        }
+
         /**
          * Multiply values recorded to the distribution summary by a scaling factor.
          *
@@ -378,6 +421,28 @@ public interface DistributionSummary extends Meter, HistogramSupport {
         public DistributionSummary register(MeterRegistry registry) {
             return registry.summary(new Meter.Id(name, tags, baseUnit, description, Type.DISTRIBUTION_SUMMARY), distributionConfigBuilder.build(), scale);
         }
+
+        /**
+         * Bind the current state of this builder to a registry, returning a handle that provides distribution
+         * summaries with additional tags whose values are only known at recording time. Summaries returned by
+         * the handle are cached, so it should be created once and reused.
+         *
+         * @param registry A registry to add the distribution summaries to, if they don't already exist.
+         * @return A handle providing new or existing distribution summaries for additional tags.
+         * @since 1.8.0
+         */
+        @Incubating(since = "1.8.0")
+        public MeterProvider<DistributionSummary> withRegistry(MeterRegistry registry) {
+            String name = this.name;
+            Tags baseTags = this.tags;
+            String baseUnit = this.baseUnit;
+            String description = this.description;
+            DistributionStatisticConfig distributionConfig = distributionConfigBuilder.build();
+            double scale = this.scale;
+            return new CachingMeterProvider<>(registry, extraTags ->
+                    registry.summary(new Meter.Id(name, baseTags.and(extraTags), baseUnit, description, Type.DISTRIBUTION_SUMMARY),
+                            distributionConfig, scale));
+        }
     }
 
 }
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument;
+
+import io.micrometer.core.annotation.Incubating;
+
+/**
+ * A handle on a meter whose name, description, base tags and registry are bound up front, which returns
+ * the meter for additional tags whose values are only known at recording time (e.g. an HTTP status). Obtain
+ * one through the builder of the meter, e.g. {@link Timer.Builder#withRegistry(MeterRegistry)}, and keep it
+ * around; meters returned for the same additional tags are cached by the handle, so subsequent lookups
+ * skip building a new {@link Meter.Id} and registering it.
+ *
+ * @param <T> the type of meter provided
+ * @since 1.8.0
+ */
+@Incubating(since = "1.8.0")
+public interface MeterProvider<T extends Meter> {
+    /**
+     * @param tags Tags to add to the base tags of the handle.
+     * @return A new or existing meter with the base tags and the given tags.
+     */
+    T withTags(Iterable<? extends Tag> tags);
+
+    /**
+     * @param tags Must be an even number of arguments representing key/value pairs of tags.
+     * @return A new or existing meter with the base tags and the given tags.
+     */
+    default T withTags(String... tags) {
+        return withTags(Tags.of(tags));
+    }
+
+    /**
+     * @param key   The tag key.
+     * @param value The tag value.
+     * @return A new or existing meter with the base tags and the given tag.
+     */
+    default T withTag(String key, String value) {
+        return withTags(Tags.of(key, value));
+    }
+}
@@ -97,6 +97,33 @@ public abstract class MeterRegistry {
     // Guarded by meterMapLock for both reads and writes
     private final Map<Id, Set<Id>> syntheticAssociations = new HashMap<>();
 
+    /**
+     * Map of meter id before {@link MeterFilter}s are applied to the registered meter. This lets repeated lookups of
+     * an existing meter skip the filter chain entirely. Reads are lock-free, writes are guarded by meterMapLock and
+     * the whole map is invalidated whenever a filter is added.
+     */
+    private final Map<Id, Meter> preFilterIdToMeterMap = new ConcurrentHashMap<>();
+
+    /**
+     * Map of meter id (after filters are applied) to the pre-filter ids that are cached for it, so that removing a
+     * meter also evicts its entries from {@link #preFilterIdToMeterMap}.
+     */
+    // Guarded by meterMapLock for writes, the size of a set may be read without it
+    private final Map<Id, Set<Id>> preFilterIdAssociations = new ConcurrentHashMap<>();
+
+    /**
+     * The most pre-filter ids cached for one meter. Filters like {@link MeterFilter#ignoreTags(String...)} fold any
+     * number of pre-filter ids into one meter, so further ids of such a meter go through the filter chain each time
+     * rather than growing the cache without bound.
+     */
+    static final int MAX_PRE_FILTER_IDS_PER_METER = 16;
+
+    /**
+     * Incremented whenever a meter is removed or a meter filter is added, so that caches of meters held outside
+     * the registry can tell that they may be stale.
+     */
+    private volatile long meterMapVersion;
+
     private final AtomicBoolean closed = new AtomicBoolean();
     private PauseDetector pauseDetector = new NoPauseDetector();
 
@@ -565,8 +592,15 @@ public abstract class MeterRegistry {
     private <M extends Meter> M registerMeterIfNecessary(Class<M> meterClass, Meter.Id id,
                                                          @Nullable DistributionStatisticConfig config, BiFunction<Meter.Id, DistributionStatisticConfig, M> builder,
                                                          Function<Meter.Id, M> noopBuilder) {
-        Id mappedId = getMappedId(id);
-        Meter m = getOrCreateMeter(config, builder, id, mappedId, noopBuilder);
+        Meter m = preFilterIdToMeterMap.get(id);
+        // Ids don't take the meter type into account for equality, but filters may, so a cached meter
+        // of a different type goes through the filter chain again.
+        if (m == null || !meterClass.isInstance(m)) {
+            MeterFilter[] filtersUsed = filters;
+            Id mappedId = getMappedId(id, filtersUsed);
+            m = getOrCreateMeter(config, builder, id, mappedId, noopBuilder);
+            cachePreFilterId(id, mappedId, m, filtersUsed);
+        }
 
         if (!meterClass.isInstance(m)) {
             throw new IllegalArgumentException(format(
@@ -580,6 +614,10 @@ public abstract class MeterRegistry {
     }
 
     private Id getMappedId(Id id) {
+        return getMappedId(id, filters);
+    }
+
+    private Id getMappedId(Id id, MeterFilter[] filters) {
         if (id.syntheticAssociation() != null) {
             return id;
         }
@@ -637,6 +675,32 @@ public abstract class MeterRegistry {
         return m;
     }
 
+    private void cachePreFilterId(Id preFilterId, Id mappedId, Meter m, MeterFilter[] filtersUsed) {
+        if (meterMap.get(mappedId) != m || isPreFilterIdCacheFull(mappedId)) {
+            // denied or no-op meters are never cached
+            return;
+        }
+        synchronized (meterMapLock) {
+            // Only cache meters that are actually registered, and only if no filter was added
+            // while the mapped id was being computed.
+            if (filtersUsed != filters || meterMap.get(mappedId) != m || isPreFilterIdCacheFull(mappedId)) {
+                return;
+            }
+            preFilterIdToMeterMap.put(preFilterId, m);
+            preFilterIdAssociations.computeIfAbsent(mappedId, k -> ConcurrentHashMap.newKeySet()).add(preFilterId);
+        }
+    }
+
+    private boolean isPreFilterIdCacheFull(Id mappedId) {
+        Set<Id> preFilterIds = preFilterIdAssociations.get(mappedId);
+        return preFilterIds != null && preFilterIds.size() >= MAX_PRE_FILTER_IDS_PER_METER;
+    }
+
+    // VisibleForTesting
+    int preFilterIdCacheSize() {
+        return preFilterIdToMeterMap.size();
+    }
+
     private boolean accept(Meter.Id id) {
         for (MeterFilter filter : filters) {
             MeterFilterReply reply = filter.accept(id);
@@ -695,6 +759,15 @@ public abstract class MeterRegistry {
             synchronized (meterMapLock) {
                 m = meterMap.remove(mappedId);
                 if (m != null) {
+                    meterMapVersion++;
+
+                    Set<Id> preFilterIds = preFilterIdAssociations.remove(mappedId);
+                    if (preFilterIds != null) {
+                        for (Id preFilterId : preFilterIds) {
+                            preFilterIdToMeterMap.remove(preFilterId);
+                        }
+                    }
+
                     Set<Id> synthetics = syntheticAssociations.remove(mappedId);
                     if (synthetics != null) {
                         for (Id synthetic : synthetics) {
@@ -723,6 +796,13 @@ public abstract class MeterRegistry {
         meterMap.keySet().forEach(this::remove);
     }
 
+    /**
+     * @return A version number that changes whenever a meter is removed or a meter filter is added.
+     */
+    long getMeterMapVersion() {
+        return meterMapVersion;
+    }
+
     /**
      * Access to configuration options for this registry.
      */
@@ -758,7 +838,13 @@ public abstract class MeterRegistry {
             MeterFilter[] newFilters = new MeterFilter[filters.length + 1];
             System.arraycopy(filters, 0, newFilters, 0, filters.length);
             newFilters[filters.length] = filter;
-            filters = newFilters;
+            synchronized (meterMapLock) {
+                filters = newFilters;
+                // A new filter may change how any pre-filter id maps, so the cache must be rebuilt.
+                preFilterIdToMeterMap.clear();
+                preFilterIdAssociations.clear();
+                meterMapVersion++;
+            }
             return this;
         }
 
@@ -38,12 +38,28 @@ public final class Tags implements Iterable<Tag> {
     private final Tag[] tags;
     private int last;
 
+    /**
+     * Cached hash code, lazily computed. Zero means it has not been computed yet.
+     */
+    private int hash;
+
     private Tags(Tag[] tags) {
         this.tags = tags;
         Arrays.sort(this.tags);
         dedup();
     }
 
+    /**
+     * Create an instance from tags that are already sorted and deduplicated by key.
+     *
+     * @param sortedTags tags sorted and deduplicated by key
+     * @param last       number of elements of {@code sortedTags} in use
+     */
+    private Tags(Tag[] sortedTags, int last) {
+        this.tags = sortedTags;
+        this.last = last;
+    }
+
     private void dedup() {
         int n = tags.length;
 
@@ -97,10 +113,14 @@ public final class Tags implements Iterable<Tag> {
         if (tags == null || tags.length == 0) {
             return this;
         }
-        Tag[] newTags = new Tag[last + tags.length];
-        System.arraycopy(this.tags, 0, newTags, 0, last);
-        System.arraycopy(tags, 0, newTags, last, tags.length);
-        return new Tags(newTags);
+        if (last == 0) {
+            return new Tags(Arrays.copyOf(tags, tags.length));
+        }
+        if (tags.length == 1) {
+            return merge(tags, 1);
+        }
+        Tags other = new Tags(Arrays.copyOf(tags, tags.length));
+        return merge(other.tags, other.last);
     }
 
     /**
@@ -118,7 +138,43 @@ public final class Tags implements Iterable<Tag> {
             return Tags.of(tags);
         }
 
-        return and(Tags.of(tags).tags);
+        Tags other = Tags.of(tags);
+        return merge(other.tags, other.last);
+    }
+
+    /**
+     * Merge this instance with other tags, sorted and deduplicated by key, without resorting. On duplicate keys
+     * the other tag wins, which is consistent with the tags added last taking precedence.
+     *
+     * @param otherTags sorted and deduplicated tags to add
+     * @param otherLast number of elements of {@code otherTags} in use
+     * @return a new {@code Tags} instance
+     */
+    private Tags merge(Tag[] otherTags, int otherLast) {
+        if (otherLast == 0) {
+            return this;
+        }
+
+        Tag[] merged = new Tag[last + otherLast];
+        int i = 0, j = 0, k = 0;
+        while (i < last && j < otherLast) {
+            int cmp = tags[i].compareTo(otherTags[j]);
+            if (cmp < 0) {
+                merged[k++] = tags[i++];
+            } else {
+                if (cmp == 0) {
+                    i++;
+                }
+                merged[k++] = otherTags[j++];
+            }
+        }
+        while (i < last) {
+            merged[k++] = tags[i++];
+        }
+        while (j < otherLast) {
+            merged[k++] = otherTags[j++];
+        }
+        return new Tags(merged, k);
     }
 
     @Override
@@ -157,9 +213,13 @@ public final class Tags implements Iterable<Tag> {
 
     @Override
     public int hashCode() {
-        int result = 1;
-        for (int i = 0; i < last; i++) {
-            result = 31 * result + tags[i].hashCode();
+        int result = hash;
+        if (result == 0) {
+            result = 1;
+            for (int i = 0; i < last; i++) {
+                result = 31 * result + tags[i].hashCode();
+            }
+            hash = result;
         }
         return result;
     }
@@ -176,6 +236,9 @@ public final class Tags implements Iterable<Tag> {
         if (last != obj.last)
             return false;
 
+        if (hash != 0 && obj.hash != 0 && hash != obj.hash)
+            return false;
+
         for (int i = 0; i < last; i++) {
             if (!tags[i].equals(obj.tags[i]))
                 return false;
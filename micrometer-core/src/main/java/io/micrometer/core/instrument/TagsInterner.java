@@ -0,0 +1,93 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument;
+
+import io.micrometer.core.annotation.Incubating;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A bounded pool of canonical {@link Tags} instances. Equal tag sets interned through the same pool share one
+ * instance, so that their comparison (and that of {@link Meter.Id Meter.Ids} built from them) short-circuits on
+ * identity and their hash code is only computed once.
+ * <p>
+ * Interned instances are weakly referenced and are discarded by the garbage collector once nothing else refers to
+ * them. When the pool is full, tags are returned as-is rather than interned.
+ *
+ * @since 1.8.0
+ */
+@Incubating(since = "1.8.0")
+public final class TagsInterner {
+    private final int maxSize;
+
+    // Guarded by itself
+    private final Map<Tags, WeakReference<Tags>> pool = new WeakHashMap<>();
+
+    /**
+     * Create a {@code TagsInterner} instance.
+     *
+     * @param maxSize maximum number of distinct tag sets held by the pool
+     */
+    public TagsInterner(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Return the canonical instance of the given tags.
+     *
+     * @param tags the tags to intern
+     * @return a pooled instance equal to {@code tags}, or {@code tags} itself if it is the first of its kind or the pool is full
+     */
+    public Tags intern(Tags tags) {
+        synchronized (pool) {
+            WeakReference<Tags> ref = pool.get(tags);
+            if (ref != null) {
+                Tags interned = ref.get();
+                if (interned != null) {
+                    return interned;
+                }
+            }
+            if (pool.size() < maxSize) {
+                pool.put(tags, new WeakReference<>(tags));
+            }
+            return tags;
+        }
+    }
+
+    /**
+     * Return the canonical instance of the tags constructed from the specified key/value pairs.
+     *
+     * @param keyValues the key/value pairs of the tags
+     * @return a pooled instance equal to the tags built from {@code keyValues}
+     */
+    public Tags intern(String... keyValues) {
+        return intern(Tags.of(keyValues));
+    }
+
+    /**
+     * @return the number of tag sets currently held by the pool
+     */
+    public int size() {
+        synchronized (pool) {
+            return pool.size();
+        }
+    }
+}
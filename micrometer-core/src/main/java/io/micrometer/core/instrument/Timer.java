@@ -18,6 +18,7 @@ package io.micrometer.core.instrument;
 import io.micrometer.core.annotation.Incubating;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 import io.micrometer.core.instrument.distribution.HistogramSupport;
 import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import io.micrometer.core.instrument.distribution.pause.PauseDetector;
@@ -403,5 +404,26 @@ public interface Timer extends Meter, HistogramSupport {
             return registry.timer(new Meter.Id(name, tags, null, description, Type.TIMER), distributionConfigBuilder.build(),
                     pauseDetector == null ? registry.config().pauseDetector() : pauseDetector);
         }
+
+        /**
+         * Bind the current state of this builder to a registry, returning a handle that provides timers
+         * with additional tags whose values are only known at recording time. Timers returned by the handle
+         * are cached, so it should be created once and reused.
+         *
+         * @param registry A registry to add the timers to, if they don't already exist.
+         * @return A handle providing new or existing timers for additional tags.
+         * @since 1.8.0
+         */
+        @Incubating(since = "1.8.0")
+        public MeterProvider<Timer> withRegistry(MeterRegistry registry) {
+            String name = this.name;
+            Tags baseTags = this.tags;
+            String description = this.description;
+            DistributionStatisticConfig distributionConfig = distributionConfigBuilder.build();
+            PauseDetector pauseDetector = this.pauseDetector;
+            return new CachingMeterProvider<>(registry, extraTags ->
+                    registry.timer(new Meter.Id(name, baseTags.and(extraTags), null, description, Type.TIMER), distributionConfig,
+                            pauseDetector == null ? registry.config().pauseDetector() : pauseDetector));
+        }
     }
 }
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.binder;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.lang.Nullable;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the numeric attributes of one MBean for the meters of a binder. All the attributes read through a sampler are
+ * fetched together with a single {@link MBeanServer#getAttributes(ObjectName, String[])} call, and that sample is
+ * shared by the meters read during one poll of a registry, rather than each meter calling
+ * {@link MBeanServer#getAttribute(ObjectName, String)}.
+ * <p>
+ * By default every read fetches the attribute, so a value is always current, and whether the MBean is still
+ * registered is learned from the same call. Sharing samples is opt-in with a maximum age: a new sample is then fetched
+ * once the last one is older than that age, however many times its attributes are read in between, e.g. by a
+ * registry reading both the count and total of a function timer or by several registries. A value is never older than
+ * that age. An attribute read for the first time is fetched on its own and joins the next sample.
+ *
+ * @since 1.8.0
+ */
+public class JmxAttributeSampler {
+    private final MBeanServer mBeanServer;
+    private final ObjectName objectName;
+    private final Clock clock;
+    private final long maxAgeNanos;
+
+    // Guarded by this
+    private final Map<String, Integer> indexes = new HashMap<>();
+    // Guarded by this
+    private String[] attributes = new String[0];
+    // Guarded by this
+    private double[] values = new double[0];
+    // Guarded by this
+    private long sampleTime;
+
+    private volatile boolean registered = true;
+
+    public JmxAttributeSampler(MBeanServer mBeanServer, ObjectName objectName) {
+        this(mBeanServer, objectName, Clock.SYSTEM, Duration.ZERO);
+    }
+
+    /**
+     * @param mBeanServer The server the MBean is registered with.
+     * @param objectName  The name of the MBean.
+     * @param clock       The clock used to tell how old a sample is.
+     * @param maxAge      How long a sample may be reused for, or zero to fetch an attribute each time it is read.
+     */
+    public JmxAttributeSampler(MBeanServer mBeanServer, ObjectName objectName, Clock clock, Duration maxAge) {
+        this.mBeanServer = mBeanServer;
+        this.objectName = objectName;
+        this.clock = clock;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    /**
+     * @param attribute The name of an attribute.
+     * @return The attribute's current value, or its value in the current sample, or {@link Double#NaN} if the MBean doesn't have the
+     * attribute, it isn't numeric, or the MBean couldn't be read.
+     */
+    public synchronized double get(String attribute) {
+        Integer index = indexes.get(attribute);
+        if (maxAgeNanos <= 0) {
+            if (index == null) {
+                index = add(attribute);
+            }
+            fetch(new String[]{attribute});
+        } else if (index == null) {
+            index = add(attribute);
+            if (attributes.length == 1) {
+                sample();
+            } else {
+                // the attributes already sampled are kept until the sample is too old
+                fetch(new String[]{attribute});
+            }
+        } else if (clock.monotonicTime() - sampleTime >= maxAgeNanos) {
+            sample();
+        }
+        return values[index];
+    }
+
+    /**
+     * @return Whether the MBean was registered when it was last sampled.
+     */
+    public boolean isRegistered() {
+        return registered;
+    }
+
+    private int add(String attribute) {
+        int index = attributes.length;
+        attributes = Arrays.copyOf(attributes, index + 1);
+        values = Arrays.copyOf(values, index + 1);
+        attributes[index] = attribute;
+        indexes.put(attribute, index);
+        return index;
+    }
+
+    private void sample() {
+        fetch(attributes);
+        sampleTime = clock.monotonicTime();
+    }
+
+    private void fetch(String[] names) {
+        for (String name : names) {
+            values[indexes.get(name)] = Double.NaN;
+        }
+        try {
+            // attributes that can't be read are left out of the list rather than failing the call
+            AttributeList attributeList = mBeanServer.getAttributes(objectName, names);
+            for (Attribute attribute : attributeList.asList()) {
+                Integer index = indexes.get(attribute.getName());
+                if (index != null) {
+                    values[index] = toDouble(attribute.getValue());
+                }
+            }
+            registered = true;
+        } catch (InstanceNotFoundException e) {
+            registered = false;
+        } catch (Exception ignored) {
+        }
+    }
+
+    private static double toDouble(@Nullable Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package io.micrometer.core.instrument.binder.commonspool2;
 
 import io.micrometer.core.instrument.*;
 import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.JmxAttributeSampler;
 import io.micrometer.core.instrument.binder.MeterBinder;
 import io.micrometer.core.lang.NonNull;
 import io.micrometer.core.lang.Nullable;
@@ -29,7 +30,10 @@ import java.lang.management.ManagementFactory;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.ToDoubleFunction;
@@ -83,52 +87,54 @@ public class CommonsObjectPool2Metrics implements MeterBinder, AutoCloseable {
             registerMetricsEventually(
                     type,
                     (o, tags) -> {
-                        registerGaugeForObject(registry, o,
+                        JmxAttributeSampler sampler = new JmxAttributeSampler(mBeanServer, o);
+
+                        registerGaugeForObject(registry, sampler,
                                 "NumIdle", "num.idle", tags,
                                 "The number of instances currently idle in this pool", BaseUnits.OBJECTS);
-                        registerGaugeForObject(registry, o,
+                        registerGaugeForObject(registry, sampler,
                                 "NumActive", "num.active", tags,
                                 "The number of instances currently active in this pool", BaseUnits.OBJECTS);
-                        registerGaugeForObject(registry, o,
+                        registerGaugeForObject(registry, sampler,
                                 "NumWaiters", "num.waiters", tags,
                                 "The estimate of the number of threads currently blocked waiting for an object from the pool",
                                 BaseUnits.THREADS);
 
-                        registerFunctionCounterForObject(registry, o,
+                        registerFunctionCounterForObject(registry, sampler,
                                 "CreatedCount", "created", tags,
                                 "The total number of objects created for this pool over the lifetime of the pool",
                                 BaseUnits.OBJECTS);
-                        registerFunctionCounterForObject(registry, o,
+                        registerFunctionCounterForObject(registry, sampler,
                                 "BorrowedCount", "borrowed", tags,
                                 "The total number of objects successfully borrowed from this pool over the lifetime of the pool",
                                 BaseUnits.OBJECTS);
-                        registerFunctionCounterForObject(registry, o,
+                        registerFunctionCounterForObject(registry, sampler,
                                 "ReturnedCount", "returned", tags,
                                 "The total number of objects returned to this pool over the lifetime of the pool",
                                 BaseUnits.OBJECTS);
-                        registerFunctionCounterForObject(registry, o,
+                        registerFunctionCounterForObject(registry, sampler,
                                 "DestroyedCount", "destroyed", tags,
                                 "The total number of objects destroyed by this pool over the lifetime of the pool",
                                 BaseUnits.OBJECTS);
-                        registerFunctionCounterForObject(registry, o,
+                        registerFunctionCounterForObject(registry, sampler,
                                 "DestroyedByEvictorCount", "destroyed.by.evictor", tags,
                                 "The total number of objects destroyed by the evictor associated with this pool over the lifetime of the pool",
                                 BaseUnits.OBJECTS);
-                        registerFunctionCounterForObject(registry, o,
+                        registerFunctionCounterForObject(registry, sampler,
                                 "DestroyedByBorrowValidationCount", "destroyed.by.borrow.validation", tags,
                                 "The total number of objects destroyed by this pool as a result of failing validation during borrowObject() over the lifetime of the pool",
                                 BaseUnits.OBJECTS);
 
-                        registerTimeGaugeForObject(registry, o,
+                        registerTimeGaugeForObject(registry, sampler,
                                 "MaxBorrowWaitTimeMillis", "max.borrow.wait", tags,
                                 "The maximum time a thread has waited to borrow objects from the pool");
-                        registerTimeGaugeForObject(registry, o,
+                        registerTimeGaugeForObject(registry, sampler,
                                 "MeanActiveTimeMillis", "mean.active", tags,
                                 "The mean time objects are active");
-                        registerTimeGaugeForObject(registry, o,
+                        registerTimeGaugeForObject(registry, sampler,
                                 "MeanIdleTimeMillis", "mean.idle", tags,
                                 "The mean time objects are idle");
-                        registerTimeGaugeForObject(registry, o,
+                        registerTimeGaugeForObject(registry, sampler,
                                 "MeanBorrowWaitTimeMillis", "mean.borrow.wait", tags,
                                 "The mean time threads wait to borrow an object");
                     });
@@ -241,7 +247,7 @@ public class CommonsObjectPool2Metrics implements MeterBinder, AutoCloseable {
 
     private void registerGaugeForObject(
             MeterRegistry registry,
-            ObjectName o,
+            JmxAttributeSampler sampler,
             String jmxMetricName,
             String meterName,
             Tags allTags,
@@ -252,7 +258,7 @@ public class CommonsObjectPool2Metrics implements MeterBinder, AutoCloseable {
                 .builder(
                         METRIC_NAME_PREFIX + meterName,
                         mBeanServer,
-                        getJmxAttribute(registry, gauge, o, jmxMetricName)
+                        getJmxAttribute(registry, gauge, sampler, jmxMetricName)
                 )
                 .description(description)
                 .baseUnit(baseUnit)
@@ -261,13 +267,13 @@ public class CommonsObjectPool2Metrics implements MeterBinder, AutoCloseable {
         );
     }
 
-    private void registerFunctionCounterForObject(MeterRegistry registry, ObjectName o, String jmxMetricName, String meterName, Tags allTags, String description, @Nullable String baseUnit) {
+    private void registerFunctionCounterForObject(MeterRegistry registry, JmxAttributeSampler sampler, String jmxMetricName, String meterName, Tags allTags, String description, @Nullable String baseUnit) {
         final AtomicReference<FunctionCounter> counter = new AtomicReference<>();
         counter.set(FunctionCounter
                 .builder(
                         METRIC_NAME_PREFIX + meterName,
                         mBeanServer,
-                        getJmxAttribute(registry, counter, o, jmxMetricName)
+                        getJmxAttribute(registry, counter, sampler, jmxMetricName)
                 )
                 .description(description)
                 .baseUnit(baseUnit)
@@ -276,7 +282,7 @@ public class CommonsObjectPool2Metrics implements MeterBinder, AutoCloseable {
         );
     }
 
-    private void registerTimeGaugeForObject(MeterRegistry registry, ObjectName o, String jmxMetricName,
+    private void registerTimeGaugeForObject(MeterRegistry registry, JmxAttributeSampler sampler, String jmxMetricName,
                                             String meterName, Tags allTags, String description) {
         final AtomicReference<TimeGauge> timeGauge = new AtomicReference<>();
         timeGauge.set(TimeGauge
@@ -284,7 +290,7 @@ public class CommonsObjectPool2Metrics implements MeterBinder, AutoCloseable {
                         METRIC_NAME_PREFIX + meterName,
                         mBeanServer,
                         TimeUnit.MILLISECONDS,
-                        getJmxAttribute(registry, timeGauge, o, jmxMetricName)
+                        getJmxAttribute(registry, timeGauge, sampler, jmxMetricName)
                 )
                 .description(description)
                 .tags(allTags)
@@ -295,22 +301,14 @@ public class CommonsObjectPool2Metrics implements MeterBinder, AutoCloseable {
     private ToDoubleFunction<MBeanServer> getJmxAttribute(
             MeterRegistry registry,
             AtomicReference<? extends Meter> meter,
-            ObjectName o,
+            JmxAttributeSampler sampler,
             String jmxMetricName) {
-        return s -> safeDouble(
-                () -> {
-                    if (!s.isRegistered(o)) {
-                        registry.remove(meter.get());
-                    }
-                    return s.getAttribute(o, jmxMetricName);
-                });
-    }
-
-    private double safeDouble(Callable<Object> callable) {
-        try {
-            return Double.parseDouble(callable.call().toString());
-        } catch (Exception e) {
-            return Double.NaN;
-        }
+        return s -> {
+            double value = sampler.get(jmxMetricName);
+            if (!sampler.isRegistered()) {
+                registry.remove(meter.get());
+            }
+            return value;
+        };
     }
 }
@@ -15,34 +15,66 @@
  */
 package io.micrometer.core.instrument.binder.db;
 
+import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.binder.BaseUnits;
 import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.util.NamedThreadFactory;
 import io.micrometer.core.lang.NonNullApi;
 import io.micrometer.core.lang.NonNullFields;
+import io.micrometer.core.lang.Nullable;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.ToDoubleFunction;
 
 /**
+ * Records the number of rows in a database table.
+ * <p>
+ * By default, rows are counted while the gauge is read, so a scrape or publish waits for the count. When constructed
+ * with a refresh interval, rows are counted on a background thread instead and the gauge reports the last count. How
+ * old that count is and how long counting takes are recorded too. Such an instance should be closed on application
+ * shutdown to stop its thread.
+ *
  * @author Jon Schneider
  */
 @NonNullApi
 @NonNullFields
-public class DatabaseTableMetrics implements MeterBinder {
+public class DatabaseTableMetrics implements MeterBinder, AutoCloseable {
     private final DataSource dataSource;
     private final String query;
     private final String dataSourceName;
     private final String tableName;
     private final Iterable<Tag> tags;
 
+    @Nullable
+    private final Duration refreshInterval;
+    private final int queryTimeoutSeconds;
+    private final List<MeterRegistry> registries = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    @Nullable
+    private ScheduledExecutorService scheduler;
+    @Nullable
+    private volatile Clock clock;
+
+    private volatile double lastCount = Double.NaN;
+    private volatile long lastCountWallTime = -1;
+
     /**
      * Record the row count for an individual database table.
      *
@@ -71,6 +103,32 @@ public class DatabaseTableMetrics implements MeterBinder {
         this.dataSourceName = dataSourceName;
         this.tableName = tableName;
         this.tags = tags;
+        this.refreshInterval = null;
+        this.queryTimeoutSeconds = 0;
+    }
+
+    /**
+     * Record the row count for an individual database table, counting rows on a background thread.
+     *
+     * @param dataSource      The data source to use to run the row count query.
+     * @param rowCountQuery   How rows are counted, for example exactly with {@link RowCountQuery#exact()} or from
+     *                        catalog statistics with {@link RowCountQuery#postgresEstimate()}.
+     * @param dataSourceName  Will be used to tag metrics with "db".
+     * @param tableName       The name of the table to report table size for.
+     * @param tags            Tags to apply to all recorded metrics.
+     * @param refreshInterval How long to wait between the end of one count and the start of the next.
+     * @param queryTimeout    How long a count may run before the driver cancels it. Rounded up to whole seconds.
+     * @since 1.8.0
+     */
+    public DatabaseTableMetrics(DataSource dataSource, RowCountQuery rowCountQuery, String dataSourceName, String tableName,
+                                Iterable<Tag> tags, Duration refreshInterval, Duration queryTimeout) {
+        this.dataSource = dataSource;
+        this.query = rowCountQuery.query(tableName);
+        this.dataSourceName = dataSourceName;
+        this.tableName = tableName;
+        this.tags = tags;
+        this.refreshInterval = refreshInterval;
+        this.queryTimeoutSeconds = (int) Math.max(1, (queryTimeout.toMillis() + 999) / 1000);
     }
 
     /**
@@ -101,23 +159,145 @@ public class DatabaseTableMetrics implements MeterBinder {
 
     @Override
     public void bindTo(MeterRegistry registry) {
-        ToDoubleFunction<DataSource> totalRows = ds -> {
-            try (Connection conn = ds.getConnection();
-                 PreparedStatement ps = conn.prepareStatement(query);
-                 ResultSet rs = ps.executeQuery()) {
-                rs.next();
-                return rs.getInt(1);
-            } catch (SQLException ignored) {
-                return 0;
-            }
-        };
+        if (refreshInterval == null) {
+            ToDoubleFunction<DataSource> totalRows = ds -> {
+                try {
+                    return countRows();
+                } catch (SQLException ignored) {
+                    return 0;
+                }
+            };
+
+            Gauge.builder("db.table.size", dataSource, totalRows)
+                    .tags(tags)
+                    .tag("db", dataSourceName)
+                    .tag("table", tableName)
+                    .description("Number of rows in a database table")
+                    .baseUnit(BaseUnits.ROWS)
+                    .register(registry);
+            return;
+        }
 
-        Gauge.builder("db.table.size", dataSource, totalRows)
+        Gauge.builder("db.table.size", this, m -> m.lastCount)
                 .tags(tags)
                 .tag("db", dataSourceName)
                 .tag("table", tableName)
-                .description("Number of rows in a database table")
+                .description("Number of rows in a database table, as last counted")
                 .baseUnit(BaseUnits.ROWS)
                 .register(registry);
+
+        TimeGauge.builder("db.table.size.staleness", this, TimeUnit.MILLISECONDS, DatabaseTableMetrics::staleness)
+                .tags(tags)
+                .tag("db", dataSourceName)
+                .tag("table", tableName)
+                .description("Time since the rows in a database table were last counted")
+                .register(registry);
+
+        registries.add(registry);
+        startRefreshing(registry.config().clock());
+    }
+
+    private synchronized void startRefreshing(Clock clock) {
+        if (scheduler == null && refreshInterval != null) {
+            this.clock = clock;
+            scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("micrometer-db-table-metrics"));
+            scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private double staleness() {
+        Clock clock = this.clock;
+        long lastCountWallTime = this.lastCountWallTime;
+        return clock == null || lastCountWallTime < 0 ? Double.NaN : clock.wallTime() - lastCountWallTime;
+    }
+
+    // VisibleForTesting
+    void refresh() {
+        Clock clock = this.clock;
+        if (clock == null) {
+            return;
+        }
+
+        String exception = "none";
+        long start = clock.monotonicTime();
+        try {
+            lastCount = countRows();
+            lastCountWallTime = clock.wallTime();
+        } catch (Exception e) {
+            // the last count is kept, and grows stale until a count succeeds again
+            exception = e.getClass().getSimpleName();
+        }
+        long duration = clock.monotonicTime() - start;
+
+        for (MeterRegistry registry : registries) {
+            Timer.builder("db.table.size.query")
+                    .tags(tags)
+                    .tag("db", dataSourceName)
+                    .tag("table", tableName)
+                    .tag("exception", exception)
+                    .description("Time taken to count the rows in a database table")
+                    .register(registry)
+                    .record(duration, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private long countRows() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+            if (queryTimeoutSeconds > 0) {
+                ps.setQueryTimeout(queryTimeoutSeconds);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    /**
+     * Stops counting rows in the background, if this instance was constructed with a refresh interval.
+     *
+     * @since 1.8.0
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Builds the query used to count the rows in a table. The first column of the query's only row is the count.
+     *
+     * @since 1.8.0
+     */
+    @FunctionalInterface
+    public interface RowCountQuery {
+        String query(String tableName);
+
+        /**
+         * @return A query counting every row, which scans the table or one of its indexes.
+         */
+        static RowCountQuery exact() {
+            return tableName -> "SELECT COUNT(1) FROM " + tableName;
+        }
+
+        /**
+         * @return A query reading PostgreSQL's row estimate from {@code pg_class}, which is as recent as the last
+         * vacuum or analyze of the table. The estimate is -1 on PostgreSQL 14 and later if the table has never been
+         * vacuumed or analyzed.
+         */
+        static RowCountQuery postgresEstimate() {
+            return tableName -> "SELECT reltuples::bigint FROM pg_class WHERE oid = '" + tableName + "'::regclass";
+        }
+
+        /**
+         * @return A query reading MySQL's row estimate from {@code information_schema.tables}, which for InnoDB may be
+         * off by 40% to 50%.
+         */
+        static RowCountQuery mysqlEstimate() {
+            return tableName -> "SELECT table_rows FROM information_schema.tables " +
+                    "WHERE table_schema = DATABASE() AND table_name = '" + tableName + "'";
+        }
     }
 }
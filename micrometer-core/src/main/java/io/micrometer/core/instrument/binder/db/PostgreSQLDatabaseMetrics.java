@@ -23,15 +23,23 @@ import io.micrometer.core.lang.NonNullFields;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.DoubleSupplier;
 
 /**
  * {@link MeterBinder} for a PostgreSQL database.
+ * <p>
+ * Rather than querying the database for each meter, every statistics view is read with one query into a snapshot that
+ * all meters read from. The snapshot is refreshed, over a single connection, when a meter is read and the snapshot is
+ * older than the refresh interval, so a scrape or publish costs a handful of queries instead of one per meter.
+ * <p>
+ * Since 1.8.0, {@code postgres.rows.dead} is the sum of the dead rows of all the user tables of the database, as its
+ * description says. It used to be the dead rows of whichever table {@code pg_stat_user_tables} listed first.
  *
  * @author Kristof Depypere
  * @author Jon Schneider
@@ -42,14 +50,16 @@ import java.util.function.DoubleSupplier;
 @NonNullFields
 public class PostgreSQLDatabaseMetrics implements MeterBinder {
 
-    private static final String SELECT = "SELECT ";
+    private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(1);
 
-    private static final String QUERY_DEAD_TUPLE_COUNT = getUserTableQuery("n_dead_tup");
-    private static final String QUERY_TIMED_CHECKPOINTS_COUNT = getBgWriterQuery("checkpoints_timed");
-    private static final String QUERY_REQUESTED_CHECKPOINTS_COUNT = getBgWriterQuery("checkpoints_req");
-    private static final String QUERY_BUFFERS_CLEAN = getBgWriterQuery("buffers_clean");
-    private static final String QUERY_BUFFERS_BACKEND = getBgWriterQuery("buffers_backend");
-    private static final String QUERY_BUFFERS_CHECKPOINT = getBgWriterQuery("buffers_checkpoint");
+    private static final String QUERY_DATABASE_STATS = "SELECT numbackends, tup_fetched, tup_inserted, temp_bytes, " +
+            "tup_updated, tup_deleted, blks_hit, blks_read, xact_commit + xact_rollback " +
+            "FROM pg_stat_database WHERE datname = ?";
+    private static final String QUERY_DATABASE_SIZE = "SELECT pg_database_size(?)";
+    private static final String QUERY_LOCK_COUNT = "SELECT count(*) FROM pg_locks l JOIN pg_database d ON l.DATABASE=d.oid WHERE d.datname = ?";
+    private static final String QUERY_DEAD_TUPLE_COUNT = "SELECT SUM(n_dead_tup) FROM pg_stat_user_tables";
+    private static final String QUERY_BGWRITER_STATS = "SELECT checkpoints_timed, checkpoints_req, buffers_clean, " +
+            "buffers_backend, buffers_checkpoint FROM pg_stat_bgwriter";
 
     private final String database;
     private final DataSource postgresDataSource;
@@ -57,36 +67,47 @@ public class PostgreSQLDatabaseMetrics implements MeterBinder {
     private final Map<String, Double> beforeResetValuesCacheMap;
     private final Map<String, Double> previousValueCacheMap;
 
-    private final String queryConnectionCount;
-    private final String queryReadCount;
-    private final String queryInsertCount;
-    private final String queryTempBytes;
-    private final String queryUpdateCount;
-    private final String queryDeleteCount;
-    private final String queryBlockHits;
-    private final String queryBlockReads;
-    private final String queryTransactionCount;
+    private final Clock clock;
+    private final long refreshIntervalNanos;
+
+    // Guarded by this
+    private Snapshot snapshot = new Snapshot();
+    // Guarded by this
+    private long lastRefreshNanos;
+    // Guarded by this
+    private boolean refreshed;
 
     public PostgreSQLDatabaseMetrics(DataSource postgresDataSource, String database) {
         this(postgresDataSource, database, Tags.empty());
     }
 
     public PostgreSQLDatabaseMetrics(DataSource postgresDataSource, String database, Iterable<Tag> tags) {
+        this(postgresDataSource, database, tags, DEFAULT_REFRESH_INTERVAL);
+    }
+
+    /**
+     * @param postgresDataSource The data source of the database to monitor.
+     * @param database           The name of the database to monitor.
+     * @param tags               Tags to apply to all recorded metrics.
+     * @param refreshInterval    How long statistics read from the database are reused before they are read again.
+     *                           The default is 1 second, which covers the meter reads of a single scrape or publish.
+     * @since 1.8.0
+     */
+    public PostgreSQLDatabaseMetrics(DataSource postgresDataSource, String database, Iterable<Tag> tags,
+                                     Duration refreshInterval) {
+        this(postgresDataSource, database, tags, refreshInterval, Clock.SYSTEM);
+    }
+
+    // VisibleForTesting
+    PostgreSQLDatabaseMetrics(DataSource postgresDataSource, String database, Iterable<Tag> tags,
+                              Duration refreshInterval, Clock clock) {
         this.postgresDataSource = postgresDataSource;
         this.database = database;
         this.tags = Tags.of(tags).and(createDbTag(database));
         this.beforeResetValuesCacheMap = new ConcurrentHashMap<>();
         this.previousValueCacheMap = new ConcurrentHashMap<>();
-
-        this.queryConnectionCount = getDBStatQuery(database, "SUM(numbackends)");
-        this.queryReadCount = getDBStatQuery(database, "tup_fetched");
-        this.queryInsertCount = getDBStatQuery(database, "tup_inserted");
-        this.queryTempBytes = getDBStatQuery(database, "temp_bytes");
-        this.queryUpdateCount = getDBStatQuery(database, "tup_updated");
-        this.queryDeleteCount = getDBStatQuery(database, "tup_deleted");
-        this.queryBlockHits = getDBStatQuery(database, "blks_hit");
-        this.queryBlockReads = getDBStatQuery(database, "blks_read");
-        this.queryTransactionCount = getDBStatQuery(database, "xact_commit + xact_rollback");
+        this.clock = clock;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
     }
 
     private static Tag createDbTag(String database) {
@@ -193,71 +214,128 @@ public class PostgreSQLDatabaseMetrics implements MeterBinder {
     }
 
     private Long getDatabaseSize() {
-        return runQuery("SELECT pg_database_size('" + database + "')");
+        return snapshot().databaseSize;
     }
 
     private Long getLockCount() {
-        return runQuery("SELECT count(*) FROM pg_locks l JOIN pg_database d ON l.DATABASE=d.oid WHERE d.datname='" + database + "'");
+        return snapshot().lockCount;
     }
 
     private Long getConnectionCount() {
-        return runQuery(this.queryConnectionCount);
+        return snapshot().connectionCount;
     }
 
     private Long getReadCount() {
-        return runQuery(this.queryReadCount);
+        return snapshot().readCount;
     }
 
     private Long getInsertCount() {
-        return runQuery(this.queryInsertCount);
+        return snapshot().insertCount;
     }
 
     private Long getTempBytes() {
-        return runQuery(this.queryTempBytes);
+        return snapshot().tempBytes;
     }
 
     private Long getUpdateCount() {
-        return runQuery(this.queryUpdateCount);
+        return snapshot().updateCount;
     }
 
     private Long getDeleteCount() {
-        return runQuery(this.queryDeleteCount);
+        return snapshot().deleteCount;
     }
 
     private Long getBlockHits() {
-        return runQuery(this.queryBlockHits);
+        return snapshot().blockHits;
     }
 
     private Long getBlockReads() {
-        return runQuery(this.queryBlockReads);
+        return snapshot().blockReads;
     }
 
     private Long getTransactionCount() {
-        return runQuery(this.queryTransactionCount);
+        return snapshot().transactionCount;
     }
 
     private Long getDeadTupleCount() {
-        return runQuery(QUERY_DEAD_TUPLE_COUNT);
+        return snapshot().deadTupleCount;
     }
 
     private Long getTimedCheckpointsCount() {
-        return runQuery(QUERY_TIMED_CHECKPOINTS_COUNT);
+        return snapshot().timedCheckpointsCount;
     }
 
     private Long getRequestedCheckpointsCount() {
-        return runQuery(QUERY_REQUESTED_CHECKPOINTS_COUNT);
+        return snapshot().requestedCheckpointsCount;
     }
 
     private Long getBuffersClean() {
-        return runQuery(QUERY_BUFFERS_CLEAN);
+        return snapshot().buffersClean;
     }
 
     private Long getBuffersBackend() {
-        return runQuery(QUERY_BUFFERS_BACKEND);
+        return snapshot().buffersBackend;
     }
 
     private Long getBuffersCheckpoint() {
-        return runQuery(QUERY_BUFFERS_CHECKPOINT);
+        return snapshot().buffersCheckpoint;
+    }
+
+    /**
+     * @return Statistics read from the database no longer than the refresh interval ago.
+     */
+    synchronized Snapshot snapshot() {
+        long now = clock.monotonicTime();
+        if (!refreshed || now - lastRefreshNanos >= refreshIntervalNanos) {
+            snapshot = readSnapshot();
+            lastRefreshNanos = now;
+            refreshed = true;
+        }
+        return snapshot;
+    }
+
+    private Snapshot readSnapshot() {
+        Snapshot snapshot = new Snapshot();
+        try (Connection connection = postgresDataSource.getConnection()) {
+            // each view is queried on its own, so that a view that is missing or not readable doesn't zero the others
+            query(connection, QUERY_DATABASE_STATS, true, resultSet -> {
+                snapshot.connectionCount = resultSet.getLong(1);
+                snapshot.readCount = resultSet.getLong(2);
+                snapshot.insertCount = resultSet.getLong(3);
+                snapshot.tempBytes = resultSet.getLong(4);
+                snapshot.updateCount = resultSet.getLong(5);
+                snapshot.deleteCount = resultSet.getLong(6);
+                snapshot.blockHits = resultSet.getLong(7);
+                snapshot.blockReads = resultSet.getLong(8);
+                snapshot.transactionCount = resultSet.getLong(9);
+            });
+            query(connection, QUERY_DATABASE_SIZE, true, resultSet -> snapshot.databaseSize = resultSet.getLong(1));
+            query(connection, QUERY_LOCK_COUNT, true, resultSet -> snapshot.lockCount = resultSet.getLong(1));
+            query(connection, QUERY_DEAD_TUPLE_COUNT, false, resultSet -> snapshot.deadTupleCount = resultSet.getLong(1));
+            query(connection, QUERY_BGWRITER_STATS, false, resultSet -> {
+                snapshot.timedCheckpointsCount = resultSet.getLong(1);
+                snapshot.requestedCheckpointsCount = resultSet.getLong(2);
+                snapshot.buffersClean = resultSet.getLong(3);
+                snapshot.buffersBackend = resultSet.getLong(4);
+                snapshot.buffersCheckpoint = resultSet.getLong(5);
+            });
+        } catch (SQLException ignored) {
+        }
+        return snapshot;
+    }
+
+    private void query(Connection connection, String query, boolean bindDatabase, RowReader rowReader) {
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            if (bindDatabase) {
+                statement.setString(1, database);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    rowReader.read(resultSet);
+                }
+            }
+        } catch (SQLException ignored) {
+        }
     }
 
     /**
@@ -277,27 +355,31 @@ public class PostgreSQLDatabaseMetrics implements MeterBinder {
         return correctedValue;
     }
 
-    private Long runQuery(String query) {
-        try (Connection connection = postgresDataSource.getConnection();
-             Statement statement = connection.createStatement();
-             ResultSet resultSet = statement.executeQuery(query)) {
-            if (resultSet.next()) {
-                return resultSet.getObject(1, Long.class);
-            }
-        } catch (SQLException ignored) {
-        }
-        return 0L;
-    }
-
-    private static String getDBStatQuery(String database, String statName) {
-        return SELECT + statName + " FROM pg_stat_database WHERE datname = '" + database + "'";
+    @FunctionalInterface
+    private interface RowReader {
+        void read(ResultSet resultSet) throws SQLException;
     }
 
-    private static String getUserTableQuery(String statName) {
-        return SELECT + statName + " FROM pg_stat_user_tables";
-    }
-
-    private static String getBgWriterQuery(String statName) {
-        return SELECT + statName + " FROM pg_stat_bgwriter";
+    /**
+     * Statistics read from the database at one point in time. Statistics that couldn't be read are 0.
+     */
+    static final class Snapshot {
+        long databaseSize;
+        long lockCount;
+        long connectionCount;
+        long readCount;
+        long insertCount;
+        long tempBytes;
+        long updateCount;
+        long deleteCount;
+        long blockHits;
+        long blockReads;
+        long transactionCount;
+        long deadTupleCount;
+        long timedCheckpointsCount;
+        long requestedCheckpointsCount;
+        long buffersClean;
+        long buffersBackend;
+        long buffersCheckpoint;
     }
 }
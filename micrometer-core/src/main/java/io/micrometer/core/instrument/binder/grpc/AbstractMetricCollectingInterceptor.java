@@ -16,7 +16,6 @@
 
 package io.micrometer.core.instrument.binder.grpc;
 
-import java.util.EnumMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
@@ -29,6 +28,7 @@ import io.grpc.ServiceDescriptor;
 import io.grpc.Status;
 import io.grpc.Status.Code;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterProvider;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.Timer.Sample;
@@ -198,11 +198,8 @@ public abstract class AbstractMetricCollectingInterceptor {
      * @return The newly created function that returns a timer for a given code.
      */
     protected Function<Code, Timer> asTimerFunction(final Supplier<Timer.Builder> timerTemplate) {
-        final Map<Code, Timer> cache = new EnumMap<>(Code.class);
-        final Function<Code, Timer> creator = code -> timerTemplate.get()
-                .tag(TAG_STATUS_CODE, code.name())
-                .register(this.registry);
-        final Function<Code, Timer> cacheResolver = code -> cache.computeIfAbsent(code, creator);
+        final MeterProvider<Timer> timerProvider = timerTemplate.get().withRegistry(this.registry);
+        final Function<Code, Timer> cacheResolver = code -> timerProvider.withTag(TAG_STATUS_CODE, code.name());
         // Eager initialize
         for (final Code code : this.eagerInitializedCodes) {
             cacheResolver.apply(code);
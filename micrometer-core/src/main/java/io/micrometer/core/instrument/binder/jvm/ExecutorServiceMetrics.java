@@ -41,6 +41,12 @@ import static java.util.Arrays.asList;
  * Supports {@link ThreadPoolExecutor} and {@link ForkJoinPool} types of {@link ExecutorService}. Some libraries may provide
  * a wrapper type for {@link ExecutorService}, like {@link TimedExecutorService}. Make sure to pass the underlying,
  * unwrapped ExecutorService to this MeterBinder, if it is wrapped in another type.
+ * <p>
+ * A {@link TimedThreadPoolExecutor} records the same timings as {@link TimedExecutorService} from its own execution
+ * hooks, without wrapping each task, and can be bound to this MeterBinder directly.
+ * <p>
+ * Bind {@link ForkJoinPoolMetrics} as well to a {@link ForkJoinPool} for its saturation, compensating threads and
+ * sampled queue depth.
  *
  * @author Jon Schneider
  * @author Clint Checketts
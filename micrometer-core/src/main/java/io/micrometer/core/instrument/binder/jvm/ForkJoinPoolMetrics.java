@@ -0,0 +1,137 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.binder.jvm;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.util.NamedThreadFactory;
+import io.micrometer.core.lang.NonNullApi;
+import io.micrometer.core.lang.NonNullFields;
+import io.micrometer.core.lang.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work-stealing health of a {@link ForkJoinPool}, complementing the gauges {@link ExecutorServiceMetrics} registers
+ * for it: how saturated its parallelism is, how many threads it has created beyond its parallelism to compensate for
+ * blocked workers, and the distribution of its queue depth.
+ * <p>
+ * A gauge only shows the queue depth at the moment it is read, so the depth is instead sampled on a background thread
+ * into the {@code executor.queue.depth} distribution summary. {@link ForkJoinPool} doesn't expose the queue of each
+ * worker, so a sample is the depth of all the pool's queues together. This binder should be closed on application
+ * shutdown to stop sampling.
+ *
+ * @since 1.8.0
+ */
+@NonNullApi
+@NonNullFields
+public class ForkJoinPoolMetrics implements MeterBinder, AutoCloseable {
+    private static final Duration DEFAULT_SAMPLE_INTERVAL = Duration.ofSeconds(1);
+
+    private final ForkJoinPool pool;
+    private final Iterable<Tag> tags;
+    private final Duration sampleInterval;
+    private final List<DistributionSummary> queueDepths = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    @Nullable
+    private ScheduledExecutorService scheduler;
+
+    public ForkJoinPoolMetrics(ForkJoinPool pool, String poolName, Iterable<Tag> tags) {
+        this(pool, poolName, tags, DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * @param pool           The pool to monitor.
+     * @param poolName       Will be used to tag metrics with "name".
+     * @param tags           Tags to apply to all recorded metrics.
+     * @param sampleInterval How often the queue depth is sampled.
+     */
+    public ForkJoinPoolMetrics(ForkJoinPool pool, String poolName, Iterable<Tag> tags, Duration sampleInterval) {
+        this.pool = pool;
+        this.tags = Tags.concat(tags, "name", poolName);
+        this.sampleInterval = sampleInterval;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("executor.parallelism", pool, ForkJoinPool::getParallelism)
+                .tags(tags)
+                .description("The targeted number of active threads")
+                .baseUnit(BaseUnits.THREADS)
+                .register(registry);
+
+        Gauge.builder("executor.pool.size", pool, ForkJoinPool::getPoolSize)
+                .tags(tags)
+                .description("The number of worker threads that have started but not yet terminated")
+                .baseUnit(BaseUnits.THREADS)
+                .register(registry);
+
+        Gauge.builder("executor.compensating", pool, p -> Math.max(0, p.getPoolSize() - p.getParallelism()))
+                .tags(tags)
+                .description("The number of threads created beyond the parallelism to compensate for workers blocked in " +
+                        "joins or managed blocking")
+                .baseUnit(BaseUnits.THREADS)
+                .register(registry);
+
+        Gauge.builder("executor.saturation", pool, p -> (double) p.getActiveThreadCount() / p.getParallelism())
+                .tags(tags)
+                .description("An estimate of the active threads as a fraction of the parallelism")
+                .register(registry);
+
+        queueDepths.add(DistributionSummary.builder("executor.queue.depth")
+                .tags(tags)
+                .description("The number of tasks queued in the pool's work and submission queues, sampled every " +
+                        sampleInterval.toMillis() + "ms")
+                .baseUnit(BaseUnits.TASKS)
+                .register(registry));
+
+        startSampling();
+    }
+
+    private synchronized void startSampling() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("micrometer-fork-join-pool-metrics"));
+            scheduler.scheduleAtFixedRate(this::sample, 0, sampleInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // VisibleForTesting
+    void sample() {
+        long depth = pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount();
+        for (DistributionSummary queueDepth : queueDepths) {
+            queueDepth.record(depth);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
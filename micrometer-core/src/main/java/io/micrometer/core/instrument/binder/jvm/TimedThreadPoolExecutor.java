@@ -0,0 +1,343 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.binder.jvm;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.lang.NonNullApi;
+import io.micrometer.core.lang.NonNullFields;
+import io.micrometer.core.lang.Nullable;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+
+/**
+ * A {@link ThreadPoolExecutor} recording how long tasks wait in the queue ({@code executor.idle}) and how long they
+ * run ({@code executor}), the same timers as {@link ExecutorServiceMetrics#monitor(MeterRegistry, ExecutorService, String, Iterable)}
+ * records, but from {@link #beforeExecute(Thread, Runnable)} and {@link #afterExecute(Runnable, Throwable)} rather than
+ * by wrapping each task in a timed task holding two {@link Timer.Sample}s.
+ * <p>
+ * The time a task is queued at is kept, keyed by the task, until it starts or leaves the queue. Tasks are not wrapped,
+ * so the execution hooks, {@link #getQueue()}, {@link #shutdownNow()} and the {@link RejectedExecutionHandler} see the
+ * task given to {@link #execute(Runnable)}, or the {@link FutureTask} created by {@code submit}, as with any
+ * {@link ThreadPoolExecutor}. A task that is rejected and executed again by its handler, as
+ * {@link DiscardOldestPolicy} does, keeps the time it was first queued at.
+ * <p>
+ * Bind {@link ExecutorServiceMetrics} to this executor for its pool and queue gauges.
+ *
+ * @since 1.8.0
+ */
+@NonNullApi
+@NonNullFields
+public class TimedThreadPoolExecutor extends ThreadPoolExecutor {
+    private final Clock clock;
+    private final Timer executionTimer;
+    private final Timer idleTimer;
+    private final TimedQueue queue;
+
+    private final ThreadLocal<long[]> startTime = ThreadLocal.withInitial(() -> new long[1]);
+    private final ThreadLocal<Rejected> rejected = new ThreadLocal<>();
+
+    public TimedThreadPoolExecutor(MeterRegistry registry, String executorServiceName, Iterable<Tag> tags,
+                                   int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                   BlockingQueue<Runnable> workQueue) {
+        this(registry, executorServiceName, "", tags, corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue,
+                Executors.defaultThreadFactory(), new AbortPolicy());
+    }
+
+    /**
+     * @param registry            The registry to record timings to.
+     * @param executorServiceName Will be used to tag metrics with "name".
+     * @param metricPrefix        The prefix to use with meter names.
+     * @param tags                Tags to apply to all recorded metrics.
+     * @param corePoolSize        See {@link ThreadPoolExecutor}.
+     * @param maximumPoolSize     See {@link ThreadPoolExecutor}.
+     * @param keepAliveTime       See {@link ThreadPoolExecutor}.
+     * @param unit                See {@link ThreadPoolExecutor}.
+     * @param workQueue           See {@link ThreadPoolExecutor}. {@link #getQueue()} returns a view of it.
+     * @param threadFactory       See {@link ThreadPoolExecutor}.
+     * @param handler             See {@link ThreadPoolExecutor}.
+     */
+    public TimedThreadPoolExecutor(MeterRegistry registry, String executorServiceName, String metricPrefix,
+                                   Iterable<Tag> tags, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+                                   TimeUnit unit, BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory,
+                                   RejectedExecutionHandler handler) {
+        this(registry, executorServiceName, metricPrefix, tags, corePoolSize, maximumPoolSize, keepAliveTime, unit,
+                new TimedQueue(workQueue), threadFactory, handler);
+    }
+
+    private TimedThreadPoolExecutor(MeterRegistry registry, String executorServiceName, String metricPrefix,
+                                    Iterable<Tag> tags, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+                                    TimeUnit unit, TimedQueue workQueue, ThreadFactory threadFactory,
+                                    RejectedExecutionHandler handler) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory,
+                new RequeuingRejectedExecutionHandler(handler));
+        this.queue = workQueue;
+        this.clock = registry.config().clock();
+        String prefix = metricPrefix.isEmpty() || metricPrefix.endsWith(".") ? metricPrefix : metricPrefix + ".";
+        Tags finalTags = Tags.concat(tags, "name", executorServiceName);
+        this.executionTimer = registry.timer(prefix + "executor", finalTags);
+        this.idleTimer = registry.timer(prefix + "executor.idle", finalTags);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Rejected retry = rejected.get();
+        queue.queued(command, retry != null && retry.task == command ? retry.queued : clock.monotonicTime());
+        super.execute(command);
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        long now = clock.monotonicTime();
+        Long queued = queue.dequeued(r, true);
+        idleTimer.record(queued == null ? 0 : now - queued, TimeUnit.NANOSECONDS);
+        startTime.get()[0] = now;
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, @Nullable Throwable t) {
+        executionTimer.record(clock.monotonicTime() - startTime.get()[0], TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+        super.setRejectedExecutionHandler(new RequeuingRejectedExecutionHandler(handler));
+    }
+
+    @Override
+    public RejectedExecutionHandler getRejectedExecutionHandler() {
+        return ((RequeuingRejectedExecutionHandler) super.getRejectedExecutionHandler()).handler;
+    }
+
+    private static class Rejected {
+        final Runnable task;
+        final long queued;
+
+        Rejected(Runnable task, long queued) {
+            this.task = task;
+            this.queued = queued;
+        }
+    }
+
+    /**
+     * Forgets the time a rejected task was queued at, unless the handler executes it again.
+     */
+    private static class RequeuingRejectedExecutionHandler implements RejectedExecutionHandler {
+        final RejectedExecutionHandler handler;
+
+        RequeuingRejectedExecutionHandler(RejectedExecutionHandler handler) {
+            this.handler = Objects.requireNonNull(handler);
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            TimedThreadPoolExecutor timed = (TimedThreadPoolExecutor) executor;
+            Long queued = timed.queue.dequeued(r, false);
+            Rejected previous = timed.rejected.get();
+            if (queued != null) {
+                timed.rejected.set(new Rejected(r, queued));
+            }
+            try {
+                handler.rejectedExecution(r, executor);
+            } finally {
+                timed.rejected.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Forwards to the work queue, forgetting the time a task was queued at when it leaves the queue other than to be
+     * run by a worker, e.g. through {@link ThreadPoolExecutor#remove(Runnable)}, {@link ThreadPoolExecutor#shutdownNow()}
+     * or {@link DiscardOldestPolicy}.
+     */
+    private static class TimedQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+        final BlockingQueue<Runnable> queue;
+        // the time each task was queued at, as a Long, or as a long[] of the oldest first if queued more than once
+        private final ConcurrentMap<Runnable, Object> queuedTimes = new ConcurrentHashMap<>();
+
+        TimedQueue(BlockingQueue<Runnable> queue) {
+            this.queue = Objects.requireNonNull(queue);
+        }
+
+        void queued(Runnable task, long time) {
+            queuedTimes.merge(task, time, TimedQueue::addQueuedTime);
+        }
+
+        private static Object addQueuedTime(Object times, Object time) {
+            long[] previous = times instanceof Long ? new long[]{(Long) times} : (long[]) times;
+            long[] added = Arrays.copyOf(previous, previous.length + 1);
+            added[previous.length] = (Long) time;
+            return added;
+        }
+
+        /**
+         * @param task   A task leaving the queue, or rejected.
+         * @param oldest Whether to take the oldest of the times the task was queued at, rather than the latest.
+         * @return The time the task was queued at, or {@code null} if it wasn't queued by
+         * {@link TimedThreadPoolExecutor#execute(Runnable)}.
+         */
+        @Nullable
+        Long dequeued(Object task, boolean oldest) {
+            while (true) {
+                Object times = queuedTimes.get(task);
+                if (times == null) {
+                    return null;
+                }
+                if (times instanceof Long) {
+                    if (queuedTimes.remove(task, times)) {
+                        return (Long) times;
+                    }
+                } else {
+                    long[] all = (long[]) times;
+                    long[] rest = oldest ? Arrays.copyOfRange(all, 1, all.length) : Arrays.copyOf(all, all.length - 1);
+                    if (queuedTimes.replace((Runnable) task, times, rest.length == 1 ? (Object) rest[0] : rest)) {
+                        return oldest ? all[0] : all[all.length - 1];
+                    }
+                }
+            }
+        }
+
+        private <T> T dequeued(T task) {
+            dequeued(task, true);
+            return task;
+        }
+
+        // taken by workers, whose beforeExecute reads the queued time
+
+        @Override
+        public Runnable take() throws InterruptedException {
+            return queue.take();
+        }
+
+        @Nullable
+        @Override
+        public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return queue.poll(timeout, unit);
+        }
+
+        @Nullable
+        @Override
+        public Runnable poll() {
+            Runnable task = queue.poll();
+            return task == null ? null : dequeued(task);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (queue.remove(o)) {
+                dequeued(o);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> c) {
+            return drainTo(c, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> c, int maxElements) {
+            List<Runnable> drained = new ArrayList<>();
+            int count = queue.drainTo(drained, maxElements);
+            for (Runnable task : drained) {
+                c.add(dequeued(task));
+            }
+            return count;
+        }
+
+        @Override
+        public Iterator<Runnable> iterator() {
+            Iterator<Runnable> iterator = queue.iterator();
+            return new Iterator<Runnable>() {
+                @Nullable
+                private Runnable last;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Runnable next() {
+                    return last = iterator.next();
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                    dequeued(Objects.requireNonNull(last));
+                }
+            };
+        }
+
+        @Override
+        public boolean offer(Runnable task) {
+            return queue.offer(task);
+        }
+
+        @Override
+        public boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+            return queue.offer(task, timeout, unit);
+        }
+
+        @Override
+        public void put(Runnable task) throws InterruptedException {
+            queue.put(task);
+        }
+
+        @Nullable
+        @Override
+        public Runnable peek() {
+            return queue.peek();
+        }
+
+        @Override
+        public int size() {
+            return queue.size();
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return queue.remainingCapacity();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return queue.contains(o);
+        }
+
+        @Override
+        public Object[] toArray() {
+            return queue.toArray();
+        }
+
+        @Override
+        public <T> T[] toArray(T[] a) {
+            return queue.toArray(a);
+        }
+    }
+}
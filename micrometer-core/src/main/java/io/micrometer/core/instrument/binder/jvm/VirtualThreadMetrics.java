@@ -0,0 +1,223 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.binder.jvm;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.JmxAttributeSampler;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.lang.NonNullApi;
+import io.micrometer.core.lang.NonNullFields;
+import io.micrometer.core.lang.Nullable;
+import io.micrometer.core.util.internal.logging.InternalLogger;
+import io.micrometer.core.util.internal.logging.InternalLoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * {@link MeterBinder} for the scheduler of virtual threads, on JVMs that have them.
+ * <p>
+ * Virtual threads pinned to their carrier thread, by blocking inside a {@code synchronized} block or a native frame,
+ * are timed from the {@code jdk.VirtualThreadPinned} events of a JFR event stream, which delivers them on its own
+ * thread. The scheduler's parallelism, pool size and queue are read from its MXBean on JVMs that register one. On other
+ * JVMs only the parallelism the scheduler was configured with is reported. This binder should be closed on application
+ * shutdown to stop the event stream.
+ * <p>
+ * This binder registers no meters on JVMs without virtual threads.
+ *
+ * @since 1.8.0
+ */
+@NonNullApi
+@NonNullFields
+public class VirtualThreadMetrics implements MeterBinder, AutoCloseable {
+    private static final InternalLogger log = InternalLoggerFactory.getInstance(VirtualThreadMetrics.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String SCHEDULER_OBJECT_NAME = "jdk.management:type=VirtualThreadScheduler";
+    private static final Duration DEFAULT_PINNED_THRESHOLD = Duration.ofMillis(20);
+
+    private final Iterable<Tag> tags;
+    private final Duration pinnedThreshold;
+    private final boolean virtualThreadsPresent = isVirtualThreadsPresent();
+    private final List<Timer> pinnedTimers = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    @Nullable
+    private AutoCloseable pinnedEventStream;
+
+    // Guarded by this
+    private boolean closed;
+
+    public VirtualThreadMetrics() {
+        this(emptyList());
+    }
+
+    public VirtualThreadMetrics(Iterable<Tag> tags) {
+        this(tags, DEFAULT_PINNED_THRESHOLD);
+    }
+
+    /**
+     * @param tags            Tags to apply to all recorded metrics.
+     * @param pinnedThreshold How long a virtual thread must stay pinned to be recorded, matching the threshold of
+     *                        JFR's default configuration unless given.
+     */
+    public VirtualThreadMetrics(Iterable<Tag> tags, Duration pinnedThreshold) {
+        this.tags = tags;
+        this.pinnedThreshold = pinnedThreshold;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!virtualThreadsPresent) {
+            return;
+        }
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName schedulerName = schedulerObjectName();
+        if (mBeanServer.isRegistered(schedulerName)) {
+            JmxAttributeSampler scheduler = new JmxAttributeSampler(mBeanServer, schedulerName);
+
+            Gauge.builder("jvm.threads.virtual.scheduler.parallelism", scheduler, s -> s.get("Parallelism"))
+                    .tags(tags)
+                    .description("The scheduler's target parallelism")
+                    .baseUnit(BaseUnits.THREADS)
+                    .register(registry);
+
+            Gauge.builder("jvm.threads.virtual.scheduler.pool.size", scheduler, s -> s.get("PoolSize"))
+                    .tags(tags)
+                    .description("The number of platform threads the scheduler has started to carry virtual threads")
+                    .baseUnit(BaseUnits.THREADS)
+                    .register(registry);
+
+            Gauge.builder("jvm.threads.virtual.mounted", scheduler, s -> s.get("MountedVirtualThreadCount"))
+                    .tags(tags)
+                    .description("An estimate of the number of virtual threads mounted on a carrier thread")
+                    .baseUnit(BaseUnits.THREADS)
+                    .register(registry);
+
+            Gauge.builder("jvm.threads.virtual.queued", scheduler, s -> s.get("QueuedVirtualThreadCount"))
+                    .tags(tags)
+                    .description("An estimate of the number of virtual threads queued to the scheduler to start or continue")
+                    .baseUnit(BaseUnits.THREADS)
+                    .register(registry);
+        } else {
+            Gauge.builder("jvm.threads.virtual.scheduler.parallelism", this, m -> configuredParallelism())
+                    .tags(tags)
+                    .description("The scheduler's target parallelism")
+                    .baseUnit(BaseUnits.THREADS)
+                    .register(registry);
+        }
+
+        pinnedTimers.add(Timer.builder("jvm.threads.virtual.pinned")
+                .tags(tags)
+                .description("Time virtual threads blocked while pinned to their carrier thread, for those pinned longer than " +
+                        pinnedThreshold.toMillis() + "ms")
+                .register(registry));
+
+        startPinnedEventStream();
+    }
+
+    private synchronized void startPinnedEventStream() {
+        if (pinnedEventStream != null || closed) {
+            return;
+        }
+        AutoCloseable stream = null;
+        try {
+            Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Method withThreshold = Class.forName("jdk.jfr.EventSettings").getMethod("withThreshold", Duration.class);
+            Method getDuration = Class.forName("jdk.jfr.consumer.RecordedEvent").getMethod("getDuration");
+            stream = (AutoCloseable) streamClass.getConstructor().newInstance();
+            withThreshold.invoke(streamClass.getMethod("enable", String.class).invoke(stream, PINNED_EVENT), pinnedThreshold);
+            Consumer<Object> onPinned = event -> {
+                try {
+                    Duration duration = (Duration) getDuration.invoke(event);
+                    for (Timer pinnedTimer : pinnedTimers) {
+                        pinnedTimer.record(duration);
+                    }
+                } catch (ReflectiveOperationException ignored) {
+                }
+            };
+            streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, PINNED_EVENT, onPinned);
+            streamClass.getMethod("startAsync").invoke(stream);
+            pinnedEventStream = stream;
+        } catch (Throwable e) {
+            // JFR isn't included in every runtime image
+            log.warn("Pinned virtual threads will not be recorded because a JFR event stream could not be started", e);
+            closeQuietly(stream);
+        }
+    }
+
+    private static ObjectName schedulerObjectName() {
+        try {
+            return new ObjectName(SCHEDULER_OBJECT_NAME);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return The parallelism the JDK's scheduler starts with: the value of the
+     * {@code jdk.virtualThreadScheduler.parallelism} system property if set, the number of processors otherwise.
+     */
+    private static int configuredParallelism() {
+        String parallelism = System.getProperty("jdk.virtualThreadScheduler.parallelism");
+        if (parallelism != null) {
+            try {
+                return Integer.parseInt(parallelism);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private static boolean isVirtualThreadsPresent() {
+        try {
+            Thread.class.getMethod("isVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        closeQuietly(pinnedEventStream);
+        pinnedEventStream = null;
+    }
+
+    private static void closeQuietly(@Nullable AutoCloseable stream) {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+}
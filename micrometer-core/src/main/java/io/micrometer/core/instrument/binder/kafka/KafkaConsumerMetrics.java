@@ -18,6 +18,7 @@ package io.micrometer.core.instrument.binder.kafka;
 import io.micrometer.core.annotation.Incubating;
 import io.micrometer.core.instrument.*;
 import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.JmxAttributeSampler;
 import io.micrometer.core.instrument.binder.MeterBinder;
 import io.micrometer.core.lang.NonNullApi;
 import io.micrometer.core.lang.NonNullFields;
@@ -28,7 +29,6 @@ import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -93,99 +93,102 @@ public class KafkaConsumerMetrics implements MeterBinder, AutoCloseable {
     public void bindTo(MeterRegistry registry) {
         registerMetricsEventually(registry, "consumer-fetch-manager-metrics", (o, tags) -> {
             List<Meter> meters = new ArrayList<>();
+            JmxAttributeSampler sampler = new JmxAttributeSampler(mBeanServer, o);
 
             // metrics reported per consumer, topic and partition
             if (tags.stream().anyMatch(t -> t.getKey().equals("topic")) && tags.stream().anyMatch(t -> t.getKey().equals("partition"))) {
-                meters.add(registerGaugeForObject(registry, o, "records-lag", tags, "The latest lag of the partition", "records"));
-                meters.add(registerGaugeForObject(registry, o, "records-lag-avg", tags, "The average lag of the partition", "records"));
-                meters.add(registerGaugeForObject(registry, o, "records-lag-max", tags, "The maximum lag in terms of number of records for any partition in this window. An increasing value over time is your best indication that the consumer group is not keeping up with the producers.", "records"));
+                meters.add(registerGaugeForObject(registry, sampler, "records-lag", tags, "The latest lag of the partition", "records"));
+                meters.add(registerGaugeForObject(registry, sampler, "records-lag-avg", tags, "The average lag of the partition", "records"));
+                meters.add(registerGaugeForObject(registry, sampler, "records-lag-max", tags, "The maximum lag in terms of number of records for any partition in this window. An increasing value over time is your best indication that the consumer group is not keeping up with the producers.", "records"));
                 if (kafkaMajorVersion(tags) >= 2) {
                     // KAFKA-6184
-                    meters.add(registerGaugeForObject(registry, o, "records-lead", tags, "The latest lead of the partition.", "records"));
-                    meters.add(registerGaugeForObject(registry, o, "records-lead-min", tags, "The min lead of the partition. The lag between the consumer offset and the start offset of the log. If this gets close to zero, it's an indication that the consumer may lose data soon.", "records"));
-                    meters.add(registerGaugeForObject(registry, o, "records-lead-avg", tags, "The average lead of the partition.", "records"));
+                    meters.add(registerGaugeForObject(registry, sampler, "records-lead", tags, "The latest lead of the partition.", "records"));
+                    meters.add(registerGaugeForObject(registry, sampler, "records-lead-min", tags, "The min lead of the partition. The lag between the consumer offset and the start offset of the log. If this gets close to zero, it's an indication that the consumer may lose data soon.", "records"));
+                    meters.add(registerGaugeForObject(registry, sampler, "records-lead-avg", tags, "The average lead of the partition.", "records"));
                 }
             // metrics reported per consumer and topic
             } else if (tags.stream().anyMatch(t -> t.getKey().equals("topic"))) {
-                meters.add(registerGaugeForObject(registry, o, "fetch-size-avg", tags, "The average number of bytes fetched per request.", BaseUnits.BYTES));
-                meters.add(registerGaugeForObject(registry, o, "fetch-size-max", tags, "The maximum number of bytes fetched per request.", BaseUnits.BYTES));
-                meters.add(registerGaugeForObject(registry, o, "records-per-request-avg", tags, "The average number of records in each request.", "records"));
-                meters.add(registerFunctionCounterForObject(registry, o, "bytes-consumed-total", tags, "The total number of bytes consumed.", BaseUnits.BYTES));
-                meters.add(registerFunctionCounterForObject(registry, o, "records-consumed-total", tags, "The total number of records consumed.", "records"));
+                meters.add(registerGaugeForObject(registry, sampler, "fetch-size-avg", tags, "The average number of bytes fetched per request.", BaseUnits.BYTES));
+                meters.add(registerGaugeForObject(registry, sampler, "fetch-size-max", tags, "The maximum number of bytes fetched per request.", BaseUnits.BYTES));
+                meters.add(registerGaugeForObject(registry, sampler, "records-per-request-avg", tags, "The average number of records in each request.", "records"));
+                meters.add(registerFunctionCounterForObject(registry, sampler, "bytes-consumed-total", tags, "The total number of bytes consumed.", BaseUnits.BYTES));
+                meters.add(registerFunctionCounterForObject(registry, sampler, "records-consumed-total", tags, "The total number of records consumed.", "records"));
             // metrics reported just per consumer
             } else {
-                meters.add(registerFunctionCounterForObject(registry, o, "fetch-total", tags, "The number of fetch requests.", "requests"));
-                meters.add(registerTimeGaugeForObject(registry, o, "fetch-latency-avg", tags, "The average time taken for a fetch request."));
-                meters.add(registerTimeGaugeForObject(registry, o, "fetch-latency-max", tags, "The max time taken for a fetch request."));
-                meters.add(registerTimeGaugeForObject(registry, o, "fetch-throttle-time-avg", tags, "The average throttle time. When quotas are enabled, the broker may delay fetch requests in order to throttle a consumer which has exceeded its limit. This metric indicates how throttling time has been added to fetch requests on average."));
-                meters.add(registerTimeGaugeForObject(registry, o, "fetch-throttle-time-max", tags, "The maximum throttle time."));
+                meters.add(registerFunctionCounterForObject(registry, sampler, "fetch-total", tags, "The number of fetch requests.", "requests"));
+                meters.add(registerTimeGaugeForObject(registry, sampler, "fetch-latency-avg", tags, "The average time taken for a fetch request."));
+                meters.add(registerTimeGaugeForObject(registry, sampler, "fetch-latency-max", tags, "The max time taken for a fetch request."));
+                meters.add(registerTimeGaugeForObject(registry, sampler, "fetch-throttle-time-avg", tags, "The average throttle time. When quotas are enabled, the broker may delay fetch requests in order to throttle a consumer which has exceeded its limit. This metric indicates how throttling time has been added to fetch requests on average."));
+                meters.add(registerTimeGaugeForObject(registry, sampler, "fetch-throttle-time-max", tags, "The maximum throttle time."));
             }
             return meters;
         });
 
         registerMetricsEventually(registry, "consumer-coordinator-metrics", (o, tags) -> {
             List<Meter> meters = new ArrayList<>();
-
-            meters.add(registerGaugeForObject(registry, o, "assigned-partitions", tags, "The number of partitions currently assigned to this consumer.", "partitions"));
-            meters.add(registerGaugeForObject(registry, o, "commit-rate", tags, "The number of commit calls per second.", "commits"));
-            meters.add(registerGaugeForObject(registry, o, "join-rate", tags, "The number of group joins per second. Group joining is the first phase of the rebalance protocol. A large value indicates that the consumer group is unstable and will likely be coupled with increased lag.", "joins"));
-            meters.add(registerGaugeForObject(registry, o, "sync-rate", tags, "The number of group syncs per second. Group synchronization is the second and last phase of the rebalance protocol. A large value indicates group instability.", "syncs"));
-            meters.add(registerGaugeForObject(registry, o, "heartbeat-rate", tags, "The average number of heartbeats per second. After a rebalance, the consumer sends heartbeats to the coordinator to keep itself active in the group. You may see a lower rate than configured if the processing loop is taking more time to handle message batches. Usually this is OK as long as you see no increase in the join rate.", "heartbeats"));
-
-            meters.add(registerTimeGaugeForObject(registry, o, "commit-latency-avg", tags, "The average time taken for a commit request."));
-            meters.add(registerTimeGaugeForObject(registry, o, "commit-latency-max", tags, "The max time taken for a commit request."));
-            meters.add(registerTimeGaugeForObject(registry, o, "join-time-avg", tags, "The average time taken for a group rejoin. This value can get as high as the configured session timeout for the consumer, but should usually be lower."));
-            meters.add(registerTimeGaugeForObject(registry, o, "join-time-max", tags, "The max time taken for a group rejoin. This value should not get much higher than the configured session timeout for the consumer."));
-            meters.add(registerTimeGaugeForObject(registry, o, "sync-time-avg", tags, "The average time taken for a group sync."));
-            meters.add(registerTimeGaugeForObject(registry, o, "sync-time-max", tags, "The max time taken for a group sync."));
-            meters.add(registerTimeGaugeForObject(registry, o, "heartbeat-response-time-max", tags, "The max time taken to receive a response to a heartbeat request."));
-            meters.add(registerTimeGaugeForObject(registry, o, "last-heartbeat-seconds-ago", "last-heartbeat", tags,
+            JmxAttributeSampler sampler = new JmxAttributeSampler(mBeanServer, o);
+
+            meters.add(registerGaugeForObject(registry, sampler, "assigned-partitions", tags, "The number of partitions currently assigned to this consumer.", "partitions"));
+            meters.add(registerGaugeForObject(registry, sampler, "commit-rate", tags, "The number of commit calls per second.", "commits"));
+            meters.add(registerGaugeForObject(registry, sampler, "join-rate", tags, "The number of group joins per second. Group joining is the first phase of the rebalance protocol. A large value indicates that the consumer group is unstable and will likely be coupled with increased lag.", "joins"));
+            meters.add(registerGaugeForObject(registry, sampler, "sync-rate", tags, "The number of group syncs per second. Group synchronization is the second and last phase of the rebalance protocol. A large value indicates group instability.", "syncs"));
+            meters.add(registerGaugeForObject(registry, sampler, "heartbeat-rate", tags, "The average number of heartbeats per second. After a rebalance, the consumer sends heartbeats to the coordinator to keep itself active in the group. You may see a lower rate than configured if the processing loop is taking more time to handle message batches. Usually this is OK as long as you see no increase in the join rate.", "heartbeats"));
+
+            meters.add(registerTimeGaugeForObject(registry, sampler, "commit-latency-avg", tags, "The average time taken for a commit request."));
+            meters.add(registerTimeGaugeForObject(registry, sampler, "commit-latency-max", tags, "The max time taken for a commit request."));
+            meters.add(registerTimeGaugeForObject(registry, sampler, "join-time-avg", tags, "The average time taken for a group rejoin. This value can get as high as the configured session timeout for the consumer, but should usually be lower."));
+            meters.add(registerTimeGaugeForObject(registry, sampler, "join-time-max", tags, "The max time taken for a group rejoin. This value should not get much higher than the configured session timeout for the consumer."));
+            meters.add(registerTimeGaugeForObject(registry, sampler, "sync-time-avg", tags, "The average time taken for a group sync."));
+            meters.add(registerTimeGaugeForObject(registry, sampler, "sync-time-max", tags, "The max time taken for a group sync."));
+            meters.add(registerTimeGaugeForObject(registry, sampler, "heartbeat-response-time-max", tags, "The max time taken to receive a response to a heartbeat request."));
+            meters.add(registerTimeGaugeForObject(registry, sampler, "last-heartbeat-seconds-ago", "last-heartbeat", tags,
                     "The time since the last controller heartbeat.", TimeUnit.SECONDS));
             return meters;
         });
 
         registerMetricsEventually(registry, "consumer-metrics", (o, tags) -> {
             List<Meter> meters = new ArrayList<>();
+            JmxAttributeSampler sampler = new JmxAttributeSampler(mBeanServer, o);
 
-            meters.add(registerGaugeForObject(registry, o, "connection-count", tags, "The current number of active connections.", "connections"));
-            meters.add(registerGaugeForObject(registry, o, "connection-creation-total", tags, "New connections established.", "connections"));
-            meters.add(registerGaugeForObject(registry, o, "connection-close-total", tags, "Connections closed.", "connections"));
-            meters.add(registerGaugeForObject(registry, o, "io-ratio", tags, "The fraction of time the I/O thread spent doing I/O.", null));
-            meters.add(registerGaugeForObject(registry, o, "io-wait-ratio", tags, "The fraction of time the I/O thread spent waiting.", null));
-            meters.add(registerGaugeForObject(registry, o, "select-total", tags, "Number of times the I/O layer checked for new I/O to perform.", null));
+            meters.add(registerGaugeForObject(registry, sampler, "connection-count", tags, "The current number of active connections.", "connections"));
+            meters.add(registerGaugeForObject(registry, sampler, "connection-creation-total", tags, "New connections established.", "connections"));
+            meters.add(registerGaugeForObject(registry, sampler, "connection-close-total", tags, "Connections closed.", "connections"));
+            meters.add(registerGaugeForObject(registry, sampler, "io-ratio", tags, "The fraction of time the I/O thread spent doing I/O.", null));
+            meters.add(registerGaugeForObject(registry, sampler, "io-wait-ratio", tags, "The fraction of time the I/O thread spent waiting.", null));
+            meters.add(registerGaugeForObject(registry, sampler, "select-total", tags, "Number of times the I/O layer checked for new I/O to perform.", null));
 
-            meters.add(registerTimeGaugeForObject(registry, o, "io-time-ns-avg", "io-time-avg", tags,
+            meters.add(registerTimeGaugeForObject(registry, sampler, "io-time-ns-avg", "io-time-avg", tags,
                     "The average length of time for I/O per select call.", TimeUnit.NANOSECONDS));
-            meters.add(registerTimeGaugeForObject(registry, o, "io-wait-time-ns-avg", "io-wait-time-avg", tags,
+            meters.add(registerTimeGaugeForObject(registry, sampler, "io-wait-time-ns-avg", "io-wait-time-avg", tags,
                     "The average length of time the I/O thread spent waiting for a socket to be ready for reads or writes.",
                     TimeUnit.NANOSECONDS));
 
             if (kafkaMajorVersion(tags) >= 2) {
-                meters.add(registerGaugeForObject(registry, o, "successful-authentication-total", "authentication-attempts",
+                meters.add(registerGaugeForObject(registry, sampler, "successful-authentication-total", "authentication-attempts",
                         Tags.concat(tags, "result", "successful"), "The number of successful authentication attempts.", null));
-                meters.add(registerGaugeForObject(registry, o, "failed-authentication-total", "authentication-attempts",
+                meters.add(registerGaugeForObject(registry, sampler, "failed-authentication-total", "authentication-attempts",
                         Tags.concat(tags, "result", "failed"), "The number of failed authentication attempts.", null));
 
-                meters.add(registerGaugeForObject(registry, o, "network-io-total", tags, "", BaseUnits.BYTES));
-                meters.add(registerGaugeForObject(registry, o, "outgoing-byte-total", tags, "", BaseUnits.BYTES));
-                meters.add(registerGaugeForObject(registry, o, "request-total", tags, "", "requests"));
-                meters.add(registerGaugeForObject(registry, o, "response-total", tags, "", "responses"));
+                meters.add(registerGaugeForObject(registry, sampler, "network-io-total", tags, "", BaseUnits.BYTES));
+                meters.add(registerGaugeForObject(registry, sampler, "outgoing-byte-total", tags, "", BaseUnits.BYTES));
+                meters.add(registerGaugeForObject(registry, sampler, "request-total", tags, "", "requests"));
+                meters.add(registerGaugeForObject(registry, sampler, "response-total", tags, "", "responses"));
 
-                meters.add(registerTimeGaugeForObject(registry, o, "io-waittime-total", "io-wait-time-total", tags,
+                meters.add(registerTimeGaugeForObject(registry, sampler, "io-waittime-total", "io-wait-time-total", tags,
                         "Time spent on the I/O thread waiting for a socket to be ready for reads or writes.",
                         TimeUnit.NANOSECONDS));
-                meters.add(registerTimeGaugeForObject(registry, o, "iotime-total", "io-time-total", tags,
+                meters.add(registerTimeGaugeForObject(registry, sampler, "iotime-total", "io-time-total", tags,
                         "Time spent in I/O during select calls.", TimeUnit.NANOSECONDS));
             }
             return meters;
         });
     }
 
-    private Gauge registerGaugeForObject(MeterRegistry registry, ObjectName o, String jmxMetricName, String meterName, Tags allTags, String description, @Nullable String baseUnit) {
+    private Gauge registerGaugeForObject(MeterRegistry registry, JmxAttributeSampler sampler, String jmxMetricName, String meterName, Tags allTags, String description, @Nullable String baseUnit) {
         final AtomicReference<Gauge> gaugeReference = new AtomicReference<>();
         Gauge gauge = Gauge
                 .builder(METRIC_NAME_PREFIX + meterName, mBeanServer,
-                        getJmxAttribute(registry, gaugeReference, o, jmxMetricName))
+                        getJmxAttribute(registry, gaugeReference, sampler, jmxMetricName))
                 .description(description)
                 .baseUnit(baseUnit)
                 .tags(allTags)
@@ -194,15 +197,15 @@ public class KafkaConsumerMetrics implements MeterBinder, AutoCloseable {
         return gauge;
     }
 
-    private Gauge registerGaugeForObject(MeterRegistry registry, ObjectName o, String jmxMetricName, Tags allTags, String description, @Nullable String baseUnit) {
-        return registerGaugeForObject(registry, o, jmxMetricName, sanitize(jmxMetricName), allTags, description, baseUnit);
+    private Gauge registerGaugeForObject(MeterRegistry registry, JmxAttributeSampler sampler, String jmxMetricName, Tags allTags, String description, @Nullable String baseUnit) {
+        return registerGaugeForObject(registry, sampler, jmxMetricName, sanitize(jmxMetricName), allTags, description, baseUnit);
     }
 
-    private FunctionCounter registerFunctionCounterForObject(MeterRegistry registry, ObjectName o, String jmxMetricName, Tags allTags, String description, @Nullable String baseUnit) {
+    private FunctionCounter registerFunctionCounterForObject(MeterRegistry registry, JmxAttributeSampler sampler, String jmxMetricName, Tags allTags, String description, @Nullable String baseUnit) {
         final AtomicReference<FunctionCounter> counterReference = new AtomicReference<>();
         FunctionCounter counter = FunctionCounter
                 .builder(METRIC_NAME_PREFIX + sanitize(jmxMetricName), mBeanServer,
-                        getJmxAttribute(registry, counterReference, o, jmxMetricName))
+                        getJmxAttribute(registry, counterReference, sampler, jmxMetricName))
                 .description(description)
                 .baseUnit(baseUnit)
                 .tags(allTags)
@@ -211,11 +214,11 @@ public class KafkaConsumerMetrics implements MeterBinder, AutoCloseable {
         return counter;
     }
 
-    private TimeGauge registerTimeGaugeForObject(MeterRegistry registry, ObjectName o, String jmxMetricName,
+    private TimeGauge registerTimeGaugeForObject(MeterRegistry registry, JmxAttributeSampler sampler, String jmxMetricName,
             String meterName, Tags allTags, String description, TimeUnit timeUnit) {
         final AtomicReference<TimeGauge> timeGaugeReference = new AtomicReference<>();
         TimeGauge timeGauge = TimeGauge.builder(METRIC_NAME_PREFIX + meterName, mBeanServer, timeUnit,
-                getJmxAttribute(registry, timeGaugeReference, o, jmxMetricName))
+                getJmxAttribute(registry, timeGaugeReference, sampler, jmxMetricName))
                 .description(description)
                 .tags(allTags)
                 .register(registry);
@@ -223,23 +226,24 @@ public class KafkaConsumerMetrics implements MeterBinder, AutoCloseable {
         return timeGauge;
     }
 
-    private TimeGauge registerTimeGaugeForObject(MeterRegistry registry, ObjectName o, String jmxMetricName,
+    private TimeGauge registerTimeGaugeForObject(MeterRegistry registry, JmxAttributeSampler sampler, String jmxMetricName,
             String meterName, Tags allTags, String description) {
-        return registerTimeGaugeForObject(registry, o, jmxMetricName, meterName, allTags, description, TimeUnit.MILLISECONDS);
+        return registerTimeGaugeForObject(registry, sampler, jmxMetricName, meterName, allTags, description, TimeUnit.MILLISECONDS);
     }
 
     private ToDoubleFunction<MBeanServer> getJmxAttribute(MeterRegistry registry, AtomicReference<? extends Meter> meter,
-                                                          ObjectName o, String jmxMetricName) {
-        return s -> safeDouble(() -> {
-            if (!s.isRegistered(o)) {
+                                                          JmxAttributeSampler sampler, String jmxMetricName) {
+        return s -> {
+            double value = sampler.get(jmxMetricName);
+            if (!sampler.isRegistered()) {
                 registry.remove(meter.get());
             }
-            return s.getAttribute(o, jmxMetricName);
-        });
+            return value;
+        };
     }
 
-    private TimeGauge registerTimeGaugeForObject(MeterRegistry registry, ObjectName o, String jmxMetricName, Tags allTags, String description) {
-        return registerTimeGaugeForObject(registry, o, jmxMetricName, sanitize(jmxMetricName), allTags, description);
+    private TimeGauge registerTimeGaugeForObject(MeterRegistry registry, JmxAttributeSampler sampler, String jmxMetricName, Tags allTags, String description) {
+        return registerTimeGaugeForObject(registry, sampler, jmxMetricName, sanitize(jmxMetricName), allTags, description);
     }
 
     int kafkaMajorVersion(Tags tags) {
@@ -338,14 +342,6 @@ public class KafkaConsumerMetrics implements MeterBinder, AutoCloseable {
         }
     }
 
-    private double safeDouble(Callable<Object> callable) {
-        try {
-            return Double.parseDouble(callable.call().toString());
-        } catch (Exception e) {
-            return Double.NaN;
-        }
-    }
-
     private Iterable<Tag> nameTag(ObjectName name) {
         Tags tags = Tags.empty();
 
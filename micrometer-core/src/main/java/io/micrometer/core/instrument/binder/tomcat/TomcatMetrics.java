@@ -17,6 +17,7 @@ package io.micrometer.core.instrument.binder.tomcat;
 
 import io.micrometer.core.instrument.*;
 import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.JmxAttributeSampler;
 import io.micrometer.core.instrument.binder.MeterBinder;
 import io.micrometer.core.lang.NonNullApi;
 import io.micrometer.core.lang.NonNullFields;
@@ -28,7 +29,6 @@ import java.lang.management.ManagementFactory;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
@@ -139,38 +139,40 @@ public class TomcatMetrics implements MeterBinder, AutoCloseable {
 
     private void registerThreadPoolMetrics(MeterRegistry registry) {
         registerMetricsEventually(":type=ThreadPool,name=*", (name, allTags) -> {
+            JmxAttributeSampler sampler = new JmxAttributeSampler(mBeanServer, name);
+
             Gauge.builder("tomcat.threads.config.max", mBeanServer,
-                    s -> safeDouble(() -> s.getAttribute(name, "maxThreads")))
+                    s -> sampler.get("maxThreads"))
                     .tags(allTags)
                     .baseUnit(BaseUnits.THREADS)
                     .register(registry);
 
             Gauge.builder("tomcat.threads.busy", mBeanServer,
-                    s -> safeDouble(() -> s.getAttribute(name, "currentThreadsBusy")))
+                    s -> sampler.get("currentThreadsBusy"))
                     .tags(allTags)
                     .baseUnit(BaseUnits.THREADS)
                     .register(registry);
 
             Gauge.builder("tomcat.threads.current", mBeanServer,
-                    s -> safeDouble(() -> s.getAttribute(name, "currentThreadCount")))
+                    s -> sampler.get("currentThreadCount"))
                     .tags(allTags)
                     .baseUnit(BaseUnits.THREADS)
                     .register(registry);
 
             Gauge.builder("tomcat.connections.current", mBeanServer,
-                    s -> safeDouble(() -> s.getAttribute(name, "connectionCount")))
+                    s -> sampler.get("connectionCount"))
                     .tags(allTags)
                     .baseUnit(BaseUnits.CONNECTIONS)
                     .register(registry);
 
             Gauge.builder("tomcat.connections.keepalive.current", mBeanServer,
-                    s -> safeDouble(() -> s.getAttribute(name, "keepAliveCount")))
+                    s -> sampler.get("keepAliveCount"))
                     .tags(allTags)
                     .baseUnit(BaseUnits.CONNECTIONS)
                     .register(registry);
 
             Gauge.builder("tomcat.connections.config.max", mBeanServer,
-                    s -> safeDouble(() -> s.getAttribute(name, "maxConnections")))
+                    s -> sampler.get("maxConnections"))
                     .tags(allTags)
                     .baseUnit(BaseUnits.CONNECTIONS)
                     .register(registry);
@@ -179,13 +181,15 @@ public class TomcatMetrics implements MeterBinder, AutoCloseable {
 
     private void registerCacheMetrics(MeterRegistry registry) {
         registerMetricsEventually(":type=StringCache", (name, allTags) -> {
+            JmxAttributeSampler sampler = new JmxAttributeSampler(mBeanServer, name);
+
             FunctionCounter.builder("tomcat.cache.access", mBeanServer,
-                    s -> safeDouble(() -> s.getAttribute(name, "accessCount")))
+                    s -> sampler.get("accessCount"))
                     .tags(allTags)
                     .register(registry);
 
             FunctionCounter.builder("tomcat.cache.hit", mBeanServer,
-                    s -> safeDouble(() -> s.getAttribute(name, "hitCount")))
+                    s -> sampler.get("hitCount"))
                     .tags(allTags)
                     .register(registry);
         });
@@ -193,19 +197,21 @@ public class TomcatMetrics implements MeterBinder, AutoCloseable {
 
     private void registerServletMetrics(MeterRegistry registry) {
         registerMetricsEventually(":j2eeType=Servlet,name=*,*", (name, allTags) -> {
+            JmxAttributeSampler sampler = new JmxAttributeSampler(mBeanServer, name);
+
             FunctionCounter.builder("tomcat.servlet.error", mBeanServer,
-                    s -> safeDouble(() -> s.getAttribute(name, "errorCount")))
+                    s -> sampler.get("errorCount"))
                     .tags(allTags)
                     .register(registry);
 
             FunctionTimer.builder("tomcat.servlet.request", mBeanServer,
-                    s -> safeLong(() -> s.getAttribute(name, "requestCount")),
-                    s -> safeDouble(() -> s.getAttribute(name, "processingTime")), TimeUnit.MILLISECONDS)
+                    s -> (long) sampler.get("requestCount"),
+                    s -> sampler.get("processingTime"), TimeUnit.MILLISECONDS)
                     .tags(allTags)
                     .register(registry);
 
             TimeGauge.builder("tomcat.servlet.request.max", mBeanServer, TimeUnit.MILLISECONDS,
-                    s -> safeDouble(() -> s.getAttribute(name, "maxTime")))
+                    s -> sampler.get("maxTime"))
                     .tags(allTags)
                     .register(registry);
         });
@@ -213,31 +219,33 @@ public class TomcatMetrics implements MeterBinder, AutoCloseable {
 
     private void registerGlobalRequestMetrics(MeterRegistry registry) {
         registerMetricsEventually(":type=GlobalRequestProcessor,name=*", (name, allTags) -> {
+            JmxAttributeSampler sampler = new JmxAttributeSampler(mBeanServer, name);
+
             FunctionCounter.builder("tomcat.global.sent", mBeanServer,
-                s -> safeDouble(() -> s.getAttribute(name, "bytesSent")))
+                s -> sampler.get("bytesSent"))
                 .tags(allTags)
                 .baseUnit(BaseUnits.BYTES)
                 .register(registry);
 
             FunctionCounter.builder("tomcat.global.received", mBeanServer,
-                s -> safeDouble(() -> s.getAttribute(name, "bytesReceived")))
+                s -> sampler.get("bytesReceived"))
                 .tags(allTags)
                 .baseUnit(BaseUnits.BYTES)
                 .register(registry);
 
             FunctionCounter.builder("tomcat.global.error", mBeanServer,
-                    s -> safeDouble(() -> s.getAttribute(name, "errorCount")))
+                    s -> sampler.get("errorCount"))
                     .tags(allTags)
                     .register(registry);
 
             FunctionTimer.builder("tomcat.global.request", mBeanServer,
-                    s -> safeLong(() -> s.getAttribute(name, "requestCount")),
-                    s -> safeDouble(() -> s.getAttribute(name, "processingTime")), TimeUnit.MILLISECONDS)
+                    s -> (long) sampler.get("requestCount"),
+                    s -> sampler.get("processingTime"), TimeUnit.MILLISECONDS)
                     .tags(allTags)
                     .register(registry);
 
             TimeGauge.builder("tomcat.global.request.max", mBeanServer, TimeUnit.MILLISECONDS,
-                    s -> safeDouble(() -> s.getAttribute(name, "maxTime")))
+                    s -> sampler.get("maxTime"))
                     .tags(allTags)
                     .register(registry);
         });
@@ -340,22 +348,6 @@ public class TomcatMetrics implements MeterBinder, AutoCloseable {
         }
     }
 
-    private double safeDouble(Callable<Object> callable) {
-        try {
-            return Double.parseDouble(callable.call().toString());
-        } catch (Exception e) {
-            return Double.NaN;
-        }
-    }
-
-    private long safeLong(Callable<Object> callable) {
-        try {
-            return Long.parseLong(callable.call().toString());
-        } catch (Exception e) {
-            return 0;
-        }
-    }
-
     private Iterable<Tag> nameTag(ObjectName name) {
         String nameTagValue = name.getKeyProperty("name");
         if (nameTagValue != null) {
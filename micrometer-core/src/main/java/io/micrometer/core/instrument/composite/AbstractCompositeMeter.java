@@ -22,15 +22,22 @@ import io.micrometer.core.lang.Nullable;
 
 import java.util.Collections;
 import java.util.IdentityHashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 abstract class AbstractCompositeMeter<T extends Meter> extends AbstractMeter implements CompositeMeter {
+    private static final Meter[] NO_CHILDREN = new Meter[0];
+
     private AtomicBoolean childrenGuard = new AtomicBoolean();
     private Map<MeterRegistry, T> children = Collections.emptyMap();
 
+    /**
+     * The values of {@link #children}, replaced along with it, so that recording to every child doesn't allocate
+     * an iterator or capture a lambda. Most composites have a single child, recorded to in a one-iteration loop.
+     */
+    private volatile Meter[] childMeters = NO_CHILDREN;
+
     @Nullable
     private volatile T noopMeter;
 
@@ -43,14 +50,26 @@ abstract class AbstractCompositeMeter<T extends Meter> extends AbstractMeter imp
     @Nullable
     abstract T registerNewMeter(MeterRegistry registry);
 
+    @SuppressWarnings("unchecked")
     final void forEachChild(Consumer<T> task) {
-        children.values().forEach(task);
+        for (Meter child : childMeters) {
+            task.accept((T) child);
+        }
     }
 
+    /**
+     * @return The current children, each of them a {@code T}, to iterate when recording. The array must not be
+     * modified.
+     */
+    final Meter[] children() {
+        return childMeters;
+    }
+
+    @SuppressWarnings("unchecked")
     T firstChild() {
-        final Iterator<T> i = children.values().iterator();
-        if (i.hasNext())
-            return i.next();
+        final Meter[] childMeters = this.childMeters;
+        if (childMeters.length > 0)
+            return (T) childMeters[0];
 
         // There are no child meters at the moment. Return a lazily instantiated no-op meter.
         final T noopMeter = this.noopMeter;
@@ -74,6 +93,7 @@ abstract class AbstractCompositeMeter<T extends Meter> extends AbstractMeter imp
                     Map<MeterRegistry, T> newChildren = new IdentityHashMap<>(children);
                     newChildren.put(registry, newMeter);
                     this.children = newChildren;
+                    this.childMeters = toArray(newChildren);
                     break;
                 } finally {
                     childrenGuard.set(false);
@@ -96,6 +116,7 @@ abstract class AbstractCompositeMeter<T extends Meter> extends AbstractMeter imp
                     Map<MeterRegistry, T> newChildren = new IdentityHashMap<>(children);
                     newChildren.remove(registry);
                     this.children = newChildren;
+                    this.childMeters = toArray(newChildren);
                     break;
                 } finally {
                     childrenGuard.set(false);
@@ -103,4 +124,8 @@ abstract class AbstractCompositeMeter<T extends Meter> extends AbstractMeter imp
             }
         }
     }
+
+    private static Meter[] toArray(Map<MeterRegistry, ? extends Meter> children) {
+        return children.values().toArray(NO_CHILDREN);
+    }
 }
@@ -35,7 +35,9 @@ class CompositeDistributionSummary extends AbstractCompositeMeter<DistributionSu
 
     @Override
     public void record(double amount) {
-        forEachChild(ds -> ds.record(amount));
+        for (Meter ds : children()) {
+            ((DistributionSummary) ds).record(amount);
+        }
     }
 
     @Override
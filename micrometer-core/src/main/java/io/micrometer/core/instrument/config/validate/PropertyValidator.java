@@ -58,6 +58,23 @@ public class PropertyValidator {
         }
     }
 
+    /**
+     * @param config The configuration to read the property from.
+     * @param property The property name, without the configuration's prefix.
+     * @return The validated property value.
+     * @since 1.8.0
+     */
+    public static Validated<Double> getDouble(MeterRegistryConfig config, String property) {
+        String prefixedProperty = prefixedProperty(config, property);
+        String value = config.get(prefixedProperty);
+
+        try {
+            return Validated.valid(prefixedProperty, value == null ? null : Double.valueOf(value));
+        } catch (NumberFormatException e) {
+            return Validated.invalid(prefixedProperty, value, "must be a number", InvalidReason.MALFORMED, e);
+        }
+    }
+
     public static <E extends Enum<E>> Validated<E> getEnum(MeterRegistryConfig config, Class<E> enumClass, String property) {
         String prefixedProperty = prefixedProperty(config, property);
         String value = config.get(prefixedProperty);
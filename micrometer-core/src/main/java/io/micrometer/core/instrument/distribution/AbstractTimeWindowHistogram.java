@@ -23,7 +23,7 @@ import java.io.PrintStream;
 import java.lang.reflect.Array;
 import java.util.Iterator;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * An abstract base class for histogram implementations who maintain samples in a ring buffer
@@ -37,24 +37,24 @@ import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 @SuppressWarnings("ConstantConditions")
 abstract class AbstractTimeWindowHistogram<T, U> implements Histogram {
 
-    @SuppressWarnings("rawtypes")
-    private static final AtomicIntegerFieldUpdater<AbstractTimeWindowHistogram> rotatingUpdater =
-            AtomicIntegerFieldUpdater.newUpdater(AbstractTimeWindowHistogram.class, "rotating");
-
     final DistributionStatisticConfig distributionStatisticConfig;
 
     private final Clock clock;
     private final boolean supportsAggregablePercentiles;
 
     private final T[] ringBuffer;
-    private short currentBucket;
+    private volatile short currentBucket;
     private final long durationBetweenRotatesMillis;
     private volatile boolean accumulatedHistogramStale;
 
     private volatile long lastRotateTimestampMillis;
 
-    @SuppressWarnings({"unused", "FieldCanBeLocal"})
-    private volatile int rotating; // 0 - not rotating, 1 - rotating
+    /**
+     * Guards rotation and snapshots. Recording threads only ever try to acquire it, so they never wait for a
+     * rotation or a snapshot in progress; the sample is recorded to the buckets as they are and the rotation
+     * is left to the lock holder or the next caller.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
 
     @Nullable
     private U accumulatedHistogram;
@@ -158,14 +158,16 @@ abstract class AbstractTimeWindowHistogram<T, U> implements Histogram {
 
     @Override
     public final HistogramSnapshot takeSnapshot(long count, double total, double max) {
-        rotate();
-
         final ValueAtPercentile[] values;
         final CountAtBucket[] counts;
-        synchronized (this) {
+        lock.lock();
+        try {
+            rotateIfNecessary();
             accumulateIfStale();
             values = takeValueSnapshot();
             counts = takeCountSnapshot();
+        } finally {
+            lock.unlock();
         }
 
         return new HistogramSnapshot(count, total, max, values, counts, this::outputSummary);
@@ -220,7 +222,7 @@ abstract class AbstractTimeWindowHistogram<T, U> implements Histogram {
         } catch (IndexOutOfBoundsException ignored) {
             // the value is so large (or small) that the dynamic range of the histogram cannot be extended to include it
         } finally {
-            accumulatedHistogramStale = true;
+            markAccumulatedHistogramStale();
         }
     }
 
@@ -233,47 +235,84 @@ abstract class AbstractTimeWindowHistogram<T, U> implements Histogram {
         } catch (IndexOutOfBoundsException ignored) {
             // the value is so large (or small) that the dynamic range of the histogram cannot be extended to include it
         } finally {
+            markAccumulatedHistogramStale();
+        }
+    }
+
+    /**
+     * Flag the accumulated histogram to be recomputed on the next snapshot. Only writes the flag when it isn't
+     * already set, so that concurrent recordings don't keep invalidating the cache line it lives on.
+     */
+    void markAccumulatedHistogramStale() {
+        if (!accumulatedHistogramStale) {
             accumulatedHistogramStale = true;
         }
     }
 
-    private void rotate() {
-        long timeSinceLastRotateMillis = clock.wallTime() - lastRotateTimestampMillis;
-        if (timeSinceLastRotateMillis < durationBetweenRotatesMillis) {
+    /**
+     * Rotate the ring buffer if it is due, unless another thread is rotating it or taking a snapshot.
+     */
+    void rotate() {
+        if (clock.wallTime() - lastRotateTimestampMillis < durationBetweenRotatesMillis) {
             // Need to wait more for next rotation.
             return;
         }
 
-        if (!rotatingUpdater.compareAndSet(this, 0, 1)) {
-            // Being rotated by other thread already.
+        if (!lock.tryLock()) {
+            // Being rotated or snapshot by other thread already.
             return;
         }
 
         try {
-            int iterations = 0;
-            synchronized (this) {
-                do {
-                    resetBucket(ringBuffer[currentBucket]);
-                    if (++currentBucket >= ringBuffer.length) {
-                        currentBucket = 0;
-                    }
-                    timeSinceLastRotateMillis -= durationBetweenRotatesMillis;
-                    lastRotateTimestampMillis += durationBetweenRotatesMillis;
-                } while (timeSinceLastRotateMillis >= durationBetweenRotatesMillis && ++iterations < ringBuffer.length);
-
-                resetAccumulatedHistogram();
-                accumulatedHistogramStale = true;
-            }
+            rotateIfNecessary();
         } finally {
-            rotating = 0;
+            lock.unlock();
         }
     }
 
+    // Must hold the lock
+    private void rotateIfNecessary() {
+        long timeSinceLastRotateMillis = clock.wallTime() - lastRotateTimestampMillis;
+        if (timeSinceLastRotateMillis < durationBetweenRotatesMillis) {
+            return;
+        }
+
+        int iterations = 0;
+        short bucket = currentBucket;
+        do {
+            resetBucket(ringBuffer[bucket]);
+            if (++bucket >= ringBuffer.length) {
+                bucket = 0;
+            }
+            timeSinceLastRotateMillis -= durationBetweenRotatesMillis;
+            lastRotateTimestampMillis += durationBetweenRotatesMillis;
+        } while (timeSinceLastRotateMillis >= durationBetweenRotatesMillis && ++iterations < ringBuffer.length);
+        currentBucket = bucket;
+
+        resetAccumulatedHistogram();
+        accumulatedHistogramStale = true;
+    }
+
     protected U accumulatedHistogram() {
         return accumulatedHistogram;
     }
 
+    /**
+     * @return The oldest bucket of the ring buffer, which is the next to be reset.
+     */
     protected T currentHistogram() {
         return ringBuffer[currentBucket];
     }
+
+    /**
+     * @return The most recently reset bucket of the ring buffer.
+     */
+    T newestHistogram() {
+        int bucket = currentBucket - 1;
+        return ringBuffer[bucket < 0 ? ringBuffer.length - 1 : bucket];
+    }
+
+    T[] ringBuffer() {
+        return ringBuffer;
+    }
 }
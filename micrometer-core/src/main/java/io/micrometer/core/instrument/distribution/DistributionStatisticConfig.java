@@ -69,6 +69,15 @@ public class DistributionStatisticConfig implements Mergeable<DistributionStatis
     @Nullable
     private Integer bufferLength;
 
+    @Nullable
+    private Boolean stripedMax;
+
+    @Nullable
+    private Boolean stripedHistogram;
+
+    @Nullable
+    private Boolean logLinearPercentiles;
+
     public static Builder builder() {
         return new Builder();
     }
@@ -91,6 +100,9 @@ public class DistributionStatisticConfig implements Mergeable<DistributionStatis
                 .maximumExpectedValue(this.maximumExpectedValue == null ? parent.maximumExpectedValue : this.maximumExpectedValue)
                 .expiry(this.expiry == null ? parent.expiry : this.expiry)
                 .bufferLength(this.bufferLength == null ? parent.bufferLength : this.bufferLength)
+                .stripedMax(this.stripedMax == null ? parent.stripedMax : this.stripedMax)
+                .stripedHistogram(this.stripedHistogram == null ? parent.stripedHistogram : this.stripedHistogram)
+                .logLinearPercentiles(this.logLinearPercentiles == null ? parent.logLinearPercentiles : this.logLinearPercentiles)
                 .build();
     }
 
@@ -231,6 +243,43 @@ public class DistributionStatisticConfig implements Mergeable<DistributionStatis
         return bufferLength;
     }
 
+    /**
+     * Whether the decaying max is striped across cache line padded cells, one of which is selected by each
+     * recording thread. This avoids contention between many threads recording to the same meter at the cost
+     * of more memory per meter.
+     *
+     * @return {@code true} if the max is striped.
+     * @since 1.8.0
+     */
+    @Nullable
+    public Boolean isStripedMax() {
+        return stripedMax;
+    }
+
+    /**
+     * Whether fixed boundary histogram counts are striped across cache line padded rows, one of which is
+     * selected by each recording thread. Only applies to histograms that don't compute client-side percentiles.
+     *
+     * @return {@code true} if histogram counts are striped.
+     * @since 1.8.0
+     */
+    @Nullable
+    public Boolean isStripedHistogram() {
+        return stripedHistogram;
+    }
+
+    /**
+     * Whether client-side percentiles are computed from a {@link TimeWindowLogLinearHistogram} instead of
+     * an HdrHistogram based {@link TimeWindowPercentileHistogram}.
+     *
+     * @return {@code true} if percentiles are computed from a log-linear histogram.
+     * @since 1.8.0
+     */
+    @Nullable
+    public Boolean isLogLinearPercentiles() {
+        return logLinearPercentiles;
+    }
+
     /**
      * Publish at a minimum a histogram containing your defined SLA boundaries. When used in conjunction with
      * {@link #percentileHistogram}, the boundaries defined here are included alongside other buckets used to
@@ -428,6 +477,51 @@ public class DistributionStatisticConfig implements Mergeable<DistributionStatis
             return this;
         }
 
+        /**
+         * Stripe the decaying max across cache line padded cells, one of which is selected by each recording
+         * thread. This avoids contention between many threads recording to the same meter at the cost of more
+         * memory per meter, so it should be reserved for meters that are recorded to from many threads at once.
+         *
+         * @param enabled Whether the max is striped.
+         * @return This builder.
+         * @since 1.8.0
+         */
+        public Builder stripedMax(@Nullable Boolean enabled) {
+            config.stripedMax = enabled;
+            return this;
+        }
+
+        /**
+         * Stripe fixed boundary histogram counts across cache line padded rows, one of which is selected by each
+         * recording thread. Each row holds a count per histogram bucket, so this multiplies the memory used by
+         * the histogram and should be reserved for meters that are recorded to from many threads at once. Has
+         * no effect on histograms that compute client-side percentiles.
+         *
+         * @param enabled Whether histogram counts are striped.
+         * @return This builder.
+         * @since 1.8.0
+         */
+        public Builder stripedHistogram(@Nullable Boolean enabled) {
+            config.stripedHistogram = enabled;
+            return this;
+        }
+
+        /**
+         * Compute client-side percentiles from a {@link TimeWindowLogLinearHistogram}, whose footprint is fixed
+         * by the percentile precision and the range of expected values, instead of an HdrHistogram based
+         * {@link TimeWindowPercentileHistogram}. This saves memory for meters publishing percentiles, especially
+         * when there are many of them. Meters whose range of expected values is too wide for the capped footprint
+         * of a log-linear histogram, such as one without a maximum expected value, keep an HdrHistogram.
+         *
+         * @param enabled Whether percentiles are computed from a log-linear histogram.
+         * @return This builder.
+         * @since 1.8.0
+         */
+        public Builder logLinearPercentiles(@Nullable Boolean enabled) {
+            config.logLinearPercentiles = enabled;
+            return this;
+        }
+
         /**
          * @return A new immutable distribution configuration.
          */
@@ -0,0 +1,55 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.distribution;
+
+/**
+ * Helpers for spreading writes from concurrent threads across cache line padded stripes.
+ */
+final class Stripes {
+    /**
+     * Number of longs that keep two stripes from sharing a cache line, including the adjacent line that
+     * some processors prefetch together with it.
+     */
+    static final int PADDING = 16;
+
+    private static final int MAX_STRIPES = 64;
+
+    private Stripes() {
+    }
+
+    /**
+     * @return The number of stripes to use, a power of two scaled to the number of available processors.
+     */
+    static int count() {
+        int n = Runtime.getRuntime().availableProcessors();
+        int stripes = n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+        return Math.min(MAX_STRIPES, stripes);
+    }
+
+    /**
+     * @param stripes The number of stripes, a power of two.
+     * @return The stripe the current thread records to.
+     */
+    static int current(int stripes) {
+        if (stripes == 1) {
+            return 0;
+        }
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32));
+        h ^= (h >>> 16);
+        return h & (stripes - 1);
+    }
+}
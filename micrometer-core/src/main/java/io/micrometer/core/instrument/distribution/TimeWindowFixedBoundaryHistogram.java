@@ -36,6 +36,16 @@ public class TimeWindowFixedBoundaryHistogram
         extends AbstractTimeWindowHistogram<TimeWindowFixedBoundaryHistogram.FixedBoundaryHistogram, Void> {
     private final double[] buckets;
 
+    /**
+     * Number of rows each bucket of the ring buffer spreads its counts across, one per group of recording threads.
+     */
+    private final int stripes;
+
+    /**
+     * Distance between the first counts of two rows, padded when striped so that rows don't share cache lines.
+     */
+    private final int rowStride;
+
     public TimeWindowFixedBoundaryHistogram(Clock clock, DistributionStatisticConfig config, boolean supportsAggregablePercentiles) {
         super(clock, config, FixedBoundaryHistogram.class, supportsAggregablePercentiles);
 
@@ -47,9 +57,37 @@ public class TimeWindowFixedBoundaryHistogram
         }
 
         this.buckets = histogramBuckets.stream().filter(Objects::nonNull).mapToDouble(Double::doubleValue).toArray();
+
+        Boolean striped = distributionStatisticConfig.isStripedHistogram();
+        if (striped != null && striped) {
+            this.stripes = Stripes.count();
+            this.rowStride = buckets.length + Stripes.PADDING;
+        } else {
+            this.stripes = 1;
+            this.rowStride = buckets.length;
+        }
+
         initRingBuffer();
     }
 
+    /**
+     * Samples are only recorded to the most recently reset bucket of the ring buffer. Counts are summed
+     * across the whole ring buffer when read, which covers the same window as recording every sample to
+     * every bucket and reading the oldest one.
+     *
+     * @param value The sample to record.
+     */
+    @Override
+    public void recordLong(long value) {
+        rotate();
+        newestHistogram().record(value);
+    }
+
+    @Override
+    public void recordDouble(double value) {
+        recordLong((long) Math.ceil(value));
+    }
+
     @Override
     FixedBoundaryHistogram newBucket() {
         return new FixedBoundaryHistogram();
@@ -91,7 +129,19 @@ public class TimeWindowFixedBoundaryHistogram
 
     @Override
     double countAtValue(double value) {
-        return currentHistogram().countAtValue(value);
+        long count = 0;
+        for (FixedBoundaryHistogram bucket : ringBuffer()) {
+            count += bucket.countAtValue(value);
+        }
+        return count;
+    }
+
+    private long countAtBucket(int index) {
+        long count = 0;
+        for (FixedBoundaryHistogram bucket : ringBuffer()) {
+            count += bucket.countAtBucket(index);
+        }
+        return count;
     }
 
     @Override
@@ -103,7 +153,7 @@ public class TimeWindowFixedBoundaryHistogram
         for (int i = 0; i < buckets.length; i++) {
             printStream.format(Locale.US, bucketFormatString,
                     buckets[i] / bucketScaling,
-                    currentHistogram().values.get(i));
+                    countAtBucket(i));
         }
 
         printStream.write('\n');
@@ -112,12 +162,13 @@ public class TimeWindowFixedBoundaryHistogram
     class FixedBoundaryHistogram {
         /**
          * For recording efficiency, this is a normal histogram. We turn these values into
-         * cumulative counts only on calls to {@link #countAtValue(double)}.
+         * cumulative counts only on calls to {@link #countAtValue(double)}. When striped, each
+         * stripe has its own row of counts, summed on read.
          */
         final AtomicLongArray values;
 
         FixedBoundaryHistogram() {
-            this.values = new AtomicLongArray(buckets.length);
+            this.values = new AtomicLongArray(stripes * rowStride);
         }
 
         long countAtValue(double value) {
@@ -126,7 +177,14 @@ public class TimeWindowFixedBoundaryHistogram
                 return 0;
             long count = 0;
             for (int i = 0; i <= index; i++)
-                count += values.get(i);
+                count += countAtBucket(i);
+            return count;
+        }
+
+        long countAtBucket(int index) {
+            long count = 0;
+            for (int stripe = 0; stripe < stripes; stripe++)
+                count += values.get(stripe * rowStride + index);
             return count;
         }
 
@@ -140,7 +198,7 @@ public class TimeWindowFixedBoundaryHistogram
         void record(long value) {
             int index = leastLessThanOrEqualTo(value);
             if (index > -1)
-                values.incrementAndGet(index);
+                values.incrementAndGet(Stripes.current(stripes) * rowStride + index);
         }
 
         /**
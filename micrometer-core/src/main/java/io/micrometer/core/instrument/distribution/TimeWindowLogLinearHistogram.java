@@ -0,0 +1,281 @@
+/**
+ * Copyright 2017 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.distribution;
+
+import io.micrometer.core.annotation.Incubating;
+import io.micrometer.core.instrument.Clock;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram implementation that supports the computation of percentiles by Micrometer with a fixed,
+ * compact memory footprint, as an alternative to {@link TimeWindowPercentileHistogram}.
+ * <p>
+ * Samples are counted in log-linear buckets: each power of two between the minimum and maximum expected
+ * values is split into {@code 2^p} linear sub-buckets, where {@code p} is derived from the percentile precision.
+ * Percentiles are reported at the midpoint of the bucket they fall in, so their relative error is bounded by
+ * {@code 2^-(p+1)}: 6.25% for a precision of 1, 0.8% for 2 and 0.1% for 3. Samples below the minimum expected
+ * value share one counter, and percentiles falling among them are reported at its upper bound, the minimum
+ * expected value rounded down to a power of two. Samples above the maximum expected value are counted in the
+ * highest bucket, which is therefore only included in the count of an infinite service level objective. A
+ * service level objective that isn't on a bucket boundary is credited with the buckets below it only.
+ * <p>
+ * Each bucket of the ring buffer is a single array of counters, and samples are only recorded to the most
+ * recently reset one. Since all the buckets share the same layout, they are merged by adding counters.
+ * <p>
+ * Each bucket has {@code 2^p} counters for each power of two in the expected value range, plus the one for
+ * samples below it, at 8 bytes each. The footprint is about {@code 8 * (bufferLength + 1) * (1 + 2^p * n)} bytes
+ * for {@code n} powers of two, e.g. 32KB for the 16 powers of two of a timer's default range with a precision
+ * of 2. It is capped at 2048 counters per bucket by covering fewer powers of two: timers and distribution
+ * summaries whose expected value range doesn't fit, such as an unbounded one, use a
+ * {@link TimeWindowPercentileHistogram} instead, see {@link #coversExpectedValueRange}.
+ *
+ * @since 1.8.0
+ */
+@Incubating(since = "1.8.0")
+public class TimeWindowLogLinearHistogram extends AbstractTimeWindowHistogram<AtomicLongArray, long[]> {
+
+    /**
+     * Caps the number of counters for the powers of two covered, so that a wide or unbounded range of
+     * expected values doesn't make the footprint unbounded too.
+     */
+    private static final int MAX_COUNTERS = 2048;
+
+    private static final int MAX_SUB_BUCKET_BITS = 10;
+
+    private final int subBucketBits;
+    private final int minExponent;
+    private final int maxExponent;
+
+    /**
+     * Number of counters, including the one for samples below the minimum expected value.
+     */
+    private final int length;
+
+    public TimeWindowLogLinearHistogram(Clock clock, DistributionStatisticConfig distributionStatisticConfig,
+                                        boolean supportsAggregablePercentiles) {
+        super(clock, distributionStatisticConfig, AtomicLongArray.class, supportsAggregablePercentiles);
+
+        Integer precision = distributionStatisticConfig.getPercentilePrecision();
+        this.subBucketBits = subBucketBits(precision == null ? 1 : precision);
+        this.minExponent = Math.getExponent(distributionStatisticConfig.getMinimumExpectedValueAsDouble());
+        this.maxExponent = Math.min(minExponent + (MAX_COUNTERS >> subBucketBits) - 1,
+                Math.getExponent(distributionStatisticConfig.getMaximumExpectedValueAsDouble()));
+        this.length = 1 + ((maxExponent - minExponent + 1) << subBucketBits);
+
+        initRingBuffer();
+    }
+
+    /**
+     * @param distributionStatisticConfig The distribution configuration of a meter.
+     * @return Whether the whole range of expected values can be covered within the capped footprint of a
+     * log-linear histogram, which isn't the case for an unbounded maximum expected value.
+     */
+    public static boolean coversExpectedValueRange(DistributionStatisticConfig distributionStatisticConfig) {
+        Integer precision = distributionStatisticConfig.getPercentilePrecision();
+        int subBucketBits = subBucketBits(precision == null ? 1 : precision);
+        long exponents = (long) Math.getExponent(distributionStatisticConfig.getMaximumExpectedValueAsDouble())
+                - Math.getExponent(distributionStatisticConfig.getMinimumExpectedValueAsDouble()) + 1;
+        return exponents << subBucketBits <= MAX_COUNTERS;
+    }
+
+    /**
+     * @param precision Number of significant decimal digits.
+     * @return The number of bits of the mantissa that select a sub-bucket, so that the relative error of a
+     * bucket midpoint is less than half a unit in the last significant digit.
+     */
+    private static int subBucketBits(int precision) {
+        int bits = (int) Math.ceil(precision * Math.log(10) / Math.log(2)) - 1;
+        return Math.max(1, Math.min(MAX_SUB_BUCKET_BITS, bits));
+    }
+
+    /**
+     * @return The number of counters in each bucket of the ring buffer.
+     */
+    int length() {
+        return length;
+    }
+
+    int indexOf(double value) {
+        if (!(value >= Double.MIN_NORMAL)) {
+            // zero, negative, NaN or subnormal
+            return 0;
+        }
+        int exponent = Math.getExponent(value);
+        if (exponent < minExponent) {
+            return 0;
+        }
+        if (exponent > maxExponent) {
+            return length - 1;
+        }
+        long bits = Double.doubleToRawLongBits(value);
+        int subBucket = (int) (bits >>> (52 - subBucketBits)) & ((1 << subBucketBits) - 1);
+        int index = 1 + ((exponent - minExponent) << subBucketBits) + subBucket;
+        if ((bits & ((1L << (52 - subBucketBits)) - 1)) == 0) {
+            // on the lower bound of its bucket, so counted in the one below, whose upper bound is inclusive
+            // like a service level objective's
+            return index - 1;
+        }
+        return index;
+    }
+
+    double lowerBound(int index) {
+        if (index == 0) {
+            return 0;
+        }
+        int exponent = minExponent + ((index - 1) >> subBucketBits);
+        int subBucket = (index - 1) & ((1 << subBucketBits) - 1);
+        return Math.scalb(1.0 + Math.scalb((double) subBucket, -subBucketBits), exponent);
+    }
+
+    double upperBound(int index) {
+        if (index == 0) {
+            return Math.scalb(1.0, minExponent);
+        }
+        int exponent = minExponent + ((index - 1) >> subBucketBits);
+        return lowerBound(index) + Math.scalb(1.0, exponent - subBucketBits);
+    }
+
+    private double midpoint(int index) {
+        // samples below the minimum expected value can't be told apart, and shouldn't be reported as zero
+        return index == 0 ? upperBound(0) : (lowerBound(index) + upperBound(index)) / 2;
+    }
+
+    @Override
+    AtomicLongArray newBucket() {
+        return new AtomicLongArray(length);
+    }
+
+    /**
+     * Samples are only recorded to the most recently reset bucket of the ring buffer, and the buckets
+     * are added up when accumulated.
+     *
+     * @param value The sample to record.
+     */
+    @Override
+    public void recordLong(long value) {
+        recordDouble((double) value);
+    }
+
+    @Override
+    public void recordDouble(double value) {
+        rotate();
+        newestHistogram().incrementAndGet(indexOf(value));
+        markAccumulatedHistogramStale();
+    }
+
+    @Override
+    void recordLong(AtomicLongArray bucket, long value) {
+        bucket.incrementAndGet(indexOf(value));
+    }
+
+    @Override
+    void recordDouble(AtomicLongArray bucket, double value) {
+        bucket.incrementAndGet(indexOf(value));
+    }
+
+    @Override
+    void resetBucket(AtomicLongArray bucket) {
+        for (int i = 0; i < length; i++) {
+            bucket.set(i, 0);
+        }
+    }
+
+    @Override
+    long[] newAccumulatedHistogram(AtomicLongArray[] ringBuffer) {
+        return new long[length];
+    }
+
+    @Override
+    void accumulate() {
+        long[] accumulated = accumulatedHistogram();
+        AtomicLongArray[] ringBuffer = ringBuffer();
+        for (int i = 0; i < length; i++) {
+            long count = 0;
+            for (AtomicLongArray bucket : ringBuffer) {
+                count += bucket.get(i);
+            }
+            accumulated[i] = count;
+        }
+    }
+
+    @Override
+    void resetAccumulatedHistogram() {
+        // every counter is overwritten when accumulating
+    }
+
+    @Override
+    double valueAtPercentile(double percentile) {
+        long[] accumulated = accumulatedHistogram();
+        long total = 0;
+        for (long count : accumulated) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) * total / 100));
+        long count = 0;
+        for (int i = 0; i < length; i++) {
+            count += accumulated[i];
+            if (count >= rank) {
+                return midpoint(i);
+            }
+        }
+        return midpoint(length - 1);
+    }
+
+    @Override
+    double countAtValue(double value) {
+        long[] accumulated = accumulatedHistogram();
+        long count = 0;
+        // the bucket holding the value may also hold samples above it, and the highest one samples above the
+        // maximum expected value
+        for (int i = 0; i < length - 1 && upperBound(i) <= value; i++) {
+            count += accumulated[i];
+        }
+        if (value == Double.POSITIVE_INFINITY) {
+            count += accumulated[length - 1];
+        }
+        return count;
+    }
+
+    @Override
+    void outputSummary(PrintStream out, double bucketScaling) {
+        long[] accumulated = accumulatedHistogram();
+        long total = 0;
+        for (long count : accumulated) {
+            total += count;
+        }
+
+        out.format("%12s %14s %10s\n\n", "Value", "Percentile", "TotalCount");
+
+        long count = 0;
+        for (int i = 0; i < length; i++) {
+            if (accumulated[i] == 0) {
+                continue;
+            }
+            count += accumulated[i];
+            out.format(Locale.US, "%12.3f %2.12f %10d\n", upperBound(i) / bucketScaling,
+                    (double) count / total, count);
+        }
+
+        out.write('\n');
+    }
+}
@@ -20,12 +20,16 @@ import io.micrometer.core.instrument.util.TimeUtils;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.DoubleSupplier;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.LongSupplier;
 
 /**
  * An implementation of a decaying maximum for a distribution based on a configurable ring buffer.
+ * <p>
+ * Samples are only recorded to the most recent bucket of the ring buffer, and the maximum is computed across all
+ * buckets when polled. When striping is enabled, each bucket is further split into cache line padded cells
+ * selected by the recording thread, so that threads recording concurrently don't contend on the same
+ * cache line. Cells are reduced when polled.
  *
  * @author Jon Schneider
  */
@@ -35,8 +39,20 @@ public class TimeWindowMax {
 
     private final Clock clock;
     private final long durationBetweenRotatesMillis;
-    private AtomicLong[] ringBuffer;
-    private int currentBucket;
+    private final int bufferLength;
+
+    /**
+     * Number of cells per bucket. Always a power of two, and 1 when striping is disabled.
+     */
+    private final int stripes;
+    private final int cellStride;
+    private final AtomicLongArray ringBuffer;
+
+    /**
+     * The oldest bucket, i.e. the next one to be reset on rotation. The bucket before it is the one
+     * samples are recorded to.
+     */
+    private volatile int currentBucket;
     private volatile long lastRotateTimestampMillis;
 
     @SuppressWarnings({"unused", "FieldCanBeLocal"})
@@ -44,19 +60,38 @@ public class TimeWindowMax {
 
     @SuppressWarnings("ConstantConditions")
     public TimeWindowMax(Clock clock, DistributionStatisticConfig config) {
-        this(clock, config.getExpiry().toMillis(), config.getBufferLength());
+        this(clock, config.getExpiry().toMillis(), config.getBufferLength(),
+                config.isStripedMax() != null && config.isStripedMax());
     }
 
     public TimeWindowMax(Clock clock, long rotateFrequencyMillis, int bufferLength) {
+        this(clock, rotateFrequencyMillis, bufferLength, false);
+    }
+
+    /**
+     * @param clock                 The clock used to rotate the ring buffer.
+     * @param rotateFrequencyMillis The time after which the ring buffer is rotated.
+     * @param bufferLength          The number of buckets of the ring buffer.
+     * @param striped               Whether to stripe each bucket across cells for highly contended meters.
+     * @since 1.8.0
+     */
+    public TimeWindowMax(Clock clock, long rotateFrequencyMillis, int bufferLength, boolean striped) {
         this.clock = clock;
         this.durationBetweenRotatesMillis = rotateFrequencyMillis;
         this.lastRotateTimestampMillis = clock.wallTime();
         this.currentBucket = 0;
-
-        this.ringBuffer = new AtomicLong[bufferLength];
-        for (int i = 0; i < bufferLength; i++) {
-            this.ringBuffer[i] = new AtomicLong();
+        this.bufferLength = bufferLength;
+
+        if (striped) {
+            this.stripes = Stripes.count();
+            this.cellStride = Stripes.PADDING;
+        } else {
+            this.stripes = 1;
+            this.cellStride = 1;
         }
+
+        // the array is over-allocated by one stride, so the first cell isn't on the same cache line as the array header
+        this.ringBuffer = new AtomicLongArray((bufferLength * stripes + 1) * cellStride);
     }
 
     /**
@@ -72,9 +107,15 @@ public class TimeWindowMax {
     private void record(LongSupplier sampleSupplier) {
         rotate();
         long sample = sampleSupplier.getAsLong();
-        for (AtomicLong max : ringBuffer) {
-            updateMax(max, sample);
+        int bucket = currentBucket - 1;
+        if (bucket < 0) {
+            bucket = bufferLength - 1;
         }
+        updateMax(cellIndex(bucket, Stripes.current(stripes)), sample);
+    }
+
+    private int cellIndex(int bucket, int stripe) {
+        return (bucket * stripes + stripe + 1) * cellStride;
     }
 
     /**
@@ -82,13 +123,19 @@ public class TimeWindowMax {
      * @return A max scaled to the base unit of time. For use by timer implementations.
      */
     public double poll(TimeUnit timeUnit) {
-        return poll(() -> TimeUtils.nanosToUnit(ringBuffer[currentBucket].get(), timeUnit));
+        return TimeUtils.nanosToUnit(pollMax(), timeUnit);
     }
 
-    private double poll(DoubleSupplier maxSupplier) {
+    private long pollMax() {
         rotate();
         synchronized (this) {
-            return maxSupplier.getAsDouble();
+            long max = 0;
+            for (int bucket = 0; bucket < bufferLength; bucket++) {
+                for (int stripe = 0; stripe < stripes; stripe++) {
+                    max = Math.max(max, ringBuffer.get(cellIndex(bucket, stripe)));
+                }
+            }
+            return max;
         }
     }
 
@@ -96,7 +143,7 @@ public class TimeWindowMax {
      * @return An unscaled max. For use by distribution summary implementations.
      */
     public double poll() {
-        return poll(() -> Double.longBitsToDouble(ringBuffer[currentBucket].get()));
+        return Double.longBitsToDouble(pollMax());
     }
 
     /**
@@ -108,11 +155,17 @@ public class TimeWindowMax {
         record(() -> Double.doubleToLongBits(sample));
     }
 
-    private void updateMax(AtomicLong max, long sample) {
+    private void updateMax(int index, long sample) {
         long curMax;
         do {
-            curMax = max.get();
-        } while (curMax < sample && !max.compareAndSet(curMax, sample));
+            curMax = ringBuffer.get(index);
+        } while (curMax < sample && !ringBuffer.compareAndSet(index, curMax, sample));
+    }
+
+    private void resetBucket(int bucket) {
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            ringBuffer.set(cellIndex(bucket, stripe), 0);
+        }
     }
 
     private void rotate() {
@@ -130,25 +183,27 @@ public class TimeWindowMax {
 
         try {
             synchronized (this) {
-                if (timeSinceLastRotateMillis >= durationBetweenRotatesMillis * ringBuffer.length) {
+                if (timeSinceLastRotateMillis >= durationBetweenRotatesMillis * bufferLength) {
                     // time since last rotation is enough to clear whole ring buffer
-                    for (AtomicLong bufferItem: ringBuffer) {
-                        bufferItem.set(0);
+                    for (int bucket = 0; bucket < bufferLength; bucket++) {
+                        resetBucket(bucket);
                     }
                     currentBucket = 0;
                     lastRotateTimestampMillis = wallTime - timeSinceLastRotateMillis % durationBetweenRotatesMillis;
                     return;
                 }
 
+                int bucket = currentBucket;
                 int iterations = 0;
                 do {
-                    ringBuffer[currentBucket].set(0);
-                    if (++currentBucket >= ringBuffer.length) {
-                        currentBucket = 0;
+                    resetBucket(bucket);
+                    if (++bucket >= bufferLength) {
+                        bucket = 0;
                     }
                     timeSinceLastRotateMillis -= durationBetweenRotatesMillis;
                     lastRotateTimestampMillis += durationBetweenRotatesMillis;
-                } while (timeSinceLastRotateMillis >= durationBetweenRotatesMillis && ++iterations < ringBuffer.length);
+                } while (timeSinceLastRotateMillis >= durationBetweenRotatesMillis && ++iterations < bufferLength);
+                currentBucket = bucket;
             }
         } finally {
             rotating = 0;
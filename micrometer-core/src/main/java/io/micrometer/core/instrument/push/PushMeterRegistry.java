@@ -16,24 +16,47 @@
 package io.micrometer.core.instrument.push;
 
 import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.util.MeterPartition;
 import io.micrometer.core.instrument.util.TimeUtils;
 import io.micrometer.core.lang.Nullable;
 import io.micrometer.core.util.internal.logging.InternalLogger;
 import io.micrometer.core.util.internal.logging.InternalLoggerFactory;
+import io.micrometer.core.util.internal.logging.WarnThenDebugLogger;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public abstract class PushMeterRegistry extends MeterRegistry {
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(PushMeterRegistry.class);
+    private static final WarnThenDebugLogger overrunLogger = new WarnThenDebugLogger(PushMeterRegistry.class);
     private final PushRegistryConfig config;
 
     @Nullable
     private ScheduledExecutorService scheduledExecutorService;
 
+    @Nullable
+    private ExecutorService batchExecutorService;
+
+    /**
+     * Monotonic time at which the next scheduled publish is due.
+     */
+    private volatile long nextPublishNanos;
+
     protected PushMeterRegistry(PushRegistryConfig config, Clock clock) {
         super(clock);
 
@@ -44,17 +67,164 @@ public abstract class PushMeterRegistry extends MeterRegistry {
 
     protected abstract void publish();
 
+    /**
+     * Called on the publishing thread just before each {@link #publish()}, including the last one on {@link #close()}.
+     *
+     * @since 1.8.0
+     */
+    protected void beforePublish() {
+    }
+
+    /**
+     * Partitions the meters of this registry into batches of {@link PushRegistryConfig#batchSize()} meters and hands
+     * each batch to {@code batchPublisher}, which typically serializes the batch and sends it to the backend. Up to
+     * {@link PushRegistryConfig#batchConcurrency()} batches are published at the same time once the registry is
+     * started; otherwise, batches are published one after another on the calling thread. Either way this returns once
+     * every batch has been published.
+     * <p>
+     * Batches are cut straight from the registry's meters as they are published, without first copying every meter
+     * into a list, and leave out meters for which {@link #shouldPublish(Meter)} is {@code false}.
+     * <p>
+     * The time each batch takes is recorded to a {@code push.batch} timer. An exception thrown
+     * by {@code batchPublisher} is logged and does not prevent the remaining batches from being published.
+     *
+     * @param batchPublisher Publishes a single batch. Must be safe to call concurrently when batch concurrency is
+     *                       greater than 1.
+     * @since 1.8.0
+     */
+    protected void publishBatches(Consumer<List<Meter>> batchPublisher) {
+        ExecutorService executorService = this.batchExecutorService;
+        if (executorService == null) {
+            MeterPartition.forEachPartition(this, config.batchSize(), this::shouldPublish,
+                    batch -> publishBatch(batch, batchPublisher));
+            return;
+        }
+
+        // the executor has batchConcurrency threads, which bounds the number of batches in flight
+        List<Future<?>> inFlight = new ArrayList<>();
+        MeterPartition.forEachPartition(this, config.batchSize(), this::shouldPublish, partition -> {
+            // the partition is reused once this returns
+            List<Meter> batch = new ArrayList<>(partition);
+            try {
+                inFlight.add(executorService.submit(() -> publishBatch(batch, batchPublisher)));
+            } catch (RejectedExecutionException e) {
+                // stopped while publishing
+                publishBatch(batch, batchPublisher);
+            }
+        });
+        for (Future<?> future : inFlight) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                inFlight.forEach(f -> f.cancel(true));
+                return;
+            } catch (ExecutionException e) {
+                // publishBatch doesn't throw
+            }
+        }
+    }
+
+    /**
+     * Registries that can tell which meters have had no activity since the last publish override this to leave those
+     * meters out of the batches handed out by {@link #publishBatches(Consumer)}.
+     *
+     * @param meter A meter of this registry.
+     * @return {@code true} if the meter is to be published. The default is {@code true} for every meter.
+     * @since 1.8.0
+     */
+    protected boolean shouldPublish(Meter meter) {
+        return true;
+    }
+
+    private void publishBatch(List<Meter> batch, Consumer<List<Meter>> batchPublisher) {
+        long start = clock.monotonicTime();
+        try {
+            batchPublisher.accept(batch);
+        } catch (Throwable e) {
+            logger.warn("Unexpected exception thrown while publishing a batch of metrics for " + this.getClass().getSimpleName(), e);
+        } finally {
+            Timer.builder("push.batch")
+                    .description("Time to serialize and send a batch of meters")
+                    .register(this)
+                    .record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
     /**
      * Catch uncaught exceptions thrown from {@link #publish()}.
      */
     private void publishSafely() {
         try {
+            beforePublish();
             publish();
         } catch (Throwable e) {
             logger.warn("Unexpected exception thrown while publishing metrics for " + this.getClass().getSimpleName(), e);
         }
     }
 
+    /**
+     * Run by the scheduler once per step. Publishes that run longer than the step are counted, and when
+     * {@link PushRegistryConfig#skipLatePublishes()} is set, a publish that was held up for a whole step or more
+     * behind a long one is skipped, since the publish due after it is about to run anyway.
+     */
+    void publishOnSchedule() {
+        long stepNanos = config.step().toNanos();
+        long dueNanos = nextPublishNanos;
+        nextPublishNanos = dueNanos + stepNanos;
+
+        long startNanos = clock.monotonicTime();
+        if (startNanos - dueNanos >= stepNanos && config.skipLatePublishes()) {
+            Counter.builder("push.publish.skipped")
+                    .description("Scheduled publishes skipped because an earlier publish ran longer than the step")
+                    .register(this)
+                    .increment();
+            return;
+        }
+
+        publishSafely();
+
+        long durationNanos = clock.monotonicTime() - startNanos;
+        if (durationNanos > stepNanos) {
+            Counter.builder("push.publish.overrun")
+                    .description("Publishes that ran longer than the step")
+                    .register(this)
+                    .increment();
+            overrunLogger.log("Publishing metrics for " + this.getClass().getSimpleName() + " took " +
+                    TimeUtils.format(Duration.ofNanos(durationNanos)) + ", longer than the step of " +
+                    TimeUtils.format(config.step()) + ".");
+        }
+    }
+
+    /**
+     * @param instanceId  Identifies this process, stable across restarts of the same instance where possible.
+     * @param jitterMillis The upper bound, exclusive, of the offset.
+     * @return An offset into the step in {@code [0, jitterMillis)} which is the same every time for a given instance,
+     * and spread evenly across instances even when their identifiers differ by a single character.
+     */
+    static long publishOffsetMillis(String instanceId, long jitterMillis) {
+        if (jitterMillis <= 0) {
+            return 0;
+        }
+        // murmur3 finalizer, so that similar instance ids don't land on neighbouring offsets
+        long h = instanceId.hashCode();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return Math.floorMod(h, jitterMillis);
+    }
+
+    private static String instanceId() {
+        try {
+            // pid@hostname on HotSpot
+            return ManagementFactory.getRuntimeMXBean().getName();
+        } catch (Throwable e) {
+            return "";
+        }
+    }
+
     /**
      * @deprecated Use {@link #start(ThreadFactory)} instead.
      */
@@ -71,10 +241,15 @@ public abstract class PushMeterRegistry extends MeterRegistry {
             logger.info("publishing metrics for " + this.getClass().getSimpleName() + " every " + TimeUtils.format(config.step()));
 
             scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(threadFactory);
-            // time publication to happen just after StepValue finishes the step
+            if (config.batchConcurrency() > 1) {
+                batchExecutorService = Executors.newFixedThreadPool(config.batchConcurrency(), threadFactory);
+            }
+            // time publication to happen just after StepValue finishes the step, plus this instance's share of the jitter
             long stepMillis = config.step().toMillis();
-            long initialDelayMillis = stepMillis - (clock.wallTime() % stepMillis) + 1;
-            scheduledExecutorService.scheduleAtFixedRate(this::publishSafely,
+            long offsetMillis = publishOffsetMillis(instanceId(), config.publishJitter().toMillis());
+            long initialDelayMillis = stepMillis - (clock.wallTime() % stepMillis) + 1 + offsetMillis;
+            nextPublishNanos = clock.monotonicTime() + TimeUnit.MILLISECONDS.toNanos(initialDelayMillis);
+            scheduledExecutorService.scheduleAtFixedRate(this::publishOnSchedule,
                                                          initialDelayMillis, stepMillis, TimeUnit.MILLISECONDS);
         }
     }
@@ -84,6 +259,10 @@ public abstract class PushMeterRegistry extends MeterRegistry {
             scheduledExecutorService.shutdown();
             scheduledExecutorService = null;
         }
+        if (batchExecutorService != null) {
+            batchExecutorService.shutdown();
+            batchExecutorService = null;
+        }
     }
 
     @Override
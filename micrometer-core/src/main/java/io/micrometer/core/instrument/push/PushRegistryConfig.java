@@ -16,6 +16,7 @@
 package io.micrometer.core.instrument.push;
 
 import io.micrometer.core.instrument.config.MeterRegistryConfig;
+import io.micrometer.core.instrument.config.validate.InvalidReason;
 import io.micrometer.core.instrument.config.validate.Validated;
 import io.micrometer.core.ipc.http.HttpSender;
 
@@ -91,6 +92,35 @@ public interface PushRegistryConfig extends MeterRegistryConfig {
         return getInteger(this, "batchSize").orElse(10000);
     }
 
+    /**
+     * @return The maximum number of batches that are serialized and sent to the backend at the same time. Batches
+     * beyond this wait for one in flight to finish. The default is 1, publishing batches one after another.
+     * @since 1.8.0
+     */
+    default int batchConcurrency() {
+        return getInteger(this, "batchConcurrency").orElse(1);
+    }
+
+    /**
+     * @return The largest amount of time a publish is delayed past the start of a step. Each registry instance picks a
+     * fixed delay in {@code [0, publishJitter)} derived from its host and process, so that a fleet of instances started
+     * together doesn't publish in the same instant. Must be less than {@link #step()}. The default is no delay.
+     * @since 1.8.0
+     */
+    default Duration publishJitter() {
+        return getDuration(this, "publishJitter").orElse(Duration.ZERO);
+    }
+
+    /**
+     * @return {@code true} if a scheduled publish that is still waiting when the next one is due, because a publish
+     * before it ran longer than the step, is skipped rather than run back to back with the next one. The default is
+     * {@code false}.
+     * @since 1.8.0
+     */
+    default boolean skipLatePublishes() {
+        return getBoolean(this, "skipLatePublishes").orElse(false);
+    }
+
     @Override
     default Validated<?> validate() {
         return validate(this);
@@ -109,6 +139,14 @@ public interface PushRegistryConfig extends MeterRegistryConfig {
                 check("connectTimeout", PushRegistryConfig::connectTimeout),
                 check("readTimeout", PushRegistryConfig::readTimeout),
                 check("batchSize", PushRegistryConfig::batchSize),
+                check("batchConcurrency", PushRegistryConfig::batchConcurrency)
+                        .andThen(v -> v.invalidateWhen(c -> c < 1, "must be at least 1", InvalidReason.MALFORMED)),
+                check("publishJitter", PushRegistryConfig::publishJitter)
+                        .andThen(v -> v.invalidateWhen(Duration::isNegative, "must not be negative", InvalidReason.MALFORMED))
+                        .andThen(v -> v.invalidateWhen(jitter -> {
+                            Validated<Duration> step = check("step", PushRegistryConfig::step).apply(config);
+                            return step.isValid() && jitter.compareTo(step.get()) >= 0;
+                        }, "must be less than the step", InvalidReason.MALFORMED)),
                 check("numThreads", PushRegistryConfig::numThreads)
         );
     }
@@ -34,8 +34,19 @@ public class StepCounter extends AbstractMeter implements Counter {
         this.value = new StepDouble(clock, stepMillis);
     }
 
+    /**
+     * @param id        The counter's id.
+     * @param stepEpoch The step shared by the meters of the registry.
+     * @since 1.8.0
+     */
+    public StepCounter(Id id, StepEpoch stepEpoch) {
+        super(id);
+        this.value = new StepDouble(stepEpoch);
+    }
+
     @Override
     public void increment(double amount) {
+        value.rollBeforeRecording();
         value.getCurrent().add(amount);
     }
 
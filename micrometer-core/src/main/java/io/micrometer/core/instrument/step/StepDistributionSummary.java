@@ -55,8 +55,27 @@ public class StepDistributionSummary extends AbstractDistributionSummary {
         this.max = new TimeWindowMax(clock, distributionStatisticConfig);
     }
 
+    /**
+     * Create a new {@code StepDistributionSummary} whose steps are tracked by a registry-wide {@link StepEpoch}.
+     *
+     * @param id                            ID
+     * @param clock                         clock
+     * @param distributionStatisticConfig   distribution static configuration
+     * @param scale                         scale
+     * @param stepEpoch                     step shared by the meters of the registry
+     * @param supportsAggregablePercentiles whether it supports aggregable percentiles
+     * @since 1.8.0
+     */
+    public StepDistributionSummary(Id id, Clock clock, DistributionStatisticConfig distributionStatisticConfig, double scale,
+                                   StepEpoch stepEpoch, boolean supportsAggregablePercentiles) {
+        super(id, clock, distributionStatisticConfig, scale, supportsAggregablePercentiles);
+        this.countTotal = new StepTuple2<>(stepEpoch, 0L, 0.0, count::sumThenReset, total::sumThenReset);
+        this.max = new TimeWindowMax(clock, distributionStatisticConfig);
+    }
+
     @Override
     protected void recordNonNegative(double amount) {
+        countTotal.rollBeforeRecording();
         count.add(1);
         total.add(amount);
         max.record(amount);
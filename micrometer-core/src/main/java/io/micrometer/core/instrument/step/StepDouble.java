@@ -33,6 +33,14 @@ public class StepDouble extends StepValue<Double> {
         super(clock, stepMillis);
     }
 
+    /**
+     * @param epoch The step shared by the meters of a registry.
+     * @since 1.8.0
+     */
+    public StepDouble(StepEpoch epoch) {
+        super(epoch);
+    }
+
     @Override
     protected Supplier<Double> valueSupplier() {
         return current::sumThenReset;
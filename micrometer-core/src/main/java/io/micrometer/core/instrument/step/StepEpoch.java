@@ -0,0 +1,94 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.step;
+
+import io.micrometer.core.instrument.Clock;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * The step that the step-normalized meters of a registry are accumulating into, shared by all of those meters so
+ * that they can tell when a step has completed without each of them working out the step from the clock.
+ * <p>
+ * The epoch follows the clock: it moves to the next step on the first read after a step boundary, whether that read
+ * polls a meter or records to one. Until then, a read is a clock read compared against the end of the current step.
+ * A publisher may {@link #advance()} the epoch just after each boundary so that meters don't have to.
+ *
+ * @since 1.8.0
+ */
+public class StepEpoch {
+    private static final AtomicReferenceFieldUpdater<StepEpoch, Step> stepUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(StepEpoch.class, Step.class, "step");
+
+    private final Clock clock;
+    private final long stepMillis;
+
+    private volatile Step step;
+
+    public StepEpoch(Clock clock, long stepMillis) {
+        this.clock = clock;
+        this.stepMillis = stepMillis;
+        this.step = new Step(clock.wallTime() / stepMillis, stepMillis);
+    }
+
+    /**
+     * @return The number of whole steps between the epoch of the clock and the step the clock is in now.
+     */
+    public long current() {
+        Step current = step;
+        long now = clock.wallTime();
+        return now < current.endMillis ? current.index : advance(now);
+    }
+
+    /**
+     * Moves to the step the clock is in now. Never moves backwards.
+     *
+     * @return The number of whole steps between the epoch of the clock and the current step.
+     */
+    public long advance() {
+        return advance(clock.wallTime());
+    }
+
+    private long advance(long nowMillis) {
+        long now = nowMillis / stepMillis;
+        Step current;
+        do {
+            current = step;
+            if (current.index >= now) {
+                return current.index;
+            }
+        } while (!stepUpdater.compareAndSet(this, current, new Step(now, stepMillis)));
+        return now;
+    }
+
+    Clock getClock() {
+        return clock;
+    }
+
+    long getStepMillis() {
+        return stepMillis;
+    }
+
+    private static final class Step {
+        final long index;
+        final long endMillis;
+
+        Step(long index, long stepMillis) {
+            this.index = index;
+            this.endMillis = (index + 1) * stepMillis;
+        }
+    }
+}
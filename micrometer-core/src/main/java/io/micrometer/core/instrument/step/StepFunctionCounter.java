@@ -26,7 +26,7 @@ public class StepFunctionCounter<T> extends AbstractMeter implements FunctionCou
     private final WeakReference<T> ref;
     private final ToDoubleFunction<T> f;
     private volatile double last;
-    private StepDouble count;
+    private final StepDouble count;
 
     public StepFunctionCounter(Id id, Clock clock, long stepMillis, T obj, ToDoubleFunction<T> f) {
         super(id);
@@ -35,6 +35,20 @@ public class StepFunctionCounter<T> extends AbstractMeter implements FunctionCou
         this.count = new StepDouble(clock, stepMillis);
     }
 
+    /**
+     * @param id        The counter's id.
+     * @param stepEpoch The step shared by the meters of the registry.
+     * @param obj       The state object from which the count is derived.
+     * @param f         Function producing a monotonically increasing count from the state object.
+     * @since 1.8.0
+     */
+    public StepFunctionCounter(Id id, StepEpoch stepEpoch, T obj, ToDoubleFunction<T> f) {
+        super(id);
+        this.ref = new WeakReference<>(obj);
+        this.f = f;
+        this.count = new StepDouble(stepEpoch);
+    }
+
     @Override
     public double count() {
         T obj2 = ref.get();
@@ -63,6 +63,30 @@ public class StepFunctionTimer<T> implements FunctionTimer {
                 count::sumThenReset, total::sumThenReset);
     }
 
+    /**
+     * @param id                    The timer's id.
+     * @param clock                 The clock used to limit how often the functions are evaluated.
+     * @param stepEpoch             The step shared by the meters of the registry.
+     * @param obj                   The state object from which the count and total time are derived.
+     * @param countFunction         Function producing a monotonically increasing count from the state object.
+     * @param totalTimeFunction     Function producing a monotonically increasing total time from the state object.
+     * @param totalTimeFunctionUnit The unit of time of the total time function.
+     * @param baseTimeUnit          The base unit of time of the registry.
+     * @since 1.8.0
+     */
+    public StepFunctionTimer(Id id, Clock clock, StepEpoch stepEpoch, T obj, ToLongFunction<T> countFunction,
+                             ToDoubleFunction<T> totalTimeFunction, TimeUnit totalTimeFunctionUnit, TimeUnit baseTimeUnit) {
+        this.id = id;
+        this.clock = clock;
+        this.ref = new WeakReference<>(obj);
+        this.countFunction = countFunction;
+        this.totalTimeFunction = totalTimeFunction;
+        this.totalTimeFunctionUnit = totalTimeFunctionUnit;
+        this.baseTimeUnit = baseTimeUnit;
+        this.countTotal = new StepTuple2<>(stepEpoch, 0L, 0.0,
+                count::sumThenReset, total::sumThenReset);
+    }
+
     /**
      * The total number of occurrences of the timed event.
      */
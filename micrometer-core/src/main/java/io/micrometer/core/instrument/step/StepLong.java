@@ -27,6 +27,14 @@ public class StepLong extends StepValue<Long> {
         super(clock, stepMillis);
     }
 
+    /**
+     * @param epoch The step shared by the meters of a registry.
+     * @since 1.8.0
+     */
+    public StepLong(StepEpoch epoch) {
+        super(epoch);
+    }
+
     @Override
     protected Supplier<Long> valueSupplier() {
         return current::sumThenReset;
@@ -36,10 +36,58 @@ import java.util.function.ToLongFunction;
  */
 public abstract class StepMeterRegistry extends PushMeterRegistry {
     private final StepRegistryConfig config;
+    private final StepEpoch stepEpoch;
 
     public StepMeterRegistry(StepRegistryConfig config, Clock clock) {
         super(config, clock);
         this.config = config;
+        this.stepEpoch = new StepEpoch(clock, config.step().toMillis());
+    }
+
+    /**
+     * Moves the step epoch of this registry's meters on to the step that has just started, so that the meters polled
+     * by the publish don't each find out about it from the clock.
+     */
+    @Override
+    protected void beforePublish() {
+        stepEpoch.advance();
+    }
+
+    /**
+     * @return The step shared by this registry's step-normalized meters, for subclasses that create their own.
+     * @since 1.8.0
+     */
+    protected StepEpoch getStepEpoch() {
+        return stepEpoch;
+    }
+
+    /**
+     * When {@link StepRegistryConfig#skipIdleMeters()} is enabled, leaves out step-normalized meters with a count of
+     * zero for the last completed step, except on every {@link StepRegistryConfig#idleMeterHeartbeat()}. Polling the
+     * count only rolls the meter's {@link StepValue} over to the step that is about to be published anyway, so this
+     * costs a clock read per meter.
+     */
+    @Override
+    protected boolean shouldPublish(Meter meter) {
+        if (!config.skipIdleMeters() || isHeartbeat()) {
+            return true;
+        }
+        return meter.match(
+                gauge -> true,
+                counter -> counter.count() != 0,
+                timer -> timer.count() != 0,
+                summary -> summary.count() != 0,
+                longTaskTimer -> true,
+                timeGauge -> true,
+                functionCounter -> functionCounter.count() != 0,
+                functionTimer -> functionTimer.count() != 0,
+                other -> true);
+    }
+
+    private boolean isHeartbeat() {
+        long heartbeatSteps = Math.max(1, config.idleMeterHeartbeat().toMillis() / config.step().toMillis());
+        // publishing happens just after the step boundary, so this is the same for every meter in a publish
+        return stepEpoch.current() % heartbeatSteps == 0;
     }
 
     @Override
@@ -49,7 +97,7 @@ public abstract class StepMeterRegistry extends PushMeterRegistry {
 
     @Override
     protected Counter newCounter(Meter.Id id) {
-        return new StepCounter(id, clock, config.step().toMillis());
+        return new StepCounter(id, stepEpoch);
     }
 
     @Override
@@ -62,7 +110,7 @@ public abstract class StepMeterRegistry extends PushMeterRegistry {
     @Override
     protected Timer newTimer(Meter.Id id, DistributionStatisticConfig distributionStatisticConfig, PauseDetector pauseDetector) {
         Timer timer = new StepTimer(id, clock, distributionStatisticConfig, pauseDetector, getBaseTimeUnit(),
-            this.config.step().toMillis(), false);
+            stepEpoch, false);
         HistogramGauges.registerWithCommonFormat(timer, this);
         return timer;
     }
@@ -70,19 +118,19 @@ public abstract class StepMeterRegistry extends PushMeterRegistry {
     @Override
     protected DistributionSummary newDistributionSummary(Meter.Id id, DistributionStatisticConfig distributionStatisticConfig, double scale) {
         DistributionSummary summary = new StepDistributionSummary(id, clock, distributionStatisticConfig, scale,
-            config.step().toMillis(), false);
+            stepEpoch, false);
         HistogramGauges.registerWithCommonFormat(summary, this);
         return summary;
     }
 
     @Override
     protected <T> FunctionTimer newFunctionTimer(Meter.Id id, T obj, ToLongFunction<T> countFunction, ToDoubleFunction<T> totalTimeFunction, TimeUnit totalTimeFunctionUnit) {
-        return new StepFunctionTimer<>(id, clock, config.step().toMillis(), obj, countFunction, totalTimeFunction, totalTimeFunctionUnit, getBaseTimeUnit());
+        return new StepFunctionTimer<>(id, clock, stepEpoch, obj, countFunction, totalTimeFunction, totalTimeFunctionUnit, getBaseTimeUnit());
     }
 
     @Override
     protected <T> FunctionCounter newFunctionCounter(Meter.Id id, T obj, ToDoubleFunction<T> countFunction) {
-        return new StepFunctionCounter<>(id, clock, config.step().toMillis(), obj, countFunction);
+        return new StepFunctionCounter<>(id, stepEpoch, obj, countFunction);
     }
 
     @Override
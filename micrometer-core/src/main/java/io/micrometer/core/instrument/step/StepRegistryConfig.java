@@ -15,11 +15,49 @@
  */
 package io.micrometer.core.instrument.step;
 
+import io.micrometer.core.instrument.config.validate.InvalidReason;
 import io.micrometer.core.instrument.config.validate.Validated;
 import io.micrometer.core.instrument.push.PushRegistryConfig;
 
+import java.time.Duration;
+
+import static io.micrometer.core.instrument.config.MeterRegistryConfigValidator.check;
+import static io.micrometer.core.instrument.config.MeterRegistryConfigValidator.checkAll;
+import static io.micrometer.core.instrument.config.validate.PropertyValidator.getBoolean;
+import static io.micrometer.core.instrument.config.validate.PropertyValidator.getDuration;
 
 public interface StepRegistryConfig extends PushRegistryConfig {
+    /**
+     * @return {@code true} if counters, timers, distribution summaries, function counters and function timers that
+     * recorded nothing in the last step are left out of a publish, rather than published as zeros. Every meter is
+     * still published once every {@link #idleMeterHeartbeat()}, so that backends don't see idle meters as gone. Only
+     * applies to registries that publish through
+     * {@link io.micrometer.core.instrument.push.PushMeterRegistry#publishBatches}. The default is {@code false}.
+     * @since 1.8.0
+     */
+    default boolean skipIdleMeters() {
+        return getBoolean(this, "skipIdleMeters").orElse(false);
+    }
+
+    /**
+     * @return How often idle meters are published anyway when {@link #skipIdleMeters()} is enabled, rounded down to a
+     * whole number of steps. Must be at least the step when idle meters are skipped. The default is 5 minutes, or the
+     * step if that is longer.
+     * @since 1.8.0
+     */
+    default Duration idleMeterHeartbeat() {
+        return getDuration(this, "idleMeterHeartbeat").orElseGet(() -> {
+            Duration step = step();
+            Duration fiveMinutes = Duration.ofMinutes(5);
+            return step.compareTo(fiveMinutes) > 0 ? step : fiveMinutes;
+        });
+    }
+
+    @Override
+    default Validated<?> validate() {
+        return validate(this);
+    }
+
     /**
      * Validate a provided configuration.
      *
@@ -28,6 +66,21 @@ public interface StepRegistryConfig extends PushRegistryConfig {
      * @since 1.5.0
      */
     static Validated<?> validate(StepRegistryConfig config) {
-        return PushRegistryConfig.validate(config);
+        return checkAll(config,
+                c -> PushRegistryConfig.validate(c),
+                c -> {
+                    Validated<Boolean> skipIdleMeters = check("skipIdleMeters", StepRegistryConfig::skipIdleMeters).apply(c);
+                    if (skipIdleMeters.isValid() && !Boolean.TRUE.equals(skipIdleMeters.get())) {
+                        // the heartbeat is only used when idle meters are skipped
+                        return skipIdleMeters;
+                    }
+                    return skipIdleMeters.and(check("idleMeterHeartbeat", StepRegistryConfig::idleMeterHeartbeat)
+                            .andThen(v -> v.invalidateWhen(heartbeat -> {
+                                Validated<Duration> step = check("step", StepRegistryConfig::step).apply(c);
+                                return step.isValid() && heartbeat.compareTo(step.get()) < 0;
+                            }, "must be at least the step", InvalidReason.MALFORMED))
+                            .apply(c));
+                }
+        );
     }
 }
@@ -54,9 +54,31 @@ public class StepTimer extends AbstractTimer {
         max = new TimeWindowMax(clock, distributionStatisticConfig);
     }
 
+    /**
+     * Create a new {@code StepTimer} whose steps are tracked by a registry-wide {@link StepEpoch}.
+     *
+     * @param id                            ID
+     * @param clock                         clock
+     * @param distributionStatisticConfig   distribution statistic configuration
+     * @param pauseDetector                 pause detector
+     * @param baseTimeUnit                  base time unit
+     * @param stepEpoch                     step shared by the meters of the registry
+     * @param supportsAggregablePercentiles whether it supports aggregable percentiles
+     * @since 1.8.0
+     */
+    public StepTimer(final Id id, final Clock clock, final DistributionStatisticConfig distributionStatisticConfig,
+        final PauseDetector pauseDetector, final TimeUnit baseTimeUnit, final StepEpoch stepEpoch,
+        final boolean supportsAggregablePercentiles
+    ) {
+        super(id, clock, distributionStatisticConfig, pauseDetector, baseTimeUnit, supportsAggregablePercentiles);
+        countTotal = new StepTuple2<>(stepEpoch, 0L, 0L, count::sumThenReset, total::sumThenReset);
+        max = new TimeWindowMax(clock, distributionStatisticConfig);
+    }
+
     @Override
     protected void recordNonNegative(final long amount, final TimeUnit unit) {
         final long nanoAmount = (long) TimeUtils.convert(amount, unit, TimeUnit.NANOSECONDS);
+        countTotal.rollBeforeRecording();
         count.add(1);
         total.add(nanoAmount);
         max.record(nanoAmount);
@@ -16,8 +16,9 @@
 package io.micrometer.core.instrument.step;
 
 import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.lang.Nullable;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.function.Supplier;
 
 /**
@@ -28,9 +29,17 @@ import java.util.function.Supplier;
  * @since 1.5.1
  */
 public class StepTuple2<T1, T2> {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<StepTuple2> lastInitPosUpdater =
+            AtomicLongFieldUpdater.newUpdater(StepTuple2.class, "lastInitPos");
+
     private final Clock clock;
     private final long stepMillis;
-    private AtomicLong lastInitPos;
+
+    @Nullable
+    private final StepEpoch epoch;
+
+    private volatile long lastInitPos;
 
     private final T1 t1NoValue;
     private final T2 t2NoValue;
@@ -54,13 +63,39 @@ public class StepTuple2<T1, T2> {
         this.t2Supplier = t2Supplier;
         this.t1Previous = t1NoValue;
         this.t2Previous = t2NoValue;
-        lastInitPos = new AtomicLong(clock.wallTime() / stepMillis);
+        this.epoch = null;
+        this.lastInitPos = clock.wallTime() / stepMillis;
+    }
+
+    /**
+     * @param epoch      The step shared by the meters of a registry.
+     * @param t1NoValue  The first value when a step didn't record anything.
+     * @param t2NoValue  The second value when a step didn't record anything.
+     * @param t1Supplier Supplies and resets the first value accumulated during the step.
+     * @param t2Supplier Supplies and resets the second value accumulated during the step.
+     * @since 1.8.0
+     */
+    public StepTuple2(StepEpoch epoch,
+                      T1 t1NoValue,
+                      T2 t2NoValue,
+                      Supplier<T1> t1Supplier,
+                      Supplier<T2> t2Supplier) {
+        this.clock = epoch.getClock();
+        this.stepMillis = epoch.getStepMillis();
+        this.t1NoValue = t1NoValue;
+        this.t2NoValue = t2NoValue;
+        this.t1Supplier = t1Supplier;
+        this.t2Supplier = t2Supplier;
+        this.t1Previous = t1NoValue;
+        this.t2Previous = t2NoValue;
+        this.epoch = epoch;
+        this.lastInitPos = epoch.current();
     }
 
-    private void rollCount(long now) {
-        long stepTime = now / stepMillis;
-        long lastInit = lastInitPos.get();
-        if (lastInit < stepTime && lastInitPos.compareAndSet(lastInit, stepTime)) {
+    private void rollCount() {
+        long stepTime = epoch != null ? epoch.current() : clock.wallTime() / stepMillis;
+        long lastInit = lastInitPos;
+        if (lastInit < stepTime && lastInitPosUpdater.compareAndSet(this, lastInit, stepTime)) {
             // Need to check if there was any activity during the previous step interval. If there was
             // then the init position will move forward by 1, otherwise it will be older. No activity
             // means the previous interval should be set to the `init` value.
@@ -69,11 +104,22 @@ public class StepTuple2<T1, T2> {
         }
     }
 
+    /**
+     * Rolls over to the step the epoch is in before a value is recorded, so that recordings made after a step boundary
+     * aren't counted in the step before it when nothing polled this at the boundary. Values that don't track a
+     * {@link StepEpoch} only roll over when polled.
+     */
+    void rollBeforeRecording() {
+        if (epoch != null) {
+            rollCount();
+        }
+    }
+
     /**
      * @return The value for the last completed interval.
      */
     public T1 poll1() {
-        rollCount(clock.wallTime());
+        rollCount();
         return t1Previous;
     }
 
@@ -81,7 +127,7 @@ public class StepTuple2<T1, T2> {
      * @return The value for the last completed interval.
      */
     public T2 poll2() {
-        rollCount(clock.wallTime());
+        rollCount();
         return t2Previous;
     }
 }
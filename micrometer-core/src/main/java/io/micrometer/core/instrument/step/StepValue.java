@@ -15,10 +15,11 @@
  */
 package io.micrometer.core.instrument.step;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.function.Supplier;
 
 import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.lang.Nullable;
 
 /**
  * Tracks 'values' for periods (steps) of time.  The previous step's value is
@@ -29,16 +30,35 @@ import io.micrometer.core.instrument.Clock;
  * @since 1.4.0
  */
 public abstract class StepValue<V> {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<StepValue> lastInitPosUpdater =
+            AtomicLongFieldUpdater.newUpdater(StepValue.class, "lastInitPos");
 
     private final Clock clock;
     private final long stepMillis;
-    private AtomicLong lastInitPos;
+
+    @Nullable
+    private final StepEpoch epoch;
+
+    private volatile long lastInitPos;
     private volatile V previous = noValue();
 
     public StepValue(final Clock clock, final long stepMillis) {
         this.clock = clock;
         this.stepMillis = stepMillis;
-        lastInitPos = new AtomicLong(clock.wallTime() / stepMillis);
+        this.epoch = null;
+        this.lastInitPos = clock.wallTime() / stepMillis;
+    }
+
+    /**
+     * @param epoch The step shared by the meters of a registry.
+     * @since 1.8.0
+     */
+    public StepValue(final StepEpoch epoch) {
+        this.clock = epoch.getClock();
+        this.stepMillis = epoch.getStepMillis();
+        this.epoch = epoch;
+        this.lastInitPos = epoch.current();
     }
 
     protected abstract Supplier<V> valueSupplier();
@@ -49,10 +69,10 @@ public abstract class StepValue<V> {
      */
     protected abstract V noValue();
 
-    private void rollCount(long now) {
-        final long stepTime = now / stepMillis;
-        final long lastInit = lastInitPos.get();
-        if (lastInit < stepTime && lastInitPos.compareAndSet(lastInit, stepTime)) {
+    private void rollCount() {
+        final long stepTime = epoch != null ? epoch.current() : clock.wallTime() / stepMillis;
+        final long lastInit = lastInitPos;
+        if (lastInit < stepTime && lastInitPosUpdater.compareAndSet(this, lastInit, stepTime)) {
             final V v = valueSupplier().get();
             // Need to check if there was any activity during the previous step interval. If there was
             // then the init position will move forward by 1, otherwise it will be older. No activity
@@ -61,11 +81,22 @@ public abstract class StepValue<V> {
         }
     }
 
+    /**
+     * Rolls over to the step the epoch is in before a value is recorded, so that recordings made after a step boundary
+     * aren't counted in the step before it when nothing polled this at the boundary. Values that don't track a
+     * {@link StepEpoch} only roll over when polled.
+     */
+    void rollBeforeRecording() {
+        if (epoch != null) {
+            rollCount();
+        }
+    }
+
     /**
      * @return The value for the last completed interval.
      */
     public V poll() {
-        rollCount(clock.wallTime());
+        rollCount();
         return previous;
     }
 }
@@ -18,7 +18,10 @@ package io.micrometer.core.instrument.util;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * {@link AbstractPartition} for {@link Meter}.
@@ -44,4 +47,80 @@ public class MeterPartition extends AbstractPartition<Meter> {
     public static List<List<Meter>> partition(MeterRegistry registry, int partitionSize) {
         return new MeterPartition(registry, partitionSize);
     }
+
+    /**
+     * Hand the meters of a registry to {@code consumer} in partitions of up to {@code partitionSize} meters. Unlike
+     * {@link #partition(MeterRegistry, int)}, meters are read straight from the registry with
+     * {@link MeterRegistry#forEachMeter(Consumer)} rather than first being copied into one list holding every meter,
+     * and a single list is reused for every partition, so a large registry is partitioned without allocating an array
+     * sized to hold all of its meters. Like {@code forEachMeter}, this is weakly consistent: meters added or removed
+     * while partitioning may or may not be included.
+     *
+     * @param registry      registry whose meters to partition
+     * @param partitionSize partition size
+     * @param consumer      consumer of each partition. The partition is only valid until the consumer returns, so a
+     *                      consumer that hands it to another thread or otherwise keeps it must copy it first.
+     * @since 1.8.0
+     */
+    public static void forEachPartition(MeterRegistry registry, int partitionSize, Consumer<List<Meter>> consumer) {
+        forEachPartition(registry, partitionSize, meter -> true, consumer);
+    }
+
+    /**
+     * Like {@link #forEachPartition(MeterRegistry, int, Consumer)}, leaving out meters that don't match
+     * {@code filter} so that every partition but the last is full.
+     *
+     * @param registry      registry whose meters to partition
+     * @param partitionSize partition size
+     * @param filter        which meters to include
+     * @param consumer      consumer of each partition. The partition is only valid until the consumer returns, so a
+     *                      consumer that hands it to another thread or otherwise keeps it must copy it first.
+     * @since 1.8.0
+     */
+    public static void forEachPartition(MeterRegistry registry, int partitionSize, Predicate<? super Meter> filter,
+                                        Consumer<List<Meter>> consumer) {
+        if (partitionSize < 1) throw new IllegalArgumentException("partitionSize < 1");
+        PartitionBuilder builder = new PartitionBuilder(partitionSize, consumer);
+        registry.forEachMeter(meter -> {
+            if (filter.test(meter)) {
+                builder.add(meter);
+            }
+        });
+        builder.flush();
+    }
+
+    private static class PartitionBuilder {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final int partitionSize;
+        private final Consumer<List<Meter>> consumer;
+        private final ArrayList<Meter> partition;
+
+        PartitionBuilder(int partitionSize, Consumer<List<Meter>> consumer) {
+            this.partitionSize = partitionSize;
+            this.consumer = consumer;
+            this.partition = new ArrayList<>(Math.min(partitionSize, INITIAL_CAPACITY));
+        }
+
+        void add(Meter meter) {
+            if (partition.size() == INITIAL_CAPACITY) {
+                // small registries with a large partition size stay cheap, and large ones grow to a full partition once
+                partition.ensureCapacity(partitionSize);
+            }
+            partition.add(meter);
+            if (partition.size() == partitionSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!partition.isEmpty()) {
+                try {
+                    consumer.accept(partition);
+                } finally {
+                    partition.clear();
+                }
+            }
+        }
+    }
 }
@@ -19,17 +19,23 @@ import io.micrometer.core.instrument.util.StringUtils;
 import io.micrometer.core.lang.Nullable;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 import java.util.zip.GZIPOutputStream;
 
 /**
@@ -74,12 +80,35 @@ public interface HttpSender {
     class Request {
         private final URL url;
         private final byte[] entity;
+
+        @Nullable
+        private final EntityWriter entityWriter;
+
         private final Method method;
         private final Map<String, String> requestHeaders;
 
         public Request(URL url, byte[] entity, Method method, Map<String, String> requestHeaders) {
             this.url = url;
             this.entity = entity;
+            this.entityWriter = null;
+            this.method = method;
+            this.requestHeaders = requestHeaders;
+        }
+
+        /**
+         * Create a request whose body is written by the sender straight to the connection, rather than copied into
+         * an array first.
+         *
+         * @param url            The URL of the request.
+         * @param entityWriter   Writes the request body. It may be called more than once, e.g. to print the request.
+         * @param method         The request method.
+         * @param requestHeaders The request headers.
+         * @since 1.8.0
+         */
+        public Request(URL url, EntityWriter entityWriter, Method method, Map<String, String> requestHeaders) {
+            this.url = url;
+            this.entity = new byte[0];
+            this.entityWriter = entityWriter;
             this.method = method;
             this.requestHeaders = requestHeaders;
         }
@@ -88,8 +117,36 @@ public interface HttpSender {
             return url;
         }
 
+        /**
+         * @return The request body. A streaming body is written to a new array for every call, senders should
+         * rather {@link #writeEntity(OutputStream) write it} to the connection.
+         */
         public byte[] getEntity() {
-            return entity;
+            return entityWriter == null ? entity : entityWriter.toByteArray();
+        }
+
+        /**
+         * @return The writer of the request body if it is streamed, in which case its length isn't known upfront.
+         * @since 1.8.0
+         */
+        @Nullable
+        public EntityWriter getEntityWriter() {
+            return entityWriter;
+        }
+
+        /**
+         * Write the request body, whether it is streamed or not.
+         *
+         * @param outputStream Where to write the request body. It is neither flushed nor closed.
+         * @throws IOException if writing fails
+         * @since 1.8.0
+         */
+        public void writeEntity(OutputStream outputStream) throws IOException {
+            if (entityWriter != null) {
+                entityWriter.write(outputStream);
+            } else {
+                outputStream.write(entity);
+            }
         }
 
         public Method getMethod() {
@@ -108,6 +165,7 @@ public interface HttpSender {
         public String toString() {
             StringBuilder printed = new StringBuilder(method.toString()).append(' ')
                     .append(url.toString()).append("\n");
+            byte[] entity = getEntity();
             if (entity.length == 0) {
                 printed.append("<no request body>");
             } else {
@@ -124,6 +182,10 @@ public interface HttpSender {
             private final HttpSender sender;
 
             private byte[] entity = new byte[0];
+
+            @Nullable
+            private EntityWriter entityWriter;
+
             private Method method;
             private Map<String, String> requestHeaders = new LinkedHashMap<>();
 
@@ -174,6 +236,18 @@ public interface HttpSender {
                 return withContent(APPLICATION_JSON, content);
             }
 
+            /**
+             * Set a request body of JSON content type that is written straight to the connection when the request is
+             * sent.
+             *
+             * @param content Writes the request body.
+             * @return This request builder.
+             * @since 1.8.0
+             */
+            public final Builder withJsonContent(EntityWriter content) {
+                return withContent(APPLICATION_JSON, content);
+            }
+
             /**
              * Set the request body as plain text content type.
              *
@@ -184,6 +258,18 @@ public interface HttpSender {
                 return withContent(TEXT_PLAIN, content);
             }
 
+            /**
+             * Set a request body of plain text content type that is written straight to the connection when the
+             * request is sent.
+             *
+             * @param content Writes the request body.
+             * @return This request builder.
+             * @since 1.8.0
+             */
+            public final Builder withPlainText(EntityWriter content) {
+                return withContent(TEXT_PLAIN, content);
+            }
+
             /**
              * Set the request body.
              *
@@ -205,6 +291,22 @@ public interface HttpSender {
             public final Builder withContent(String type, byte[] content) {
                 withHeader("Content-Type", type);
                 entity = content;
+                entityWriter = null;
+                return this;
+            }
+
+            /**
+             * Set a request body that is written straight to the connection when the request is sent.
+             *
+             * @param type         The value of the "Content-Type" header to add.
+             * @param entityWriter Writes the request body.
+             * @return This request builder.
+             * @since 1.8.0
+             */
+            public final Builder withContent(String type, EntityWriter entityWriter) {
+                withHeader("Content-Type", type);
+                this.entity = new byte[0];
+                this.entityWriter = entityWriter;
                 return this;
             }
 
@@ -239,14 +341,19 @@ public interface HttpSender {
             }
 
             /**
-             * Add a "Content-Encoding" header of "gzip" and compress the request body.
+             * Add a "Content-Encoding" header of "gzip" and compress the request body. A streaming request body is
+             * compressed as it is written.
              *
              * @return This request builder.
              * @throws IOException If compression fails.
              */
             public final Builder compress() throws IOException {
                 withHeader("Content-Encoding", "gzip");
-                this.entity = gzip(entity);
+                if (entityWriter != null) {
+                    this.entityWriter = gzip(entityWriter);
+                } else {
+                    this.entity = gzip(entity);
+                }
                 return this;
             }
 
@@ -272,13 +379,146 @@ public interface HttpSender {
                 return bos.toByteArray();
             }
 
+            private static EntityWriter gzip(EntityWriter entityWriter) {
+                return outputStream -> {
+                    try (GZIPOutputStream out = new GZIPOutputStream(new NonClosingOutputStream(outputStream), 8192)) {
+                        entityWriter.write(out);
+                    }
+                };
+            }
+
             public final Builder print() {
-                System.out.println(new Request(url, entity, method, requestHeaders));
+                System.out.println(toRequest());
                 return this;
             }
 
             public Response send() throws Throwable {
-                return sender.send(new Request(url, entity, method, requestHeaders));
+                return sender.send(toRequest());
+            }
+
+            private Request toRequest() {
+                return entityWriter != null ?
+                        new Request(url, entityWriter, method, requestHeaders) :
+                        new Request(url, entity, method, requestHeaders);
+            }
+        }
+
+        /**
+         * Writes a request body as it is sent.
+         *
+         * @since 1.8.0
+         */
+        @FunctionalInterface
+        public interface EntityWriter {
+            /**
+             * @param outputStream Where to write the request body. It must not be closed.
+             * @throws IOException if writing fails
+             */
+            void write(OutputStream outputStream) throws IOException;
+
+            /**
+             * @return The request body written to a new array, e.g. to log it.
+             */
+            default byte[] toByteArray() {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                try {
+                    write(bos);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return bos.toByteArray();
+            }
+
+            /**
+             * A request body made of parts joined the way
+             * {@link java.util.stream.Collectors#joining(CharSequence, CharSequence, CharSequence)} would join them,
+             * written in UTF-8 straight to a byte buffer, so that a batch of meters is never held in memory as one
+             * string as well as its bytes. The parts are consumed once, when the body is first written, and the
+             * buffered bytes are written again for retries or to log the body.
+             *
+             * @param parts     The parts of the body. They are consumed at most once.
+             * @param delimiter Written between parts.
+             * @param prefix    Written before the first part.
+             * @param suffix    Written after the last part.
+             * @return A writer of the joined parts.
+             */
+            static EntityWriter joining(Stream<String> parts, String delimiter, String prefix, String suffix) {
+                return new JoiningEntityWriter(parts, delimiter, prefix, suffix);
+            }
+        }
+
+        private static class JoiningEntityWriter implements EntityWriter {
+            private final String delimiter;
+            private final String prefix;
+            private final String suffix;
+
+            // Guarded by this
+            @Nullable
+            private Stream<String> parts;
+
+            // Guarded by this
+            @Nullable
+            private ByteArrayOutputStream body;
+
+            JoiningEntityWriter(Stream<String> parts, String delimiter, String prefix, String suffix) {
+                this.parts = parts;
+                this.delimiter = delimiter;
+                this.prefix = prefix;
+                this.suffix = suffix;
+            }
+
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                body().writeTo(outputStream);
+            }
+
+            @Override
+            public byte[] toByteArray() {
+                return body().toByteArray();
+            }
+
+            private synchronized ByteArrayOutputStream body() {
+                if (body == null) {
+                    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                    try (Stream<String> joined = parts) {
+                        Writer writer = new OutputStreamWriter(bos, StandardCharsets.UTF_8);
+                        writer.write(prefix);
+                        Iterator<String> iterator = joined.iterator();
+                        if (iterator.hasNext()) {
+                            writer.write(iterator.next());
+                            while (iterator.hasNext()) {
+                                writer.write(delimiter);
+                                writer.write(iterator.next());
+                            }
+                        }
+                        writer.write(suffix);
+                        writer.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    body = bos;
+                    parts = null;
+                }
+                return body;
+            }
+        }
+
+        /**
+         * Lets the compression of a streaming request body be finished without closing the connection.
+         */
+        private static class NonClosingOutputStream extends FilterOutputStream {
+            NonClosingOutputStream(OutputStream out) {
+                super(out);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
             }
         }
     }
@@ -93,8 +93,12 @@ public class HttpUrlConnectionSender implements HttpSender {
 
             if (method != Method.GET) {
                 con.setDoOutput(true);
+                if (request.getEntityWriter() != null) {
+                    // otherwise the whole body is buffered to set its length
+                    con.setChunkedStreamingMode(0);
+                }
                 try (OutputStream os = con.getOutputStream()) {
-                    os.write(request.getEntity());
+                    request.writeEntity(os);
                     os.flush();
                 }
             }
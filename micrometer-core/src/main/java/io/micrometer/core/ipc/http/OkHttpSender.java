@@ -16,7 +16,9 @@
 package io.micrometer.core.ipc.http;
 
 import okhttp3.*;
+import okio.BufferedSink;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -48,15 +50,16 @@ public class OkHttpSender implements HttpSender {
             requestBuilder.addHeader(requestHeader.getKey(), requestHeader.getValue());
         }
 
-        byte[] entity = request.getEntity();
         Method method = request.getMethod();
         String methodValue = method.toString();
-        if (entity.length > 0) {
+        HttpSender.Request.EntityWriter entityWriter = request.getEntityWriter();
+        byte[] entity = entityWriter != null ? null : request.getEntity();
+        if (entityWriter != null || entity.length > 0) {
             String contentType = request.getRequestHeaders().get("Content-Type");
             MediaType mediaType = contentType != null
                     ? MediaType.get(contentType + "; charset=utf-8")
                     : MEDIA_TYPE_APPLICATION_JSON;
-            RequestBody body = RequestBody.create(entity, mediaType);
+            RequestBody body = entityWriter != null ? new StreamingRequestBody(mediaType, entityWriter) : RequestBody.create(entity, mediaType);
             requestBuilder.method(methodValue, body);
         } else {
             if (requiresRequestBody(method)) {
@@ -71,6 +74,29 @@ public class OkHttpSender implements HttpSender {
         return new Response(response.code(), response.body() == null ? null : response.body().string());
     }
 
+    /**
+     * A request body written straight to the connection, in chunks since its length isn't known upfront.
+     */
+    private static class StreamingRequestBody extends RequestBody {
+        private final MediaType mediaType;
+        private final HttpSender.Request.EntityWriter entityWriter;
+
+        StreamingRequestBody(MediaType mediaType, HttpSender.Request.EntityWriter entityWriter) {
+            this.mediaType = mediaType;
+            this.entityWriter = entityWriter;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return mediaType;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            entityWriter.write(sink.outputStream());
+        }
+    }
+
     private static boolean requiresRequestBody(Method method) {
         switch (method) {
             case POST:
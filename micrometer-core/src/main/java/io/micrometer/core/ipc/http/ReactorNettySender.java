@@ -15,11 +15,22 @@
  */
 package io.micrometer.core.ipc.http;
 
+import io.micrometer.core.lang.Nullable;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.handler.codec.http.HttpMethod;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Schedulers;
 import reactor.netty.http.client.HttpClient;
 import reactor.util.function.Tuple2;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
 /**
  * {@link HttpSender} implementation based on the Reactor Netty {@link HttpClient}.
  *
@@ -44,6 +55,9 @@ public class ReactorNettySender implements HttpSender {
                 .uri(request.getUrl().toString())
                 .send((httpClientRequest, nettyOutbound) -> {
                     request.getRequestHeaders().forEach(httpClientRequest::addHeader);
+                    if (request.getEntityWriter() != null) {
+                        return nettyOutbound.send(writeInChunks(request, nettyOutbound.alloc()));
+                    }
                     return nettyOutbound.sendByteArray(Mono.just(request.getEntity()));
                 })
                 .responseSingle((r, body) -> Mono.just(r.status().code()).zipWith(body.asString().defaultIfEmpty("")))
@@ -52,6 +66,28 @@ public class ReactorNettySender implements HttpSender {
         return new Response(response.getT1(), response.getT2());
     }
 
+    /**
+     * Writes a streamed request body into chunks of the connection's allocator, each emitted once the connection asks
+     * for it, so that only the chunks the connection has asked for are held in memory rather than the whole body.
+     */
+    private static Flux<ByteBuf> writeInChunks(Request request, ByteBufAllocator allocator) {
+        return Flux.<ByteBuf>create(sink -> {
+            ChunkOutputStream outputStream = new ChunkOutputStream(sink, allocator);
+            sink.onRequest(outputStream::request);
+            sink.onDispose(outputStream::dispose);
+            try {
+                request.writeEntity(outputStream);
+                outputStream.finish();
+                sink.complete();
+            } catch (Throwable e) {
+                outputStream.release();
+                sink.error(e);
+            }
+        })
+                // the writer waits for the connection to ask for more chunks, which must not happen on an event loop
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
     private HttpMethod toNettyHttpMethod(Method method) {
         switch (method) {
             case PUT:
@@ -70,4 +106,102 @@ public class ReactorNettySender implements HttpSender {
                 throw new UnsupportedOperationException("http method " + method.toString() + " is not supported by the reactor netty client");
         }
     }
+
+    private static class ChunkOutputStream extends OutputStream {
+        private static final int CHUNK_SIZE = 8192;
+
+        private final FluxSink<ByteBuf> sink;
+        private final ByteBufAllocator allocator;
+
+        // only accessed by the writing thread
+        @Nullable
+        private ByteBuf chunk;
+
+        // Guarded by this
+        private long requested;
+
+        // Guarded by this
+        private boolean disposed;
+
+        ChunkOutputStream(FluxSink<ByteBuf> sink, ByteBufAllocator allocator) {
+            this.sink = sink;
+            this.allocator = allocator;
+        }
+
+        synchronized void request(long n) {
+            requested = Operators.addCap(requested, n);
+            notifyAll();
+        }
+
+        synchronized void dispose() {
+            disposed = true;
+            notifyAll();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ByteBuf chunk = chunk();
+            chunk.writeByte(b);
+            if (chunk.writableBytes() == 0) {
+                emit();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                ByteBuf chunk = chunk();
+                int written = Math.min(len, chunk.writableBytes());
+                chunk.writeBytes(b, off, written);
+                off += written;
+                len -= written;
+                if (chunk.writableBytes() == 0) {
+                    emit();
+                }
+            }
+        }
+
+        void finish() throws IOException {
+            if (chunk != null && chunk.readableBytes() > 0) {
+                emit();
+            }
+            release();
+        }
+
+        void release() {
+            if (chunk != null) {
+                chunk.release();
+                chunk = null;
+            }
+        }
+
+        private ByteBuf chunk() {
+            if (chunk == null) {
+                chunk = allocator.buffer(CHUNK_SIZE, CHUNK_SIZE);
+            }
+            return chunk;
+        }
+
+        private void emit() throws IOException {
+            synchronized (this) {
+                while (requested == 0 && !disposed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+                if (disposed) {
+                    throw new IOException("the request was cancelled while its body was being written");
+                }
+                if (requested != Long.MAX_VALUE) {
+                    requested--;
+                }
+            }
+            ByteBuf full = chunk;
+            chunk = null;
+            sink.next(full);
+        }
+    }
 }
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CoarseClock}.
+ */
+class CoarseClockTest {
+
+    @Test
+    void readsTheSourceClockOncePerTick() {
+        MockClock source = new MockClock();
+        // a tick long enough that the ticker thread doesn't run during the test
+        try (CoarseClock clock = new CoarseClock(source, Duration.ofHours(1))) {
+            long start = clock.monotonicTime();
+            assertThat(start).isEqualTo(source.monotonicTime());
+
+            source.add(Duration.ofMillis(5));
+            assertThat(clock.monotonicTime()).isEqualTo(start);
+
+            clock.tick();
+            assertThat(clock.monotonicTime() - start).isEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+            assertThat(clock.wallTime()).isEqualTo(source.wallTime());
+        }
+    }
+
+    @Test
+    void readsTheSourceClockOnceClosed() {
+        MockClock source = new MockClock();
+        CoarseClock clock = new CoarseClock(source, Duration.ofHours(1));
+        clock.close();
+
+        source.add(Duration.ofMillis(5));
+        assertThat(clock.monotonicTime()).isEqualTo(source.monotonicTime());
+        assertThat(clock.wallTime()).isEqualTo(source.wallTime());
+    }
+
+    @Test
+    void timeSamplesToWithinATick() throws InterruptedException {
+        try (CoarseClock clock = new CoarseClock(Duration.ofMillis(1))) {
+            MeterRegistry registry = new SimpleMeterRegistry();
+            Timer timer = registry.timer("my.timer");
+
+            Timer.Sample sample = Timer.start(clock);
+            Thread.sleep(50);
+            sample.stop(timer);
+
+            assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isGreaterThan(40.0);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MeterProvider}.
+ */
+class MeterProviderTest {
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void timerProviderAddsTagsToBaseTags() {
+        MeterProvider<Timer> provider = Timer.builder("my.timer")
+                .tag("base", "tag")
+                .description("my description")
+                .withRegistry(registry);
+
+        Timer timer = provider.withTag("status", "200");
+        assertThat(provider.withTag("status", "200")).isSameAs(timer);
+        assertThat(provider.withTags("status", "500")).isNotSameAs(timer);
+
+        assertThat(registry.get("my.timer").tags("base", "tag", "status", "200").timer()).isSameAs(timer);
+        assertThat(timer.getId().getDescription()).isEqualTo("my description");
+    }
+
+    @Test
+    void counterProviderReturnsSameMeterAsBuilder() {
+        MeterProvider<Counter> provider = Counter.builder("my.counter").baseUnit("requests").withRegistry(registry);
+
+        Counter counter = provider.withTags(Tags.of("k", "v"));
+        assertThat(Counter.builder("my.counter").tag("k", "v").register(registry)).isSameAs(counter);
+        assertThat(counter.getId().getBaseUnit()).isEqualTo("requests");
+    }
+
+    @Test
+    void distributionSummaryProviderKeepsDistributionConfig() {
+        MeterProvider<DistributionSummary> provider = DistributionSummary.builder("my.summary")
+                .scale(2)
+                .publishPercentiles(0.5)
+                .withRegistry(registry);
+
+        DistributionSummary summary = provider.withTag("k", "v");
+        summary.record(1);
+        assertThat(summary.totalAmount()).isEqualTo(2);
+        assertThat(registry.get("my.summary.percentile").tags("k", "v").gauge()).isNotNull();
+    }
+
+    @Test
+    void builderChangesAfterBindingDoNotAffectProvider() {
+        Counter.Builder builder = Counter.builder("my.counter").tag("base", "tag");
+        MeterProvider<Counter> provider = builder.withRegistry(registry);
+        builder.tag("other", "tag");
+
+        assertThat(provider.withTag("k", "v").getId().getTags()).containsExactlyInAnyOrder(
+                Tag.of("base", "tag"), Tag.of("k", "v"));
+    }
+
+    @Test
+    void removedMeterIsNotReturnedFromCache() {
+        MeterProvider<Counter> provider = Counter.builder("my.counter").withRegistry(registry);
+
+        Counter counter = provider.withTag("k", "v");
+        registry.remove(counter);
+
+        Counter newCounter = provider.withTag("k", "v");
+        assertThat(newCounter).isNotSameAs(counter);
+        assertThat(registry.get("my.counter").counter()).isSameAs(newCounter);
+    }
+
+    @Test
+    void addedMeterFilterAppliesToCachedMeters() {
+        MeterProvider<Counter> provider = Counter.builder("my.counter").withRegistry(registry);
+        Counter counter = provider.withTag("k", "v");
+
+        registry.config().meterFilter(MeterFilter.commonTags(Tags.of("common", "tag")));
+
+        Counter newCounter = provider.withTag("k", "v");
+        assertThat(newCounter).isNotSameAs(counter);
+        assertThat(registry.get("my.counter").tags("common", "tag").counter()).isSameAs(newCounter);
+    }
+}
@@ -26,6 +26,9 @@ import org.junit.jupiter.api.Test;
 
 import javax.annotation.Nonnull;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -206,4 +209,74 @@ class MeterRegistryTest {
                 .hasMessage("There is already a registered meter of a different type (CumulativeCounter vs. Timer) with the same name: my.dupe.meter")
                 .hasNoCause();
     }
+
+    @Test
+    void meterFiltersAreNotAppliedAgainForExistingMeter() {
+        AtomicInteger mapCount = new AtomicInteger();
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                mapCount.incrementAndGet();
+                return id.withName("prefix." + id.getName());
+            }
+        });
+
+        Counter counter = registry.counter("my.counter", "k", "v");
+        assertThat(registry.counter("my.counter", "k", "v")).isSameAs(counter);
+        assertThat(registry.counter("my.counter", "k", "v")).isSameAs(counter);
+        assertThat(mapCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    void addingMeterFilterInvalidatesPreFilterIdCache() {
+        Counter counter = registry.counter("my.counter");
+        assertThat(registry.counter("my.counter")).isSameAs(counter);
+
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                return id.withName("another.name");
+            }
+        });
+
+        Counter mappedCounter = registry.counter("my.counter");
+        assertThat(mappedCounter).isNotSameAs(counter);
+        assertThat(registry.find("another.name").counter()).isSameAs(mappedCounter);
+    }
+
+    @Test
+    void removingMeterEvictsItFromPreFilterIdCache() {
+        registry.config().meterFilter(MeterFilter.commonTags(Tags.of("common", "tag")));
+
+        Counter counter = registry.counter("my.counter");
+        assertThat(registry.counter("my.counter")).isSameAs(counter);
+        assertThat(registry.remove(counter)).isSameAs(counter);
+
+        Counter newCounter = registry.counter("my.counter");
+        assertThat(newCounter).isNotSameAs(counter);
+        assertThat(registry.get("my.counter").tags("common", "tag").counter()).isSameAs(newCounter);
+    }
+
+    @Test
+    void preFilterIdCacheIsBoundedForIdsFoldedIntoOneMeter() {
+        registry.config().meterFilter(MeterFilter.ignoreTags("uri"));
+
+        Counter counter = registry.counter("my.counter", "uri", "/users/0");
+        for (int i = 1; i < 1000; i++) {
+            assertThat(registry.counter("my.counter", "uri", "/users/" + i)).isSameAs(counter);
+        }
+
+        assertThat(registry.getMeters()).hasSize(1);
+        assertThat(registry.preFilterIdCacheSize()).isEqualTo(MeterRegistry.MAX_PRE_FILTER_IDS_PER_METER);
+    }
+
+    @Test
+    void deniedMetersAreNotCached() {
+        AtomicBoolean deny = new AtomicBoolean(true);
+        registry.config().meterFilter(MeterFilter.deny(id -> deny.get()));
+
+        assertThat(registry.counter("my.counter")).isInstanceOf(NoopCounter.class);
+        deny.set(false);
+        assertThat(registry.counter("my.counter")).isNotInstanceOf(NoopCounter.class);
+    }
 }
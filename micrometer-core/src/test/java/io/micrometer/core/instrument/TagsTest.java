@@ -216,6 +216,51 @@ class TagsTest {
         assertTags(merged, "t1", "v3", "t2", "v2");
     }
 
+    @Test
+    void andTagsShouldMergeInterleavedKeys() {
+        Tags source = Tags.of("t1", "v1", "t3", "v3", "t5", "v5");
+        Tags merged = source.and(Tags.of("t4", "v4", "t2", "v2", "t6", "v6", "t0", "v0"));
+        assertTags(merged, "t0", "v0", "t1", "v1", "t2", "v2", "t3", "v3", "t4", "v4", "t5", "v5", "t6", "v6");
+    }
+
+    @Test
+    void andSingleTagWhenAlreadyContainsKeyShouldReplaceValue() {
+        Tags source = Tags.of("t1", "v1", "t2", "v2", "t3", "v3");
+        Tags merged = source.and("t2", "v4");
+        assertTags(source, "t1", "v1", "t2", "v2", "t3", "v3");
+        assertTags(merged, "t1", "v1", "t2", "v4", "t3", "v3");
+        assertThat(merged).isEqualTo(Tags.of("t3", "v3", "t2", "v4", "t1", "v1"));
+        assertThat(merged.hashCode()).isEqualTo(Tags.of("t3", "v3", "t2", "v4", "t1", "v1").hashCode());
+    }
+
+    @Test
+    void andTagsShouldNotModifyArgument() {
+        Tag[] tags = new Tag[]{Tag.of("t3", "v3"), Tag.of("t2", "v2")};
+        Tags merged = Tags.of("t1", "v1").and(tags);
+        assertTags(merged, "t1", "v1", "t2", "v2", "t3", "v3");
+        assertThat(tags).containsExactly(Tag.of("t3", "v3"), Tag.of("t2", "v2"));
+    }
+
+    @Test
+    void internerShouldReturnCanonicalInstance() {
+        TagsInterner interner = new TagsInterner(10);
+        Tags tags = interner.intern("t1", "v1", "t2", "v2");
+        assertThat(interner.intern(Tags.of("t2", "v2", "t1", "v1"))).isSameAs(tags);
+        assertThat(interner.intern(Tags.of("t1", "v1"))).isNotSameAs(tags);
+        assertThat(interner.size()).isEqualTo(2);
+    }
+
+    @Test
+    void internerShouldNotGrowBeyondMaxSize() {
+        TagsInterner interner = new TagsInterner(1);
+        Tags tags = interner.intern("t1", "v1");
+        Tags other = Tags.of("t2", "v2");
+        assertThat(interner.intern(other)).isSameAs(other);
+        assertThat(interner.intern(Tags.of("t2", "v2"))).isNotSameAs(other);
+        assertThat(interner.intern(Tags.of("t1", "v1"))).isSameAs(tags);
+        assertThat(interner.size()).isEqualTo(1);
+    }
+
     @Test
     void iteratorShouldIterateTags() {
         Tags tags = Tags.of("t1", "v1");
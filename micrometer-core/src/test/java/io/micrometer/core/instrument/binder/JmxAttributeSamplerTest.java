@@ -0,0 +1,175 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.binder;
+
+import io.micrometer.core.instrument.MockClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.*;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link JmxAttributeSampler}.
+ */
+class JmxAttributeSamplerTest {
+    private final MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+    private final CountingMBean mBean = new CountingMBean();
+    private final MockClock clock = new MockClock();
+    private ObjectName objectName;
+    private JmxAttributeSampler sampler;
+
+    @BeforeEach
+    void registerMBean() throws JMException {
+        objectName = new ObjectName("test:type=Pool,name=pool");
+        mBeanServer.registerMBean(mBean, objectName);
+        sampler = new JmxAttributeSampler(mBeanServer, objectName, clock, Duration.ofSeconds(1));
+
+        mBean.values.put("NumIdle", 1);
+        mBean.values.put("NumActive", 2L);
+        mBean.values.put("MeanIdleTimeMillis", "3");
+        mBean.values.put("FactoryType", "com.example.Factory");
+    }
+
+    @Test
+    void fetchAllAttributesOncePerMaxAge() {
+        assertThat(sampler.get("NumIdle")).isEqualTo(1);
+        assertThat(sampler.get("NumActive")).isEqualTo(2);
+        assertThat(sampler.get("MeanIdleTimeMillis")).isEqualTo(3);
+        // each attribute read for the first time is fetched on its own
+        assertThat(mBean.fetches).isEqualTo(3);
+
+        mBean.fetches = 0;
+        mBean.values.put("NumIdle", 4);
+        mBean.values.put("NumActive", 5L);
+        clock.add(Duration.ofSeconds(1));
+
+        assertThat(sampler.get("NumIdle")).isEqualTo(4);
+        assertThat(sampler.get("NumActive")).isEqualTo(5);
+        assertThat(sampler.get("MeanIdleTimeMillis")).isEqualTo(3);
+        assertThat(mBean.fetches).isEqualTo(1);
+    }
+
+    @Test
+    void repeatedReadsWithinMaxAgeShareOneSample() {
+        sampler.get("NumIdle");
+        sampler.get("NumActive");
+        clock.add(Duration.ofSeconds(1));
+
+        mBean.fetches = 0;
+        // e.g. a function timer's count and total read for several statistics, or by several registries
+        for (int i = 0; i < 5; i++) {
+            assertThat(sampler.get("NumIdle")).isEqualTo(1);
+            assertThat(sampler.get("NumActive")).isEqualTo(2);
+            assertThat(sampler.get("NumIdle")).isEqualTo(1);
+        }
+        assertThat(mBean.fetches).isEqualTo(1);
+    }
+
+    @Test
+    void fetchAgainWhenSampleIsOlderThanMaxAge() {
+        sampler.get("NumIdle");
+        sampler.get("NumActive");
+
+        mBean.fetches = 0;
+        mBean.values.put("NumActive", 6L);
+        assertThat(sampler.get("NumActive")).isEqualTo(2);
+        clock.add(Duration.ofSeconds(1));
+
+        assertThat(sampler.get("NumActive")).isEqualTo(6);
+        assertThat(mBean.fetches).isEqualTo(1);
+    }
+
+    @Test
+    void fetchOnEveryReadByDefault() {
+        JmxAttributeSampler exact = new JmxAttributeSampler(mBeanServer, objectName);
+
+        assertThat(exact.get("NumIdle")).isEqualTo(1);
+        assertThat(exact.get("NumActive")).isEqualTo(2);
+        mBean.values.put("NumIdle", 4);
+
+        assertThat(exact.get("NumIdle")).isEqualTo(4);
+        assertThat(mBean.fetches).isEqualTo(3);
+    }
+
+    @Test
+    void missingOrNonNumericAttributesAreNaN() {
+        assertThat(sampler.get("DoesNotExist")).isNaN();
+        assertThat(sampler.get("FactoryType")).isNaN();
+        assertThat(sampler.get("NumIdle")).isEqualTo(1);
+    }
+
+    @Test
+    void unregisteredMBean() throws JMException {
+        sampler.get("NumIdle");
+        assertThat(sampler.isRegistered()).isTrue();
+
+        mBeanServer.unregisterMBean(objectName);
+        clock.add(Duration.ofSeconds(1));
+        assertThat(sampler.get("NumIdle")).isNaN();
+        assertThat(sampler.isRegistered()).isFalse();
+    }
+
+    static class CountingMBean implements DynamicMBean {
+        final Map<String, Object> values = new HashMap<>();
+        int fetches;
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Object value = values.get(attribute);
+            if (value == null) {
+                throw new AttributeNotFoundException(attribute);
+            }
+            return value;
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            fetches++;
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                if (values.containsKey(attribute)) {
+                    list.add(new Attribute(attribute, values.get(attribute)));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            return new MBeanInfo(CountingMBean.class.getName(), null, null, null, null, null);
+        }
+    }
+}
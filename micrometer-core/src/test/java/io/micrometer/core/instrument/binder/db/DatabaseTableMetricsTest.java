@@ -16,6 +16,8 @@
 package io.micrometer.core.instrument.binder.db;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.hsqldb.jdbc.JDBCDataSource;
 import org.junit.jupiter.api.AfterEach;
@@ -24,8 +26,11 @@ import org.junit.jupiter.api.Test;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 /**
  * @author Jon Schneider
@@ -71,4 +76,61 @@ class DatabaseTableMetricsTest {
                 .tag("db", "mydb")
                 .gauge().value()).isEqualTo(0.0);
     }
+
+    @Test
+    void rowCountGaugeRefreshedInBackground() throws SQLException {
+        try (DatabaseTableMetrics metrics = new DatabaseTableMetrics(ds, DatabaseTableMetrics.RowCountQuery.exact(),
+                "mydb", "foo", Tags.empty(), Duration.ofHours(1), Duration.ofSeconds(5))) {
+            metrics.bindTo(registry);
+
+            // counted once on bind, then only after the refresh interval
+            await().atMost(5, TimeUnit.SECONDS).until(() -> registry.find("db.table.size.query").timers().stream()
+                    .mapToLong(Timer::count).sum() == 1);
+            try (Connection conn = ds.getConnection()) {
+                conn.prepareStatement("INSERT INTO foo VALUES (2)").executeUpdate();
+            }
+            assertThat(registry.get("db.table.size")
+                    .tag("table", "foo")
+                    .tag("db", "mydb")
+                    .gauge().value()).isEqualTo(1.0);
+
+            metrics.refresh();
+            assertThat(registry.get("db.table.size")
+                    .tag("table", "foo")
+                    .tag("db", "mydb")
+                    .gauge().value()).isEqualTo(2.0);
+            assertThat(registry.get("db.table.size.staleness")
+                    .tag("table", "foo")
+                    .tag("db", "mydb")
+                    .timeGauge().value(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(0);
+            assertThat(registry.get("db.table.size.query")
+                    .tag("table", "foo")
+                    .tag("db", "mydb")
+                    .tag("exception", "none")
+                    .timer().count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void rowCountGaugeRefreshedInBackgroundForNonExistentTable() {
+        try (DatabaseTableMetrics metrics = new DatabaseTableMetrics(ds, DatabaseTableMetrics.RowCountQuery.exact(),
+                "mydb", "dne", Tags.empty(), Duration.ofHours(1), Duration.ofSeconds(5))) {
+            metrics.bindTo(registry);
+
+            await().atMost(5, TimeUnit.SECONDS).until(() -> registry.find("db.table.size.query").timers().stream()
+                    .mapToLong(Timer::count).sum() == 1);
+            assertThat(registry.get("db.table.size")
+                    .tag("table", "dne")
+                    .tag("db", "mydb")
+                    .gauge().value()).isNaN();
+            assertThat(registry.get("db.table.size.staleness")
+                    .tag("table", "dne")
+                    .tag("db", "mydb")
+                    .timeGauge().value(TimeUnit.MILLISECONDS)).isNaN();
+            assertThat(registry.get("db.table.size.query")
+                    .tag("table", "dne")
+                    .tag("db", "mydb")
+                    .timer().getId().getTag("exception")).isNotEqualTo("none");
+        }
+    }
 }
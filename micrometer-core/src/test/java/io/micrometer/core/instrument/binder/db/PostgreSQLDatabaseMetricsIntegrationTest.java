@@ -0,0 +1,100 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.binder.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@Testcontainers
+@Tag("docker")
+class PostgreSQLDatabaseMetricsIntegrationTest {
+    private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(10);
+
+    @Container
+    private PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:13"));
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final MockClock clock = new MockClock();
+    private final PGSimpleDataSource dataSource = new PGSimpleDataSource();
+
+    @BeforeEach
+    void bindMetrics() {
+        dataSource.setURL(postgres.getJdbcUrl());
+        dataSource.setUser(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+
+        new PostgreSQLDatabaseMetrics(dataSource, postgres.getDatabaseName(), Tags.empty(), REFRESH_INTERVAL, clock)
+                .bindTo(registry);
+    }
+
+    @Test
+    void readStatisticsOfTheDatabase() {
+        assertThat(registry.get("postgres.size").gauge().value()).isGreaterThan(0);
+        assertThat(registry.get("postgres.connections").gauge().value()).isGreaterThan(0);
+        assertThat(registry.get("postgres.transactions").functionCounter().count()).isGreaterThan(0);
+        assertThat(registry.get("postgres.blocks.hits").functionCounter().count()).isGreaterThan(0);
+    }
+
+    @Test
+    void metersReadFromOneSnapshotPerRefreshInterval() throws SQLException {
+        double connections = registry.get("postgres.connections").gauge().value();
+
+        try (Connection held = dataSource.getConnection()) {
+            // still served from the snapshot
+            assertThat(registry.get("postgres.connections").gauge().value()).isEqualTo(connections);
+
+            clock.add(REFRESH_INTERVAL);
+            assertThat(registry.get("postgres.connections").gauge().value()).isGreaterThan(connections);
+        }
+    }
+
+    @Test
+    void deadRowsOfAllUserTables() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE first_table (id int)");
+            statement.execute("CREATE TABLE second_table (id int)");
+            statement.execute("INSERT INTO first_table SELECT generate_series(1, 4)");
+            statement.execute("INSERT INTO second_table SELECT generate_series(1, 5)");
+            statement.execute("DELETE FROM first_table");
+            statement.execute("DELETE FROM second_table");
+        }
+
+        // table statistics reach pg_stat_user_tables shortly after the transactions end
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            clock.add(REFRESH_INTERVAL);
+            assertThat(registry.get("postgres.rows.dead").gauge().value()).isEqualTo(9);
+        });
+    }
+}
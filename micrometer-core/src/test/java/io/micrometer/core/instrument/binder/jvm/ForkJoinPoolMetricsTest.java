@@ -0,0 +1,106 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.binder.jvm;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ForkJoinPoolMetrics}.
+ */
+class ForkJoinPoolMetricsTest {
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final ForkJoinPool pool = new ForkJoinPool(1);
+    private final ForkJoinPoolMetrics metrics = new ForkJoinPoolMetrics(pool, "fj", Tags.empty(), Duration.ofHours(1));
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        metrics.close();
+        pool.shutdownNow();
+    }
+
+    @Test
+    void sampleQueueDepth() throws InterruptedException {
+        metrics.bindTo(registry);
+        pool.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 3; i++) {
+            pool.execute(() -> {
+            });
+        }
+
+        metrics.sample();
+
+        DistributionSummary queueDepth = registry.get("executor.queue.depth").tag("name", "fj").summary();
+        assertThat(queueDepth.max()).isEqualTo(3);
+        assertThat(registry.get("executor.saturation").tag("name", "fj").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void compensateForManagedBlocking() throws InterruptedException {
+        metrics.bindTo(registry);
+        pool.execute(() -> {
+            try {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        release.await();
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return release.getCount() == 0;
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // with a parallelism of one, this only runs on a thread started to compensate for the blocked worker
+        CountDownLatch ranOnSpare = new CountDownLatch(1);
+        pool.execute(ranOnSpare::countDown);
+        assertThat(ranOnSpare.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(registry.get("executor.parallelism").tag("name", "fj").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("executor.compensating").tag("name", "fj").gauge().value()).isEqualTo(1);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.binder.jvm;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TimedThreadPoolExecutor}.
+ */
+class TimedThreadPoolExecutorTest {
+    private final MockClock clock = new MockClock();
+    private final MeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+    private final TimedThreadPoolExecutor executor = new TimedThreadPoolExecutor(registry, "exec", Tags.empty(),
+            1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void recordQueueWaitAndRunTime() throws InterruptedException {
+        executor.submit(() -> {
+            release.await();
+            clock.add(1, TimeUnit.SECONDS);
+            return null;
+        });
+        // queued behind the first task for the second it runs
+        executor.execute(() -> clock.add(2, TimeUnit.SECONDS));
+
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+
+        Timer execution = registry.get("executor").tag("name", "exec").timer();
+        Timer idle = registry.get("executor.idle").tag("name", "exec").timer();
+        assertThat(execution.count()).isEqualTo(2);
+        assertThat(execution.totalTime(TimeUnit.SECONDS)).isEqualTo(3);
+        assertThat(idle.count()).isEqualTo(2);
+        assertThat(idle.totalTime(TimeUnit.SECONDS)).isEqualTo(1);
+    }
+
+    @Test
+    void shutdownNowAndRemoveReturnTasksGivenToExecute() {
+        executor.execute(this::awaitRelease);
+        Runnable removed = () -> {
+        };
+        Runnable pending = () -> {
+        };
+        executor.execute(removed);
+        executor.execute(pending);
+
+        assertThat(executor.remove(removed)).isTrue();
+        List<Runnable> notRun = executor.shutdownNow();
+        assertThat(notRun).containsExactly(pending);
+    }
+
+    @Test
+    void rejectedExecutionHandlerReceivesTaskGivenToExecute() {
+        List<Runnable> rejected = new ArrayList<>();
+        RejectedExecutionHandler handler = (task, executor) -> rejected.add(task);
+        TimedThreadPoolExecutor bounded = new TimedThreadPoolExecutor(registry, "bounded", "", Tags.empty(),
+                1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), Executors.defaultThreadFactory(), handler);
+        try {
+            bounded.execute(this::awaitRelease);
+            bounded.execute(() -> {
+            });
+            Runnable overflow = () -> {
+            };
+            bounded.execute(overflow);
+
+            assertThat(rejected).containsExactly(overflow);
+            assertThat(bounded.getRejectedExecutionHandler()).isSameAs(handler);
+        } finally {
+            bounded.shutdownNow();
+        }
+    }
+
+    @Test
+    void executionHooksSeeTaskGivenToExecute() throws InterruptedException {
+        List<Runnable> started = new CopyOnWriteArrayList<>();
+        List<Runnable> finished = new CopyOnWriteArrayList<>();
+        TimedThreadPoolExecutor hooked = new TimedThreadPoolExecutor(registry, "hooked", Tags.empty(),
+                1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            protected void beforeExecute(Thread t, Runnable r) {
+                super.beforeExecute(t, r);
+                started.add(r);
+            }
+
+            @Override
+            protected void afterExecute(Runnable r, Throwable t) {
+                finished.add(r);
+                super.afterExecute(r, t);
+            }
+        };
+        Runnable first = this::awaitRelease;
+        Runnable queued = () -> clock.add(1, TimeUnit.SECONDS);
+        hooked.execute(first);
+        hooked.execute(queued);
+        assertThat(hooked.getQueue()).containsExactly(queued);
+
+        release.countDown();
+        hooked.shutdown();
+        assertThat(hooked.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(started).containsExactly(first, queued);
+        assertThat(finished).containsExactly(first, queued);
+        assertThat(registry.get("executor").tag("name", "hooked").timer().totalTime(TimeUnit.SECONDS)).isEqualTo(1);
+    }
+
+    @Test
+    void discardOldestPolicyKeepsQueuedTimeOfRequeuedTask() throws InterruptedException {
+        RejectedExecutionHandler discardOldest = new ThreadPoolExecutor.DiscardOldestPolicy();
+        TimedThreadPoolExecutor bounded = new TimedThreadPoolExecutor(registry, "bounded", "", Tags.empty(),
+                1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), Executors.defaultThreadFactory(),
+                (task, executor) -> {
+                    // time passes between the task being queued and it being queued again
+                    clock.add(1, TimeUnit.SECONDS);
+                    discardOldest.rejectedExecution(task, executor);
+                });
+        bounded.execute(this::awaitRelease);
+        Runnable discarded = () -> {
+        };
+        Runnable requeued = () -> {
+        };
+        bounded.execute(discarded);
+        bounded.execute(requeued);
+        assertThat(bounded.getQueue()).containsExactly(requeued);
+
+        clock.add(1, TimeUnit.SECONDS);
+        release.countDown();
+        bounded.shutdown();
+        assertThat(bounded.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+
+        Timer idle = registry.get("executor.idle").tag("name", "bounded").timer();
+        assertThat(idle.count()).isEqualTo(2);
+        assertThat(idle.totalTime(TimeUnit.SECONDS)).isEqualTo(2);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
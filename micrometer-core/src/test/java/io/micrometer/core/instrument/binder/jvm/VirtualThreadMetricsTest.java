@@ -0,0 +1,52 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.binder.jvm;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link VirtualThreadMetrics}.
+ */
+class VirtualThreadMetricsTest {
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void registerMetersOnlyWhenVirtualThreadsArePresent() {
+        try (VirtualThreadMetrics metrics = new VirtualThreadMetrics()) {
+            metrics.bindTo(registry);
+
+            if (hasVirtualThreads()) {
+                assertThat(registry.get("jvm.threads.virtual.scheduler.parallelism").gauge().value()).isPositive();
+                assertThat(registry.get("jvm.threads.virtual.pinned").timer().count()).isZero();
+            } else {
+                assertThat(registry.getMeters()).isEmpty();
+            }
+        }
+    }
+
+    private static boolean hasVirtualThreads() {
+        try {
+            Thread.class.getMethod("isVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -19,6 +19,12 @@ import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.MockClock;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class TimeWindowFixedBoundaryHistogramTest {
@@ -69,4 +75,65 @@ class TimeWindowFixedBoundaryHistogramTest {
             );
         }
     }
+
+    @Test
+    void samplesDecayAsRingBufferRotates() {
+        MockClock clock = new MockClock();
+        try (TimeWindowFixedBoundaryHistogram histogram = new TimeWindowFixedBoundaryHistogram(clock,
+                DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(3.0, 6)
+                        .expiry(Duration.ofMinutes(3))
+                        .bufferLength(3)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            histogram.recordDouble(3);
+            clock.add(Duration.ofMinutes(1));
+            histogram.recordDouble(6);
+
+            assertThat(histogram.takeSnapshot(0, 0, 0).histogramCounts()).containsExactly(
+                    new CountAtBucket(3.0, 1),
+                    new CountAtBucket(6.0, 2));
+
+            clock.add(Duration.ofMinutes(2));
+            assertThat(histogram.takeSnapshot(0, 0, 0).histogramCounts()).containsExactly(
+                    new CountAtBucket(3.0, 0),
+                    new CountAtBucket(6.0, 1));
+
+            clock.add(Duration.ofMinutes(1));
+            assertThat(histogram.takeSnapshot(0, 0, 0).histogramCounts()).containsExactly(
+                    new CountAtBucket(3.0, 0),
+                    new CountAtBucket(6.0, 0));
+        }
+    }
+
+    @Test
+    void stripedHistogramCountsSamplesFromAllThreads() throws InterruptedException {
+        try (TimeWindowFixedBoundaryHistogram histogram = new TimeWindowFixedBoundaryHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(3.0, 6)
+                        .stripedHistogram(true)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            int threads = 8;
+            int samplesPerThread = 1000;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch latch = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < samplesPerThread; i++) {
+                        histogram.recordDouble(i % 2 == 0 ? 3 : 6);
+                    }
+                    latch.countDown();
+                });
+            }
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+            executor.shutdown();
+
+            assertThat(histogram.takeSnapshot(0, 0, 0).histogramCounts()).containsExactly(
+                    new CountAtBucket(3.0, threads * samplesPerThread / 2),
+                    new CountAtBucket(6.0, threads * samplesPerThread));
+        }
+    }
 }
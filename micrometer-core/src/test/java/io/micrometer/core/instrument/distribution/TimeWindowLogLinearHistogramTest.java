@@ -0,0 +1,210 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.distribution;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TimeWindowLogLinearHistogramTest {
+
+    @Test
+    void histogramsAreCumulative() {
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(3.0, 6, 7)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            histogram.recordDouble(3);
+
+            assertThat(histogram.takeSnapshot(0, 0, 0).histogramCounts()).containsExactly(
+                    new CountAtBucket(3.0, 1),
+                    new CountAtBucket(6.0, 1),
+                    new CountAtBucket(7.0, 1));
+
+            histogram.recordDouble(6);
+
+            assertThat(histogram.takeSnapshot(0, 0, 0).histogramCounts()).containsExactly(
+                    new CountAtBucket(3.0, 1),
+                    new CountAtBucket(6.0, 2),
+                    new CountAtBucket(7.0, 2));
+        }
+    }
+
+    @Test
+    void percentilesAreWithinRelativeErrorOfPrecision() {
+        // documented bound on the relative error for a precision of 1, 2 and 3
+        double[] maxRelativeErrors = {0.0625, 0.008, 0.001};
+        for (int precision = 1; precision <= 3; precision++) {
+            try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(new MockClock(),
+                    DistributionStatisticConfig.builder()
+                            .percentiles(0.5, 0.9, 0.99)
+                            .percentilePrecision(precision)
+                            // two powers of two, which a precision of 3 can cover within the capped footprint
+                            .minimumExpectedValue(16384.0)
+                            .maximumExpectedValue(65535.0)
+                            .build()
+                            .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+                Random random = new Random(42);
+                double[] samples = new double[10_000];
+                for (int i = 0; i < samples.length; i++) {
+                    samples[i] = Math.exp(0.1 * random.nextGaussian() + 10.4);
+                    histogram.recordDouble(samples[i]);
+                }
+                Arrays.sort(samples);
+
+                double maxRelativeError = maxRelativeErrors[precision - 1];
+                for (ValueAtPercentile percentile : histogram.takeSnapshot(0, 0, 0).percentileValues()) {
+                    double expected = samples[(int) Math.ceil(percentile.percentile() * samples.length) - 1];
+                    assertThat(percentile.value()).isCloseTo(expected, within(expected * maxRelativeError));
+                }
+            }
+        }
+    }
+
+    @Test
+    void samplesOutsideOfExpectedValueRange() {
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .percentiles(0, 1)
+                        .serviceLevelObjectives(1.0, 100.0)
+                        .minimumExpectedValue(2.0)
+                        .maximumExpectedValue(10.0)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            histogram.recordDouble(0);
+            histogram.recordDouble(1);
+            histogram.recordDouble(Double.MAX_VALUE);
+
+            HistogramSnapshot snapshot = histogram.takeSnapshot(0, 0, 0);
+            // samples below the minimum expected value are reported at the upper bound of their counter
+            assertThat(snapshot.percentileValues()[0].value()).isEqualTo(2.0);
+            assertThat(snapshot.percentileValues()[1].value()).isBetween(8.0, 16.0);
+            // samples below the minimum expected value may be up to 2, and above the maximum ones unbounded
+            assertThat(snapshot.histogramCounts()).containsExactly(
+                    new CountAtBucket(1.0, 0),
+                    new CountAtBucket(100.0, 2));
+        }
+    }
+
+    @Test
+    void serviceLevelObjectiveBetweenBucketBoundaries() {
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(3.1, Double.POSITIVE_INFINITY)
+                        .minimumExpectedValue(1.0)
+                        .maximumExpectedValue(10.0)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            // buckets between 2 and 4 are 0.25 wide for a precision of 1, so 3.1 is in (3, 3.25]
+            histogram.recordDouble(3);
+            histogram.recordDouble(3.05);
+            histogram.recordDouble(3.2);
+            histogram.recordDouble(100);
+
+            assertThat(histogram.takeSnapshot(0, 0, 0).histogramCounts()).containsExactly(
+                    new CountAtBucket(3.1, 1),
+                    new CountAtBucket(Double.POSITIVE_INFINITY, 4));
+        }
+    }
+
+    @Test
+    void samplesDecayAsRingBufferRotates() {
+        MockClock clock = new MockClock();
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(clock,
+                DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(3.0, 6)
+                        .expiry(Duration.ofMinutes(3))
+                        .bufferLength(3)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            histogram.recordDouble(3);
+            clock.add(Duration.ofMinutes(1));
+            histogram.recordDouble(6);
+
+            assertThat(histogram.takeSnapshot(0, 0, 0).histogramCounts()).containsExactly(
+                    new CountAtBucket(3.0, 1),
+                    new CountAtBucket(6.0, 2));
+
+            clock.add(Duration.ofMinutes(2));
+            assertThat(histogram.takeSnapshot(0, 0, 0).histogramCounts()).containsExactly(
+                    new CountAtBucket(3.0, 0),
+                    new CountAtBucket(6.0, 1));
+
+            clock.add(Duration.ofMinutes(1));
+            assertThat(histogram.takeSnapshot(0, 0, 0).histogramCounts()).containsExactly(
+                    new CountAtBucket(3.0, 0),
+                    new CountAtBucket(6.0, 0));
+        }
+    }
+
+    @Test
+    void footprintIsBoundedByExpectedValueRange() {
+        DistributionStatisticConfig config = DistributionStatisticConfig.builder()
+                .percentiles(0.5)
+                .build()
+                .merge(DistributionStatisticConfig.DEFAULT);
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(new MockClock(), config, false)) {
+            // unbounded maximum expected value, capped to 256 powers of two with 8 sub-buckets each
+            assertThat(histogram.length()).isEqualTo(1 + 256 * 8);
+            assertThat(TimeWindowLogLinearHistogram.coversExpectedValueRange(config)).isFalse();
+        }
+    }
+
+    @Test
+    void coversDefaultTimerRange() {
+        DistributionStatisticConfig config = DistributionStatisticConfig.builder()
+                .percentiles(0.5)
+                .percentilePrecision(2)
+                .minimumExpectedValue((double) TimeUnit.MILLISECONDS.toNanos(1))
+                .maximumExpectedValue((double) TimeUnit.SECONDS.toNanos(30))
+                .build()
+                .merge(DistributionStatisticConfig.DEFAULT);
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(new MockClock(), config, false)) {
+            // 2^19 to 2^34 nanoseconds with 64 sub-buckets each
+            assertThat(histogram.length()).isEqualTo(1 + 16 * 64);
+            assertThat(TimeWindowLogLinearHistogram.coversExpectedValueRange(config)).isTrue();
+        }
+    }
+
+    @Test
+    void selectedForTimersWithLogLinearPercentiles() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Timer timer = Timer.builder("my.timer")
+                .publishPercentiles(0.5)
+                .logLinearPercentiles(true)
+                .register(registry);
+
+        timer.record(10, TimeUnit.MILLISECONDS);
+
+        assertThat(timer.takeSnapshot().percentileValues()[0].value(TimeUnit.MILLISECONDS))
+                .isCloseTo(10, within(10 * 0.0625));
+    }
+}
@@ -66,4 +66,40 @@ class TimeWindowMaxTest {
         timeWindowMax.record(100500);
         assertThat(timeWindowMax.poll()).isEqualTo(100500); // 666 | 500 | 100500
     }
+
+    @Test
+    void stripedDecaysToZero() {
+        int bufferLength = 3;
+        long rotateFrequencyMillis = Duration.ofMinutes(1).toMillis();
+        timeWindowMax = new TimeWindowMax(clock, rotateFrequencyMillis, bufferLength, true);
+        timeWindowMax.record(100);
+
+        for (int i = 0; i < bufferLength; i++) {
+            assertThat(timeWindowMax.poll()).isEqualTo(100);
+            clock.add(rotateFrequencyMillis, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(timeWindowMax.poll()).isZero();
+    }
+
+    @Test
+    void stripedMaxAcrossThreads() throws InterruptedException {
+        timeWindowMax = new TimeWindowMax(clock, DistributionStatisticConfig.builder()
+                .expiry(Duration.ofMinutes(1))
+                .bufferLength(3)
+                .stripedMax(true)
+                .build());
+
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            int value = (i + 1) * 10;
+            threads[i] = new Thread(() -> timeWindowMax.record(value, TimeUnit.MILLISECONDS));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(timeWindowMax.poll(TimeUnit.MILLISECONDS)).isEqualTo(80);
+    }
 }
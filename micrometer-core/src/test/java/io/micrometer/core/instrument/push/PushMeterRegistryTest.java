@@ -15,7 +15,10 @@
  */
 package io.micrometer.core.instrument.push;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.cumulative.CumulativeCounter;
 import io.micrometer.core.instrument.step.StepMeterRegistry;
 import io.micrometer.core.instrument.step.StepRegistryConfig;
 import io.micrometer.core.instrument.util.NamedThreadFactory;
@@ -23,9 +26,15 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
@@ -73,6 +82,195 @@ class PushMeterRegistryTest {
         assertThatCode(() -> pushMeterRegistry.close()).doesNotThrowAnyException();
     }
 
+    @Test
+    void publishBatchesConcurrently() throws InterruptedException {
+        BatchingPushMeterRegistry registry = new BatchingPushMeterRegistry(3);
+        for (int i = 0; i < 6; i++) {
+            registry.counter("counter" + i);
+        }
+        registry.start(threadFactory);
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<String> published = new CopyOnWriteArrayList<>();
+        CountDownLatch allStarted = new CountDownLatch(3);
+        registry.publishBatches(batch -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            allStarted.countDown();
+            try {
+                allStarted.await(1, TimeUnit.SECONDS);
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batch.forEach(m -> published.add(m.getId().getName()));
+            inFlight.decrementAndGet();
+        });
+        registry.close();
+
+        // the push.batch timer registered by the first batch may or may not be published along with the counters
+        assertThat(published.stream().filter(name -> name.startsWith("counter")))
+                .containsExactlyInAnyOrder("counter0", "counter1", "counter2", "counter3", "counter4", "counter5");
+        assertThat(maxInFlight.get()).isEqualTo(3);
+        registry.clock.add(Duration.ofMinutes(1));
+        assertThat(registry.get("push.batch").timer().count()).isEqualTo(published.size());
+    }
+
+    @Test
+    void publishBatchesOnCallingThreadWhenNotStarted() {
+        BatchingPushMeterRegistry registry = new BatchingPushMeterRegistry(3);
+        registry.counter("counter1");
+        registry.counter("counter2");
+
+        List<Thread> threads = new ArrayList<>();
+        List<String> published = new ArrayList<>();
+        registry.publishBatches(batch -> {
+            threads.add(Thread.currentThread());
+            batch.forEach(m -> published.add(m.getId().getName()));
+            throw new RuntimeException("the next batch is still published");
+        });
+
+        // the push.batch timer registered by the first batch may or may not be published along with the counters
+        assertThat(published).contains("counter1", "counter2");
+        assertThat(threads).containsOnly(Thread.currentThread());
+    }
+
+    @Test
+    void publishOffsetIsStablePerInstanceAndSpreadAcrossInstances() {
+        Set<Long> offsets = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            long offset = PushMeterRegistry.publishOffsetMillis("1@pod-" + i, 30_000);
+            assertThat(offset).isEqualTo(PushMeterRegistry.publishOffsetMillis("1@pod-" + i, 30_000));
+            assertThat(offset >= 0 && offset < 30_000).isTrue();
+            offsets.add(offset / 3_000);
+        }
+        // neighbouring pod names land in every tenth of the jitter window
+        assertThat(offsets).hasSize(10);
+
+        assertThat(PushMeterRegistry.publishOffsetMillis("1@pod-0", 0)).isEqualTo(0L);
+    }
+
+    @Test
+    void overrunningPublishesAreCounted() {
+        SlowPushMeterRegistry registry = new SlowPushMeterRegistry(false);
+
+        // every publish takes a step and a half, so the scheduled publishes queue up behind each other
+        for (int i = 0; i < 4; i++) {
+            publishOnSchedule(registry);
+        }
+
+        assertThat(registry.publishes).isEqualTo(4);
+        assertThat(registry.get("push.publish.overrun").counter().count()).isEqualTo(4.0);
+        assertThat(registry.find("push.publish.skipped").counter()).isNull();
+    }
+
+    @Test
+    void latePublishesAreSkippedWhenConfigured() {
+        SlowPushMeterRegistry registry = new SlowPushMeterRegistry(true);
+
+        // due at 0, 1, 2 and 3 minutes, starting at 0, 1.5, 3 and 3 minutes: the third is a whole step late
+        for (int i = 0; i < 4; i++) {
+            publishOnSchedule(registry);
+        }
+
+        assertThat(registry.publishes).isEqualTo(3);
+        assertThat(registry.get("push.publish.overrun").counter().count()).isEqualTo(3.0);
+        assertThat(registry.get("push.publish.skipped").counter().count()).isEqualTo(1.0);
+    }
+
+    private static void publishOnSchedule(PushMeterRegistry registry) {
+        // not inherited by name through StepMeterRegistry, which lives in another package
+        registry.publishOnSchedule();
+    }
+
+    static class SlowPushMeterRegistry extends StepMeterRegistry {
+        final MockClock clock;
+        int publishes;
+
+        SlowPushMeterRegistry(boolean skipLatePublishes) {
+            this(skipLatePublishes, new MockClock());
+        }
+
+        private SlowPushMeterRegistry(boolean skipLatePublishes, MockClock clock) {
+            super(new StepRegistryConfig() {
+                @Override
+                public String prefix() {
+                    return "slow";
+                }
+
+                @Override
+                public String get(String key) {
+                    return null;
+                }
+
+                @Override
+                public boolean skipLatePublishes() {
+                    return skipLatePublishes;
+                }
+            }, clock);
+            this.clock = clock;
+        }
+
+        @Override
+        protected void publish() {
+            publishes++;
+            clock.add(Duration.ofSeconds(90));
+        }
+
+        @Override
+        protected Counter newCounter(Meter.Id id) {
+            // so that counts don't depend on which step they're read in
+            return new CumulativeCounter(id);
+        }
+
+        @Override
+        protected TimeUnit getBaseTimeUnit() {
+            return TimeUnit.MILLISECONDS;
+        }
+    }
+
+    static class BatchingPushMeterRegistry extends StepMeterRegistry {
+        final MockClock clock;
+
+        BatchingPushMeterRegistry(int batchConcurrency) {
+            this(batchConcurrency, new MockClock());
+        }
+
+        private BatchingPushMeterRegistry(int batchConcurrency, MockClock clock) {
+            super(new StepRegistryConfig() {
+                @Override
+                public String prefix() {
+                    return "batching";
+                }
+
+                @Override
+                public String get(String key) {
+                    return null;
+                }
+
+                @Override
+                public int batchSize() {
+                    return 1;
+                }
+
+                @Override
+                public int batchConcurrency() {
+                    return batchConcurrency;
+                }
+            }, clock);
+            this.clock = clock;
+        }
+
+        @Override
+        protected void publish() {
+        }
+
+        @Override
+        protected TimeUnit getBaseTimeUnit() {
+            return TimeUnit.MILLISECONDS;
+        }
+    }
+
     static class ThrowingPushMeterRegistry extends StepMeterRegistry {
 
         final CountDownLatch countDownLatch;
@@ -67,6 +67,23 @@ class PushRegistryConfigTest {
         assertThatThrownBy(config::batchSize).isInstanceOf(ValidationException.class);
     }
 
+    @Test
+    void invalidBatchConcurrency() {
+        props.put("push.batchConcurrency", "0");
+
+        assertThat(config.validate().failures().stream().map(Validated.Invalid::getMessage))
+                .containsExactly("must be at least 1");
+    }
+
+    @Test
+    void invalidPublishJitter() {
+        props.put("push.step", "10s");
+        props.put("push.publishJitter", "10s");
+
+        assertThat(config.validate().failures().stream().map(Validated.Invalid::getMessage))
+                .containsExactly("must be less than the step");
+    }
+
     @Test
     void valid() {
         props.put("push.numThreads", "1");
@@ -74,6 +91,7 @@ class PushRegistryConfigTest {
         props.put("push.readTimeout", "1s");
         props.put("push.batchSize", "3");
         props.put("push.step", "1s");
+        props.put("push.publishJitter", "500ms");
 
         assertThat(config.validate().isValid()).isTrue();
     }
@@ -20,6 +20,7 @@ import io.micrometer.core.instrument.*;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -161,4 +162,137 @@ class StepMeterRegistryTest {
             softly.assertThat(timerStep1Length6.max(MILLISECONDS)).isEqualTo(0L);
         });
     }
+
+    @Test
+    void startedRegistryRollsStepsWithTheClock() {
+        List<Double> published = new ArrayList<>();
+        StepMeterRegistry started = new StepMeterRegistry(config, clock) {
+            @Override
+            protected void publish() {
+                published.add(get("counter").counter().count());
+            }
+
+            @Override
+            protected TimeUnit getBaseTimeUnit() {
+                return TimeUnit.SECONDS;
+            }
+        };
+        Counter counter = started.counter("counter");
+        started.start(Thread::new);
+
+        counter.increment();
+        clock.add(config.step());
+        // counted in the step that has just started, although no publish has happened since the boundary
+        counter.increment(10);
+        assertThat(counter.count()).isEqualTo(1.0);
+
+        clock.add(config.step());
+        started.close();
+        assertThat(published).containsExactly(10.0);
+    }
+
+    @Test
+    void idleMetersAreSkippedExceptOnHeartbeat() {
+        IdleSkippingStepMeterRegistry idleSkipping = new IdleSkippingStepMeterRegistry(clock);
+        Counter active = idleSkipping.counter("active");
+        idleSkipping.counter("idle");
+        idleSkipping.timer("idle.timer");
+        idleSkipping.summary("idle.summary");
+        idleSkipping.gauge("gauge", 1.0);
+
+        // step 1, with meters only polled once per step as a publish does
+        clock.add(config.step());
+        assertThat(idleSkipping.publishMeterNames()).containsExactlyInAnyOrder("gauge");
+        active.increment();
+
+        clock.add(config.step());
+        assertThat(idleSkipping.publishMeterNames()).containsExactlyInAnyOrder("active", "gauge");
+
+        clock.add(config.step());
+        assertThat(idleSkipping.publishMeterNames()).containsExactlyInAnyOrder("gauge");
+
+        clock.add(config.step());
+        assertThat(idleSkipping.publishMeterNames()).containsExactlyInAnyOrder("gauge");
+
+        // step 5 is a heartbeat with the default of 5 minutes
+        clock.add(config.step());
+        assertThat(idleSkipping.publishMeterNames())
+                .containsExactlyInAnyOrder("active", "idle", "idle.timer", "idle.summary", "gauge");
+    }
+
+    @Test
+    void stepLongerThanDefaultIdleMeterHeartbeat() {
+        StepRegistryConfig tenMinuteStep = new StepRegistryConfig() {
+            @Override
+            public String prefix() {
+                return "test";
+            }
+
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public Duration step() {
+                return Duration.ofMinutes(10);
+            }
+        };
+
+        new StepMeterRegistry(tenMinuteStep, clock) {
+            @Override
+            protected void publish() {
+            }
+
+            @Override
+            protected TimeUnit getBaseTimeUnit() {
+                return TimeUnit.SECONDS;
+            }
+        }.close();
+
+        assertThat(tenMinuteStep.idleMeterHeartbeat()).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    private static class IdleSkippingStepMeterRegistry extends StepMeterRegistry {
+        private final List<String> published = new ArrayList<>();
+
+        IdleSkippingStepMeterRegistry(Clock clock) {
+            super(new StepRegistryConfig() {
+                @Override
+                public String prefix() {
+                    return "idle";
+                }
+
+                @Override
+                public String get(String key) {
+                    return null;
+                }
+
+                @Override
+                public boolean skipIdleMeters() {
+                    return true;
+                }
+            }, clock);
+        }
+
+        List<String> publishMeterNames() {
+            published.clear();
+            publish();
+            return published;
+        }
+
+        @Override
+        protected void publish() {
+            publishBatches(batch -> batch.stream()
+                    .map(meter -> meter.getId().getName())
+                    // the registry's own push.batch timer
+                    .filter(name -> !name.startsWith("push."))
+                    .forEach(published::add));
+        }
+
+        @Override
+        protected TimeUnit getBaseTimeUnit() {
+            return TimeUnit.SECONDS;
+        }
+    }
 }
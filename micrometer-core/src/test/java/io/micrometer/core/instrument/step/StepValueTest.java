@@ -65,4 +65,43 @@ class StepValueTest {
         clock.add(Duration.ofMillis(60));
         assertThat(stepValue.poll()).isEqualTo(24L);
     }
+
+    @Test
+    void pollWithEpochFollowsTheClock() {
+        StepEpoch epoch = new StepEpoch(clock, 60);
+        StepLong stepValue = new StepLong(epoch);
+
+        stepValue.getCurrent().add(42);
+        clock.add(Duration.ofMillis(60));
+        assertThat(stepValue.poll()).isEqualTo(42L);
+
+        clock.add(Duration.ofMillis(60));
+        assertThat(stepValue.poll()).isEqualTo(0L);
+    }
+
+    @Test
+    void recordingAfterStepBoundaryCountsInTheNewStep() {
+        StepEpoch epoch = new StepEpoch(clock, 60);
+        StepLong stepValue = new StepLong(epoch);
+
+        stepValue.rollBeforeRecording();
+        stepValue.getCurrent().add(1);
+        clock.add(Duration.ofMillis(60));
+        // nothing polled at the boundary, e.g. because the publish is jittered into the step
+        stepValue.rollBeforeRecording();
+        stepValue.getCurrent().add(10);
+
+        assertThat(stepValue.poll()).isEqualTo(1L);
+        clock.add(Duration.ofMillis(60));
+        assertThat(stepValue.poll()).isEqualTo(10L);
+    }
+
+    @Test
+    void epochNeverMovesBackwards() {
+        StepEpoch epoch = new StepEpoch(clock, 60);
+        clock.add(Duration.ofMillis(120));
+        assertThat(epoch.advance()).isEqualTo(2L);
+        assertThat(epoch.advance()).isEqualTo(2L);
+        assertThat(epoch.current()).isEqualTo(2L);
+    }
 }
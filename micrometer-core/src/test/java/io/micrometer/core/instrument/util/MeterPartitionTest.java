@@ -0,0 +1,80 @@
+/**
+ * Copyright 2021 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.util;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MeterPartitionTest {
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void forEachPartition() {
+        for (int i = 0; i < 5; i++) {
+            registry.counter("counter" + i);
+        }
+
+        List<List<Meter>> partitions = new ArrayList<>();
+        MeterPartition.forEachPartition(registry, 2, partition -> partitions.add(new ArrayList<>(partition)));
+
+        assertThat(partitions).hasSize(3);
+        assertThat(partitions.get(0)).hasSize(2);
+        assertThat(partitions.get(1)).hasSize(2);
+        assertThat(partitions.get(2)).hasSize(1);
+
+        List<Meter> meters = new ArrayList<>();
+        partitions.forEach(meters::addAll);
+        assertThat(meters).containsExactlyInAnyOrder(registry.getMeters().toArray(new Meter[0]));
+    }
+
+    @Test
+    void forEachPartitionLeavesOutFilteredMeters() {
+        registry.counter("a1");
+        registry.counter("b");
+        registry.counter("a2");
+        registry.counter("a3");
+
+        List<List<Meter>> partitions = new ArrayList<>();
+        MeterPartition.forEachPartition(registry, 2, meter -> meter.getId().getName().startsWith("a"),
+                partition -> partitions.add(new ArrayList<>(partition)));
+
+        assertThat(partitions).hasSize(2);
+        assertThat(partitions.get(0)).hasSize(2);
+        assertThat(partitions.get(1)).hasSize(1);
+    }
+
+    @Test
+    void forEachPartitionOfEmptyRegistry() {
+        List<List<Meter>> partitions = new ArrayList<>();
+        MeterPartition.forEachPartition(registry, 2, partition -> partitions.add(new ArrayList<>(partition)));
+
+        assertThat(partitions).isEmpty();
+    }
+
+    @Test
+    void forEachPartitionRejectsEmptyPartitions() {
+        assertThatThrownBy(() -> MeterPartition.forEachPartition(registry, 0, partition -> {
+        })).hasMessage("partitionSize < 1");
+    }
+}
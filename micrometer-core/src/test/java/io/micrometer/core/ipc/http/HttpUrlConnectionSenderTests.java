@@ -21,6 +21,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import ru.lanwen.wiremock.ext.WiremockResolver;
 
 import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
@@ -38,4 +39,16 @@ class HttpUrlConnectionSenderTests {
         assertThatExceptionOfType(SocketTimeoutException.class)
                 .isThrownBy(() -> httpSender.post(server.baseUrl() + "/metrics").send());
     }
+
+    @Test
+    void streamingContent(@WiremockResolver.Wiremock WireMockServer server) throws Throwable {
+        server.stubFor(any(urlEqualTo("/metrics")));
+
+        httpSender.post(server.baseUrl() + "/metrics")
+                .withContent("text/plain", out -> out.write("streamed".getBytes(StandardCharsets.UTF_8)))
+                .send();
+
+        server.verify(postRequestedFor(urlEqualTo("/metrics"))
+                .withRequestBody(equalTo("streamed")));
+    }
 }
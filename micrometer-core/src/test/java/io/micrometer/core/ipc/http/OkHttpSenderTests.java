@@ -22,6 +22,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import ru.lanwen.wiremock.ext.WiremockResolver;
 
 import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
@@ -51,4 +52,16 @@ class OkHttpSenderTests {
         server.verify(postRequestedFor(urlEqualTo("/metrics"))
                 .withHeader("Content-Type", equalTo("application/xml; charset=utf-8")));
     }
+
+    @Test
+    void streamingContent(@WiremockResolver.Wiremock WireMockServer server) throws Throwable {
+        server.stubFor(any(urlEqualTo("/metrics")));
+
+        httpSender.post(server.baseUrl() + "/metrics")
+                .withContent("text/plain", out -> out.write("streamed".getBytes(StandardCharsets.UTF_8)))
+                .send();
+
+        server.verify(postRequestedFor(urlEqualTo("/metrics"))
+                .withRequestBody(equalTo("streamed")));
+    }
 }
@@ -24,6 +24,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import reactor.netty.http.client.HttpClient;
 import ru.lanwen.wiremock.ext.WiremockResolver;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
@@ -44,4 +47,29 @@ class ReactorNettySenderTests {
         assertThatExceptionOfType(ReadTimeoutException.class)
                 .isThrownBy(() -> httpSender.post(server.baseUrl() + "/metrics").send());
     }
+
+    @Test
+    void streamingContent(@WiremockResolver.Wiremock WireMockServer server) throws Throwable {
+        server.stubFor(any(urlEqualTo("/metrics")));
+
+        httpSender.post(server.baseUrl() + "/metrics")
+                .withContent("text/plain", out -> out.write("streamed".getBytes(StandardCharsets.UTF_8)))
+                .send();
+
+        server.verify(postRequestedFor(urlEqualTo("/metrics"))
+                .withRequestBody(equalTo("streamed")));
+    }
+
+    @Test
+    void streamingContentLargerThanOneChunk(@WiremockResolver.Wiremock WireMockServer server) throws Throwable {
+        server.stubFor(any(urlEqualTo("/metrics")));
+        String body = String.join("\n", Collections.nCopies(10_000, "my.counter value=1"));
+
+        httpSender.post(server.baseUrl() + "/metrics")
+                .withPlainText(HttpSender.Request.EntityWriter.joining(Arrays.stream(body.split("\n")), "\n", "", ""))
+                .send();
+
+        server.verify(postRequestedFor(urlEqualTo("/metrics"))
+                .withRequestBody(equalTo(body)));
+    }
 }
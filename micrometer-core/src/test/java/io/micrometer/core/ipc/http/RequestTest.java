@@ -15,9 +15,15 @@
  */
 package io.micrometer.core.ipc.http;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.Test;
 
@@ -43,4 +49,75 @@ class RequestTest {
         assertThat(requestHeaders).containsEntry("Content-Encoding", "gzip");
     }
 
+    @Test
+    void streamingContentIsWrittenWhenSent() throws Throwable {
+        HttpSender.Request[] sent = new HttpSender.Request[1];
+        HttpSender sender = request -> {
+            sent[0] = request;
+            return new HttpSender.Response(200, null);
+        };
+
+        HttpSender.Request.build("https://micrometer.io/", sender)
+                .withContent("text/plain", out -> out.write("streamed".getBytes(StandardCharsets.UTF_8)))
+                .send();
+
+        assertThat(sent[0].getEntityWriter()).isNotNull();
+        assertThat(sent[0].getRequestHeaders()).containsEntry("Content-Type", "text/plain");
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        sent[0].writeEntity(written);
+        assertThat(new String(written.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("streamed");
+        assertThat(new String(sent[0].getEntity(), StandardCharsets.UTF_8)).isEqualTo("streamed");
+    }
+
+    @Test
+    void compressStreamingContentAsItIsWritten() throws Throwable {
+        HttpSender.Request[] sent = new HttpSender.Request[1];
+        HttpSender sender = request -> {
+            sent[0] = request;
+            return new HttpSender.Response(200, null);
+        };
+
+        HttpSender.Request.build("https://micrometer.io/", sender)
+                .withContent("text/plain", out -> out.write("streamed".getBytes(StandardCharsets.UTF_8)))
+                .compress()
+                .send();
+
+        assertThat(sent[0].getRequestHeaders()).containsEntry("Content-Encoding", "gzip");
+        ByteArrayOutputStream uncompressed = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(sent[0].getEntity()))) {
+            byte[] buffer = new byte[64];
+            for (int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+                uncompressed.write(buffer, 0, read);
+            }
+        }
+        assertThat(new String(uncompressed.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("streamed");
+    }
+
+    @Test
+    void joiningWritesPartsLikeCollectorsJoining() {
+        HttpSender.Request.EntityWriter joined = HttpSender.Request.EntityWriter.joining(
+                Stream.of("a", "b", "c"), ",", "[", "]");
+        HttpSender.Request.EntityWriter empty = HttpSender.Request.EntityWriter.joining(Stream.empty(), ",", "[", "]");
+
+        assertThat(new String(joined.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("[a,b,c]");
+        assertThat(new String(empty.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    @Test
+    void joiningConsumesPartsOnceHoweverOftenTheBodyIsWritten() throws IOException {
+        AtomicInteger produced = new AtomicInteger();
+        HttpSender.Request.EntityWriter joined = HttpSender.Request.EntityWriter.joining(
+                Stream.of("a", "b").peek(part -> produced.incrementAndGet()), ",", "", "");
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        joined.write(first);
+        ByteArrayOutputStream retried = new ByteArrayOutputStream();
+        joined.write(retried);
+
+        assertThat(new String(joined.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("a,b");
+        assertThat(new String(first.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("a,b");
+        assertThat(new String(retried.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("a,b");
+        assertThat(produced.get()).isEqualTo(2);
+    }
+
 }
@@ -15,7 +15,9 @@
  */
 package io.micrometer.jersey2.server;
 
+import io.micrometer.core.instrument.MeterProvider;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.glassfish.jersey.server.monitoring.ApplicationEvent;
 import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
 import org.glassfish.jersey.server.monitoring.RequestEvent;
@@ -36,6 +38,7 @@ public class MetricsApplicationEventListener implements ApplicationEventListener
     private final String metricName;
     private final AnnotationFinder annotationFinder;
     private final boolean autoTimeRequests;
+    private final MeterProvider<Timer> requestTimers;
 
     public MetricsApplicationEventListener(MeterRegistry registry, JerseyTagsProvider tagsProvider, String metricName,
                                            boolean autoTimeRequests) {
@@ -50,6 +53,7 @@ public class MetricsApplicationEventListener implements ApplicationEventListener
         this.metricName = requireNonNull(metricName);
         this.annotationFinder = requireNonNull(annotationFinder);
         this.autoTimeRequests = autoTimeRequests;
+        this.requestTimers = Timer.builder(metricName).withRegistry(registry);
     }
 
     @Override
@@ -58,6 +62,7 @@ public class MetricsApplicationEventListener implements ApplicationEventListener
 
     @Override
     public RequestEventListener onRequest(RequestEvent requestEvent) {
-        return new MetricsRequestEventListener(meterRegistry, tagsProvider, metricName, autoTimeRequests, annotationFinder);
+        return new MetricsRequestEventListener(meterRegistry, tagsProvider, metricName, autoTimeRequests, annotationFinder,
+                requestTimers);
     }
 }
@@ -17,6 +17,7 @@ package io.micrometer.jersey2.server;
 
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterProvider;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.glassfish.jersey.server.ContainerRequest;
@@ -52,14 +53,23 @@ public class MetricsRequestEventListener implements RequestEventListener {
     private boolean autoTimeRequests;
     private final TimedFinder timedFinder;
     private final String metricName;
+    private final MeterProvider<Timer> requestTimers;
 
     public MetricsRequestEventListener(MeterRegistry registry, JerseyTagsProvider tagsProvider,
                                        String metricName, boolean autoTimeRequests, AnnotationFinder annotationFinder) {
+        this(registry, tagsProvider, metricName, autoTimeRequests, annotationFinder,
+                Timer.builder(requireNonNull(metricName)).withRegistry(requireNonNull(registry)));
+    }
+
+    MetricsRequestEventListener(MeterRegistry registry, JerseyTagsProvider tagsProvider, String metricName,
+                                boolean autoTimeRequests, AnnotationFinder annotationFinder,
+                                MeterProvider<Timer> requestTimers) {
         this.registry = requireNonNull(registry);
         this.tagsProvider = requireNonNull(tagsProvider);
         this.metricName = requireNonNull(metricName);
         this.autoTimeRequests = autoTimeRequests;
         this.timedFinder = new TimedFinder(annotationFinder);
+        this.requestTimers = requireNonNull(requestTimers);
     }
 
     @Override
@@ -110,7 +120,7 @@ public class MetricsRequestEventListener implements RequestEventListener {
          * instrumentation.
          */
         if ((timed == null || timed.isEmpty()) && autoTimeRequests) {
-            return Collections.singleton(registry.timer(metricName, tagsProvider.httpRequestTags(event)));
+            return Collections.singleton(requestTimers.withTags(tagsProvider.httpRequestTags(event)));
         }
 
         if (timed == null) {